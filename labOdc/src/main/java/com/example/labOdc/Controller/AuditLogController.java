@@ -1,8 +1,10 @@
 package com.example.labOdc.Controller;
 
 import com.example.labOdc.APi.ApiResponse;
-import com.example.labOdc.Service.LabAdminService;
+import com.example.labOdc.DTO.Response.AuditLogPageResponse;
+import com.example.labOdc.Service.AuditLogService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,19 +12,27 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/audit-logs")
 @RequiredArgsConstructor
 public class AuditLogController {
 
-    private final LabAdminService labAdminService;
+    private final AuditLogService auditLogService;
 
+    // Mới nhất trước; trang sau: truyền lại nextCursor
     @GetMapping
     @PreAuthorize("hasRole('SYSTEM_ADMIN')")
-    public ApiResponse<List<String>> getAuditLogs(@RequestParam(required = false) String filter) {
-        List<String> logs = labAdminService.getAuditLogs(filter);
-        return ApiResponse.success(logs, "OK", HttpStatus.OK);
+    public ApiResponse<AuditLogPageResponse> getAuditLogs(
+            @RequestParam(required = false) String actorId,
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) String entityId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        AuditLogPageResponse page = auditLogService.search(actorId, entityType, entityId, from, to, cursor, limit);
+        return ApiResponse.success(page, "OK", HttpStatus.OK);
     }
-}
\ No newline at end of file
+}
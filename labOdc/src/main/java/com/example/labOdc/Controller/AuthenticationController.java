@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.RestController;
 import com.example.labOdc.APi.ApiResponse;
 import com.example.labOdc.DTO.AuthenticationRequest;
 import com.example.labOdc.DTO.IntrospectRequest;
+import com.example.labOdc.DTO.LogoutRequest;
 import com.example.labOdc.DTO.Response.AutheticationResponse;
 import com.example.labOdc.DTO.Response.IntrospectResponse;
 import com.example.labOdc.Service.Implement.AuthenticationSvc;
@@ -45,4 +46,14 @@ public class AuthenticationController {
 
         return ApiResponse.success(result, "success", HttpStatus.OK);
     }
+
+    @PostMapping("/logout")
+    public ApiResponse<Void> logout(
+            @RequestBody LogoutRequest request)
+            throws ParseException, JOSEException {
+
+        authenticationSvc.logout(request);
+
+        return ApiResponse.success(null, "success", HttpStatus.OK);
+    }
 }
@@ -1,13 +1,14 @@
 package com.example.labOdc.Controller;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import com.example.labOdc.DTO.ImportResult;
-import com.example.labOdc.Service.Implement.MentorExcelImportService;
-import com.example.labOdc.Service.Implement.TalentExcelImportService;
+import com.example.labOdc.APi.ApiResponse;
+import com.example.labOdc.DTO.Response.ImportJobResponse;
+import com.example.labOdc.Model.ImportJob;
+import com.example.labOdc.Service.Implement.ImportJobService;
 
 import jakarta.annotation.security.PermitAll;
 import lombok.RequiredArgsConstructor;
@@ -18,20 +19,32 @@ import lombok.RequiredArgsConstructor;
 @PermitAll
 public class ExcelImportController {
 
-    private final MentorExcelImportService mentorImportService;
-    private final TalentExcelImportService talentImportService;
+    private final ImportJobService importJobService;
 
+    // Trả job id ngay (202), import chạy nền; theo dõi qua GET /jobs/{id}
     @PostMapping(value = "/mentor", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<ImportResult> importMentorExcel(
+    public ApiResponse<ImportJobResponse> importMentorExcel(
             @RequestParam("file") MultipartFile file) throws Exception {
 
-        return ResponseEntity.ok(mentorImportService.importMentor(file));
+        ImportJobResponse job = importJobService.submit(ImportJob.Type.MENTOR, file);
+        return ApiResponse.success(job, "Import queued", HttpStatus.ACCEPTED);
     }
 
     @PostMapping(value = "/talent", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<ImportResult> importTalentExcel(
+    public ApiResponse<ImportJobResponse> importTalentExcel(
             @RequestParam("file") MultipartFile file) throws Exception {
 
-        return ResponseEntity.ok(talentImportService.importTalent(file));
+        ImportJobResponse job = importJobService.submit(ImportJob.Type.TALENT, file);
+        return ApiResponse.success(job, "Import queued", HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ApiResponse<ImportJobResponse> getJob(@PathVariable String id) {
+        return ApiResponse.success(importJobService.get(id), "OK", HttpStatus.OK);
+    }
+
+    @PostMapping("/jobs/{id}/cancel")
+    public ApiResponse<ImportJobResponse> cancelJob(@PathVariable String id) {
+        return ApiResponse.success(importJobService.cancel(id), "Cancel requested", HttpStatus.OK);
     }
 }
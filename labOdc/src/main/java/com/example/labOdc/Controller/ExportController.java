@@ -0,0 +1,67 @@
+package com.example.labOdc.Controller;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.labOdc.Service.ExportService;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * Tải dữ liệu dạng .xlsx: không dựng sẵn trong bộ nhớ, nhưng byte chỉ bắt đầu gửi sau khi quét xong DB
+ * (xem ExportServiceImpl). Timeout async riêng cho các endpoint này: app.export.async-timeout-ms.
+ */
+@RestController
+@AllArgsConstructor
+@RequestMapping("/api/v1/exports")
+public class ExportController {
+
+    private static final MediaType XLSX = MediaType
+            .parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+    private final ExportService exportService;
+
+    @GetMapping("/tasks")
+    @PreAuthorize("hasAnyRole('SYSTEM_ADMIN','LAB_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportTasks(
+            @RequestParam(required = false) String projectId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return xlsx("tasks.xlsx", out -> exportService.exportTasks(projectId, from, to, out));
+    }
+
+    @GetMapping("/evaluations")
+    @PreAuthorize("hasAnyRole('SYSTEM_ADMIN','LAB_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportEvaluations(
+            @RequestParam(required = false) String projectId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return xlsx("evaluations.xlsx", out -> exportService.exportEvaluations(projectId, from, to, out));
+    }
+
+    @GetMapping("/contributions")
+    @PreAuthorize("hasAnyRole('SYSTEM_ADMIN','LAB_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportContributions(
+            @RequestParam(required = false) String projectId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return xlsx("contributions.xlsx", out -> exportService.exportContributions(projectId, from, to, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> xlsx(String fileName, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(XLSX)
+                .body(body);
+    }
+}
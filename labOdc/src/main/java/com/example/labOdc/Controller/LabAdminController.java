@@ -20,6 +20,7 @@ import org.springframework.web.bind.annotation.RestController;
 import com.example.labOdc.APi.ApiResponse;
 import com.example.labOdc.DTO.LabAdminDTO;
 import com.example.labOdc.DTO.Response.CompanyResponse;
+import com.example.labOdc.DTO.Response.FinancialSummaryResponse;
 import com.example.labOdc.DTO.Response.LabAdminResponse;
 import com.example.labOdc.DTO.Response.ProjectResponse;
 import com.example.labOdc.Service.LabAdminService;
@@ -207,4 +208,34 @@ public ApiResponse<LabAdminResponse> createLabAdmin(
         return ApiResponse.success("Mentor invitation rejected", "OK", HttpStatus.OK);
     }
 
+    /**
+     * Tóm tắt tài chính toàn hệ thống.
+     * Service: LabAdminService.getSystemFinancialSummary() - đọc 1 dòng tổng hợp.
+     */
+    @GetMapping("/financial-summary")
+    @PreAuthorize("hasAnyRole('SYSTEM_ADMIN', 'LAB_ADMIN')")
+    public ApiResponse<FinancialSummaryResponse> getSystemFinancialSummary() {
+        return ApiResponse.success(labAdminService.getSystemFinancialSummary(), "OK", HttpStatus.OK);
+    }
+
+    /**
+     * Tóm tắt tài chính theo công ty.
+     * @param companyId ID công ty
+     */
+    @GetMapping("/financial-summary/companies/{companyId}")
+    @PreAuthorize("hasAnyRole('SYSTEM_ADMIN', 'LAB_ADMIN')")
+    public ApiResponse<FinancialSummaryResponse> getCompanyFinancialSummary(@PathVariable String companyId) {
+        return ApiResponse.success(labAdminService.getCompanyFinancialSummary(companyId), "OK", HttpStatus.OK);
+    }
+
+    /**
+     * Tóm tắt tài chính theo dự án.
+     * @param projectId ID dự án
+     */
+    @GetMapping("/financial-summary/projects/{projectId}")
+    @PreAuthorize("hasAnyRole('SYSTEM_ADMIN', 'LAB_ADMIN')")
+    public ApiResponse<FinancialSummaryResponse> getProjectFinancialSummary(@PathVariable String projectId) {
+        return ApiResponse.success(labAdminService.getProjectFinancialSummary(projectId), "OK", HttpStatus.OK);
+    }
+
 }
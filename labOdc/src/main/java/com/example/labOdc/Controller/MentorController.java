@@ -1,6 +1,7 @@
 package com.example.labOdc.Controller;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -174,14 +175,16 @@ public class MentorController {
   
     /**
      * Phân tích nhiệm vụ từ template Excel.
+     * Trả CompletableFuture: thread Tomcat được nhả ra trong lúc tải file từ URL.
      * @param projectId ID dự án
-     * @param excelTemplate Template Excel
+     * @param excelTemplate URL template Excel
      */
     @PostMapping("/tasks/breakdown/{projectId}")
     @PreAuthorize("hasRole('MENTOR')")
-    public ApiResponse<String> breakdownTasks(@PathVariable String projectId, @RequestParam String excelTemplate) {
-        mentorService.breakdownTasks(projectId, excelTemplate);
-        return ApiResponse.success("Tasks broken down", "OK", HttpStatus.OK);
+    public CompletableFuture<ApiResponse<String>> breakdownTasks(@PathVariable String projectId,
+            @RequestParam String excelTemplate) {
+        return mentorService.breakdownTasks(projectId, excelTemplate)
+                .thenApply(done -> ApiResponse.success("Tasks broken down", "OK", HttpStatus.OK));
     }
 
     /**
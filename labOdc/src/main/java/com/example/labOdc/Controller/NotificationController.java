@@ -1,10 +1,14 @@
 package com.example.labOdc.Controller;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.example.labOdc.APi.ApiResponse;
 import com.example.labOdc.DTO.BroadcastNotificationRequest;
@@ -28,6 +32,13 @@ public class NotificationController {
         return ApiResponse.success(list.stream().map(NotificationResponse::fromEntity).toList(), "OK", HttpStatus.OK);
     }
 
+    // Client mở 1 lần, server đẩy thông báo mới + số chưa đọc thay cho polling
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public SseEmitter stream() {
+        return notificationService.subscribeMyStream();
+    }
+
     @GetMapping("/unread-count")
     @PreAuthorize("isAuthenticated()")
     public ApiResponse<Long> unreadCount() {
@@ -45,10 +56,20 @@ public class NotificationController {
     @PutMapping("/mark-all-read")
     @PreAuthorize("isAuthenticated()")
     public ApiResponse<String> markAllRead() {
+        // Giữ nguyên body "OK" như trước (client cũ parse data là chuỗi); số dòng đổi chỉ dùng nội bộ
         notificationService.markAllRead();
         return ApiResponse.success("OK", "OK", HttpStatus.OK);
     }
 
+    // Đánh dấu đã đọc tới thời điểm upTo (vd. createdAt của thông báo mới nhất đang hiển thị)
+    @PutMapping("/mark-read-up-to")
+    @PreAuthorize("isAuthenticated()")
+    public ApiResponse<Integer> markReadUpTo(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime upTo) {
+        int updated = notificationService.markReadUpTo(upTo);
+        return ApiResponse.success(updated, "OK", HttpStatus.OK);
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
     public ApiResponse<String> delete(@PathVariable String id) {
@@ -168,15 +168,13 @@ public class PaymentController {
         Payment payment = paymentRepository.findByTransactionId(transactionId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy thanh toán"));
 
+        // Đi qua service để tổng hợp tài chính được cập nhật cùng transaction
         if ("PAID".equalsIgnoreCase(status)) {
-            payment.setStatus(PaymentStatus.COMPLETED);
-            payment.setPaymentDate(LocalDate.now());
+            paymentService.confirmPayment(payment.getId());
         } else if ("CANCELLED".equalsIgnoreCase(status) || "FAILED".equalsIgnoreCase(status)) {
-            payment.setStatus(PaymentStatus.FAILED);
+            paymentService.updatePaymentStatus(payment.getId(), PaymentStatus.FAILED, null);
         }
 
-        paymentRepository.save(payment);
-
         return ApiResponse.success("Callback processed", "Trạng thái thanh toán đã được cập nhật");
     }
 }
\ No newline at end of file
@@ -12,8 +12,11 @@ import com.example.labOdc.APi.ApiResponse;
 import com.example.labOdc.DTO.ProjectDTO;
 import com.example.labOdc.DTO.Action.RejectRequestDTO;
 import com.example.labOdc.DTO.Action.UpdateProjectStatusDTO;
+import com.example.labOdc.DTO.Response.ProjectPageResponse;
 import com.example.labOdc.DTO.Response.ProjectResponse;
 import com.example.labOdc.Model.Project;
+import com.example.labOdc.Model.ProjectStatus;
+import com.example.labOdc.Model.ValidationStatus;
 import com.example.labOdc.Service.ProjectService;
 
 import jakarta.validation.Valid;
@@ -42,9 +45,21 @@ public class ProjectController {
 
     @GetMapping("/")
     public ApiResponse<List<ProjectResponse>> getAllProject() {
-        List<Project> list = projectService.getAllProject();
-        return ApiResponse.success(list.stream().map(ProjectResponse::fromProject).toList(), "Thanh cong",
-                HttpStatus.OK);
+        return ApiResponse.success(projectService.getAllProject(), "Thanh cong", HttpStatus.OK);
+    }
+
+    // Phân trang keyset: trang sau truyền lại nextCursor
+    @GetMapping("/page")
+    public ApiResponse<ProjectPageResponse> listProjects(
+            @RequestParam(required = false) ProjectStatus status,
+            @RequestParam(required = false) ValidationStatus validationStatus,
+            @RequestParam(required = false) String companyId,
+            @RequestParam(required = false) String skill,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        ProjectPageResponse page = projectService.listProjects(status, validationStatus, companyId, skill, cursor,
+                limit);
+        return ApiResponse.success(page, "Thanh cong", HttpStatus.OK);
     }
 
     @GetMapping("/{id}")
@@ -7,13 +7,19 @@ import com.example.labOdc.Model.Report;
 import com.example.labOdc.Service.ReportService;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/reports")
@@ -315,17 +321,21 @@ public class ReportController {
                 HttpStatus.OK
         );
     }
+    // Trả file từ kho artifact; Spring tự xử lý If-None-Match (304) và Range (206) cho Resource
     @GetMapping("/{id}/export")
     @PreAuthorize("hasAnyRole('SYSTEM_ADMIN','LAB_ADMIN')")
-    public ApiResponse<String> exportReport(
+    public CompletableFuture<ResponseEntity<Resource>> exportReport(
             @PathVariable String id,
-            @RequestParam(defaultValue = "pdf") String format) {
-
-        return ApiResponse.success(
-                reportService.exportReport(id, format),
-                "Export report",
-                HttpStatus.OK
-        );
+            @RequestParam(defaultValue = "xlsx") String format) {
+
+        return reportService.exportReport(id, format)
+                .thenApply(artifact -> ResponseEntity.ok()
+                        .eTag(artifact.getEtag())
+                        .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                        .header(HttpHeaders.CONTENT_DISPOSITION,
+                                "attachment; filename=\"" + artifact.getFileName() + "\"")
+                        .contentType(MediaType.parseMediaType(artifact.getContentType()))
+                        .body(new FileSystemResource(artifact.getFile())));
     }
     @GetMapping("/project/{projectId}/status/{status}")
     @PreAuthorize("""
@@ -0,0 +1,29 @@
+package com.example.labOdc.Controller;
+
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.labOdc.APi.ApiResponse;
+import com.example.labOdc.Service.Implement.PasswordHashExecutor;
+
+import lombok.AllArgsConstructor;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping("/api/v1/system/metrics")
+public class SystemMetricsController {
+
+    private final PasswordHashExecutor passwordHashExecutor;
+
+    // Hàng đợi + độ trễ BCrypt của pool đăng nhập
+    @GetMapping("/auth")
+    @PreAuthorize("hasRole('SYSTEM_ADMIN')")
+    public ApiResponse<Map<String, Object>> authMetrics() {
+        return ApiResponse.success(passwordHashExecutor.metrics(), "OK", HttpStatus.OK);
+    }
+}
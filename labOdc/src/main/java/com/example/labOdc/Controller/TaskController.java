@@ -1,17 +1,21 @@
 package com.example.labOdc.Controller;
 
 import com.example.labOdc.APi.ApiResponse;
+import com.example.labOdc.DTO.BulkTaskDTO;
+import com.example.labOdc.DTO.Response.BulkTaskResultResponse;
+import com.example.labOdc.DTO.Response.TaskBoardSummaryResponse;
+import com.example.labOdc.DTO.Response.TaskBurndownResponse;
+import com.example.labOdc.DTO.Response.TaskCycleTimeResponse;
 import com.example.labOdc.DTO.Response.TaskResponse;
 import com.example.labOdc.DTO.TaskDTO;
 import com.example.labOdc.Model.Task;
-import com.example.labOdc.Model.Talent;
-import com.example.labOdc.Model.User;
-import com.example.labOdc.Repository.TalentRepository;
-import com.example.labOdc.Repository.UserRepository;
 import com.example.labOdc.Service.TaskService;
+import com.example.labOdc.Service.Implement.CurrentActorService;
 import com.example.labOdc.Exception.ResourceNotFoundException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.BindingResult;
@@ -29,8 +33,7 @@ import java.util.List;
 public class TaskController {
 
     private final TaskService taskService;
-    private final UserRepository userRepository;
-    private final TalentRepository talentRepository;
+    private final CurrentActorService currentActorService;
 
     @PostMapping("/")
     @PreAuthorize("""
@@ -58,6 +61,21 @@ public class TaskController {
         return ApiResponse.success(TaskResponse.fromEntity(task), "Cập nhật task thành công", HttpStatus.OK);
     }
 
+    // Re-plan sprint: 1 request cho nhiều task thay vì gọi từng /{id}/assign, /{id}/status...
+    // Quyền theo operation, giống endpoint đơn lẻ tương ứng: STATUS như /{id}/status, còn lại như /{id}/assign
+    @PostMapping("/bulk")
+    @PreAuthorize("""
+    hasAnyRole('SYSTEM_ADMIN','LAB_ADMIN')
+    or (#dto.operation.name() == 'STATUS'
+        ? hasAuthority('MENTOR_REVIEW_TASK')
+        : hasAuthority('MENTOR_ASSIGN_TASK'))
+""")
+    public ApiResponse<BulkTaskResultResponse> bulkUpdate(@Valid @RequestBody BulkTaskDTO dto) {
+        BulkTaskResultResponse result = taskService.bulkUpdate(dto);
+        return ApiResponse.success(result, "Đã cập nhật " + result.getUpdated() + "/" + result.getRequested() + " task",
+                HttpStatus.OK);
+    }
+
     @PatchMapping("/{id}/status")
     @PreAuthorize("""
     hasAnyRole('SYSTEM_ADMIN','LAB_ADMIN')
@@ -65,9 +83,10 @@ public class TaskController {
 """)
     public ApiResponse<TaskResponse> updateStatus(
             @PathVariable String id,
-            @RequestParam Task.Status status
+            @RequestParam Task.Status status,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        Task task = taskService.updateStatus(id, status);
+        Task task = taskService.updateStatus(id, status, expectedVersion(ifMatch));
         return ApiResponse.success(TaskResponse.fromEntity(task), "Cập nhật trạng thái", HttpStatus.OK);
     }
 
@@ -78,9 +97,10 @@ public class TaskController {
 """)
     public ApiResponse<TaskResponse> assignTask(
             @PathVariable String id,
-            @RequestParam String talentId
+            @RequestParam String talentId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        Task task = taskService.assignTask(id, talentId);
+        Task task = taskService.assignTask(id, talentId, expectedVersion(ifMatch));
         return ApiResponse.success(TaskResponse.fromEntity(task), "Giao task thành công", HttpStatus.OK);
     }
 
@@ -90,8 +110,11 @@ public class TaskController {
     or hasAuthority('MENTOR_REVIEW_TASK')
     or hasAuthority('TALENT_UPDATE_TASK')
 """)
-    public ApiResponse<TaskResponse> completeTask(@PathVariable String id) {
-        Task task = taskService.completeTask(id);
+    public ApiResponse<TaskResponse> completeTask(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        Task task = taskService.completeTask(id, expectedVersion(ifMatch));
         return ApiResponse.success(TaskResponse.fromEntity(task), "Hoàn thành task", HttpStatus.OK);
     }
 
@@ -148,15 +171,12 @@ public class TaskController {
             return ApiResponse.error(List.of("Unauthenticated user"));
         }
 
-        final String login = principal.getName();
-        User user = userRepository.findByUsername(login)
-                .or(() -> userRepository.findByEmail(login))
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-
-        Talent talent = talentRepository.findByUserId(user.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Talent not found"));
+        String talentId = currentActorService.resolve(principal.getName()).getTalentId();
+        if (talentId == null) {
+            throw new ResourceNotFoundException("Talent not found");
+        }
 
-        List<TaskResponse> responses = taskService.getTasksByAssignee(talent.getId())
+        List<TaskResponse> responses = taskService.getTasksByAssignee(talentId)
                 .stream()
                 .map(TaskResponse::fromEntity)
                 .toList();
@@ -168,8 +188,11 @@ public class TaskController {
     hasAnyRole('SYSTEM_ADMIN','LAB_ADMIN')
     or hasAuthority('MENTOR_ASSIGN_TASK')
     """)
-    public ApiResponse<TaskResponse> unassignTask(@PathVariable String id) {
-        Task task = taskService.unassignTask(id);
+    public ApiResponse<TaskResponse> unassignTask(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        Task task = taskService.unassignTask(id, expectedVersion(ifMatch));
         return ApiResponse.success(TaskResponse.fromEntity(task), "Thu hồi task", HttpStatus.OK);
     }
 
@@ -178,8 +201,11 @@ public class TaskController {
     hasAnyRole('SYSTEM_ADMIN','LAB_ADMIN')
     or hasAuthority('MENTOR_REVIEW_TASK')
     """)
-    public ApiResponse<TaskResponse> reopenTask(@PathVariable String id) {
-        Task task = taskService.reopenTask(id);
+    public ApiResponse<TaskResponse> reopenTask(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        Task task = taskService.reopenTask(id, expectedVersion(ifMatch));
         return ApiResponse.success(TaskResponse.fromEntity(task), "Mở lại task", HttpStatus.OK);
     }
 
@@ -187,8 +213,11 @@ public class TaskController {
     @PreAuthorize("""
     hasAnyRole('SYSTEM_ADMIN','LAB_ADMIN')
     """)
-    public ApiResponse<TaskResponse> cancelTask(@PathVariable String id) {
-        Task task = taskService.cancelTask(id);
+    public ApiResponse<TaskResponse> cancelTask(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        Task task = taskService.cancelTask(id, expectedVersion(ifMatch));
         return ApiResponse.success(TaskResponse.fromEntity(task), "Hủy task", HttpStatus.OK);
     }
 
@@ -239,15 +268,59 @@ or hasAuthority('MENTOR_REVIEW_TASK')
     """)
     public ApiResponse<TaskResponse> updatePriority(
             @PathVariable String id,
-            @RequestParam Task.Priority priority
+            @RequestParam Task.Priority priority,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        Task task = taskService.updatePriority(id, priority);
+        Task task = taskService.updatePriority(id, priority, expectedVersion(ifMatch));
         return ApiResponse.success(
                 TaskResponse.fromEntity(task),
                 "Cập nhật độ ưu tiên",
                 HttpStatus.OK
         );
     }
+    // Tổng hợp cho bảng Kanban: thay cho nhiều lần gọi count theo từng trạng thái
+    @GetMapping("/project/{projectId}/board")
+    @PreAuthorize("""
+    hasAnyRole('SYSTEM_ADMIN','LAB_ADMIN')
+    or hasAuthority('MENTOR_REVIEW_TASK')
+    or hasRole('MENTOR')
+    or hasAuthority('TALENT_VIEW_ASSIGNED_TASK')
+""")
+    public ApiResponse<TaskBoardSummaryResponse> getBoardSummary(@PathVariable String projectId) {
+        return ApiResponse.success(taskService.getBoardSummary(projectId), "OK", HttpStatus.OK);
+    }
+
+    // Số task mở/đã xong cuối mỗi ngày, đọc từ rollup theo ngày (mặc định 30 ngày gần nhất)
+    @GetMapping("/project/{projectId}/burndown")
+    @PreAuthorize("""
+    hasAnyRole('SYSTEM_ADMIN','LAB_ADMIN')
+    or hasAuthority('MENTOR_REVIEW_TASK')
+    or hasRole('MENTOR')
+    or hasAuthority('TALENT_VIEW_ASSIGNED_TASK')
+""")
+    public ApiResponse<TaskBurndownResponse> getBurndown(
+            @PathVariable String projectId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return ApiResponse.success(taskService.getBurndown(projectId, from, to), "OK", HttpStatus.OK);
+    }
+
+    // Throughput + thời gian trung bình ở REVIEW theo ngày
+    @GetMapping("/project/{projectId}/cycle-time")
+    @PreAuthorize("""
+    hasAnyRole('SYSTEM_ADMIN','LAB_ADMIN')
+    or hasAuthority('MENTOR_REVIEW_TASK')
+    or hasRole('MENTOR')
+""")
+    public ApiResponse<TaskCycleTimeResponse> getCycleTime(
+            @PathVariable String projectId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return ApiResponse.success(taskService.getCycleTime(projectId, from, to), "OK", HttpStatus.OK);
+    }
+
     @GetMapping("/project/{projectId}/count")
     @PreAuthorize("""
     hasAnyRole('SYSTEM_ADMIN','LAB_ADMIN')
@@ -360,9 +433,10 @@ or hasAuthority('MENTOR_REVIEW_TASK')
     public ApiResponse<TaskResponse> submitTask(
             @PathVariable String id,
             @RequestBody List<String> attachments,
-            Principal principal
+            Principal principal,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        Task task = taskService.submitTask(id, principal.getName(), attachments);
+        Task task = taskService.submitTask(id, principal.getName(), attachments, expectedVersion(ifMatch));
         return ApiResponse.success(
                 TaskResponse.fromEntity(task),
                 "Nộp task thành công",
@@ -378,9 +452,10 @@ or hasAuthority('MENTOR_REVIEW_TASK')
     public ApiResponse<TaskResponse> reviewTask(
             @PathVariable String id,
             @RequestParam Task.Status status,
-            Principal principal
+            Principal principal,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        Task task = taskService.reviewTask(id, status, principal.getName());
+        Task task = taskService.reviewTask(id, status, principal.getName(), expectedVersion(ifMatch));
         return ApiResponse.success(
                 TaskResponse.fromEntity(task),
                 "Đã review task",
@@ -395,9 +470,10 @@ or hasAuthority('MENTOR_ASSIGN_TASK')
     public ApiResponse<TaskResponse> updateDeadline(
             @PathVariable String id,
             @RequestParam LocalDate dueDate,
-            @RequestParam(required = false) String reason
+            @RequestParam(required = false) String reason,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        Task task = taskService.updateDeadline(id, dueDate, reason);
+        Task task = taskService.updateDeadline(id, dueDate, reason, expectedVersion(ifMatch));
         return ApiResponse.success(
                 TaskResponse.fromEntity(task),
                 "Gia hạn deadline",
@@ -410,9 +486,10 @@ or hasAuthority('MENTOR_ASSIGN_TASK')
     public ApiResponse<TaskResponse> updateProgress(
             @PathVariable String id,
             @RequestParam int progress,
-            @RequestParam BigDecimal actualHours
+            @RequestParam BigDecimal actualHours,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        Task task = taskService.updateProgress(id, progress, actualHours);
+        Task task = taskService.updateProgress(id, progress, actualHours, expectedVersion(ifMatch));
         return ApiResponse.success(
                 TaskResponse.fromEntity(task),
                 "Cập nhật tiến độ",
@@ -424,10 +501,11 @@ or hasAuthority('MENTOR_ASSIGN_TASK')
     @PreAuthorize("hasAuthority('TALENT_UPDATE_TASK')")
     public ApiResponse<TaskResponse> updateProgressPercent(
             @PathVariable String id,
-            @RequestParam int percent
+            @RequestParam int percent,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
         return ApiResponse.success(
-                TaskResponse.fromEntity(taskService.updateProgressPercent(id, percent)),
+                TaskResponse.fromEntity(taskService.updateProgressPercent(id, percent, expectedVersion(ifMatch))),
                 "Cập nhật tiến độ %",
                 HttpStatus.OK
         );
@@ -475,4 +553,21 @@ or hasAuthority('MENTOR_REVIEW_TASK')
                 HttpStatus.OK
         );
     }
-}
\ No newline at end of file
+
+    // If-Match: "3", W/"3" hoặc 3 -> 3; không gửi hoặc "*" -> null (không kiểm tra version)
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        value = value.replace("\"", "");
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid If-Match version: " + ifMatch);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.labOdc.DTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * 1 sự kiện audit chờ ghi: ai (actorId) làm gì (action) trên đối tượng nào (entityType/entityId).
+ */
+public record AuditEvent(LocalDateTime occurredAt, String actorId, String action, String entityType,
+        String entityId, String details) {
+}
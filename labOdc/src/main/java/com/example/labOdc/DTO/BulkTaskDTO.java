@@ -0,0 +1,44 @@
+package com.example.labOdc.DTO;
+
+import com.example.labOdc.Model.Task;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Thao tác hàng loạt trên nhiều task: chỉ điền trường tương ứng với operation
+ * (ASSIGN -> talentId, STATUS -> status, PRIORITY -> priority, DUE_DATE -> dueDate).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BulkTaskDTO {
+
+    public enum Operation {
+        ASSIGN,
+        STATUS,
+        PRIORITY,
+        DUE_DATE
+    }
+
+    @NotEmpty
+    @Size(max = 200)
+    private List<String> taskIds;
+
+    @NotNull
+    private Operation operation;
+
+    private String talentId;
+
+    private Task.Status status;
+
+    private Task.Priority priority;
+
+    private LocalDate dueDate;
+}
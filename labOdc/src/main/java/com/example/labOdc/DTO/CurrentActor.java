@@ -0,0 +1,44 @@
+package com.example.labOdc.DTO;
+
+import java.util.function.Supplier;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Danh tính của người đang đăng nhập: userId + ID hồ sơ theo từng vai trò.
+ * Các ID hồ sơ có thể null nếu user chưa có hồ sơ tương ứng.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class CurrentActor {
+    private final String userId;
+    private final String username;
+    private final String mentorId;
+    private final String talentId;
+    private final String companyId;
+    private final String labAdminId;
+
+    // Actor dựng từ claim JWT: ID hồ sơ không có trong token thì hỏi lại nguồn này (tra DB có cache)
+    @Getter(AccessLevel.NONE)
+    private final Supplier<CurrentActor> fallback;
+
+    public String getMentorId() {
+        return mentorId != null || fallback == null ? mentorId : fallback.get().getMentorId();
+    }
+
+    public String getTalentId() {
+        return talentId != null || fallback == null ? talentId : fallback.get().getTalentId();
+    }
+
+    public String getCompanyId() {
+        return companyId != null || fallback == null ? companyId : fallback.get().getCompanyId();
+    }
+
+    public String getLabAdminId() {
+        return labAdminId != null || fallback == null ? labAdminId : fallback.get().getLabAdminId();
+    }
+}
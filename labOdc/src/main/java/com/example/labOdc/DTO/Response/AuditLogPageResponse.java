@@ -0,0 +1,16 @@
+package com.example.labOdc.DTO.Response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 1 trang audit log (mới nhất trước). nextCursor null = hết dữ liệu.
+ */
+@Data
+@AllArgsConstructor
+public class AuditLogPageResponse {
+    private List<AuditLogResponse> items;
+    private String nextCursor;
+}
@@ -0,0 +1,18 @@
+package com.example.labOdc.DTO.Response;
+
+import java.time.LocalDateTime;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class AuditLogResponse {
+    private Long id;
+    private LocalDateTime occurredAt;
+    private String actorId;
+    private String action;
+    private String entityType;
+    private String entityId;
+    private String details;
+}
@@ -0,0 +1,45 @@
+package com.example.labOdc.DTO.Response;
+
+import java.util.List;
+
+import com.example.labOdc.DTO.BulkTaskDTO;
+import com.example.labOdc.Model.Task;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Kết quả thao tác hàng loạt, theo đúng thứ tự taskIds gửi lên (đã bỏ trùng).
+ */
+@Data
+@Builder
+public class BulkTaskResultResponse {
+    private BulkTaskDTO.Operation operation;
+    private int requested;
+    private int updated;
+    private int failed;
+    private List<Item> items;
+
+    public enum Outcome {
+        UPDATED,
+        NOT_FOUND,
+        // Trạng thái hiện tại không cho phép thao tác này
+        INVALID_STATE,
+        // Bị thay đổi đồng thời giữa lúc kiểm tra và lúc cập nhật
+        CONFLICT
+    }
+
+    /**
+     * status/version: giá trị sau khi cập nhật (UPDATED) hoặc giá trị hiện tại (INVALID_STATE).
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Item {
+        private String taskId;
+        private Outcome outcome;
+        private Task.Status status;
+        private Long version;
+        private String message;
+    }
+}
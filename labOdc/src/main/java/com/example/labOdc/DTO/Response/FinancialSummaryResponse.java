@@ -0,0 +1,54 @@
+package com.example.labOdc.DTO.Response;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.example.labOdc.Model.FinancialAggregate;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class FinancialSummaryResponse {
+    private FinancialAggregate.Scope scope;
+    private String scopeId;
+
+    private BigDecimal paymentsReceived;
+    private BigDecimal allocatedTotal;
+    private BigDecimal allocatedTeam;
+    private BigDecimal allocatedMentor;
+    private BigDecimal allocatedLab;
+    private BigDecimal talentPaid;
+    private BigDecimal mentorPaid;
+    private BigDecimal advancesOutstanding;
+
+    // Đã nhận nhưng chưa phân bổ
+    private BigDecimal unallocated;
+    // Phần team/mentor đã phân bổ nhưng chưa chi
+    private BigDecimal pendingPayout;
+
+    private LocalDateTime updatedAt;
+    private LocalDateTime reconciledAt;
+
+    public static FinancialSummaryResponse fromEntity(FinancialAggregate a) {
+        if (a == null) return null;
+        return FinancialSummaryResponse.builder()
+                .scope(a.getScope())
+                .scopeId(a.getScopeId())
+                .paymentsReceived(a.getPaymentsReceived())
+                .allocatedTotal(a.getAllocatedTotal())
+                .allocatedTeam(a.getAllocatedTeam())
+                .allocatedMentor(a.getAllocatedMentor())
+                .allocatedLab(a.getAllocatedLab())
+                .talentPaid(a.getTalentPaid())
+                .mentorPaid(a.getMentorPaid())
+                .advancesOutstanding(a.getAdvancesOutstanding())
+                .unallocated(a.getPaymentsReceived().subtract(a.getAllocatedTotal()))
+                .pendingPayout(a.getAllocatedTeam().add(a.getAllocatedMentor())
+                        .subtract(a.getTalentPaid()).subtract(a.getMentorPaid()))
+                .updatedAt(a.getUpdatedAt())
+                .reconciledAt(a.getReconciledAt())
+                .build();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.labOdc.DTO.Response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.example.labOdc.Model.ImportJob;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ImportJobResponse {
+    private String id;
+    private ImportJob.Type type;
+    private ImportJob.Status status;
+    private String fileName;
+    private Integer total;
+    private Integer success;
+    private Integer failed;
+    private Integer currentRow;
+    private List<String> errors;
+    private String message;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private LocalDateTime createdAt;
+
+    public static ImportJobResponse fromEntity(ImportJob j) {
+        if (j == null) return null;
+        return ImportJobResponse.builder()
+                .id(j.getId())
+                .type(j.getType())
+                .status(j.getStatus())
+                .fileName(j.getFileName())
+                .total(j.getTotal())
+                .success(j.getSuccess())
+                .failed(j.getFailed())
+                .currentRow(j.getCurrentRow())
+                .errors(j.getErrors() == null || j.getErrors().isEmpty() ? List.of()
+                        : List.of(j.getErrors().split("\n")))
+                .message(j.getMessage())
+                .startedAt(j.getStartedAt())
+                .finishedAt(j.getFinishedAt())
+                .createdAt(j.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.labOdc.DTO.Response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 1 trang dự án (mới nhất trước). nextCursor null = hết dữ liệu.
+ */
+@Data
+@AllArgsConstructor
+public class ProjectPageResponse {
+    private List<ProjectResponse> items;
+    private String nextCursor;
+}
@@ -7,6 +7,7 @@ import java.time.LocalDateTime;
 import com.example.labOdc.Model.Project;
 import com.example.labOdc.Model.ProjectStatus;
 import com.example.labOdc.Model.ValidationStatus;
+import com.example.labOdc.Repository.ProjectRepository;
 
 import lombok.Builder;
 import lombok.Data;
@@ -88,4 +89,31 @@ public class ProjectResponse {
                 .updatedAt(project.getUpdatedAt())
                 .build();
     }
+
+    // Dòng danh sách: không có requirements/rejectionReason/actualEndDate (xem chi tiết qua GET /{id})
+    public static ProjectResponse fromRow(ProjectRepository.ProjectListRow row) {
+        if (row == null)
+            return null;
+
+        return ProjectResponse.builder()
+                .id(row.getId())
+                .companyId(row.getCompanyId())
+                .mentorId(row.getMentorId())
+                .projectName(row.getProjectName())
+                .projectCode(row.getProjectCode())
+                .description(row.getDescription())
+                .budget(row.getBudget())
+                .durationMonths(row.getDurationMonths())
+                .startDate(row.getStartDate())
+                .endDate(row.getEndDate())
+                .status(row.getStatus())
+                .validationStatus(row.getValidationStatus())
+                .validatedById(row.getValidatedById())
+                .validatedAt(row.getValidatedAt())
+                .maxTeamSize(row.getMaxTeamSize())
+                .requiredSkills(row.getRequiredSkills())
+                .createdAt(row.getCreatedAt())
+                .updatedAt(row.getUpdatedAt())
+                .build();
+    }
 }
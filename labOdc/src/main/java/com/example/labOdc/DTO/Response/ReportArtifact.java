@@ -0,0 +1,19 @@
+package com.example.labOdc.DTO.Response;
+
+import java.nio.file.Path;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * File export của report đã render sẵn trên đĩa.
+ */
+@Getter
+@AllArgsConstructor
+public class ReportArtifact {
+    private Path file;
+    // Hash SHA-256 của nội dung, dùng làm ETag
+    private String etag;
+    private String contentType;
+    private String fileName;
+}
@@ -0,0 +1,40 @@
+package com.example.labOdc.DTO.Response;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import com.example.labOdc.Model.Task;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Tổng hợp bảng Kanban của 1 dự án: số task theo trạng thái/độ ưu tiên, quá hạn, khối lượng theo người.
+ */
+@Data
+@Builder
+public class TaskBoardSummaryResponse {
+    private String projectId;
+    private long total;
+    private long overdue;
+    private Map<Task.Status, Long> byStatus;
+    private Map<Task.Priority, Long> byPriority;
+    private List<AssigneeWorkload> assignees;
+    private LocalDateTime generatedAt;
+
+    /**
+     * assignedTo null = task chưa giao. open = chưa DONE/CANCELLED.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class AssigneeWorkload {
+        private String assignedTo;
+        private long total;
+        private long open;
+        private long overdue;
+        private BigDecimal openEstimatedHours;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.labOdc.DTO.Response;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Burndown của 1 dự án: số task đang mở / đã xong ở cuối mỗi ngày trong khoảng [from, to].
+ */
+@Data
+@Builder
+public class TaskBurndownResponse {
+    private String projectId;
+    private LocalDate from;
+    private LocalDate to;
+    private List<Point> points;
+
+    @Data
+    @AllArgsConstructor
+    public static class Point {
+        private LocalDate date;
+        private long open;
+        private long done;
+    }
+}
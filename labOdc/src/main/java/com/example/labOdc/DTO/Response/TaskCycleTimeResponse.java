@@ -0,0 +1,34 @@
+package com.example.labOdc.DTO.Response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Throughput (số task chuyển sang DONE) và thời gian trung bình nằm ở REVIEW, theo ngày và cả khoảng.
+ * meanReviewHours = null khi không có task nào rời REVIEW.
+ */
+@Data
+@Builder
+public class TaskCycleTimeResponse {
+    private String projectId;
+    private LocalDate from;
+    private LocalDate to;
+    private long completed;
+    private long reviewExits;
+    private BigDecimal meanReviewHours;
+    private List<Point> points;
+
+    @Data
+    @AllArgsConstructor
+    public static class Point {
+        private LocalDate date;
+        private long completed;
+        private long reviewExits;
+        private BigDecimal meanReviewHours;
+    }
+}
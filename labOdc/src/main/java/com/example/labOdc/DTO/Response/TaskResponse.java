@@ -34,6 +34,8 @@ public class TaskResponse {
     private List<String> attachments;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    // Gửi lại trong header If-Match để tránh ghi đè thay đổi của người khác
+    private long version;
 
     public static TaskResponse fromEntity(Task task) {
         return TaskResponse.builder()
@@ -54,6 +56,7 @@ public class TaskResponse {
                 .attachments(task.getAttachments())
                 .createdAt(task.getCreatedAt())
                 .updatedAt(task.getUpdatedAt())
+                .version(task.getVersion())
                 .build();
     }
 }
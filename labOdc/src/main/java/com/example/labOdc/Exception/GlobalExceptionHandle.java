@@ -2,8 +2,10 @@ package com.example.labOdc.Exception;
 
 import java.time.LocalDateTime;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -43,6 +45,33 @@ public class GlobalExceptionHandle {
         return new ResponseEntity<>(apiResponse, HttpStatus.FORBIDDEN);
     }
 
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ApiResponse<Void>> handleBusy(ServiceBusyException ex, WebRequest request) {
+        ApiResponse<Void> apiResponse = new ApiResponse<>(false, ex.getMessage(), null, null, LocalDateTime.now(),
+                ex.getStatus().value());
+        return ResponseEntity.status(ex.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(apiResponse);
+    }
+
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<ApiResponse<Void>> handleVersionConflict(VersionConflictException ex, WebRequest request) {
+        ApiResponse<Void> apiResponse = new ApiResponse<>(false, ex.getMessage(), null, null, LocalDateTime.now(),
+                HttpStatus.CONFLICT.value());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .eTag(String.valueOf(ex.getCurrentVersion()))
+                .body(apiResponse);
+    }
+
+    // Hai request cùng sửa 1 bản ghi có @Version: request commit sau bị từ chối
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponse<Void>> handleOptimisticLock(ObjectOptimisticLockingFailureException ex,
+            WebRequest request) {
+        ApiResponse<Void> apiResponse = new ApiResponse<>(false, "Dữ liệu đã bị thay đổi bởi người khác, hãy tải lại",
+                null, null, LocalDateTime.now(), HttpStatus.CONFLICT.value());
+        return new ResponseEntity<>(apiResponse, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ApiResponse<Void>> handleRuntime(RuntimeException ex, WebRequest request) {
         ApiResponse<Void> apiResponse = new ApiResponse<>(false, ex.getMessage(), null, null, LocalDateTime.now(),
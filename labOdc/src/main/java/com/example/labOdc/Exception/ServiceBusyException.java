@@ -0,0 +1,20 @@
+package com.example.labOdc.Exception;
+
+import org.springframework.http.HttpStatus;
+
+import lombok.Getter;
+
+/**
+ * Hệ thống đang quá tải (hàng đợi đầy / chờ quá lâu) -> trả 429 hoặc 503 kèm header Retry-After.
+ */
+@Getter
+public class ServiceBusyException extends RuntimeException {
+    private final HttpStatus status;
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException(String message, HttpStatus status, long retryAfterSeconds) {
+        super(message);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
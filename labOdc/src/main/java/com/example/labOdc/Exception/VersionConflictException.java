@@ -0,0 +1,16 @@
+package com.example.labOdc.Exception;
+
+import lombok.Getter;
+
+/**
+ * Version client gửi (If-Match) không khớp version hiện tại -> trả 409 kèm ETag là version mới nhất.
+ */
+@Getter
+public class VersionConflictException extends RuntimeException {
+    private final long currentVersion;
+
+    public VersionConflictException(String message, long currentVersion) {
+        super(message);
+        this.currentVersion = currentVersion;
+    }
+}
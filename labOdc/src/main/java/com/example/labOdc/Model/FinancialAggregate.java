@@ -0,0 +1,140 @@
+package com.example.labOdc.Model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Số liệu tài chính cộng dồn theo phạm vi (toàn lab / công ty / dự án).
+ * Được cộng trừ trong cùng transaction với thay đổi của Payment, FundAllocation, FundDistribution,
+ * MentorPayment, LabFundAdvance; job đối soát hằng đêm kiểm tra lại với bảng gốc.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "financial_aggregates", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_financial_aggregates_scope", columnNames = { "scope", "scope_id" })
+})
+public class FinancialAggregate {
+
+    public static final String LAB_SCOPE_ID = "ALL";
+
+    public enum Scope {
+        LAB,
+        COMPANY,
+        PROJECT
+    }
+
+    /**
+     * Các cột số tiền; column là tên cột thật (dùng trong câu upsert).
+     */
+    public enum Metric {
+        // Payment COMPLETED
+        PAYMENTS_RECEIVED("payments_received"),
+        // FundAllocation ALLOCATED
+        ALLOCATED_TOTAL("allocated_total"),
+        ALLOCATED_TEAM("allocated_team"),
+        ALLOCATED_MENTOR("allocated_mentor"),
+        ALLOCATED_LAB("allocated_lab"),
+        // FundDistribution PAID
+        TALENT_PAID("talent_paid"),
+        // MentorPayment PAID
+        MENTOR_PAID("mentor_paid"),
+        // LabFundAdvance ADVANCED (chưa tất toán)
+        ADVANCES_OUTSTANDING("advances_outstanding");
+
+        public final String column;
+
+        Metric(String column) {
+            this.column = column;
+        }
+    }
+
+    @Id
+    @Column(name = "id", length = 36, nullable = false, updatable = false)
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "scope", nullable = false, length = 20)
+    private Scope scope;
+
+    @Column(name = "scope_id", nullable = false, length = 36)
+    private String scopeId;
+
+    @Builder.Default
+    @Column(name = "payments_received", nullable = false, precision = 18, scale = 2)
+    private BigDecimal paymentsReceived = BigDecimal.ZERO;
+
+    @Builder.Default
+    @Column(name = "allocated_total", nullable = false, precision = 18, scale = 2)
+    private BigDecimal allocatedTotal = BigDecimal.ZERO;
+
+    @Builder.Default
+    @Column(name = "allocated_team", nullable = false, precision = 18, scale = 2)
+    private BigDecimal allocatedTeam = BigDecimal.ZERO;
+
+    @Builder.Default
+    @Column(name = "allocated_mentor", nullable = false, precision = 18, scale = 2)
+    private BigDecimal allocatedMentor = BigDecimal.ZERO;
+
+    @Builder.Default
+    @Column(name = "allocated_lab", nullable = false, precision = 18, scale = 2)
+    private BigDecimal allocatedLab = BigDecimal.ZERO;
+
+    @Builder.Default
+    @Column(name = "talent_paid", nullable = false, precision = 18, scale = 2)
+    private BigDecimal talentPaid = BigDecimal.ZERO;
+
+    @Builder.Default
+    @Column(name = "mentor_paid", nullable = false, precision = 18, scale = 2)
+    private BigDecimal mentorPaid = BigDecimal.ZERO;
+
+    @Builder.Default
+    @Column(name = "advances_outstanding", nullable = false, precision = 18, scale = 2)
+    private BigDecimal advancesOutstanding = BigDecimal.ZERO;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "reconciled_at")
+    private LocalDateTime reconciledAt;
+
+    @PrePersist
+    public void ensureId() {
+        if (this.id == null) {
+            this.id = UUID.randomUUID().toString();
+        }
+    }
+
+    public BigDecimal get(Metric metric) {
+        return switch (metric) {
+            case PAYMENTS_RECEIVED -> paymentsReceived;
+            case ALLOCATED_TOTAL -> allocatedTotal;
+            case ALLOCATED_TEAM -> allocatedTeam;
+            case ALLOCATED_MENTOR -> allocatedMentor;
+            case ALLOCATED_LAB -> allocatedLab;
+            case TALENT_PAID -> talentPaid;
+            case MENTOR_PAID -> mentorPaid;
+            case ADVANCES_OUTSTANDING -> advancesOutstanding;
+        };
+    }
+
+    public void set(Metric metric, BigDecimal value) {
+        switch (metric) {
+            case PAYMENTS_RECEIVED -> paymentsReceived = value;
+            case ALLOCATED_TOTAL -> allocatedTotal = value;
+            case ALLOCATED_TEAM -> allocatedTeam = value;
+            case ALLOCATED_MENTOR -> allocatedMentor = value;
+            case ALLOCATED_LAB -> allocatedLab = value;
+            case TALENT_PAID -> talentPaid = value;
+            case MENTOR_PAID -> mentorPaid = value;
+            case ADVANCES_OUTSTANDING -> advancesOutstanding = value;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.labOdc.Model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Lượt import Excel chạy nền: tiến độ theo dòng + kết quả cuối, client hỏi lại bằng id.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "import_jobs", indexes = {
+        @Index(name = "idx_import_jobs_status", columnList = "status")
+})
+public class ImportJob {
+
+    public enum Type {
+        TALENT,
+        MENTOR
+    }
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+
+    @Id
+    @Column(name = "id", length = 36, nullable = false, updatable = false)
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 20)
+    private Type type;
+
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status = Status.QUEUED;
+
+    @Column(name = "file_name", length = 255)
+    private String fileName;
+
+    @Column(name = "created_by", length = 36)
+    private String createdBy;
+
+    // Node (app.instance-id) đang giữ job, để lúc khởi động chỉ dọn job của chính mình
+    @Column(name = "node", length = 100)
+    private String node;
+
+    @Builder.Default
+    @Column(name = "total_rows")
+    private Integer total = 0;
+
+    @Builder.Default
+    @Column(name = "success_rows")
+    private Integer success = 0;
+
+    @Builder.Default
+    @Column(name = "failed_rows")
+    private Integer failed = 0;
+
+    // Dòng Excel (1-based) đã xử lý tới
+    @Column(name = "current_row")
+    private Integer currentRow;
+
+    // Lỗi theo dòng, mỗi dòng 1 lỗi
+    @Column(name = "errors", columnDefinition = "TEXT")
+    private String errors;
+
+    @Column(name = "message", length = 500)
+    private String message;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    public void ensureId() {
+        if (this.id == null) {
+            this.id = UUID.randomUUID().toString();
+        }
+    }
+}
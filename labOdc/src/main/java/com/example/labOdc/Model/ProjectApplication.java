@@ -10,7 +10,14 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "project_applications", uniqueConstraints = {@UniqueConstraint(columnNames = {"project_id", "talent_id"})})
+@Table(
+        name = "project_applications",
+        uniqueConstraints = {@UniqueConstraint(columnNames = {"project_id", "talent_id"})},
+        indexes = {
+                @Index(name = "idx_project_applications_project_status", columnList = "project_id,status"),
+                @Index(name = "idx_project_applications_talent_status", columnList = "talent_id,status")
+        }
+)
 @Getter
 @Setter
 @AllArgsConstructor
@@ -16,8 +16,17 @@ import java.util.UUID;
 @Getter
 @Setter
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_project_status", columnList = "project_id, status")
+})
+// UPDATE ... RETURNING của TaskStateWriter: dòng task mới + trạng thái trước khi đổi
+@SqlResultSetMapping(name = Task.TRANSITION_MAPPING,
+        entities = @EntityResult(entityClass = Task.class),
+        columns = @ColumnResult(name = "previous_status", type = String.class))
 public class Task {
+    public static final String TRANSITION_MAPPING = "TaskTransition";
+
+
     @Id
     @Column(name = "id", length = 36, nullable = false, updatable = false)
     private String id;
@@ -75,6 +84,11 @@ public class Task {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Optimistic lock; tăng 1 mỗi lần ghi (kể cả các UPDATE có điều kiện của TaskStateWriter)
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     @PrePersist
     public void ensureId() {
         if (this.id == null) {
@@ -0,0 +1,91 @@
+package com.example.labOdc.Model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Số liệu task cộng dồn theo (dự án, ngày), cập nhật cùng lúc với task_events.
+ * Các cột là số phát sinh trong ngày; số task đang mở / đã xong tại 1 ngày = cộng dồn từ đầu.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "task_daily_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_task_daily_rollups_project_date", columnNames = { "project_id", "stat_date" })
+})
+public class TaskDailyRollup {
+
+    /**
+     * Các cột đếm; column là tên cột thật (dùng trong câu upsert).
+     */
+    public enum Metric {
+        // Task chuyển sang trạng thái mở (TODO/IN_PROGRESS/REVIEW): tạo mới hoặc mở lại
+        OPENED("opened"),
+        // Task rời trạng thái mở: DONE, CANCELLED hoặc bị xoá
+        CLOSED("closed"),
+        // Chuyển sang DONE (throughput)
+        COMPLETED("completed"),
+        // Rời DONE (mở lại, huỷ, xoá)
+        UNCOMPLETED("uncompleted"),
+        // Rời REVIEW và tổng số giây đã nằm ở REVIEW
+        REVIEW_EXITS("review_exits"),
+        REVIEW_SECONDS("review_seconds");
+
+        public final String column;
+
+        Metric(String column) {
+            this.column = column;
+        }
+    }
+
+    @Id
+    @Column(name = "id", length = 36, nullable = false, updatable = false)
+    private String id;
+
+    @Column(name = "project_id", length = 36, nullable = false)
+    private String projectId;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Builder.Default
+    @Column(name = "opened", nullable = false)
+    private long opened = 0;
+
+    @Builder.Default
+    @Column(name = "closed", nullable = false)
+    private long closed = 0;
+
+    @Builder.Default
+    @Column(name = "completed", nullable = false)
+    private long completed = 0;
+
+    @Builder.Default
+    @Column(name = "uncompleted", nullable = false)
+    private long uncompleted = 0;
+
+    @Builder.Default
+    @Column(name = "review_exits", nullable = false)
+    private long reviewExits = 0;
+
+    @Builder.Default
+    @Column(name = "review_seconds", nullable = false)
+    private long reviewSeconds = 0;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    public void ensureId() {
+        if (this.id == null) {
+            this.id = UUID.randomUUID().toString();
+        }
+    }
+}
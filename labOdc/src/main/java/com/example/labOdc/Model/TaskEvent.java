@@ -0,0 +1,60 @@
+package com.example.labOdc.Model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Lịch sử chuyển trạng thái task (chỉ thêm, không sửa/xoá).
+ * Ghi trong cùng transaction với thay đổi của Task; fromStatus = null là task mới tạo,
+ * toStatus = null là task bị xoá.
+ */
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Immutable
+@Table(name = "task_events", indexes = {
+        @Index(name = "idx_task_events_task", columnList = "task_id, occurred_at"),
+        @Index(name = "idx_task_events_project", columnList = "project_id, occurred_at")
+})
+public class TaskEvent {
+    @Id
+    @Column(name = "id", length = 36, nullable = false, updatable = false)
+    private String id;
+
+    @Column(name = "task_id", length = 36, nullable = false)
+    private String taskId;
+
+    @Column(name = "project_id", length = 36, nullable = false)
+    private String projectId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_status", length = 20)
+    private Task.Status fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_status", length = 20)
+    private Task.Status toStatus;
+
+    @Column(name = "assigned_to")
+    private String assignedTo;
+
+    @Column(name = "actor_id", length = 36)
+    private String actorId;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    @PrePersist
+    public void ensureId() {
+        if (this.id == null) {
+            this.id = UUID.randomUUID().toString();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.labOdc.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import com.example.labOdc.DTO.AuditEvent;
+import com.example.labOdc.DTO.Response.AuditLogResponse;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Bảng audit_logs: chỉ INSERT, partition theo tháng (RANGE occurred_at).
+ * Không map bằng @Entity vì ddl-auto=update sẽ tạo bảng thường trước khi kịp tạo bảng partition;
+ * schema do ensureSchema()/ensurePartition() tạo (idempotent). Xoá dữ liệu cũ = DROP partition.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AuditLogRepository {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private static final RowMapper<AuditLogResponse> ROW_MAPPER = (rs, i) -> AuditLogResponse.builder()
+            .id(rs.getLong("id"))
+            .occurredAt(rs.getTimestamp("occurred_at").toLocalDateTime())
+            .actorId(rs.getString("actor_id"))
+            .action(rs.getString("action"))
+            .entityType(rs.getString("entity_type"))
+            .entityId(rs.getString("entity_id"))
+            .details(rs.getString("details"))
+            .build();
+
+    public void ensureSchema() {
+        jdbcTemplate.execute("""
+            CREATE TABLE IF NOT EXISTS audit_logs (
+                id BIGSERIAL,
+                occurred_at TIMESTAMP NOT NULL,
+                actor_id VARCHAR(36),
+                action VARCHAR(64) NOT NULL,
+                entity_type VARCHAR(64),
+                entity_id VARCHAR(64),
+                details TEXT,
+                PRIMARY KEY (occurred_at, id)
+            ) PARTITION BY RANGE (occurred_at)
+        """);
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_audit_logs_actor ON audit_logs (actor_id, occurred_at, id)");
+        jdbcTemplate.execute(
+                "CREATE INDEX IF NOT EXISTS idx_audit_logs_entity ON audit_logs (entity_type, entity_id, occurred_at, id)");
+        // Hứng bản ghi lệch giờ ngoài các partition tháng
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS audit_logs_default PARTITION OF audit_logs DEFAULT");
+    }
+
+    public void ensurePartition(YearMonth month) {
+        String name = "audit_logs_" + month.format(PARTITION_SUFFIX);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF audit_logs FOR VALUES FROM ('"
+                + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+    }
+
+    public void insertBatch(List<AuditEvent> events) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO audit_logs (occurred_at, actor_id, action, entity_type, entity_id, details)"
+                        + " VALUES (?, ?, ?, ?, ?, ?)",
+                events, events.size(), (ps, e) -> {
+                    ps.setTimestamp(1, Timestamp.valueOf(e.occurredAt()));
+                    ps.setString(2, e.actorId());
+                    ps.setString(3, e.action());
+                    ps.setString(4, e.entityType());
+                    ps.setString(5, e.entityId());
+                    ps.setString(6, e.details());
+                });
+    }
+
+    /**
+     * Keyset: lấy các dòng đứng sau (afterOccurredAt, afterId) theo thứ tự (occurred_at, id) giảm dần.
+     */
+    public List<AuditLogResponse> search(String actorId, String entityType, String entityId, LocalDateTime from,
+            LocalDateTime to, LocalDateTime afterOccurredAt, Long afterId, int limit) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, occurred_at, actor_id, action, entity_type, entity_id, details FROM audit_logs WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (actorId != null) {
+            sql.append(" AND actor_id = ?");
+            args.add(actorId);
+        }
+        if (entityType != null) {
+            sql.append(" AND entity_type = ?");
+            args.add(entityType);
+        }
+        if (entityId != null) {
+            sql.append(" AND entity_id = ?");
+            args.add(entityId);
+        }
+        if (from != null) {
+            sql.append(" AND occurred_at >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND occurred_at < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        if (afterOccurredAt != null && afterId != null) {
+            sql.append(" AND (occurred_at, id) < (?, ?)");
+            args.add(Timestamp.valueOf(afterOccurredAt));
+            args.add(afterId);
+        }
+        sql.append(" ORDER BY occurred_at DESC, id DESC LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray());
+    }
+}
@@ -1,14 +1,19 @@
 package com.example.labOdc.Repository;
 
 import com.example.labOdc.Model.Evaluation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface EvaluationRepository extends JpaRepository<Evaluation, String> {
@@ -102,4 +107,60 @@ AND e.rating IS NOT NULL
         where e.project.id = :projectId
     """)
     Object[] getFinalSummary(@Param("projectId") String projectId);
+
+    // ===== EXPORT (đọc bằng cursor, dùng trong transaction) =====
+    interface EvaluationExportRow {
+        String getId();
+
+        String getProjectCode();
+
+        String getProjectName();
+
+        String getEvaluatorId();
+
+        Evaluation.EvaluatorType getEvaluatorType();
+
+        String getEvaluatedId();
+
+        Evaluation.EvaluatedType getEvaluatedType();
+
+        Integer getRating();
+
+        Integer getTechnicalSkills();
+
+        Integer getCommunication();
+
+        Integer getTeamwork();
+
+        Integer getPunctuality();
+
+        String getFeedback();
+
+        Boolean getIsAnonymous();
+
+        LocalDate getEvaluationDate();
+
+        LocalDateTime getCreatedAt();
+    }
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+        SELECT e.id AS id, p.projectCode AS projectCode, p.projectName AS projectName,
+               e.evaluatorId AS evaluatorId, e.evaluatorType AS evaluatorType,
+               e.evaluatedId AS evaluatedId, e.evaluatedType AS evaluatedType,
+               e.rating AS rating, e.technicalSkills AS technicalSkills,
+               e.communication AS communication, e.teamwork AS teamwork,
+               e.punctuality AS punctuality, e.feedback AS feedback,
+               e.isAnonymous AS isAnonymous, e.evaluationDate AS evaluationDate,
+               e.createdAt AS createdAt
+        FROM Evaluation e JOIN e.project p
+        WHERE (:projectId IS NULL OR p.id = :projectId)
+          AND e.createdAt >= :from AND e.createdAt < :to
+        ORDER BY e.createdAt
+    """)
+    Stream<EvaluationExportRow> streamForExport(@Param("projectId") String projectId,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
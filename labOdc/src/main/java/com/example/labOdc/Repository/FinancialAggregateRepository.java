@@ -0,0 +1,66 @@
+package com.example.labOdc.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.example.labOdc.Model.FinancialAggregate;
+
+@Repository
+public interface FinancialAggregateRepository extends JpaRepository<FinancialAggregate, String> {
+
+    Optional<FinancialAggregate> findByScopeAndScopeId(FinancialAggregate.Scope scope, String scopeId);
+
+    // Chặn các upsert cộng dồn trong lúc đối soát (upsert lấy ROW EXCLUSIVE -> phải chờ)
+    @Modifying
+    @Query(value = "LOCK TABLE financial_aggregates IN SHARE ROW EXCLUSIVE MODE", nativeQuery = true)
+    void lockForReconcile();
+
+    // ===== Đối soát: tổng từ bảng gốc theo (projectId, companyId) =====
+    // LEFT JOIN: bản ghi không gắn dự án vẫn được Snapshot cộng vào LAB, nên đối soát cũng phải đếm
+    // (nhóm theo id null); JOIN thường sẽ bỏ chúng và làm LAB lệch mỗi đêm.
+
+    @Query("""
+        SELECT pr.id, c.id, SUM(p.amount)
+        FROM Payment p LEFT JOIN p.project pr LEFT JOIN p.company c
+        WHERE p.status = com.example.labOdc.Model.PaymentStatus.COMPLETED
+        GROUP BY pr.id, c.id
+    """)
+    List<Object[]> sumPaymentsReceived();
+
+    @Query("""
+        SELECT pr.id, c.id, SUM(a.totalAmount), SUM(a.teamAmount), SUM(a.mentorAmount), SUM(a.labAmount)
+        FROM FundAllocation a LEFT JOIN a.project pr LEFT JOIN pr.company c
+        WHERE a.status = com.example.labOdc.Model.FundAllocationStatus.ALLOCATED
+        GROUP BY pr.id, c.id
+    """)
+    List<Object[]> sumAllocated();
+
+    @Query("""
+        SELECT pr.id, c.id, SUM(d.amount)
+        FROM FundDistribution d LEFT JOIN d.fundAllocation a LEFT JOIN a.project pr LEFT JOIN pr.company c
+        WHERE d.status = com.example.labOdc.Model.FundDistributionStatus.PAID
+        GROUP BY pr.id, c.id
+    """)
+    List<Object[]> sumTalentPaid();
+
+    @Query("""
+        SELECT pr.id, c.id, SUM(m.amount)
+        FROM MentorPayment m LEFT JOIN m.project pr LEFT JOIN pr.company c
+        WHERE m.status = com.example.labOdc.Model.MentorPaymentStatus.PAID
+        GROUP BY pr.id, c.id
+    """)
+    List<Object[]> sumMentorPaid();
+
+    @Query("""
+        SELECT pr.id, c.id, SUM(l.advanceAmount)
+        FROM LabFundAdvance l LEFT JOIN l.project pr LEFT JOIN pr.company c
+        WHERE l.status = com.example.labOdc.Model.LabFundAdvanceStatus.ADVANCED
+        GROUP BY pr.id, c.id
+    """)
+    List<Object[]> sumAdvancesOutstanding();
+}
@@ -0,0 +1,64 @@
+package com.example.labOdc.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.labOdc.Model.ImportJob;
+
+/**
+ * Mọi thay đổi trạng thái của job là UPDATE có điều kiện theo status hiện tại,
+ * để huỷ / worker / dọn lúc khởi động không ghi đè kết quả của nhau.
+ */
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, String> {
+
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE ImportJob j SET j.status = :running, j.startedAt = :at, j.updatedAt = :at
+            WHERE j.id = :id AND j.status = :queued
+            """)
+    int markRunning(@Param("id") String id, @Param("queued") ImportJob.Status queued,
+            @Param("running") ImportJob.Status running, @Param("at") LocalDateTime at);
+
+    // Ghi tiến độ sau mỗi chunk (cũng là heartbeat qua updatedAt); 0 dòng = job đã bị huỷ/đóng
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE ImportJob j SET j.total = :total, j.success = :success, j.failed = :failed,
+                   j.errors = :errors, j.currentRow = COALESCE(:currentRow, j.currentRow), j.updatedAt = :at
+            WHERE j.id = :id AND j.status = :running
+            """)
+    int updateProgress(@Param("id") String id, @Param("running") ImportJob.Status running,
+            @Param("total") Integer total, @Param("success") Integer success, @Param("failed") Integer failed,
+            @Param("errors") String errors, @Param("currentRow") Integer currentRow,
+            @Param("at") LocalDateTime at);
+
+    // clearAutomatically: đọc lại ngay sau đó (open-in-view) phải thấy trạng thái mới
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("""
+            UPDATE ImportJob j SET j.status = :to, j.message = :message, j.finishedAt = :at, j.updatedAt = :at
+            WHERE j.id = :id AND j.status IN :from
+            """)
+    int finish(@Param("id") String id, @Param("from") Collection<ImportJob.Status> from,
+            @Param("to") ImportJob.Status to, @Param("message") String message, @Param("at") LocalDateTime at);
+
+    // Job còn mở của node này (vừa khởi động lại) hoặc của node khác đã lâu không có heartbeat
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE ImportJob j SET j.status = :to, j.message = :message, j.finishedAt = :at, j.updatedAt = :at
+            WHERE j.status IN :from AND (j.node = :node OR j.node IS NULL OR j.updatedAt < :staleBefore)
+            """)
+    int failAbandoned(@Param("from") Collection<ImportJob.Status> from, @Param("to") ImportJob.Status to,
+            @Param("message") String message, @Param("node") String node,
+            @Param("staleBefore") LocalDateTime staleBefore, @Param("at") LocalDateTime at);
+}
@@ -1,13 +1,18 @@
 package com.example.labOdc.Repository;
 
 import com.example.labOdc.Model.MemberContribution;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface MemberContributionRepository extends JpaRepository<MemberContribution, String> {
@@ -80,5 +85,50 @@ public interface MemberContributionRepository extends JpaRepository<MemberContri
     findByProjectIdAndTalentIdOrderByRecordedAtAsc(
             String projectId, String talentId);
     long countByProjectId(String projectId);
+
+    // ===== EXPORT (đọc bằng cursor, dùng trong transaction) =====
+    interface ContributionExportRow {
+        String getId();
+
+        String getProjectCode();
+
+        String getProjectName();
+
+        String getStudentCode();
+
+        String getTalentName();
+
+        MemberContribution.ContributionType getContributionType();
+
+        BigDecimal getScore();
+
+        String getDescription();
+
+        String getRecordedBy();
+
+        LocalDateTime getRecordedAt();
+    }
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+        SELECT mc.id AS id, p.projectCode AS projectCode, p.projectName AS projectName,
+               t.studentCode AS studentCode, tu.fullName AS talentName,
+               mc.contributionType AS contributionType, mc.score AS score,
+               mc.description AS description, rb.fullName AS recordedBy,
+               mc.recordedAt AS recordedAt
+        FROM MemberContribution mc
+        JOIN mc.project p
+        JOIN mc.talent t
+        LEFT JOIN t.user tu
+        LEFT JOIN mc.recordedBy rb
+        WHERE (:projectId IS NULL OR p.id = :projectId)
+          AND mc.recordedAt >= :from AND mc.recordedAt < :to
+        ORDER BY mc.recordedAt
+    """)
+    Stream<ContributionExportRow> streamForExport(@Param("projectId") String projectId,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
 
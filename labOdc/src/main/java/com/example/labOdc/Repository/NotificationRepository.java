@@ -1,9 +1,15 @@
 package com.example.labOdc.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.labOdc.Model.Notification;
 
@@ -12,4 +18,71 @@ public interface NotificationRepository extends JpaRepository<Notification, Stri
     List<Notification> findByUserIdOrderByCreatedAtDesc(String userId);
 
     long countByUserIdAndIsReadFalse(String userId);
+
+    // 1 câu UPDATE, chỉ đụng các dòng chưa đọc (index user_id,is_read)
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.user.id = :userId AND n.isRead = false")
+    int markAllReadByUserId(@Param("userId") String userId);
+
+    @Modifying
+    @Query("""
+            UPDATE Notification n SET n.isRead = true
+            WHERE n.user.id = :userId AND n.isRead = false AND n.createdAt <= :upTo
+            """)
+    int markReadByUserIdUpTo(@Param("userId") String userId, @Param("upTo") LocalDateTime upTo);
+
+    interface UnreadCount {
+        String getUserId();
+
+        Long getUnread();
+    }
+
+    // Đối soát bộ đếm chưa đọc theo lô (dùng index user_id,is_read)
+    @Query("""
+            SELECT n.user.id AS userId, COUNT(n) AS unread
+            FROM Notification n
+            WHERE n.user.id IN :userIds AND n.isRead = false
+            GROUP BY n.user.id
+            """)
+    List<UnreadCount> countUnreadByUserIds(@Param("userIds") Collection<String> userIds);
+
+    // Dòng vừa chèn của broadcast: id thông báo riêng của từng người nhận
+    interface Recipient {
+        String getId();
+
+        String getUserId();
+    }
+
+    /**
+     * Broadcast set-based: 1 câu INSERT ... SELECT cho toàn bộ user đang hoạt động, không nạp User vào bộ nhớ.
+     * RETURNING chỉ trả (id, user_id) để đẩy SSE kèm id thông báo và cập nhật cache của đúng người nhận.
+     */
+    @Transactional
+    @Query(value = """
+            INSERT INTO notifications (id, user_id, title, message, type, is_read, created_at)
+            SELECT CAST(gen_random_uuid() AS varchar), u.id, :title, CAST(:message AS text), CAST(:type AS varchar),
+                   false, now()
+            FROM users u
+            WHERE u.is_active = true
+            RETURNING id AS id, user_id AS userId
+            """, nativeQuery = true)
+    List<Recipient> insertForAllActiveUsers(@Param("title") String title, @Param("message") String message,
+            @Param("type") String type);
+
+    /**
+     * Như trên nhưng chỉ cho user có ít nhất 1 role trong danh sách (tên enum UserRole).
+     */
+    @Transactional
+    @Query(value = """
+            INSERT INTO notifications (id, user_id, title, message, type, is_read, created_at)
+            SELECT CAST(gen_random_uuid() AS varchar), u.id, :title, CAST(:message AS text), CAST(:type AS varchar),
+                   false, now()
+            FROM users u
+            WHERE u.is_active = true
+              AND EXISTS (SELECT 1 FROM user_roles ur JOIN roles r ON r.id = ur.role_id
+                          WHERE ur.user_id = u.id AND r.role IN (:roles))
+            RETURNING id AS id, user_id AS userId
+            """, nativeQuery = true)
+    List<Recipient> insertForActiveUsersWithRoles(@Param("title") String title, @Param("message") String message,
+            @Param("type") String type, @Param("roles") Collection<String> roles);
 }
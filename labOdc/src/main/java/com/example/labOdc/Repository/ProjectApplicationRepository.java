@@ -14,6 +14,8 @@ public interface ProjectApplicationRepository extends JpaRepository<ProjectAppli
 
     List<ProjectApplication> findByTalentId(String talentId);
 
+    List<ProjectApplication> findByProjectIdAndStatus(String projectId, ProjectApplication.Status status);
+
     boolean existsByProjectIdAndTalentId(String projectId, String talentId);
 
     Optional<ProjectApplication> findByProjectIdAndTalentId(String projectId, String talentId);
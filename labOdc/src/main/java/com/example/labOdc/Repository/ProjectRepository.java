@@ -1,11 +1,18 @@
 package com.example.labOdc.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.example.labOdc.Model.Project;
+import com.example.labOdc.Model.ProjectStatus;
 import com.example.labOdc.Model.ValidationStatus;
 
 public interface ProjectRepository extends JpaRepository<Project, String> {
@@ -16,4 +23,72 @@ public interface ProjectRepository extends JpaRepository<Project, String> {
     List<Project> findByValidationStatus(ValidationStatus validationStatus);
 
     List<Project> findByMentorId(String mentorId);
+
+    // ===== LISTING (projection, không nạp entity/proxy liên kết) =====
+    interface ProjectListRow {
+        String getId();
+
+        String getCompanyId();
+
+        String getMentorId();
+
+        String getProjectName();
+
+        String getProjectCode();
+
+        String getDescription();
+
+        BigDecimal getBudget();
+
+        Integer getDurationMonths();
+
+        LocalDate getStartDate();
+
+        LocalDate getEndDate();
+
+        ProjectStatus getStatus();
+
+        ValidationStatus getValidationStatus();
+
+        String getValidatedById();
+
+        LocalDateTime getValidatedAt();
+
+        Integer getMaxTeamSize();
+
+        String getRequiredSkills();
+
+        LocalDateTime getCreatedAt();
+
+        LocalDateTime getUpdatedAt();
+    }
+
+    /**
+     * Mới nhất trước, keyset theo (createdAt, id). Mọi bộ lọc null = bỏ qua;
+     * skillPattern dạng '%java%' (chữ thường). company.id/mentor.id/validatedBy.id đọc thẳng cột FK, không JOIN.
+     */
+    @Query("""
+        SELECT p.id AS id, p.company.id AS companyId, p.mentor.id AS mentorId,
+               p.projectName AS projectName, p.projectCode AS projectCode, p.description AS description,
+               p.budget AS budget, p.durationMonths AS durationMonths, p.startDate AS startDate,
+               p.endDate AS endDate, p.status AS status, p.validationStatus AS validationStatus,
+               p.validatedBy.id AS validatedById, p.validatedAt AS validatedAt, p.maxTeamSize AS maxTeamSize,
+               p.requiredSkills AS requiredSkills, p.createdAt AS createdAt, p.updatedAt AS updatedAt
+        FROM Project p
+        WHERE (:status IS NULL OR p.status = :status)
+          AND (:validationStatus IS NULL OR p.validationStatus = :validationStatus)
+          AND (:companyId IS NULL OR p.company.id = :companyId)
+          AND (:skillPattern IS NULL OR LOWER(p.requiredSkills) LIKE :skillPattern)
+          AND (:afterCreatedAt IS NULL
+               OR p.createdAt < :afterCreatedAt
+               OR (p.createdAt = :afterCreatedAt AND p.id < :afterId))
+        ORDER BY p.createdAt DESC, p.id DESC
+    """)
+    List<ProjectListRow> findListRows(@Param("status") ProjectStatus status,
+            @Param("validationStatus") ValidationStatus validationStatus,
+            @Param("companyId") String companyId,
+            @Param("skillPattern") String skillPattern,
+            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+            @Param("afterId") String afterId,
+            Limit limit);
 }
@@ -1,12 +1,20 @@
 package com.example.labOdc.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.example.labOdc.Model.RoleEntity;
 import com.example.labOdc.Model.UserRole;
 
 public interface RoleRepository extends JpaRepository<RoleEntity, String> {
     Optional<RoleEntity> findByRole(UserRole role);
+
+    /**
+     * Toàn bộ role kèm permissions, 1 truy vấn (nạp RolePermissionCache).
+     */
+    @Query("SELECT DISTINCT r FROM RoleEntity r LEFT JOIN FETCH r.permissions")
+    List<RoleEntity> findAllWithPermissions();
 }
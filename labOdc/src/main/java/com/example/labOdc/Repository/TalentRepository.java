@@ -1,9 +1,12 @@
 package com.example.labOdc.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.labOdc.Model.Talent;
@@ -12,6 +15,12 @@ import com.example.labOdc.Model.Talent;
 public interface TalentRepository extends JpaRepository<Talent, String> {
     boolean existsByStudentCode(String studentCode);
 
+    @Query("SELECT t.studentCode FROM Talent t WHERE t.studentCode IN :codes")
+    List<String> findExistingStudentCodes(@Param("codes") Collection<String> codes);
+
+    @Query("SELECT t.id FROM Talent t WHERE t.id IN :ids")
+    List<String> findExistingIds(@Param("ids") Collection<String> ids);
+
     List<Talent> findByMajor(String major);
 
     List<Talent> findByStatus(Talent.Status status);
@@ -0,0 +1,35 @@
+package com.example.labOdc.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.labOdc.Model.TaskDailyRollup;
+
+@Repository
+public interface TaskDailyRollupRepository extends JpaRepository<TaskDailyRollup, String> {
+
+    /**
+     * Số task đang mở / đã xong tính tới trước ngày from (điểm xuất phát của burndown).
+     */
+    interface Baseline {
+        Long getOpen();
+
+        Long getDone();
+    }
+
+    List<TaskDailyRollup> findByProjectIdAndStatDateBetweenOrderByStatDateAsc(String projectId, LocalDate from,
+            LocalDate to);
+
+    @Query("""
+        SELECT COALESCE(SUM(r.opened - r.closed), 0) AS open,
+               COALESCE(SUM(r.completed - r.uncompleted), 0) AS done
+        FROM TaskDailyRollup r
+        WHERE r.projectId = :projectId AND r.statDate < :from
+    """)
+    Baseline baselineBefore(@Param("projectId") String projectId, @Param("from") LocalDate from);
+}
@@ -0,0 +1,30 @@
+package com.example.labOdc.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.labOdc.Model.Task;
+import com.example.labOdc.Model.TaskEvent;
+
+@Repository
+public interface TaskEventRepository extends JpaRepository<TaskEvent, String> {
+
+    // Lần gần nhất task vào 1 trạng thái (tính thời gian nằm ở REVIEW)
+    Optional<TaskEvent> findFirstByTaskIdAndToStatusOrderByOccurredAtDesc(String taskId, Task.Status toStatus);
+
+    // Như trên cho cả lô task (thao tác hàng loạt): 1 truy vấn, mỗi task 1 dòng mới nhất
+    @Query(value = """
+            SELECT DISTINCT ON (e.task_id) e.*
+            FROM task_events e
+            WHERE e.task_id IN (:taskIds) AND e.to_status = :toStatus
+            ORDER BY e.task_id, e.occurred_at DESC
+            """, nativeQuery = true)
+    List<TaskEvent> findLatestByTaskIdInAndToStatus(@Param("taskIds") Collection<String> taskIds,
+            @Param("toStatus") String toStatus);
+}
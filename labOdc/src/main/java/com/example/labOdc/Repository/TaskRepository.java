@@ -1,11 +1,21 @@
 package com.example.labOdc.Repository;
 
 import com.example.labOdc.Model.Task;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TaskRepository extends JpaRepository<Task, String> {
@@ -45,4 +55,107 @@ public interface TaskRepository extends JpaRepository<Task, String> {
     long countByAssignedTo(String userId);
 
     long countByAssignedToAndStatus(String userId, Task.Status status);
+
+    // Trạng thái hiện tại: giải thích vì sao UPDATE có điều kiện không khớp dòng nào, kiểm tra trước thao tác hàng loạt
+    interface TaskState {
+        String getId();
+
+        String getProjectId();
+
+        Task.Status getStatus();
+
+        String getAssignedTo();
+
+        long getVersion();
+    }
+
+    @Query("""
+        SELECT t.id AS id, t.projectId AS projectId, t.status AS status, t.assignedTo AS assignedTo,
+               t.version AS version
+        FROM Task t WHERE t.id = :id
+    """)
+    Optional<TaskState> findStateById(@Param("id") String id);
+
+    @Query("""
+        SELECT t.id AS id, t.projectId AS projectId, t.status AS status, t.assignedTo AS assignedTo,
+               t.version AS version
+        FROM Task t WHERE t.id IN :ids
+    """)
+    List<TaskState> findStatesByIdIn(@Param("ids") Collection<String> ids);
+
+    // ===== BOARD (1 truy vấn GROUP BY cho cả bảng Kanban) =====
+    interface BoardCell {
+        Task.Status getStatus();
+
+        Task.Priority getPriority();
+
+        String getAssignedTo();
+
+        long getTotal();
+
+        long getOverdue();
+
+        BigDecimal getEstimatedHours();
+    }
+
+    // Quá hạn: dueDate < today và chưa DONE/CANCELLED
+    @Query("""
+        SELECT t.status AS status, t.priority AS priority, t.assignedTo AS assignedTo, COUNT(t) AS total,
+               SUM(CASE WHEN t.dueDate < :today
+                         AND t.status NOT IN (com.example.labOdc.Model.Task.Status.DONE,
+                                              com.example.labOdc.Model.Task.Status.CANCELLED)
+                        THEN 1 ELSE 0 END) AS overdue,
+               SUM(COALESCE(t.estimatedHours, 0)) AS estimatedHours
+        FROM Task t
+        WHERE t.projectId = :projectId
+        GROUP BY t.status, t.priority, t.assignedTo
+    """)
+    List<BoardCell> summarizeBoard(@Param("projectId") String projectId, @Param("today") LocalDate today);
+
+    // ===== EXPORT (đọc bằng cursor, dùng trong transaction) =====
+    interface TaskExportRow {
+        String getId();
+
+        String getProjectCode();
+
+        String getProjectName();
+
+        String getTaskName();
+
+        Task.Status getStatus();
+
+        Task.Priority getPriority();
+
+        String getAssignedTo();
+
+        LocalDate getStartDate();
+
+        LocalDate getDueDate();
+
+        LocalDate getCompletedDate();
+
+        BigDecimal getEstimatedHours();
+
+        BigDecimal getActualHours();
+
+        LocalDateTime getCreatedAt();
+    }
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+        SELECT t.id AS id, p.projectCode AS projectCode, p.projectName AS projectName,
+               t.taskName AS taskName, t.status AS status, t.priority AS priority,
+               t.assignedTo AS assignedTo, t.startDate AS startDate, t.dueDate AS dueDate,
+               t.completedDate AS completedDate, t.estimatedHours AS estimatedHours,
+               t.actualHours AS actualHours, t.createdAt AS createdAt
+        FROM Task t LEFT JOIN Project p ON p.id = t.projectId
+        WHERE (:projectId IS NULL OR t.projectId = :projectId)
+          AND t.createdAt >= :from AND t.createdAt < :to
+        ORDER BY t.createdAt
+    """)
+    Stream<TaskExportRow> streamForExport(@Param("projectId") String projectId,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
\ No newline at end of file
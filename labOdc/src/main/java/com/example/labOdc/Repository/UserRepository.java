@@ -1,5 +1,6 @@
 package com.example.labOdc.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -23,10 +24,88 @@ public interface UserRepository extends JpaRepository<User, String> {
 
     boolean existsByEmail(String email);
 
+    // Kiểm tra trùng theo lô khi import
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
     List<User> findByIsActiveTrue();
 
     List<User> findDistinctByIsActiveTrueAndRoles_RoleIn(Collection<UserRole> roles);
 
+    /**
+     * userId + ID hồ sơ Mentor/Talent/Company/LabAdmin trong 1 truy vấn (join theo user_id unique).
+     */
+    interface ActorIds {
+        String getUserId();
+
+        String getUsername();
+
+        String getMentorId();
+
+        String getTalentId();
+
+        String getCompanyId();
+
+        String getLabAdminId();
+    }
+
+    @Query("""
+            SELECT u.id AS userId, u.username AS username, m.id AS mentorId, t.id AS talentId,
+                   c.id AS companyId, la.id AS labAdminId
+            FROM User u
+            LEFT JOIN Mentor m ON m.user.id = u.id
+            LEFT JOIN Talent t ON t.user.id = u.id
+            LEFT JOIN Company c ON c.user.id = u.id
+            LEFT JOIN LabAdmin la ON la.user.id = u.id
+            WHERE u.username = :username
+            """)
+    Optional<ActorIds> findActorIdsByUsername(@Param("username") String username);
+
+    @Query("""
+            SELECT u.id AS userId, u.username AS username, m.id AS mentorId, t.id AS talentId,
+                   c.id AS companyId, la.id AS labAdminId
+            FROM User u
+            LEFT JOIN Mentor m ON m.user.id = u.id
+            LEFT JOIN Talent t ON t.user.id = u.id
+            LEFT JOIN Company c ON c.user.id = u.id
+            LEFT JOIN LabAdmin la ON la.user.id = u.id
+            WHERE u.email = :email
+            """)
+    Optional<ActorIds> findActorIdsByEmail(@Param("email") String email);
+
+    /**
+     * Dữ liệu đăng nhập: mỗi role của user là 1 dòng, kèm password hash và ID hồ sơ.
+     */
+    interface LoginRow extends ActorIds {
+        String getPassword();
+
+        UserRole getRole();
+
+        Boolean getIsActive();
+    }
+
+    @Query("""
+            SELECT u.id AS userId, u.username AS username, u.password AS password, r.role AS role,
+                   u.isActive AS isActive,
+                   m.id AS mentorId, t.id AS talentId, c.id AS companyId, la.id AS labAdminId
+            FROM User u
+            LEFT JOIN u.roles r
+            LEFT JOIN Mentor m ON m.user.id = u.id
+            LEFT JOIN Talent t ON t.user.id = u.id
+            LEFT JOIN Company c ON c.user.id = u.id
+            LEFT JOIN LabAdmin la ON la.user.id = u.id
+            WHERE u.username = :username
+            """)
+    List<LoginRow> findLoginRowsByUsername(@Param("username") String username);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.lastLoginAt = :loginAt WHERE u.id IN :ids")
+    int updateLastLoginAt(@Param("ids") Collection<String> ids, @Param("loginAt") LocalDateTime loginAt);
+
     @Modifying
     @Transactional
     @Query(value = "DELETE FROM user_roles WHERE user_id = :userId", nativeQuery = true)
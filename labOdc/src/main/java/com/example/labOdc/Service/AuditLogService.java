@@ -0,0 +1,20 @@
+package com.example.labOdc.Service;
+
+import java.time.LocalDateTime;
+
+import com.example.labOdc.DTO.Response.AuditLogPageResponse;
+
+public interface AuditLogService {
+
+    /**
+     * Ghi nhận 1 thay đổi trạng thái. Không chặn request: sự kiện vào buffer và được ghi DB theo lô dưới nền.
+     * Nếu đang trong transaction thì chỉ ghi sau khi commit.
+     */
+    void record(String action, String entityType, String entityId, String details);
+
+    /**
+     * Tìm audit log, mới nhất trước. Mọi bộ lọc đều tuỳ chọn; cursor lấy từ nextCursor của trang trước.
+     */
+    AuditLogPageResponse search(String actorId, String entityType, String entityId, LocalDateTime from,
+            LocalDateTime to, String cursor, Integer limit);
+}
@@ -42,6 +42,6 @@ public interface CompanyService {
      * @param companyId ID công ty
      * @return List<Project>
      */
-    List<com.example.labOdc.Model.Project> getCompanyProjects(String companyId);
+    List<com.example.labOdc.DTO.Response.ProjectResponse> getCompanyProjects(String companyId);
 
 }
@@ -0,0 +1,18 @@
+package com.example.labOdc.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+/**
+ * Xuất dữ liệu ra .xlsx theo kiểu streaming (SXSSF): ghi thẳng vào out, heap không phụ thuộc số dòng.
+ * projectId null = mọi dự án; from/to (theo ngày tạo, to tính cả ngày) null = không giới hạn.
+ */
+public interface ExportService {
+
+    void exportTasks(String projectId, LocalDate from, LocalDate to, OutputStream out) throws IOException;
+
+    void exportEvaluations(String projectId, LocalDate from, LocalDate to, OutputStream out) throws IOException;
+
+    void exportContributions(String projectId, LocalDate from, LocalDate to, OutputStream out) throws IOException;
+}
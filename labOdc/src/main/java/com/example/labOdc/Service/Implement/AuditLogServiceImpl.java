@@ -0,0 +1,189 @@
+package com.example.labOdc.Service.Implement;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.labOdc.DTO.AuditEvent;
+import com.example.labOdc.DTO.Response.AuditLogPageResponse;
+import com.example.labOdc.DTO.Response.AuditLogResponse;
+import com.example.labOdc.Repository.AuditLogRepository;
+import com.example.labOdc.Service.AuditLogService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Audit log bất đồng bộ, ghi theo lô:
+ * - record() chỉ đẩy AuditEvent vào buffer có giới hạn (offer, không chờ); buffer đầy thì bỏ sự kiện và đếm.
+ * - Trong transaction: chỉ đẩy sau commit, rollback thì không có audit.
+ * - 1 thread nền gom tối đa batch-size sự kiện (hoặc chờ flush-interval-ms) rồi INSERT theo JDBC batch.
+ * - Partition tháng hiện tại + tháng sau được tạo lúc khởi động và kiểm tra lại mỗi ngày.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditLogServiceImpl implements AuditLogService {
+
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
+    private final AuditLogRepository auditLogRepository;
+    private final CurrentActorService currentActorService;
+
+    @Value("${app.audit.buffer-capacity:10000}")
+    int bufferCapacity;
+
+    @Value("${app.audit.batch-size:500}")
+    int batchSize;
+
+    @Value("${app.audit.flush-interval-ms:200}")
+    long flushIntervalMs;
+
+    private ArrayBlockingQueue<AuditEvent> buffer;
+    private Thread writer;
+    private volatile boolean running;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        auditLogRepository.ensureSchema();
+        ensurePartitions();
+        buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        running = true;
+        writer = new Thread(this::drainLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Audit writer started: buffer {}, batch {}", bufferCapacity, batchSize);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+        // Ghi nốt phần còn lại trong buffer
+        List<AuditEvent> rest = new ArrayList<>();
+        buffer.drainTo(rest);
+        if (!rest.isEmpty()) {
+            write(rest);
+        }
+        log.info("Audit writer stopped: {} written, {} dropped", written.get(), dropped.get());
+    }
+
+    @Scheduled(cron = "${app.audit.partition-cron:0 0 1 * * *}")
+    public void ensurePartitions() {
+        YearMonth now = YearMonth.now();
+        for (YearMonth month : List.of(now, now.plusMonths(1))) {
+            try {
+                auditLogRepository.ensurePartition(month);
+            } catch (RuntimeException ex) {
+                // Vd. partition DEFAULT đã có dòng thuộc tháng này -> vẫn ghi được, chỉ không tách partition
+                log.error("Cannot create audit partition for {}", month, ex);
+            }
+        }
+    }
+
+    @Override
+    public void record(String action, String entityType, String entityId, String details) {
+        AuditEvent event = new AuditEvent(LocalDateTime.now(), currentActorService.currentUserIdOrNull(), action,
+                entityType, entityId, details);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+        } else {
+            enqueue(event);
+        }
+    }
+
+    @Override
+    public AuditLogPageResponse search(String actorId, String entityType, String entityId, LocalDateTime from,
+            LocalDateTime to, String cursor, Integer limit) {
+        int size = limit == null || limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        LocalDateTime afterOccurredAt = after != null ? after.at() : null;
+        Long afterId = null;
+        if (after != null) {
+            try {
+                afterId = Long.parseLong(after.id());
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        // Lấy dư 1 dòng để biết còn trang sau hay không
+        List<AuditLogResponse> rows = auditLogRepository.search(blankToNull(actorId), blankToNull(entityType),
+                blankToNull(entityId), from, to, afterOccurredAt, afterId, size + 1);
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            AuditLogResponse last = rows.get(size - 1);
+            nextCursor = new KeysetCursor(last.getOccurredAt(), String.valueOf(last.getId())).encode();
+        }
+        return new AuditLogPageResponse(rows, nextCursor);
+    }
+
+    // ===== PRIVATE =====
+
+    private void enqueue(AuditEvent event) {
+        if (!buffer.offer(event)) {
+            // Không chặn request vì audit; log thưa để không spam
+            if (dropped.incrementAndGet() % 1000 == 1) {
+                log.warn("Audit buffer full, {} event(s) dropped so far", dropped.get());
+            }
+        }
+    }
+
+    private void drainLoop() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                AuditEvent first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<AuditEvent> batch) {
+        try {
+            auditLogRepository.insertBatch(batch);
+            written.addAndGet(batch.size());
+        } catch (RuntimeException ex) {
+            dropped.addAndGet(batch.size());
+            log.error("Failed to write {} audit event(s)", batch.size(), ex);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
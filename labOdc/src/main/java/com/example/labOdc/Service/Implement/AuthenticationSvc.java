@@ -1,24 +1,35 @@
 package com.example.labOdc.Service.Implement;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.ParseException;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import com.example.labOdc.DTO.AuthenticationRequest;
+import com.example.labOdc.DTO.CurrentActor;
 import com.example.labOdc.DTO.IntrospectRequest;
+import com.example.labOdc.DTO.LogoutRequest;
 import com.example.labOdc.DTO.Response.AutheticationResponse;
 import com.example.labOdc.DTO.Response.IntrospectResponse;
 import com.example.labOdc.Exception.ResourceNotFoundException;
-import com.example.labOdc.Model.PermissionEntity;
-import com.example.labOdc.Model.RoleEntity;
-import com.example.labOdc.Model.User;
+import com.example.labOdc.Model.UserRole;
 import com.example.labOdc.Repository.UserRepository;
 import com.nimbusds.jose.*;
 import com.nimbusds.jose.crypto.MACSigner;
@@ -26,6 +37,7 @@ import com.nimbusds.jose.crypto.MACVerifier;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -33,63 +45,170 @@ import lombok.RequiredArgsConstructor;
 public class AuthenticationSvc {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder; // inject từ Spring
+    private final PasswordHashExecutor passwordHashExecutor; // BCrypt chạy trên pool riêng, có giới hạn
+    private final RolePermissionCache rolePermissionCache;
+    private final LastLoginRecorder lastLoginRecorder;
+    private final TokenRevocationService tokenRevocationService;
+
+    public static final Duration TOKEN_TTL = Duration.ofHours(1);
 
     @Value("${jwt.signer-key}")
     String SIGNER_KEY;
 
-    // Kiểm tra token còn hợp lệ hay không
+    @Value("${app.introspect.cache-max-size:20000}")
+    int introspectCacheMaxSize;
+
+    // Verifier/Signer dùng lại được giữa các luồng, không cần tạo mới mỗi lần
+    private JWSVerifier verifier;
+    private JWSSigner signer;
+
+    // sha256(token) -> kết quả verify chữ ký + claim cần cho việc kiểm tra thu hồi
+    private final Map<String, VerifiedToken> introspectCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                    return size() > introspectCacheMaxSize;
+                }
+            });
+
+    private record VerifiedToken(boolean signatureValid, long expiresAt, String jti, String subject,
+            String userId, Instant issuedAt) {
+    }
+
+    @PostConstruct
+    void initKeys() throws JOSEException {
+        verifier = new MACVerifier(SIGNER_KEY.getBytes());
+        signer = new MACSigner(SIGNER_KEY.getBytes());
+    }
+
+    // Kiểm tra token còn hợp lệ hay không (cache theo hash token, hết hạn cùng token; thu hồi luôn được kiểm tra)
     public IntrospectResponse introspect(IntrospectRequest request) throws JOSEException, ParseException {
-        String token = request.getToken();
-        SignedJWT signedJWT = SignedJWT.parse(token);
-        JWSVerifier verifier = new MACVerifier(SIGNER_KEY.getBytes());
-        Date expiraTime = signedJWT.getJWTClaimsSet().getExpirationTime();
-        boolean verified = signedJWT.verify(verifier);
+        VerifiedToken verified = verifyCached(request.getToken());
+        boolean valid = verified.signatureValid()
+                && verified.expiresAt() > System.currentTimeMillis()
+                && !tokenRevocationService.isRevoked(verified.jti(), verified.userId(), verified.issuedAt());
 
         return IntrospectResponse.builder()
-                .valid(verified && expiraTime.after(new Date()))
+                .valid(valid)
                 .build();
     }
 
+    // Đăng xuất: thu hồi token ngay (theo jti; token cũ không có jti -> thu hồi theo user)
+    public void logout(LogoutRequest request) throws JOSEException, ParseException {
+        VerifiedToken verified = verifyCached(request.getToken());
+        if (!verified.signatureValid()) {
+            throw new BadCredentialsException("Invalid token");
+        }
+        if (verified.jti() != null) {
+            tokenRevocationService.revokeToken(verified.jti(), Instant.ofEpochMilli(verified.expiresAt()));
+        } else {
+            String userId = verified.userId() != null ? verified.userId()
+                    : userRepository.findActorIdsByUsername(verified.subject())
+                            .map(UserRepository.ActorIds::getUserId)
+                            .orElse(null);
+            tokenRevocationService.revokeUser(userId);
+        }
+    }
+
+    private VerifiedToken verifyCached(String token) throws JOSEException, ParseException {
+        String key = sha256(token);
+        VerifiedToken cached = introspectCache.get(key);
+        if (cached != null) {
+            if (cached.expiresAt() <= System.currentTimeMillis()) {
+                introspectCache.remove(key);
+            }
+            return cached;
+        }
+
+        SignedJWT signedJWT = SignedJWT.parse(token);
+        JWTClaimsSet claims = signedJWT.getJWTClaimsSet();
+        Date expiraTime = claims.getExpirationTime();
+        VerifiedToken verified = new VerifiedToken(
+                signedJWT.verify(verifier),
+                expiraTime != null ? expiraTime.getTime() : 0L,
+                claims.getJWTID(),
+                claims.getSubject(),
+                claims.getStringClaim(CurrentActorService.CLAIM_USER_ID),
+                claims.getIssueTime() != null ? claims.getIssueTime().toInstant() : null);
+
+        if (verified.expiresAt() > System.currentTimeMillis()) {
+            introspectCache.put(key, verified);
+        }
+        return verified;
+    }
+
+    private static String sha256(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     // Authenticate user và trả token
+    // 1 truy vấn: user + roles + ID hồ sơ; permission lấy từ RolePermissionCache
     public AutheticationResponse authenticate(AuthenticationRequest request) {
-        User user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new BadCredentialsException("Invalid username or password"));
+        List<UserRepository.LoginRow> rows = userRepository.findLoginRowsByUsername(request.getUsername());
+        if (rows.isEmpty()) {
+            throw new BadCredentialsException("Invalid username or password");
+        }
+        UserRepository.LoginRow login = rows.get(0);
 
-        boolean authenticated = passwordEncoder.matches(request.getPassword(), user.getPassword());
+        boolean authenticated = passwordHashExecutor.matches(request.getPassword(), login.getPassword());
         if (!authenticated) {
             throw new BadCredentialsException("Invalid username or password");
         }
+        // Tài khoản đã bị khoá thì không cấp token mới
+        if (Boolean.FALSE.equals(login.getIsActive())) {
+            throw new BadCredentialsException("Account is disabled");
+        }
 
-        String token = generateToken(user);
+        CurrentActor actor = CurrentActor.builder()
+                .userId(login.getUserId())
+                .username(login.getUsername())
+                .mentorId(login.getMentorId())
+                .talentId(login.getTalentId())
+                .companyId(login.getCompanyId())
+                .labAdminId(login.getLabAdminId())
+                .build();
+        Set<UserRole> roles = rows.stream()
+                .map(UserRepository.LoginRow::getRole)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(() -> EnumSet.noneOf(UserRole.class)));
+
+        String token = generateToken(actor, roles);
+        lastLoginRecorder.record(actor.getUserId());
         return AutheticationResponse.builder()
                 .token(token)
                 .authenticated(true)
                 .build();
     }
 
-    // Tạo JWT
-    public String generateToken(User user) {
+    // Tạo JWT (kèm userId + ID hồ sơ theo vai trò để các API không phải tra lại DB)
+    public String generateToken(CurrentActor actor, Set<UserRole> roles) {
         try {
             JWSHeader header = new JWSHeader(JWSAlgorithm.HS512);
 
             JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
-                    .subject(user.getUsername()) // dùng email làm subject
+                    .subject(actor.getUsername()) // dùng email làm subject
                     .issuer("dev")
+                    .jwtID(UUID.randomUUID().toString())
                     .issueTime(new Date())
-                    .expirationTime(Date.from(Instant.now().plus(1, ChronoUnit.HOURS)))
-                    .claim("roles", user.getRoles().stream()
-                            .map(RoleEntity::getRole)
+                    .expirationTime(Date.from(Instant.now().plus(TOKEN_TTL)))
+                    .claim("roles", roles.stream()
                             .map(Enum::name)
                             .collect(Collectors.toList()))
-                    .claim("permissions", user.getRoles().stream()
-                            .flatMap(r -> r.getPermissions().stream())
-                            .map(PermissionEntity::getCode)
-                            .collect(Collectors.toList()))
+                    .claim("permissions", rolePermissionCache.permissionsOf(roles))
+                    .claim(CurrentActorService.CLAIM_USER_ID, actor.getUserId())
+                    .claim(CurrentActorService.CLAIM_MENTOR_ID, actor.getMentorId())
+                    .claim(CurrentActorService.CLAIM_TALENT_ID, actor.getTalentId())
+                    .claim(CurrentActorService.CLAIM_COMPANY_ID, actor.getCompanyId())
+                    .claim(CurrentActorService.CLAIM_LAB_ADMIN_ID, actor.getLabAdminId())
                     .build();
 
             SignedJWT signedJWT = new SignedJWT(header, claimsSet);
-            signedJWT.sign(new MACSigner(SIGNER_KEY.getBytes()));
+            signedJWT.sign(signer);
             return signedJWT.serialize();
 
         } catch (JOSEException e) {
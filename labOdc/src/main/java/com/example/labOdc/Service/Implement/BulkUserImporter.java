@@ -0,0 +1,204 @@
+package com.example.labOdc.Service.Implement;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.labOdc.DTO.ImportResult;
+import com.example.labOdc.Model.RoleEntity;
+import com.example.labOdc.Model.User;
+import com.example.labOdc.Model.UserRole;
+import com.example.labOdc.Repository.UserRepository;
+
+import jakarta.persistence.EntityManager;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Phần dùng chung cho import Talent/Mentor hàng loạt:
+ * - Kiểm tra trùng email / cấp username theo lô (1 truy vấn mỗi chunk thay vì mỗi dòng).
+ * - Mã hoá mật khẩu mặc định 1 lần cho cả lượt import.
+ * - Ghi User + hồ sơ theo chunk, JDBC batch; chunk lỗi thì ghi lại từng dòng để báo lỗi đúng dòng.
+ */
+@Service
+@Slf4j
+public class BulkUserImporter {
+
+    public static final String DEFAULT_PASSWORD = "123456";
+
+    // Số hậu tố username thử trước khi phải tra DB từng cái (base, base1, ..., baseN)
+    private static final int USERNAME_CANDIDATES = 20;
+
+    private final UserRepository userRepository;
+    private final RolePermissionCache rolePermissionCache;
+    private final PasswordEncoder passwordEncoder;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    @Getter
+    @Value("${app.import.batch-size:500}")
+    int batchSize;
+
+    public BulkUserImporter(UserRepository userRepository, RolePermissionCache rolePermissionCache,
+            PasswordEncoder passwordEncoder, EntityManager entityManager,
+            PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.rolePermissionCache = rolePermissionCache;
+        this.passwordEncoder = passwordEncoder;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Trạng thái của 1 lượt import: role, hash mật khẩu mặc định, các giá trị đã dùng trong file.
+     */
+    public class ImportContext {
+        private final RoleEntity role;
+        private final String passwordHash;
+        private final Set<String> seenEmails = new HashSet<>();
+        private final Set<String> allocatedUsernames = new HashSet<>();
+
+        private ImportContext(UserRole userRole) {
+            this.role = rolePermissionCache.findRole(userRole)
+                    .orElseThrow(() -> new RuntimeException("Role " + userRole + " not found"));
+            this.passwordHash = passwordEncoder.encode(DEFAULT_PASSWORD);
+        }
+
+        /**
+         * Email đã có trong DB trong số các email của chunk.
+         */
+        public Set<String> existingEmails(Collection<String> emails) {
+            return emails.isEmpty() ? Set.of() : new HashSet<>(userRepository.findExistingEmails(emails));
+        }
+
+        /**
+         * Đánh dấu email đã dùng trong file; false nếu email lặp lại trong chính file import.
+         */
+        public boolean claimEmail(String email) {
+            return seenEmails.add(email);
+        }
+
+        /**
+         * Username đã bị chiếm (trong DB) cho các base của chunk, 1 truy vấn.
+         */
+        public Set<String> takenUsernames(Collection<String> emails) {
+            Set<String> candidates = new LinkedHashSet<>();
+            for (String email : emails) {
+                String base = baseUsername(email);
+                candidates.add(base);
+                for (int i = 1; i <= USERNAME_CANDIDATES; i++) {
+                    candidates.add(base + i);
+                }
+            }
+            return candidates.isEmpty() ? Set.of() : new HashSet<>(userRepository.findExistingUsernames(candidates));
+        }
+
+        /**
+         * Cùng quy tắc với trước đây: base, base1, base2, ... lấy cái đầu tiên còn trống.
+         */
+        public String allocateUsername(String email, Set<String> taken) {
+            String base = baseUsername(email);
+            String username = base;
+            int count = 1;
+            while (taken.contains(username) || allocatedUsernames.contains(username)
+                    || (count > USERNAME_CANDIDATES && userRepository.findByUsername(username).isPresent())) {
+                username = base + count;
+                count++;
+            }
+            allocatedUsernames.add(username);
+            return username;
+        }
+
+        public User newUser(String email, String fullName, String username, String phone) {
+            return User.builder()
+                    .email(email)
+                    .fullName(fullName)
+                    .username(username)
+                    .phone(phone)
+                    .password(passwordHash)
+                    .roles(Set.of(role))
+                    .isActive(true)
+                    .build();
+        }
+    }
+
+    public record PendingRow<P>(int rowNum, User user, P profile) {
+    }
+
+    @FunctionalInterface
+    public interface ImportProgress {
+        /**
+         * Gọi sau mỗi chunk đã ghi xong. Ném CancellationException để dừng import (các chunk trước vẫn giữ).
+         *
+         * @param currentRow dòng Excel (1-based) cuối cùng đã xử lý
+         */
+        void onChunk(ImportResult soFar, int currentRow);
+    }
+
+    public ImportContext begin(UserRole role) {
+        return new ImportContext(role);
+    }
+
+    /**
+     * Ghi 1 chunk trong 1 transaction với JDBC batch. Lỗi -> rollback và ghi lại từng dòng riêng lẻ.
+     */
+    public <P> void persistChunk(List<PendingRow<P>> rows, JpaRepository<P, String> profileRepository,
+            ImportResult result) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                List<User> users = new ArrayList<>(rows.size());
+                List<P> profiles = new ArrayList<>(rows.size());
+                for (PendingRow<P> row : rows) {
+                    users.add(row.user());
+                    profiles.add(row.profile());
+                }
+                userRepository.saveAll(users);
+                profileRepository.saveAll(profiles);
+                entityManager.flush();
+                entityManager.clear();
+            });
+        } catch (RuntimeException chunkError) {
+            log.warn("Import chunk of {} rows failed ({}), retrying row by row", rows.size(), chunkError.getMessage());
+            for (PendingRow<P> row : rows) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        userRepository.save(row.user());
+                        profileRepository.save(row.profile());
+                        entityManager.flush();
+                        entityManager.clear();
+                    });
+                } catch (RuntimeException rowError) {
+                    result.setFailed(result.getFailed() + 1);
+                    result.getErrors().add("Row " + (row.rowNum() + 1) + ": " + rootMessage(rowError));
+                }
+            }
+        }
+    }
+
+    private static String baseUsername(String email) {
+        return email.split("@")[0];
+    }
+
+    private static String rootMessage(Throwable ex) {
+        Throwable t = ex;
+        while (t.getCause() != null && t.getCause() != t) {
+            t = t.getCause();
+        }
+        return t.getMessage();
+    }
+}
@@ -4,22 +4,22 @@ import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import com.example.labOdc.DTO.CompanyDTO;
 import com.example.labOdc.DTO.Response.CompanyResponse;
+import com.example.labOdc.DTO.Response.ProjectResponse;
 import com.example.labOdc.Exception.ResourceNotFoundException;
 import com.example.labOdc.Model.Company;
-import com.example.labOdc.Model.Project;
 import com.example.labOdc.Model.ProjectStatus;
 import com.example.labOdc.Model.RoleEntity;
 import com.example.labOdc.Model.User;
 import com.example.labOdc.Model.UserRole;
 import com.example.labOdc.Repository.CompanyRepository;
 import com.example.labOdc.Repository.ProjectRepository;
-import com.example.labOdc.Repository.RoleRepository;
 import com.example.labOdc.Repository.UserRepository;
 import com.example.labOdc.Service.CompanyService;
 
@@ -33,8 +33,9 @@ public class CompanyServiceImpl implements CompanyService {
     private static final Logger logger = LoggerFactory.getLogger(CompanyServiceImpl.class);
     private final CompanyRepository companyRepository;
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RolePermissionCache rolePermissionCache;
     private final ProjectRepository projectRepository;
+    private final CurrentActorService currentActorService;
 
     @Override
     @org.springframework.transaction.annotation.Transactional(readOnly = true)
@@ -45,12 +46,7 @@ public class CompanyServiceImpl implements CompanyService {
                     "Unauthenticated user");
         }
 
-        String username = auth.getName();
-        User user = userRepository.findByUsername(username)
-            .or(() -> userRepository.findByEmail(username))
-            .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-
-        Company company = companyRepository.findByUserId(user.getId())
+        Company company = companyRepository.findById(currentActorService.requireCompanyId())
                 .orElseThrow(() -> new ResourceNotFoundException("Company not found"));
 
         return CompanyResponse.fromCompany(company);
@@ -92,7 +88,7 @@ public CompanyResponse createCompany(CompanyDTO companyDTO) {
     companyRepository.save(company);
 
     //  Gán role COMPANY cho user (nếu chưa có)
-    RoleEntity companyRole = roleRepository.findByRole(UserRole.COMPANY)
+    RoleEntity companyRole = rolePermissionCache.findRole(UserRole.COMPANY)
             .orElseThrow(() -> new ResourceNotFoundException("COMPANY role not found"));
 
     boolean hasCompanyRole = user.getRoles().stream()
@@ -102,6 +98,7 @@ public CompanyResponse createCompany(CompanyDTO companyDTO) {
         user.getRoles().add(companyRole);
         userRepository.save(user);
     }
+    currentActorService.evictUser(user.getId());
 
     return CompanyResponse.fromCompany(company);
 }
@@ -131,6 +128,7 @@ public CompanyResponse createCompany(CompanyDTO companyDTO) {
         Company company = companyRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Company not found"));
         companyRepository.delete(company);
+        currentActorService.evictProfile(id);
         logger.info("Company deleted successfully");
     }
 
@@ -208,11 +206,14 @@ public CompanyResponse createCompany(CompanyDTO companyDTO) {
     }
 
     @Override
-    public List<Project> getCompanyProjects(String companyId) {
-        Company company = companyRepository.findById(companyId)
-                .orElseThrow(() -> new ResourceNotFoundException("Company not found"));
-        return projectRepository.findAll().stream()
-                .filter(project -> project.getCompany().getId().equals(companyId))
+    @org.springframework.transaction.annotation.Transactional(readOnly = true)
+    public List<ProjectResponse> getCompanyProjects(String companyId) {
+        if (!companyRepository.existsById(companyId)) {
+            throw new ResourceNotFoundException("Company not found");
+        }
+        // Dùng index (company_id, created_at) thay vì findAll() rồi lọc
+        return projectRepository.findListRows(null, null, companyId, null, null, null, Limit.unlimited()).stream()
+                .map(ProjectResponse::fromRow)
                 .toList();
     }
 
@@ -0,0 +1,295 @@
+package com.example.labOdc.Service.Implement;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.example.labOdc.DTO.CurrentActor;
+import com.example.labOdc.Exception.ResourceNotFoundException;
+import com.example.labOdc.Model.User;
+import com.example.labOdc.Repository.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Xác định "người đang thao tác": username -> User -> ID hồ sơ Mentor/Talent/Company/LabAdmin.
+ * - Tra cứu bằng 1 truy vấn join theo user_id (không quét bảng).
+ * - Ghi nhớ trong phạm vi request + cache LRU có giới hạn dùng chung giữa các request.
+ * - Các service tạo/xoá hồ sơ phải gọi evictUser()/evictProfile() để cache không bị cũ.
+ * - Token mới mang sẵn userId + ID hồ sơ trong claim -> không cần truy vấn DB.
+ *   ID hồ sơ không có trong token (vd. hồ sơ tạo sau khi đăng nhập) thì tra DB (có cache) khi được hỏi tới.
+ * - evictUser()/evictProfile() còn đánh dấu claim của user/hồ sơ đó là cũ: token phát hành trước thời điểm
+ *   đổi bị bỏ qua claim và tra DB. Giữ trong bộ nhớ như TokenRevocationService.
+ */
+@Service
+@RequiredArgsConstructor
+public class CurrentActorService {
+
+    private static final String REQUEST_ATTR_PREFIX = CurrentActorService.class.getName() + ".";
+
+    // Tên claim trong JWT (AuthenticationSvc.generateToken ghi, resolver ở đây đọc)
+    public static final String CLAIM_USER_ID = "userId";
+    public static final String CLAIM_MENTOR_ID = "mentorId";
+    public static final String CLAIM_TALENT_ID = "talentId";
+    public static final String CLAIM_COMPANY_ID = "companyId";
+    public static final String CLAIM_LAB_ADMIN_ID = "labAdminId";
+
+    private final UserRepository userRepository;
+
+    @Value("${app.current-actor.cache-max-size:10000}")
+    int cacheMaxSize;
+
+    @Value("${app.current-actor.cache-ttl-seconds:300}")
+    long cacheTtlSeconds;
+
+    // login -> actor, LRU theo thứ tự truy cập
+    private final Map<String, CachedActor> cache = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedActor> eldest) {
+                    return size() > cacheMaxSize;
+                }
+            });
+
+    private record CachedActor(CurrentActor actor, long expiresAt) {
+    }
+
+    // userId / ID hồ sơ -> giây (epoch) lần cuối hồ sơ đổi; claim trong token có iat <= mốc này là cũ
+    private final Map<String, Long> claimsChangedAt = new ConcurrentHashMap<>();
+
+    /**
+     * Actor của request hiện tại (lấy login từ SecurityContext).
+     */
+    public CurrentActor current() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || auth.getName() == null || auth.getName().isBlank()) {
+            throw new IllegalStateException("Unauthenticated request");
+        }
+        return resolve(auth.getName());
+    }
+
+    /**
+     * Actor theo login (username, fallback email).
+     */
+    public CurrentActor resolve(String login) {
+        if (login == null || login.isBlank()) {
+            throw new IllegalStateException("Unauthenticated request");
+        }
+
+        RequestAttributes attrs = RequestContextHolder.getRequestAttributes();
+        String attrKey = REQUEST_ATTR_PREFIX + login;
+        if (attrs != null && attrs.getAttribute(attrKey, RequestAttributes.SCOPE_REQUEST) instanceof CurrentActor memo) {
+            return memo;
+        }
+
+        CurrentActor actor = fromCurrentJwt(login);
+        if (actor == null) {
+            actor = lookupCached(login);
+        }
+
+        if (attrs != null) {
+            attrs.setAttribute(attrKey, actor, RequestAttributes.SCOPE_REQUEST);
+        }
+        return actor;
+    }
+
+    /**
+     * Giống current() nhưng trả null thay vì ném lỗi (dùng cho các trường audit như createdBy).
+     */
+    public String currentUserIdOrNull() {
+        try {
+            return current().getUserId();
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Proxy User của actor hiện tại (không SELECT cho tới khi truy cập field khác id).
+     */
+    public User currentUserReference() {
+        return userRepository.getReferenceById(current().getUserId());
+    }
+
+    public String requireMentorId() {
+        String mentorId = current().getMentorId();
+        if (mentorId == null) {
+            throw new ResourceNotFoundException("Mentor profile not found for this user");
+        }
+        return mentorId;
+    }
+
+    public String requireTalentId() {
+        String talentId = current().getTalentId();
+        if (talentId == null) {
+            throw new ResourceNotFoundException("Talent profile not found for this user");
+        }
+        return talentId;
+    }
+
+    public String requireCompanyId() {
+        String companyId = current().getCompanyId();
+        if (companyId == null) {
+            throw new ResourceNotFoundException("Company not found");
+        }
+        return companyId;
+    }
+
+    public String requireLabAdminId() {
+        String labAdminId = current().getLabAdminId();
+        if (labAdminId == null) {
+            throw new ResourceNotFoundException("LabAdmin profile not found for this user");
+        }
+        return labAdminId;
+    }
+
+    /**
+     * Gọi khi user đổi username/role/trạng thái hoặc khi hồ sơ của user được tạo.
+     */
+    public void evictUser(String userId) {
+        if (userId == null) {
+            return;
+        }
+        evictWhere(userId, a -> userId.equals(a.getUserId()));
+    }
+
+    /**
+     * Gọi khi xoá hồ sơ Mentor/Talent/Company/LabAdmin theo ID hồ sơ.
+     */
+    public void evictProfile(String profileId) {
+        if (profileId == null) {
+            return;
+        }
+        evictWhere(profileId, a -> profileId.equals(a.getMentorId())
+                || profileId.equals(a.getTalentId())
+                || profileId.equals(a.getCompanyId())
+                || profileId.equals(a.getLabAdminId()));
+    }
+
+    /**
+     * Đọc actor từ claim của Jwt principal nếu token thuộc đúng login này.
+     * Trả null (-> tra DB) khi:
+     * - không phải request JWT, hoặc token phát hành trước khi có claim userId;
+     * - hồ sơ của user (hoặc 1 hồ sơ trong claim) đã đổi sau khi token được phát hành.
+     * ID hồ sơ thiếu trong claim được tra DB lúc cần (fallback), không phải ngay ở đây.
+     */
+    private CurrentActor fromCurrentJwt(String login) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !(auth.getPrincipal() instanceof Jwt jwt) || !login.equals(jwt.getSubject())) {
+            return null;
+        }
+
+        String userId = jwt.getClaimAsString(CLAIM_USER_ID);
+        if (userId == null) {
+            return null;
+        }
+
+        String mentorId = jwt.getClaimAsString(CLAIM_MENTOR_ID);
+        String talentId = jwt.getClaimAsString(CLAIM_TALENT_ID);
+        String companyId = jwt.getClaimAsString(CLAIM_COMPANY_ID);
+        String labAdminId = jwt.getClaimAsString(CLAIM_LAB_ADMIN_ID);
+        if (jwt.getIssuedAt() == null
+                || isStale(jwt.getIssuedAt().getEpochSecond(), userId, mentorId, talentId, companyId, labAdminId)) {
+            return null;
+        }
+
+        return CurrentActor.builder()
+                .userId(userId)
+                .username(jwt.getSubject())
+                .mentorId(mentorId)
+                .talentId(talentId)
+                .companyId(companyId)
+                .labAdminId(labAdminId)
+                .fallback(() -> lookupCached(login))
+                .build();
+    }
+
+    // iat tính bằng giây: token phát hành cùng giây với lần đổi cũng coi là cũ
+    private boolean isStale(long issuedAtSecond, String... keys) {
+        for (String key : keys) {
+            Long changedAt = key == null ? null : claimsChangedAt.get(key);
+            if (changedAt != null && issuedAtSecond <= changedAt) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void markClaimsChanged(String key) {
+        long nowSecond = System.currentTimeMillis() / 1000;
+        claimsChangedAt.put(key, nowSecond);
+        // Token đã hết hạn thì không cần nhớ nữa
+        long expired = nowSecond - AuthenticationSvc.TOKEN_TTL.toSeconds();
+        claimsChangedAt.values().removeIf(at -> at < expired);
+    }
+
+    private CurrentActor lookupCached(String login) {
+        long now = System.currentTimeMillis();
+        CachedActor cached = cache.get(login);
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.actor();
+        }
+
+        UserRepository.ActorIds ids = userRepository.findActorIdsByUsername(login)
+                .or(() -> userRepository.findActorIdsByEmail(login))
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
+        CurrentActor actor = CurrentActor.builder()
+                .userId(ids.getUserId())
+                .username(ids.getUsername())
+                .mentorId(ids.getMentorId())
+                .talentId(ids.getTalentId())
+                .companyId(ids.getCompanyId())
+                .labAdminId(ids.getLabAdminId())
+                .build();
+
+        cache.put(login, new CachedActor(actor, now + cacheTtlSeconds * 1000));
+        return actor;
+    }
+
+    private void evictWhere(String changedKey, Predicate<CurrentActor> matcher) {
+        markClaimsChanged(changedKey);
+        removeMatching(matcher);
+
+        // Xoá lại sau commit: request khác có thể đã nạp lại dữ liệu cũ trong lúc transaction chưa commit
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    markClaimsChanged(changedKey);
+                    removeMatching(matcher);
+                }
+            });
+        }
+    }
+
+    private void removeMatching(Predicate<CurrentActor> matcher) {
+        synchronized (cache) {
+            cache.values().removeIf(c -> matcher.test(c.actor()));
+        }
+
+        RequestAttributes attrs = RequestContextHolder.getRequestAttributes();
+        if (attrs == null) {
+            return;
+        }
+        for (String name : attrs.getAttributeNames(RequestAttributes.SCOPE_REQUEST)) {
+            if (name.startsWith(REQUEST_ATTR_PREFIX)
+                    && attrs.getAttribute(name, RequestAttributes.SCOPE_REQUEST) instanceof CurrentActor memo
+                    && matcher.test(memo)) {
+                attrs.removeAttribute(name, RequestAttributes.SCOPE_REQUEST);
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.labOdc.Service.Implement;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+/**
+ * Đọc sheet .xlsx theo kiểu streaming (XSSF event model + SAX): mỗi lần chỉ giữ 1 dòng trong bộ nhớ,
+ * thay cho XSSFWorkbook nạp toàn bộ file.
+ * Giá trị ô là chuỗi đã định dạng (như Excel hiển thị), riêng ô ngày -> yyyy-MM-dd; ô trống -> null.
+ */
+@Component
+public class ExcelStreamReader {
+
+    @FunctionalInterface
+    public interface RowConsumer {
+        /**
+         * @param rowNum số dòng 0-based như trong Excel (dòng 0 là header)
+         * @param cells  giá trị các cột 0..columnCount-1, null nếu ô trống
+         */
+        void accept(int rowNum, List<String> cells) throws Exception;
+    }
+
+    /**
+     * Đọc sheet sheetName trong file, gọi consumer cho từng dòng (kể cả header).
+     */
+    public void readSheet(File file, String sheetName, int columnCount, RowConsumer consumer) throws Exception {
+        readSheet(file, sheetName, false, columnCount, consumer);
+    }
+
+    /**
+     * Như trên; fallbackToFirst = true thì đọc sheet đầu tiên khi không có sheet sheetName.
+     */
+    public void readSheet(File file, String sheetName, boolean fallbackToFirst, int columnCount,
+            RowConsumer consumer) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+
+            if (parseSheet(reader, strings, sheetName, columnCount, consumer)) {
+                return;
+            }
+            if (fallbackToFirst && parseSheet(reader, strings, null, columnCount, consumer)) {
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Sheet " + sheetName + " not found");
+    }
+
+    // sheetName null -> sheet đầu tiên; false nếu không có sheet phù hợp
+    private boolean parseSheet(XSSFReader reader, ReadOnlySharedStringsTable strings, String sheetName,
+            int columnCount, RowConsumer consumer) throws Exception {
+        XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+        while (sheets.hasNext()) {
+            try (InputStream sheet = sheets.next()) {
+                if (sheetName != null && !sheetName.equals(sheets.getSheetName())) {
+                    continue;
+                }
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), null, strings,
+                        new RowCollector(columnCount, consumer), new IsoDateFormatter(), false));
+                try {
+                    parser.parse(new InputSource(sheet));
+                } catch (ConsumerException ex) {
+                    throw ex.getCause() instanceof Exception cause ? cause : ex;
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ghi file upload ra file tạm để OPCPackage đọc trực tiếp từ đĩa (không nạp cả file zip vào heap).
+     * Bên gọi chịu trách nhiệm xoá file.
+     */
+    public File spoolToTempFile(MultipartFile upload) throws IOException {
+        Path tmp = Files.createTempFile("labodc-import-", ".xlsx");
+        try (InputStream in = upload.getInputStream()) {
+            Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return tmp.toFile();
+    }
+
+    /**
+     * Ô số dạng chuỗi đã định dạng -> int (giống (int) getNumericCellValue()); ô trống -> null.
+     */
+    public static Integer toInt(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return (int) Double.parseDouble(value.replace(",", ""));
+        } catch (NumberFormatException ex) {
+            throw new IllegalStateException("Cannot get a NUMERIC value from '" + value + "'");
+        }
+    }
+
+    // Ô ngày trả về yyyy-MM-dd bất kể định dạng hiển thị (giống getLocalDateTimeCellValue().toLocalDate())
+    private static final class IsoDateFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString,
+                boolean use1904Windowing) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getLocalDateTime(value, use1904Windowing).toLocalDate().toString();
+            }
+            return super.formatRawCellContents(value, formatIndex, formatString, use1904Windowing);
+        }
+    }
+
+    // Bọc lỗi của consumer để đi qua được SAX parser (chỉ cho phép SAXException/IOException)
+    private static final class ConsumerException extends RuntimeException {
+        ConsumerException(Exception cause) {
+            super(cause);
+        }
+    }
+
+    private static final class RowCollector implements SheetContentsHandler {
+        private final int columnCount;
+        private final RowConsumer consumer;
+        private final String[] cells;
+        private int nextColumn;
+
+        RowCollector(int columnCount, RowConsumer consumer) {
+            this.columnCount = columnCount;
+            this.consumer = consumer;
+            this.cells = new String[columnCount];
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            Arrays.fill(cells, null);
+            nextColumn = 0;
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int col = cellReference != null ? new CellReference(cellReference).getCol() : nextColumn;
+            nextColumn = col + 1;
+            if (col < columnCount && formattedValue != null) {
+                String trimmed = formattedValue.trim();
+                cells[col] = trimmed.isEmpty() ? null : trimmed;
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            try {
+                consumer.accept(rowNum, new ArrayList<>(Arrays.asList(cells)));
+            } catch (RuntimeException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new ConsumerException(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.labOdc.Service.Implement;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.labOdc.Repository.EvaluationRepository;
+import com.example.labOdc.Repository.MemberContributionRepository;
+import com.example.labOdc.Repository.TaskRepository;
+import com.example.labOdc.Service.ExportService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Mỗi export = 1 truy vấn projection đọc bằng cursor (fetch size 500, read-only) đổ vào SXSSFWorkbook.
+ * Chỉ app.export.row-window dòng nằm trong heap, phần còn lại được SXSSF xả ra file tạm (nén).
+ * Định dạng .xlsx là zip nên chỉ ghi được ra response sau khi đọc hết dữ liệu: byte đầu tiên tới client
+ * khi cursor đã quét xong, việc stream ở đây là giữ heap phẳng chứ không phải gửi sớm.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportServiceImpl implements ExportService {
+
+    // Giới hạn 1 sheet của Excel
+    private static final int MAX_ROWS_PER_SHEET = 1_048_575;
+    private static final int MAX_CELL_TEXT = 32_767;
+
+    private final TaskRepository taskRepository;
+    private final EvaluationRepository evaluationRepository;
+    private final MemberContributionRepository memberContributionRepository;
+
+    @Value("${app.export.row-window:100}")
+    int rowWindow;
+
+    private static final String[] TASK_HEADERS = {
+            "Task ID", "Project Code", "Project Name", "Task Name", "Status", "Priority", "Assigned To",
+            "Start Date", "Due Date", "Completed Date", "Estimated Hours", "Actual Hours", "Created At"
+    };
+
+    private static final String[] EVALUATION_HEADERS = {
+            "Evaluation ID", "Project Code", "Project Name", "Evaluator ID", "Evaluator Type", "Evaluated ID",
+            "Evaluated Type", "Rating", "Technical Skills", "Communication", "Teamwork", "Punctuality",
+            "Feedback", "Anonymous", "Evaluation Date", "Created At"
+    };
+
+    private static final String[] CONTRIBUTION_HEADERS = {
+            "Contribution ID", "Project Code", "Project Name", "Student Code", "Talent Name", "Type", "Score",
+            "Description", "Recorded By", "Recorded At"
+    };
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportTasks(String projectId, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        try (Stream<TaskRepository.TaskExportRow> rows = taskRepository.streamForExport(projectId,
+                startOf(from), endOf(to))) {
+            write("TASKS", TASK_HEADERS, rows, r -> new Object[] {
+                    r.getId(), r.getProjectCode(), r.getProjectName(), r.getTaskName(), r.getStatus(),
+                    r.getPriority(), r.getAssignedTo(), r.getStartDate(), r.getDueDate(), r.getCompletedDate(),
+                    r.getEstimatedHours(), r.getActualHours(), r.getCreatedAt()
+            }, out);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportEvaluations(String projectId, LocalDate from, LocalDate to, OutputStream out)
+            throws IOException {
+        try (Stream<EvaluationRepository.EvaluationExportRow> rows = evaluationRepository.streamForExport(projectId,
+                startOf(from), endOf(to))) {
+            write("EVALUATIONS", EVALUATION_HEADERS, rows, r -> new Object[] {
+                    r.getId(), r.getProjectCode(), r.getProjectName(), r.getEvaluatorId(), r.getEvaluatorType(),
+                    r.getEvaluatedId(), r.getEvaluatedType(), r.getRating(), r.getTechnicalSkills(),
+                    r.getCommunication(), r.getTeamwork(), r.getPunctuality(), r.getFeedback(),
+                    r.getIsAnonymous(), r.getEvaluationDate(), r.getCreatedAt()
+            }, out);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportContributions(String projectId, LocalDate from, LocalDate to, OutputStream out)
+            throws IOException {
+        try (Stream<MemberContributionRepository.ContributionExportRow> rows = memberContributionRepository
+                .streamForExport(projectId, startOf(from), endOf(to))) {
+            write("CONTRIBUTIONS", CONTRIBUTION_HEADERS, rows, r -> new Object[] {
+                    r.getId(), r.getProjectCode(), r.getProjectName(), r.getStudentCode(), r.getTalentName(),
+                    r.getContributionType(), r.getScore(), r.getDescription(), r.getRecordedBy(),
+                    r.getRecordedAt()
+            }, out);
+        }
+    }
+
+    private <T> void write(String sheetName, String[] headers, Stream<T> rows, Function<T, Object[]> mapper,
+            OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(rowWindow);
+        workbook.setCompressTempFiles(true);
+        try {
+            CellStyle headerStyle = workbook.createCellStyle();
+            Font bold = workbook.createFont();
+            bold.setBold(true);
+            headerStyle.setFont(bold);
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd"));
+            CellStyle dateTimeStyle = workbook.createCellStyle();
+            dateTimeStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+
+            int[] sheetNo = { 1 };
+            int[] rowNum = { 0 };
+            SXSSFSheet[] sheet = { newSheet(workbook, sheetName, headers, headerStyle) };
+
+            rows.forEach(item -> {
+                if (rowNum[0] >= MAX_ROWS_PER_SHEET) {
+                    sheet[0] = newSheet(workbook, sheetName + "_" + (++sheetNo[0]), headers, headerStyle);
+                    rowNum[0] = 0;
+                }
+                Row row = sheet[0].createRow(++rowNum[0]);
+                Object[] values = mapper.apply(item);
+                for (int c = 0; c < values.length; c++) {
+                    setCell(row.createCell(c), values[c], dateStyle, dateTimeStyle);
+                }
+            });
+
+            workbook.write(out);
+            out.flush();
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private SXSSFSheet newSheet(SXSSFWorkbook workbook, String name, String[] headers, CellStyle headerStyle) {
+        SXSSFSheet sheet = workbook.createSheet(name);
+        Row header = sheet.createRow(0);
+        for (int c = 0; c < headers.length; c++) {
+            Cell cell = header.createCell(c);
+            cell.setCellValue(headers[c]);
+            cell.setCellStyle(headerStyle);
+            // SXSSF không autosize được khi đã xả dòng ra đĩa -> đặt độ rộng cố định
+            sheet.setColumnWidth(c, 20 * 256);
+        }
+        sheet.createFreezePane(0, 1);
+        return sheet;
+    }
+
+    private void setCell(Cell cell, Object value, CellStyle dateStyle, CellStyle dateTimeStyle) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Number n) {
+            cell.setCellValue(n.doubleValue());
+        } else if (value instanceof Boolean b) {
+            cell.setCellValue(b);
+        } else if (value instanceof LocalDateTime dt) {
+            cell.setCellValue(dt);
+            cell.setCellStyle(dateTimeStyle);
+        } else if (value instanceof LocalDate d) {
+            cell.setCellValue(d);
+            cell.setCellStyle(dateStyle);
+        } else if (value instanceof Enum<?> e) {
+            cell.setCellValue(e.name());
+        } else {
+            String text = value.toString();
+            cell.setCellValue(text.length() > MAX_CELL_TEXT ? text.substring(0, MAX_CELL_TEXT) : text);
+        }
+    }
+
+    private static LocalDateTime startOf(LocalDate from) {
+        return from == null ? LocalDateTime.of(1970, 1, 1, 0, 0) : from.atStartOfDay();
+    }
+
+    private static LocalDateTime endOf(LocalDate to) {
+        return to == null ? LocalDateTime.of(9999, 12, 31, 0, 0) : to.plusDays(1).atStartOfDay();
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.labOdc.Service.Implement;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.labOdc.DTO.Response.FinancialSummaryResponse;
+import com.example.labOdc.Model.FinancialAggregate;
+import com.example.labOdc.Model.FinancialAggregate.Metric;
+import com.example.labOdc.Model.FinancialAggregate.Scope;
+import com.example.labOdc.Model.FundAllocation;
+import com.example.labOdc.Model.FundAllocationStatus;
+import com.example.labOdc.Model.FundDistribution;
+import com.example.labOdc.Model.FundDistributionStatus;
+import com.example.labOdc.Model.LabFundAdvance;
+import com.example.labOdc.Model.LabFundAdvanceStatus;
+import com.example.labOdc.Model.MentorPayment;
+import com.example.labOdc.Model.MentorPaymentStatus;
+import com.example.labOdc.Model.Payment;
+import com.example.labOdc.Model.PaymentStatus;
+import com.example.labOdc.Model.Project;
+import com.example.labOdc.Repository.FinancialAggregateRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Duy trì bảng financial_aggregates theo kiểu cộng dồn.
+ * Service nghiệp vụ chụp Snapshot phần đóng góp của bản ghi trước và sau khi đổi, rồi gọi applyChange.
+ * Phần chênh lệch được upsert atomic (INSERT ... ON CONFLICT) cho dự án, công ty và toàn lab,
+ * trong cùng transaction với thay đổi gốc.
+ * Đọc tóm tắt = 1 dòng theo khoá; reconcile() hằng đêm tính lại từ bảng gốc và sửa nếu lệch.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FinancialAggregateService {
+
+    private final FinancialAggregateRepository financialAggregateRepository;
+    private final EntityManager entityManager;
+
+    /**
+     * Phần đóng góp của 1 bản ghi vào các chỉ số, kèm dự án/công ty mà nó thuộc về.
+     */
+    public record Snapshot(String projectId, String companyId, Map<Metric, BigDecimal> amounts) {
+    }
+
+    // ===== SNAPSHOT theo từng loại bản ghi (quy tắc phải khớp với các truy vấn đối soát) =====
+
+    public Snapshot snapshot(Payment p) {
+        Map<Metric, BigDecimal> amounts = new EnumMap<>(Metric.class);
+        amounts.put(Metric.PAYMENTS_RECEIVED, p.getStatus() == PaymentStatus.COMPLETED ? nz(p.getAmount()) : BigDecimal.ZERO);
+        return new Snapshot(p.getProject() != null ? p.getProject().getId() : null,
+                p.getCompany() != null ? p.getCompany().getId() : null, amounts);
+    }
+
+    public Snapshot snapshot(FundAllocation a) {
+        boolean counted = a.getStatus() == FundAllocationStatus.ALLOCATED;
+        Map<Metric, BigDecimal> amounts = new EnumMap<>(Metric.class);
+        amounts.put(Metric.ALLOCATED_TOTAL, counted ? nz(a.getTotalAmount()) : BigDecimal.ZERO);
+        amounts.put(Metric.ALLOCATED_TEAM, counted ? nz(a.getTeamAmount()) : BigDecimal.ZERO);
+        amounts.put(Metric.ALLOCATED_MENTOR, counted ? nz(a.getMentorAmount()) : BigDecimal.ZERO);
+        amounts.put(Metric.ALLOCATED_LAB, counted ? nz(a.getLabAmount()) : BigDecimal.ZERO);
+        return ofProject(a.getProject(), amounts);
+    }
+
+    public Snapshot snapshot(FundDistribution d) {
+        Map<Metric, BigDecimal> amounts = new EnumMap<>(Metric.class);
+        amounts.put(Metric.TALENT_PAID, d.getStatus() == FundDistributionStatus.PAID ? nz(d.getAmount()) : BigDecimal.ZERO);
+        return ofProject(d.getFundAllocation() != null ? d.getFundAllocation().getProject() : null, amounts);
+    }
+
+    public Snapshot snapshot(MentorPayment m) {
+        Map<Metric, BigDecimal> amounts = new EnumMap<>(Metric.class);
+        amounts.put(Metric.MENTOR_PAID, m.getStatus() == MentorPaymentStatus.PAID ? nz(m.getAmount()) : BigDecimal.ZERO);
+        return ofProject(m.getProject(), amounts);
+    }
+
+    public Snapshot snapshot(LabFundAdvance l) {
+        Map<Metric, BigDecimal> amounts = new EnumMap<>(Metric.class);
+        amounts.put(Metric.ADVANCES_OUTSTANDING,
+                l.getStatus() == LabFundAdvanceStatus.ADVANCED ? nz(l.getAdvanceAmount()) : BigDecimal.ZERO);
+        return ofProject(l.getProject(), amounts);
+    }
+
+    /**
+     * Cộng phần chênh lệch after - before vào các dòng tổng hợp. before = null: bản ghi mới;
+     * after = null: bản ghi bị xoá. Phải gọi trong transaction của thay đổi gốc.
+     */
+    @Transactional
+    public void applyChange(Snapshot before, Snapshot after) {
+        if (before != null && after != null
+                && Objects.equals(before.projectId(), after.projectId())
+                && Objects.equals(before.companyId(), after.companyId())) {
+            Map<Metric, BigDecimal> delta = new EnumMap<>(Metric.class);
+            after.amounts().forEach((m, v) -> delta.put(m, v.subtract(before.amounts().getOrDefault(m, BigDecimal.ZERO))));
+            before.amounts().forEach((m, v) -> delta.putIfAbsent(m, v.negate()));
+            add(after.projectId(), after.companyId(), delta);
+            return;
+        }
+        if (before != null) {
+            Map<Metric, BigDecimal> negated = new EnumMap<>(Metric.class);
+            before.amounts().forEach((m, v) -> negated.put(m, v.negate()));
+            add(before.projectId(), before.companyId(), negated);
+        }
+        if (after != null) {
+            add(after.projectId(), after.companyId(), after.amounts());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public FinancialSummaryResponse getSummary(Scope scope, String scopeId) {
+        String id = scope == Scope.LAB ? FinancialAggregate.LAB_SCOPE_ID : scopeId;
+        FinancialAggregate row = financialAggregateRepository.findByScopeAndScopeId(scope, id)
+                .orElseGet(() -> FinancialAggregate.builder().scope(scope).scopeId(id).build());
+        return FinancialSummaryResponse.fromEntity(row);
+    }
+
+    /**
+     * Đối soát hằng đêm: tính lại từ bảng gốc, ghi đè dòng bị lệch và log chênh lệch.
+     * Khoá bảng tổng hợp trong lúc chạy để không bỏ sót thay đổi đang diễn ra.
+     */
+    @Scheduled(cron = "${app.finance.reconcile-cron:0 30 2 * * *}")
+    @Transactional
+    public void reconcile() {
+        financialAggregateRepository.lockForReconcile();
+
+        Map<String, Map<Metric, BigDecimal>> expected = new HashMap<>();
+        collect(expected, financialAggregateRepository.sumPaymentsReceived(), Metric.PAYMENTS_RECEIVED);
+        collect(expected, financialAggregateRepository.sumAllocated(), Metric.ALLOCATED_TOTAL, Metric.ALLOCATED_TEAM,
+                Metric.ALLOCATED_MENTOR, Metric.ALLOCATED_LAB);
+        collect(expected, financialAggregateRepository.sumTalentPaid(), Metric.TALENT_PAID);
+        collect(expected, financialAggregateRepository.sumMentorPaid(), Metric.MENTOR_PAID);
+        collect(expected, financialAggregateRepository.sumAdvancesOutstanding(), Metric.ADVANCES_OUTSTANDING);
+
+        LocalDateTime now = LocalDateTime.now();
+        int fixed = 0;
+        List<FinancialAggregate> rows = new ArrayList<>(financialAggregateRepository.findAll());
+        for (FinancialAggregate row : rows) {
+            Map<Metric, BigDecimal> want = expected.remove(key(row.getScope(), row.getScopeId()));
+            if (sync(row, want)) {
+                fixed++;
+            }
+            row.setReconciledAt(now);
+        }
+        // Có số liệu gốc nhưng chưa có dòng tổng hợp
+        for (Map.Entry<String, Map<Metric, BigDecimal>> e : expected.entrySet()) {
+            String[] k = e.getKey().split(":", 2);
+            FinancialAggregate row = FinancialAggregate.builder().scope(Scope.valueOf(k[0])).scopeId(k[1]).build();
+            sync(row, e.getValue());
+            row.setReconciledAt(now);
+            rows.add(row);
+            fixed++;
+        }
+        financialAggregateRepository.saveAll(rows);
+
+        if (fixed > 0) {
+            log.warn("Financial reconciliation corrected {} aggregate row(s)", fixed);
+        } else {
+            log.info("Financial reconciliation: {} aggregate row(s) match the source tables", rows.size());
+        }
+    }
+
+    // Lần đầu chạy trên DB đã có giao dịch: dựng bảng tổng hợp ngay thay vì chờ tới lịch đối soát
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (financialAggregateRepository.count() == 0) {
+            reconcile();
+        }
+    }
+
+    // ===== PRIVATE =====
+
+    private void add(String projectId, String companyId, Map<Metric, BigDecimal> delta) {
+        Map<Metric, BigDecimal> nonZero = new EnumMap<>(Metric.class);
+        delta.forEach((m, v) -> {
+            if (v.signum() != 0) {
+                nonZero.put(m, v);
+            }
+        });
+        if (nonZero.isEmpty()) {
+            return;
+        }
+        upsert(Scope.LAB, FinancialAggregate.LAB_SCOPE_ID, nonZero);
+        if (companyId != null) {
+            upsert(Scope.COMPANY, companyId, nonZero);
+        }
+        if (projectId != null) {
+            upsert(Scope.PROJECT, projectId, nonZero);
+        }
+    }
+
+    // Tên cột lấy từ enum Metric (không từ input) nên ghép chuỗi an toàn
+    private void upsert(Scope scope, String scopeId, Map<Metric, BigDecimal> delta) {
+        StringBuilder updates = new StringBuilder();
+        for (Metric m : delta.keySet()) {
+            updates.append(m.column).append(" = financial_aggregates.").append(m.column)
+                    .append(" + EXCLUDED.").append(m.column).append(", ");
+        }
+        String sql = "INSERT INTO financial_aggregates (id, scope, scope_id, payments_received, allocated_total,"
+                + " allocated_team, allocated_mentor, allocated_lab, talent_paid, mentor_paid, advances_outstanding,"
+                + " updated_at) VALUES (CAST(gen_random_uuid() AS varchar), :scope, :scopeId"
+                + defaults(delta) + ", now())"
+                + " ON CONFLICT (scope, scope_id) DO UPDATE SET " + updates + "updated_at = now()";
+
+        Query query = entityManager.createNativeQuery(sql)
+                .setParameter("scope", scope.name())
+                .setParameter("scopeId", scopeId);
+        delta.forEach((m, v) -> query.setParameter(m.name(), v));
+        query.executeUpdate();
+    }
+
+    // Giá trị cho từng cột theo thứ tự Metric: tham số nếu có trong delta, ngược lại 0
+    private static String defaults(Map<Metric, BigDecimal> delta) {
+        StringBuilder sb = new StringBuilder();
+        for (Metric m : Metric.values()) {
+            sb.append(", ").append(delta.containsKey(m) ? ":" + m.name() : "0");
+        }
+        return sb.toString();
+    }
+
+    private void collect(Map<String, Map<Metric, BigDecimal>> expected, List<Object[]> rows, Metric... metrics) {
+        for (Object[] row : rows) {
+            String projectId = (String) row[0];
+            String companyId = (String) row[1];
+            for (int i = 0; i < metrics.length; i++) {
+                BigDecimal value = nz((BigDecimal) row[2 + i]);
+                accumulate(expected, key(Scope.LAB, FinancialAggregate.LAB_SCOPE_ID), metrics[i], value);
+                if (companyId != null) {
+                    accumulate(expected, key(Scope.COMPANY, companyId), metrics[i], value);
+                }
+                if (projectId != null) {
+                    accumulate(expected, key(Scope.PROJECT, projectId), metrics[i], value);
+                }
+            }
+        }
+    }
+
+    private static void accumulate(Map<String, Map<Metric, BigDecimal>> expected, String key, Metric metric,
+            BigDecimal value) {
+        expected.computeIfAbsent(key, k -> new EnumMap<>(Metric.class)).merge(metric, value, BigDecimal::add);
+    }
+
+    // Ghi giá trị đúng vào row; true nếu có chỉ số bị lệch
+    private boolean sync(FinancialAggregate row, Map<Metric, BigDecimal> want) {
+        boolean changed = false;
+        for (Metric m : Metric.values()) {
+            BigDecimal expectedValue = want == null ? BigDecimal.ZERO : want.getOrDefault(m, BigDecimal.ZERO);
+            BigDecimal actual = nz(row.get(m));
+            if (actual.compareTo(expectedValue) != 0) {
+                if (row.getId() != null) {
+                    log.warn("Financial aggregate {}:{} {} drifted: stored {}, expected {}", row.getScope(),
+                            row.getScopeId(), m, actual, expectedValue);
+                }
+                row.set(m, expectedValue);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private static Snapshot ofProject(Project project, Map<Metric, BigDecimal> amounts) {
+        return new Snapshot(project != null ? project.getId() : null,
+                project != null && project.getCompany() != null ? project.getCompany().getId() : null, amounts);
+    }
+
+    private static String key(Scope scope, String scopeId) {
+        return scope.name() + ":" + scopeId;
+    }
+
+    private static BigDecimal nz(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+}
@@ -23,6 +23,7 @@ public class FundAllocationServiceImpl implements FundAllocationService {
     private final FundAllocationRepository fundAllocationRepository;
     private final PaymentRepository paymentRepository;
     private final ProjectRepository projectRepository;
+    private final FinancialAggregateService financialAggregateService;
 
     @Override
     public FundAllocationResponse createAllocation(FundAllocationDTO dto) {
@@ -78,6 +79,7 @@ public class FundAllocationServiceImpl implements FundAllocationService {
     ) {
         FundAllocation allocation = fundAllocationRepository.findById(allocationId)
                 .orElseThrow(() -> new RuntimeException("Fund allocation not found"));
+        FinancialAggregateService.Snapshot before = financialAggregateService.snapshot(allocation);
 
         allocation.setStatus(status);
 
@@ -89,17 +91,22 @@ public class FundAllocationServiceImpl implements FundAllocationService {
             allocation.setAllocatedAt(LocalDateTime.now());
         }
 
-        return mapToResponse(fundAllocationRepository.save(allocation));
+        FundAllocation saved = fundAllocationRepository.save(allocation);
+        financialAggregateService.applyChange(before, financialAggregateService.snapshot(saved));
+        return mapToResponse(saved);
     }
 
     @Override
     public FundAllocationResponse recalculateAmounts(String allocationId) {
         FundAllocation allocation = fundAllocationRepository.findById(allocationId)
                 .orElseThrow(() -> new RuntimeException("Fund allocation not found"));
+        FinancialAggregateService.Snapshot before = financialAggregateService.snapshot(allocation);
 
         calculateAmounts(allocation);
 
-        return mapToResponse(fundAllocationRepository.save(allocation));
+        FundAllocation saved = fundAllocationRepository.save(allocation);
+        financialAggregateService.applyChange(before, financialAggregateService.snapshot(saved));
+        return mapToResponse(saved);
     }
 
     @Override
@@ -22,6 +22,7 @@ public class FundDistributionServiceImpl implements FundDistributionService {
     private final FundAllocationRepository fundAllocationRepository;
     private final TalentRepository talentRepository;
     private final UserRepository userRepository;
+    private final FinancialAggregateService financialAggregateService;
 
     @Override
     public FundDistributionResponse createDistribution(FundDistributionDTO dto) {
@@ -61,6 +62,7 @@ public class FundDistributionServiceImpl implements FundDistributionService {
 
         FundDistribution distribution = fundDistributionRepository.findById(distributionId)
                 .orElseThrow(() -> new RuntimeException("Fund distribution not found"));
+        FinancialAggregateService.Snapshot before = financialAggregateService.snapshot(distribution);
 
         FundDistributionStatus newStatus =
                 FundDistributionStatus.valueOf(status.toUpperCase());
@@ -78,9 +80,9 @@ public class FundDistributionServiceImpl implements FundDistributionService {
             distribution.setNotes(notes);
         }
 
-        return FundDistributionResponse.fromEntity(
-                fundDistributionRepository.save(distribution)
-        );
+        FundDistribution saved = fundDistributionRepository.save(distribution);
+        financialAggregateService.applyChange(before, financialAggregateService.snapshot(saved));
+        return FundDistributionResponse.fromEntity(saved);
     }
 
     @Override
@@ -92,15 +94,16 @@ public class FundDistributionServiceImpl implements FundDistributionService {
 
         FundDistribution distribution = fundDistributionRepository.findById(distributionId)
                 .orElseThrow(() -> new RuntimeException("Fund distribution not found"));
+        FinancialAggregateService.Snapshot before = financialAggregateService.snapshot(distribution);
 
         distribution.setStatus(FundDistributionStatus.PAID);
         distribution.setPaidDate(LocalDate.now());
         distribution.setPaymentMethod(paymentMethod);
         distribution.setTransactionReference(transactionReference);
 
-        return FundDistributionResponse.fromEntity(
-                fundDistributionRepository.save(distribution)
-        );
+        FundDistribution saved = fundDistributionRepository.save(distribution);
+        financialAggregateService.applyChange(before, financialAggregateService.snapshot(saved));
+        return FundDistributionResponse.fromEntity(saved);
     }
 
     @Override
@@ -0,0 +1,214 @@
+package com.example.labOdc.Service.Implement;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.labOdc.DTO.ImportResult;
+import com.example.labOdc.DTO.Response.ImportJobResponse;
+import com.example.labOdc.Exception.ResourceNotFoundException;
+import com.example.labOdc.Exception.ServiceBusyException;
+import com.example.labOdc.Model.ImportJob;
+import com.example.labOdc.Repository.ImportJobRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Chạy import Excel dưới nền: request chỉ lưu file tạm + tạo ImportJob rồi trả id ngay.
+ * - Pool riêng, có giới hạn (worker-threads + queue-capacity); đầy -> 429.
+ * - Sau mỗi chunk ghi lại tiến độ (total/success/failed/currentRow) để client hỏi lại.
+ * - Huỷ: job QUEUED bị bỏ luôn; job RUNNING dừng sau chunk hiện tại, các chunk đã ghi vẫn giữ.
+ *   Trạng thái chỉ đổi bằng UPDATE có điều kiện, nên job đã COMPLETED/FAILED không thể thành CANCELLED.
+ * - Kết quả (kể cả lỗi theo dòng) nằm trong import_jobs, client kết nối lại chỉ cần GET theo id.
+ * - Chỉ người tạo job hoặc admin được xem / huỷ.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImportJobService {
+
+    private static final int MAX_STORED_ERRORS = 1000;
+    private static final Set<ImportJob.Status> OPEN = EnumSet.of(ImportJob.Status.QUEUED, ImportJob.Status.RUNNING);
+    private static final Set<ImportJob.Status> RUNNING = EnumSet.of(ImportJob.Status.RUNNING);
+
+    private final ImportJobRepository importJobRepository;
+    private final TalentExcelImportService talentImportService;
+    private final MentorExcelImportService mentorImportService;
+    private final ExcelStreamReader excelStreamReader;
+    private final CurrentActorService currentActorService;
+
+    @Value("${app.import.worker-threads:2}")
+    int workerThreads;
+
+    @Value("${app.import.queue-capacity:10}")
+    int queueCapacity;
+
+    @Value("${app.import.retry-after-seconds:30}")
+    long retryAfterSeconds;
+
+    // Job của node khác không cập nhật tiến độ quá mốc này coi như node đó đã chết
+    @Value("${app.import.stale-after-minutes:30}")
+    long staleAfterMinutes;
+
+    @Value("${app.instance-id:${HOSTNAME:local}}")
+    String nodeId;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger seq = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "excel-import-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("Import worker pool started: {} threads, queue {}", workerThreads, queueCapacity);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    // Job còn QUEUED/RUNNING của node này từ lần chạy trước (hoặc của node khác đã ngừng heartbeat)
+    // không có worker nào tiếp tục nữa; job của node khác còn sống thì để nguyên
+    @EventListener(ApplicationReadyEvent.class)
+    void failInterruptedJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        int failed = importJobRepository.failAbandoned(OPEN, ImportJob.Status.FAILED,
+                "Interrupted by server restart", nodeId, now.minusMinutes(staleAfterMinutes), now);
+        if (failed > 0) {
+            log.warn("Marked {} interrupted import job(s) as FAILED", failed);
+        }
+    }
+
+    public ImportJobResponse submit(ImportJob.Type type, MultipartFile file) throws Exception {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        File tmp = excelStreamReader.spoolToTempFile(file);
+
+        ImportJob job = importJobRepository.save(ImportJob.builder()
+                .type(type)
+                .fileName(file.getOriginalFilename())
+                .createdBy(currentActorService.currentUserIdOrNull())
+                .node(nodeId)
+                .build());
+
+        try {
+            executor.execute(() -> run(job, tmp));
+        } catch (RejectedExecutionException ex) {
+            Files.deleteIfExists(tmp.toPath());
+            importJobRepository.finish(job.getId(), OPEN, ImportJob.Status.FAILED, "Import queue is full",
+                    LocalDateTime.now());
+            throw new ServiceBusyException("Too many imports in progress, please retry later",
+                    HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds);
+        }
+        return ImportJobResponse.fromEntity(job);
+    }
+
+    public ImportJobResponse get(String id) {
+        return ImportJobResponse.fromEntity(findOwnedJob(id));
+    }
+
+    // Huỷ được từ bất kỳ node nào: worker thấy UPDATE tiến độ không còn khớp dòng nào thì dừng
+    public ImportJobResponse cancel(String id) {
+        ImportJob job = findOwnedJob(id);
+        int updated = importJobRepository.finish(id, OPEN, ImportJob.Status.CANCELLED, "Cancelled by user",
+                LocalDateTime.now());
+        ImportJob current = findJob(id);
+        if (updated == 0) {
+            throw new IllegalStateException("Import job is already " + current.getStatus());
+        }
+        log.info("Import job {} cancelled (was {})", id, job.getStatus());
+        return ImportJobResponse.fromEntity(current);
+    }
+
+    private void run(ImportJob job, File file) {
+        try {
+            if (importJobRepository.markRunning(job.getId(), ImportJob.Status.QUEUED, ImportJob.Status.RUNNING,
+                    LocalDateTime.now()) == 0) {
+                // Đã huỷ (hoặc bị dọn) khi còn trong hàng đợi
+                return;
+            }
+
+            BulkUserImporter.ImportProgress progress = (soFar, currentRow) -> {
+                if (saveProgress(job.getId(), soFar, currentRow) == 0) {
+                    throw new CancellationException();
+                }
+            };
+
+            ImportResult result = job.getType() == ImportJob.Type.TALENT
+                    ? talentImportService.importTalent(file, progress)
+                    : mentorImportService.importMentor(file, progress);
+            saveProgress(job.getId(), result, null);
+            importJobRepository.finish(job.getId(), RUNNING, ImportJob.Status.COMPLETED, null, LocalDateTime.now());
+        } catch (CancellationException ex) {
+            log.info("Import job {} stopped after cancellation", job.getId());
+        } catch (Exception ex) {
+            log.error("Import job {} failed", job.getId(), ex);
+            importJobRepository.finish(job.getId(), RUNNING, ImportJob.Status.FAILED, ex.getMessage(),
+                    LocalDateTime.now());
+        } finally {
+            try {
+                Files.deleteIfExists(file.toPath());
+            } catch (Exception ex) {
+                log.warn("Cannot delete temp file {}", file, ex);
+            }
+        }
+    }
+
+    // currentRow null = giữ nguyên dòng đã ghi ở chunk cuối
+    private int saveProgress(String id, ImportResult result, Integer currentRow) {
+        List<String> errors = result.getErrors();
+        String stored = errors.isEmpty() ? null
+                : String.join("\n", errors.subList(0, Math.min(errors.size(), MAX_STORED_ERRORS)));
+        return importJobRepository.updateProgress(id, ImportJob.Status.RUNNING, result.getTotal(),
+                result.getSuccess(), result.getFailed(), stored, currentRow, LocalDateTime.now());
+    }
+
+    private ImportJob findOwnedJob(String id) {
+        ImportJob job = findJob(id);
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        boolean admin = auth != null && auth.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(a -> a.equals("ROLE_SYSTEM_ADMIN") || a.equals("ROLE_LAB_ADMIN"));
+        if (!admin && (job.getCreatedBy() == null
+                || !job.getCreatedBy().equals(currentActorService.current().getUserId()))) {
+            throw new AccessDeniedException("Not allowed to access this import job");
+        }
+        return job;
+    }
+
+    private ImportJob findJob(String id) {
+        return importJobRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("ImportJob", "id", id));
+    }
+}
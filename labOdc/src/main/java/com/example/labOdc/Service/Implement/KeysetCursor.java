@@ -0,0 +1,31 @@
+package com.example.labOdc.Service.Implement;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Cursor phân trang keyset dạng chuỗi mờ: vị trí (thời điểm, id) của dòng cuối trang trước.
+ */
+public record KeysetCursor(LocalDateTime at, String id) {
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((at + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * null/rỗng -> null (trang đầu). Cursor hỏng -> IllegalArgumentException (400).
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            return new KeysetCursor(LocalDateTime.parse(parts[0]), parts[1]);
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -10,10 +10,12 @@ import org.springframework.stereotype.Service;
 
 import com.example.labOdc.DTO.LabAdminDTO;
 import com.example.labOdc.DTO.Response.CompanyResponse;
+import com.example.labOdc.DTO.Response.FinancialSummaryResponse;
 import com.example.labOdc.DTO.Response.LabAdminResponse;
 import com.example.labOdc.DTO.Response.ProjectResponse;
 import com.example.labOdc.Exception.ResourceNotFoundException;
 import com.example.labOdc.Model.Company;
+import com.example.labOdc.Model.FinancialAggregate;
 import com.example.labOdc.Model.LabAdmin;
 import com.example.labOdc.Model.Mentor;
 import com.example.labOdc.Model.MentorInvitation;
@@ -31,6 +33,7 @@ import com.example.labOdc.Repository.MentorRepository;
 import com.example.labOdc.Repository.ProjectMentorRepository;
 import com.example.labOdc.Repository.ProjectRepository;
 import com.example.labOdc.Repository.UserRepository;
+import com.example.labOdc.Service.AuditLogService;
 import com.example.labOdc.Service.LabAdminService;
 
 import jakarta.transaction.Transactional;
@@ -48,6 +51,9 @@ public class LabAdminServiceImpl implements LabAdminService {
     private final MentorRepository mentorRepository;
     private final ProjectMentorRepository projectMentorRepository;
     private final MentorInvitationRepository mentorInvitationRepository;
+    private final CurrentActorService currentActorService;
+    private final FinancialAggregateService financialAggregateService;
+    private final AuditLogService auditLogService;
 
     private LabAdmin resolveCurrentLabAdmin() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
@@ -56,18 +62,17 @@ public class LabAdminServiceImpl implements LabAdminService {
                 "Unauthenticated user");
         }
 
-        String username = auth.getName();
-        User user = userRepository.findByUsername(username)
-            .or(() -> userRepository.findByEmail(username))
-            .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        var actor = currentActorService.current();
+        if (actor.getLabAdminId() != null) {
+            return labAdminRepository.getReferenceById(actor.getLabAdminId());
+        }
 
         // If LAB_ADMIN user doesn't yet have a lab_admins row, create it on the fly.
-        return labAdminRepository.findByUser_Id(user.getId())
-            .orElseGet(() -> {
-                logger.warn("LabAdmin profile missing for userId={}, auto-creating...", user.getId());
-                LabAdmin created = LabAdmin.builder().user(user).build();
-                return labAdminRepository.save(created);
-            });
+        logger.warn("LabAdmin profile missing for userId={}, auto-creating...", actor.getUserId());
+        LabAdmin created = LabAdmin.builder().user(userRepository.getReferenceById(actor.getUserId())).build();
+        LabAdmin saved = labAdminRepository.save(created);
+        currentActorService.evictUser(actor.getUserId());
+        return saved;
     }
 
     private LabAdmin resolveLabAdminFromParam(String labAdminId) {
@@ -115,6 +120,7 @@ public class LabAdminServiceImpl implements LabAdminService {
                 .build();
 
         LabAdmin saved = labAdminRepository.save(labAdmin);
+        currentActorService.evictUser(user.getId());
 
         return LabAdminResponse.fromLabAdmin(saved);
     }
@@ -137,6 +143,7 @@ public class LabAdminServiceImpl implements LabAdminService {
         LabAdmin labAdmin = labAdminRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("LabAdmin not found"));
         labAdminRepository.delete(labAdmin);
+        currentActorService.evictProfile(id);
         logger.info("Lab admin deleted successfully");
     }
 
@@ -233,6 +240,7 @@ public class LabAdminServiceImpl implements LabAdminService {
         project.setValidatedBy(labAdmin);
         project.setValidatedAt(java.time.LocalDateTime.now());
         projectRepository.save(project);
+        auditLogService.record("PROJECT_VALIDATED", "Project", projectId, null);
         logger.info("Project validated successfully");
     }
 
@@ -257,6 +265,7 @@ public class LabAdminServiceImpl implements LabAdminService {
         project.setValidatedBy(labAdmin);
         project.setValidatedAt(java.time.LocalDateTime.now());
         projectRepository.save(project);
+        auditLogService.record("PROJECT_REJECTED", "Project", projectId, reason);
         logger.info("Project rejected successfully");
     }
 
@@ -347,14 +356,23 @@ public class LabAdminServiceImpl implements LabAdminService {
     }
 
     @Override
-    public String getSystemFinancialSummary() {
-        // Placeholder: Tính toán tóm tắt tài chính
-        return "Total funds allocated: $100,000. Total payments: $50,000. Remaining: $50,000.";
+    public FinancialSummaryResponse getSystemFinancialSummary() {
+        return financialAggregateService.getSummary(FinancialAggregate.Scope.LAB, null);
+    }
+
+    @Override
+    public FinancialSummaryResponse getCompanyFinancialSummary(String companyId) {
+        if (!companyRepository.existsById(companyId)) {
+            throw new ResourceNotFoundException("Company", "id", companyId);
+        }
+        return financialAggregateService.getSummary(FinancialAggregate.Scope.COMPANY, companyId);
     }
 
     @Override
-    public List<String> getAuditLogs(String filter) {
-        // Placeholder: Lấy nhật ký kiểm tra
-        return List.of("Audit log 1: User login", "Audit log 2: Project created", "Audit log 3: Payment approved");
+    public FinancialSummaryResponse getProjectFinancialSummary(String projectId) {
+        if (!projectRepository.existsById(projectId)) {
+            throw new ResourceNotFoundException("Project", "id", projectId);
+        }
+        return financialAggregateService.getSummary(FinancialAggregate.Scope.PROJECT, projectId);
     }
 }
@@ -20,6 +20,7 @@ public class LabFundAdvanceServiceImpl implements LabFundAdvanceService {
     private final ProjectRepository projectRepository;
     private final PaymentRepository paymentRepository;
     private final UserRepository userRepository;
+    private final FinancialAggregateService financialAggregateService;
 
     @Override
     public LabFundAdvance createAdvance(LabFundAdvanceDTO dto) {
@@ -42,7 +43,9 @@ public class LabFundAdvanceServiceImpl implements LabFundAdvanceService {
                 .status(LabFundAdvanceStatus.ADVANCED)
                 .build();
 
-        return labFundAdvanceRepository.save(advance);
+        LabFundAdvance saved = labFundAdvanceRepository.save(advance);
+        financialAggregateService.applyChange(null, financialAggregateService.snapshot(saved));
+        return saved;
     }
 
     @Override
@@ -71,9 +74,12 @@ public class LabFundAdvanceServiceImpl implements LabFundAdvanceService {
             payment = paymentRepository.findById(paymentId).orElse(null);
         }
 
+        FinancialAggregateService.Snapshot before = financialAggregateService.snapshot(advance);
         advance.setPayment(payment);
         advance.setStatus(LabFundAdvanceStatus.SETTLED);
-        return labFundAdvanceRepository.save(advance);
+        LabFundAdvance saved = labFundAdvanceRepository.save(advance);
+        financialAggregateService.applyChange(before, financialAggregateService.snapshot(saved));
+        return saved;
     }
 
     @Override
@@ -82,12 +88,15 @@ public class LabFundAdvanceServiceImpl implements LabFundAdvanceService {
         LabFundAdvance advance = labFundAdvanceRepository.findById(advanceId).orElse(null);
         if (advance == null) return null;
 
+        FinancialAggregateService.Snapshot before = financialAggregateService.snapshot(advance);
         advance.setStatus(LabFundAdvanceStatus.CANCELLED);
         if (reason != null) {
             advance.setAdvanceReason(reason);
         }
 
-        return labFundAdvanceRepository.save(advance);
+        LabFundAdvance saved = labFundAdvanceRepository.save(advance);
+        financialAggregateService.applyChange(before, financialAggregateService.snapshot(saved));
+        return saved;
     }
 
     @Override
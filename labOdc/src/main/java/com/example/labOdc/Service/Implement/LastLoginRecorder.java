@@ -0,0 +1,75 @@
+package com.example.labOdc.Service.Implement;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.labOdc.Repository.UserRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ghi lastLoginAt theo lô thay vì UPDATE từng user ngay trong request đăng nhập.
+ * - record(): chỉ ghi vào map (user đăng nhập nhiều lần trong 1 chu kỳ -> giữ lần mới nhất).
+ * - flush(): định kỳ gom theo giây, mỗi nhóm 1 câu UPDATE ... WHERE id IN (...).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LastLoginRecorder {
+
+    private final UserRepository userRepository;
+
+    @Value("${app.last-login.batch-size:500}")
+    int batchSize;
+
+    private final Map<String, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    public void record(String userId) {
+        if (userId != null) {
+            pending.put(userId, LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.last-login.flush-interval-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<LocalDateTime, List<String>> byTime = new HashMap<>();
+        for (String userId : new ArrayList<>(pending.keySet())) {
+            LocalDateTime loginAt = pending.remove(userId);
+            if (loginAt != null) {
+                byTime.computeIfAbsent(loginAt, t -> new ArrayList<>()).add(userId);
+            }
+        }
+
+        byTime.forEach((loginAt, ids) -> {
+            for (int from = 0; from < ids.size(); from += batchSize) {
+                List<String> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+                try {
+                    userRepository.updateLastLoginAt(chunk, loginAt);
+                } catch (RuntimeException ex) {
+                    log.warn("Failed to update lastLoginAt for {} users: {}", chunk.size(), ex.getMessage());
+                    chunk.forEach(id -> pending.putIfAbsent(id, loginAt));
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
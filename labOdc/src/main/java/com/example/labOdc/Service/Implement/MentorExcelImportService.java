@@ -1,128 +1,105 @@
 package com.example.labOdc.Service.Implement;
 
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
 import com.example.labOdc.DTO.ImportResult;
 import com.example.labOdc.Model.Mentor;
-import com.example.labOdc.Model.RoleEntity;
 import com.example.labOdc.Model.User;
 import com.example.labOdc.Model.UserRole;
 import com.example.labOdc.Repository.MentorRepository;
-import com.example.labOdc.Repository.RoleRepository;
-import com.example.labOdc.Repository.UserRepository;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-
 import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor
 public class MentorExcelImportService {
-    private final UserRepository userRepository;
     private final MentorRepository mentorRepository;
-    private final RoleRepository roleRepository;
-    private final PasswordEncoder passwordEncoder;
-
-    private String generateUsername(String email) {
-        String baseUsername = email.split("@")[0];
-        String username = baseUsername;
-        int count = 1;
+    private final ExcelStreamReader excelStreamReader;
+    private final BulkUserImporter bulkUserImporter;
 
-        while (userRepository.findByUsername(username).isPresent()) {
-            username = baseUsername + count;
-            count++;
-        }
-
-        return username;
+    private record MentorRow(int rowNum, String email, String fullName, String phone, String expertise,
+            Integer expYears) {
     }
 
-    public ImportResult importMentor(MultipartFile file) throws Exception {
+    // Đọc streaming từng dòng, kiểm tra + ghi theo chunk (app.import.batch-size dòng)
+    public ImportResult importMentor(File file, BulkUserImporter.ImportProgress progress) throws Exception {
 
         ImportResult result = new ImportResult();
-        Workbook workbook = new XSSFWorkbook(file.getInputStream());
-        Sheet sheet = workbook.getSheet("MENTORS");
-
-        int total = 0, success = 0, failed = 0;
-
-        for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-            Row row = sheet.getRow(i);
-            total++;
+        BulkUserImporter.ImportContext ctx = bulkUserImporter.begin(UserRole.MENTOR);
+        List<MentorRow> chunk = new ArrayList<>();
 
+        excelStreamReader.readSheet(file, "MENTORS", 5, (rowNum, row) -> {
+            if (rowNum == 0) {
+                return;
+            }
+            result.setTotal(result.getTotal() + 1);
             try {
-                String email = getCellString(row, 0);
-                String fullName = getCellString(row, 1);
-                String phone = getCellString(row, 2);
-                String expertise = getCellString(row, 3);
-                Integer expYears = getCellInt(row, 4);
-
-                // ===== VALIDATE =====
-                if (email == null || email.isBlank()) {
-                    throw new RuntimeException("Email is empty");
-                }
-
-                if (userRepository.existsByEmail(email)) {
-                    throw new RuntimeException("Email already exists");
-                }
-                String username = generateUsername(email);
-                // ===== CREATE USER =====
-                RoleEntity mentorRole = roleRepository.findByRole(UserRole.MENTOR)
-                        .orElseThrow(() -> new RuntimeException("Role MENTOR not found"));
-                User user = User.builder()
-                        .email(email)
-                        .fullName(fullName)
-                        .username(username)
-                        .phone(phone)
-                        .password(passwordEncoder.encode("123456"))
-                        .roles(Set.of(mentorRole))
-                        .isActive(true)
-                        .build();
-
-                userRepository.save(user);
-
-                // ===== CREATE MENTOR =====
-                Mentor mentor = Mentor.builder()
-                        .user(user)
-                        .expertise(expertise)
-                        .yearsExperience(expYears)
-                        .status(Mentor.Status.AVAILABLE)
-                        .build();
-
-                mentorRepository.save(mentor);
-
-                success++;
-
+                chunk.add(new MentorRow(rowNum, row.get(0), row.get(1), row.get(2), row.get(3),
+                        ExcelStreamReader.toInt(row.get(4))));
             } catch (Exception e) {
-                failed++;
-                result.getErrors().add("Row " + (i + 1) + ": " + e.getMessage());
+                fail(result, rowNum, e.getMessage());
             }
-        }
-
-        result.setTotal(total);
-        result.setSuccess(success);
-        result.setFailed(failed);
-        workbook.close();
+            if (chunk.size() >= bulkUserImporter.getBatchSize()) {
+                importChunk(chunk, ctx, result);
+                chunk.clear();
+                result.setSuccess(result.getTotal() - result.getFailed());
+                progress.onChunk(result, rowNum + 1);
+            }
+        });
+        int lastRow = chunk.isEmpty() ? 0 : chunk.get(chunk.size() - 1).rowNum() + 1;
+        importChunk(chunk, ctx, result);
 
+        result.setSuccess(result.getTotal() - result.getFailed());
+        if (lastRow > 0) {
+            progress.onChunk(result, lastRow);
+        }
         return result;
     }
 
-    // ===== Helper =====
-    private String getCellString(Row row, int index) {
-        Cell cell = row.getCell(index);
-        return cell == null ? null : cell.toString().trim();
+    private void importChunk(List<MentorRow> rows, BulkUserImporter.ImportContext ctx, ImportResult result) {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        // ===== PREFETCH: 1 truy vấn cho mỗi loại trong cả chunk =====
+        List<String> emails = rows.stream().map(MentorRow::email).filter(e -> e != null && !e.isBlank()).toList();
+        Set<String> existingEmails = ctx.existingEmails(emails);
+        Set<String> takenUsernames = ctx.takenUsernames(emails);
+
+        List<BulkUserImporter.PendingRow<Mentor>> pending = new ArrayList<>(rows.size());
+        for (MentorRow row : rows) {
+            // ===== VALIDATE =====
+            if (row.email() == null || row.email().isBlank()) {
+                fail(result, row.rowNum(), "Email is empty");
+                continue;
+            }
+            if (existingEmails.contains(row.email()) || !ctx.claimEmail(row.email())) {
+                fail(result, row.rowNum(), "Email already exists");
+                continue;
+            }
+
+            // ===== CREATE USER + MENTOR =====
+            User user = ctx.newUser(row.email(), row.fullName(), ctx.allocateUsername(row.email(), takenUsernames),
+                    row.phone());
+            Mentor mentor = Mentor.builder()
+                    .user(user)
+                    .expertise(row.expertise())
+                    .yearsExperience(row.expYears())
+                    .status(Mentor.Status.AVAILABLE)
+                    .build();
+            pending.add(new BulkUserImporter.PendingRow<>(row.rowNum(), user, mentor));
+        }
+
+        bulkUserImporter.persistChunk(pending, mentorRepository, result);
     }
 
-    private Integer getCellInt(Row row, int index) {
-        Cell cell = row.getCell(index);
-        if (cell == null)
-            return null;
-        return (int) cell.getNumericCellValue();
+    private void fail(ImportResult result, int rowNum, String message) {
+        result.setFailed(result.getFailed() + 1);
+        result.getErrors().add("Row " + (rowNum + 1) + ": " + message);
     }
 }
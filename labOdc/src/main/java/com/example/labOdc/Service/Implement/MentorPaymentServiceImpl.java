@@ -23,6 +23,7 @@ public class MentorPaymentServiceImpl implements MentorPaymentService {
     private final FundAllocationRepository fundAllocationRepository;
     private final MentorRepository mentorRepository;
     private final UserRepository userRepository;
+    private final FinancialAggregateService financialAggregateService;
 
     @Override
     public MentorPayment createMentorPayment(MentorPaymentDTO dto) {
@@ -74,24 +75,30 @@ public class MentorPaymentServiceImpl implements MentorPaymentService {
     ) {
 
         MentorPayment payment = getById(mentorPaymentId);
+        FinancialAggregateService.Snapshot before = financialAggregateService.snapshot(payment);
 
         payment.setStatus(MentorPaymentStatus.PAID);
         payment.setPaymentMethod(paymentMethod);
         payment.setTransactionReference(transactionReference);
         payment.setPaidDate(LocalDate.now());
 
-        return mentorPaymentRepository.save(payment);
+        MentorPayment saved = mentorPaymentRepository.save(payment);
+        financialAggregateService.applyChange(before, financialAggregateService.snapshot(saved));
+        return saved;
     }
 
     @Override
     public MentorPayment cancelMentorPayment(String mentorPaymentId, String reason) {
 
         MentorPayment payment = getById(mentorPaymentId);
+        FinancialAggregateService.Snapshot before = financialAggregateService.snapshot(payment);
 
         payment.setStatus(MentorPaymentStatus.CANCELLED);
         payment.setNotes(reason);
 
-        return mentorPaymentRepository.save(payment);
+        MentorPayment saved = mentorPaymentRepository.save(payment);
+        financialAggregateService.applyChange(before, financialAggregateService.snapshot(saved));
+        return saved;
     }
 
     @Override
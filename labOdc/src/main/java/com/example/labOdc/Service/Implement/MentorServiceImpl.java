@@ -26,7 +26,6 @@ import com.example.labOdc.Repository.MentorInvitationRepository;
 import com.example.labOdc.Repository.MentorRepository;
 import com.example.labOdc.Repository.ProjectMentorRepository;
 import com.example.labOdc.Repository.ProjectRepository;
-import com.example.labOdc.Repository.RoleRepository;
 import com.example.labOdc.Repository.TalentRepository;
 import com.example.labOdc.Repository.TaskRepository;
 import com.example.labOdc.Repository.UserRepository;
@@ -42,13 +41,18 @@ public class MentorServiceImpl implements MentorService {
 
     private final MentorRepository mentorRepository;
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RolePermissionCache rolePermissionCache;
     private final MentorInvitationRepository mentorInvitationRepository;
     private final ProjectMentorRepository projectMentorRepository;
     private final TaskRepository taskRepository;
     private final ProjectRepository projectRepository;
     private final TalentRepository talentRepository;
     private final ExcelSubmissionService excelSubmissionService;
+    private final CurrentActorService currentActorService;
+    private final TaskBreakdownImporter taskBreakdownImporter;
+    private final RemoteFileFetcher remoteFileFetcher;
+    private final TaskBoardSummaryCache taskBoardSummaryCache;
+    private final TaskEventService taskEventService;
 
     @Override
 @Transactional
@@ -82,7 +86,7 @@ public MentorResponse createMentor(MentorDTO mentorDTO) {
     Mentor savedMentor = mentorRepository.save(mentor);
 
     // 4. Gán role MENTOR cho user (nếu chưa có)
-    RoleEntity mentorRole = roleRepository.findByRole(UserRole.MENTOR)
+    RoleEntity mentorRole = rolePermissionCache.findRole(UserRole.MENTOR)
             .orElseThrow(() -> new ResourceNotFoundException("MENTOR role not found"));
 
     boolean hasMentorRole = user.getRoles().stream()
@@ -92,6 +96,7 @@ public MentorResponse createMentor(MentorDTO mentorDTO) {
         user.getRoles().add(mentorRole);
         userRepository.save(user);
     }
+    currentActorService.evictUser(user.getId());
 
     return MentorResponse.fromMentor(savedMentor);
 }
@@ -113,6 +118,7 @@ public MentorResponse createMentor(MentorDTO mentorDTO) {
     @Override
     public void deleteMentor(String id) {
         mentorRepository.deleteById(id);
+        currentActorService.evictProfile(id);
     }
 
     /**
@@ -181,21 +187,9 @@ public MentorResponse createMentor(MentorDTO mentorDTO) {
                 .orElseThrow(() -> new ResourceNotFoundException("Mentor invitation not found"));
 
         // Verify the invitation belongs to the authenticated mentor
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || !auth.isAuthenticated()) {
-            throw new RuntimeException("Unauthenticated user");
-        }
-
-        String username = auth.getName();
-        User currentUser = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        String currentMentorId = currentActorService.requireMentorId();
 
-        Mentor currentMentor = mentorRepository.findAll().stream()
-                .filter(m -> m.getUser() != null && m.getUser().getId().equals(currentUser.getId()))
-                .findFirst()
-                .orElseThrow(() -> new ResourceNotFoundException("Mentor profile not found for this user"));
-
-        if (!invite.getMentor().getId().equals(currentMentor.getId())) {
+        if (!invite.getMentor().getId().equals(currentMentorId)) {
             throw new RuntimeException("This invitation does not belong to you");
         }
 
@@ -232,21 +226,9 @@ public MentorResponse createMentor(MentorDTO mentorDTO) {
                 .orElseThrow(() -> new ResourceNotFoundException("Mentor invitation not found"));
 
         // Verify the invitation belongs to the authenticated mentor
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || !auth.isAuthenticated()) {
-            throw new RuntimeException("Unauthenticated user");
-        }
+        String currentMentorId = currentActorService.requireMentorId();
 
-        String username = auth.getName();
-        User currentUser = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-
-        Mentor currentMentor = mentorRepository.findAll().stream()
-                .filter(m -> m.getUser() != null && m.getUser().getId().equals(currentUser.getId()))
-                .findFirst()
-                .orElseThrow(() -> new ResourceNotFoundException("Mentor profile not found for this user"));
-
-        if (!invite.getMentor().getId().equals(currentMentor.getId())) {
+        if (!invite.getMentor().getId().equals(currentMentorId)) {
             throw new RuntimeException("This invitation does not belong to you");
         }
 
@@ -296,21 +278,7 @@ public MentorResponse createMentor(MentorDTO mentorDTO) {
      */
     @Override
     public List<MentorInvitationResponse> getMyMentorInvitations() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || !auth.isAuthenticated() || auth.getName() == null || auth.getName().isBlank()) {
-            throw new RuntimeException("Unauthenticated user");
-        }
-
-        String username = auth.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-
-        Mentor mentor = mentorRepository.findAll().stream()
-                .filter(m -> m.getUser() != null && m.getUser().getId().equals(user.getId()))
-                .findFirst()
-                .orElseThrow(() -> new ResourceNotFoundException("Mentor profile not found for this user"));
-
-        return getMentorInvitations(mentor.getId());
+        return getMentorInvitations(currentActorService.requireMentorId());
     }
 
     @Override
@@ -325,27 +293,12 @@ public MentorResponse createMentor(MentorDTO mentorDTO) {
 
         @Override
         public List<ProjectResponse> getMyAssignedProjects() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || !auth.isAuthenticated() || auth.getName() == null || auth.getName().isBlank()) {
-            throw new RuntimeException("Unauthenticated user");
-        }
-
-        String username = auth.getName();
-
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-
-        Mentor mentor = mentorRepository.findAll().stream()
-            .filter(m -> m.getUser() != null && String.valueOf(m.getUser().getId()).equals(String.valueOf(user.getId())))
-            .findFirst()
-            .orElseThrow(() -> new ResourceNotFoundException("Mentor not found"));
-
-        return getAssignedProjects(mentor.getId());
+        return getAssignedProjects(currentActorService.requireMentorId());
         }
 
     @Override
-    public void breakdownTasks(String projectId, String excelTemplate) {
-        // Validate input and download bytes
+    public java.util.concurrent.CompletableFuture<Void> breakdownTasks(String projectId, String excelTemplate) {
+        // Validate input; tải qua RemoteFileFetcher (không giữ thread request, có giới hạn kích thước)
         projectRepository.findById(projectId)
                 .orElseThrow(() -> new ResourceNotFoundException("Project not found"));
 
@@ -353,25 +306,18 @@ public MentorResponse createMentor(MentorDTO mentorDTO) {
             throw new RuntimeException("Empty excel template URL");
         }
 
-        byte[] data;
-        try {
-            java.net.URL url = new java.net.URL(excelTemplate);
-            java.net.URLConnection conn = url.openConnection();
-            conn.setConnectTimeout(10000);
-            conn.setReadTimeout(10000);
-            try (java.io.InputStream urlStream = conn.getInputStream()) {
-                data = urlStream.readAllBytes();
-            }
-        } catch (java.io.IOException e) {
-            throw new RuntimeException("Failed to download excel template from URL: " + e.getMessage(), e);
-        }
-
-        if (data == null || data.length == 0) {
-            throw new RuntimeException("Excel file downloaded from URL is empty");
-        }
-
+        // Lấy trước khi rời thread request (SecurityContext không đi theo future)
         String currentUserId = getCurrentUserIdSafe();
-        processTaskBreakdownExcelBytes(projectId, data, currentUserId, "task-breakdown-url");
+        // Ghi DB trên pool import riêng, không giữ thread của HttpClient / pool tải file
+        return remoteFileFetcher.fetch(excelTemplate).thenAcceptAsync(downloaded -> {
+            java.io.File stored;
+            try (java.io.InputStream in = java.nio.file.Files.newInputStream(downloaded)) {
+                stored = taskBreakdownImporter.store(projectId, in, "task-breakdown-url");
+            } catch (java.io.IOException e) {
+                throw new RuntimeException("Failed to read downloaded excel template: " + e.getMessage(), e);
+            }
+            processTaskBreakdownFile(projectId, stored, currentUserId);
+        }, taskBreakdownImporter.executor());
     }
 
     @Override
@@ -383,42 +329,21 @@ public MentorResponse createMentor(MentorDTO mentorDTO) {
             throw new RuntimeException("Empty excel file");
         }
 
-        final byte[] data;
-        try {
-            data = file.getBytes();
+        String originalName = file.getOriginalFilename();
+        String prefix = (originalName != null && !originalName.isBlank()) ? originalName : "task-breakdown-upload";
+        java.io.File stored;
+        try (java.io.InputStream in = file.getInputStream()) {
+            stored = taskBreakdownImporter.store(projectId, in, prefix);
         } catch (java.io.IOException e) {
             throw new RuntimeException("Failed to read uploaded excel file: " + e.getMessage(), e);
         }
 
         String currentUserId = getCurrentUserIdSafe();
-        String originalName = file.getOriginalFilename();
-        String prefix = (originalName != null && !originalName.isBlank()) ? originalName : "task-breakdown-upload";
-        processTaskBreakdownExcelBytes(projectId, data, currentUserId, prefix);
+        processTaskBreakdownFile(projectId, stored, currentUserId);
     }
 
-    private void processTaskBreakdownExcelBytes(
-            String projectId,
-            byte[] data,
-            String currentUserId,
-            String filePrefix
-    ) {
-        if (data == null || data.length == 0) {
-            throw new RuntimeException("Excel data is empty");
-        }
-
-        // Save file to local storage (uploads/excel/{projectId}/{timestamp}.xlsx)
-        String fileUrl;
-        try {
-            java.nio.file.Path uploadDir = java.nio.file.Paths.get("uploads", "excel", projectId);
-            java.nio.file.Files.createDirectories(uploadDir);
-            String safePrefix = (filePrefix == null ? "task-breakdown" : filePrefix).replaceAll("[^a-zA-Z0-9._-]", "-");
-            String filename = safePrefix + "-" + System.currentTimeMillis() + ".xlsx";
-            java.nio.file.Path outPath = uploadDir.resolve(filename);
-            java.nio.file.Files.write(outPath, data);
-            fileUrl = outPath.toAbsolutePath().toString();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to persist uploaded excel file: " + e.getMessage(), e);
-        }
+    private void processTaskBreakdownFile(String projectId, java.io.File stored, String currentUserId) {
+        String fileUrl = stored.getAbsolutePath();
 
         // Record submission
         try {
@@ -427,131 +352,16 @@ public MentorResponse createMentor(MentorDTO mentorDTO) {
             System.err.println("Failed to record Excel submission: " + e.getMessage());
         }
 
-        // Parse XLSX
-        try (
-                java.io.InputStream is = new java.io.ByteArrayInputStream(data);
-                org.apache.poi.ss.usermodel.Workbook workbook = new org.apache.poi.xssf.usermodel.XSSFWorkbook(is)
-        ) {
-            org.apache.poi.ss.usermodel.Sheet sheet = null;
-            if (workbook.getNumberOfSheets() > 0) {
-                sheet = workbook.getSheet("TASKS");
-                if (sheet == null) sheet = workbook.getSheetAt(0);
-            }
-            if (sheet == null) {
-                throw new RuntimeException("Excel template contains no sheets");
-            }
-
-            java.util.List<Task> tasksToSave = new java.util.ArrayList<>();
-            java.time.format.DateTimeFormatter dateFormatter = java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd");
-
-            // Assume first row is header; start from row 1
-            for (int r = 1; r <= sheet.getLastRowNum(); r++) {
-                org.apache.poi.ss.usermodel.Row row = sheet.getRow(r);
-                if (row == null) continue;
-
-                String taskName = getCellString(row.getCell(0));
-                if (taskName == null || taskName.isBlank()) continue;
-                String description = getCellString(row.getCell(1));
-                String priorityStr = getCellString(row.getCell(2));
-                String startDateStr = getCellString(row.getCell(3));
-                String dueDateStr = getCellString(row.getCell(4));
-                String estHoursStr = getCellString(row.getCell(5));
-                String assignedTo = getCellString(row.getCell(6));
-
-                Task task = Task.builder()
-                        .projectId(projectId)
-                        .taskName(taskName.trim())
-                        .description(description)
-                        .status(Task.Status.TODO)
-                        .priority(parsePriority(priorityStr))
-                        .excelTemplateUrl(fileUrl)
-                        .createdBy(currentUserId)
-                        .build();
-
-                try {
-                    if (startDateStr != null && !startDateStr.isBlank()) {
-                        task.setStartDate(java.time.LocalDate.parse(startDateStr.trim(), dateFormatter));
-                    }
-                } catch (Exception ex) {
-                    // ignore parse
-                }
-
-                try {
-                    if (dueDateStr != null && !dueDateStr.isBlank()) {
-                        task.setDueDate(java.time.LocalDate.parse(dueDateStr.trim(), dateFormatter));
-                    }
-                } catch (Exception ex) {
-                    // ignore parse
-                }
-
-                try {
-                    if (estHoursStr != null && !estHoursStr.isBlank()) {
-                        task.setEstimatedHours(new java.math.BigDecimal(estHoursStr.trim()));
-                    }
-                } catch (Exception ex) {
-                    // ignore parse
-                }
-
-                if (assignedTo != null && !assignedTo.isBlank()) {
-                    String trimmedTalentId = assignedTo.trim();
-                    if (talentRepository.findById(trimmedTalentId).isPresent()) {
-                        task.setAssignedTo(trimmedTalentId);
-                    } else {
-                        System.out.println("Warning: Talent ID '" + trimmedTalentId + "' not found in row " + (r + 1) + ". Task created without assignment.");
-                    }
-                }
-
-                tasksToSave.add(task);
-            }
-
-            if (!tasksToSave.isEmpty()) {
-                taskRepository.saveAll(tasksToSave);
-            }
+        // Parse XLSX (streaming, ghi theo chunk)
+        try {
+            taskBreakdownImporter.importTasks(projectId, stored, currentUserId);
         } catch (Exception e) {
             throw new RuntimeException("Failed to parse task breakdown excel: " + e.getMessage(), e);
         }
     }
 
-    private String getCellString(org.apache.poi.ss.usermodel.Cell cell) {
-        if (cell == null) return null;
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (org.apache.poi.ss.usermodel.DateUtil.isCellDateFormatted(cell)) {
-                    java.time.LocalDate dt = cell.getLocalDateTimeCellValue().toLocalDate();
-                    return dt.toString();
-                }
-                return String.valueOf(cell.getNumericCellValue());
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                try { return cell.getStringCellValue(); } catch (Exception e) { return String.valueOf(cell.getNumericCellValue()); }
-            default:
-                return null;
-        }
-    }
-
-    private Task.Priority parsePriority(String p) {
-        if (p == null) return null;
-        try {
-            return Task.Priority.valueOf(p.trim().toUpperCase());
-        } catch (Exception ex) {
-            return null;
-        }
-    }
-
     private String getCurrentUserIdSafe() {
-        try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            if (auth == null || !auth.isAuthenticated()) return null;
-            String username = auth.getName();
-            if (username == null) return null;
-            User u = userRepository.findByUsername(username).orElse(null);
-            return u != null ? u.getId() : null;
-        } catch (Exception ex) {
-            return null;
-        }
+        return currentActorService.currentUserIdOrNull();
     }
 
     @Override
@@ -589,6 +399,8 @@ public MentorResponse createMentor(MentorDTO mentorDTO) {
                 .build();
         
         Task savedTask = taskRepository.save(task);
+        taskEventService.record(savedTask, null, savedTask.getStatus());
+        taskBoardSummaryCache.evictAfterCommit(projectId);
         return TaskResponse.fromEntity(savedTask);
     }
 
@@ -606,6 +418,7 @@ public MentorResponse createMentor(MentorDTO mentorDTO) {
         // Assign task to talent
         task.setAssignedTo(talentId);
         Task updatedTask = taskRepository.save(task);
+        taskBoardSummaryCache.evictAfterCommit(updatedTask.getProjectId());
         
         return TaskResponse.fromEntity(updatedTask);
     }
@@ -0,0 +1,236 @@
+package com.example.labOdc.Service.Implement;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Kênh SSE đẩy thông báo / số chưa đọc tới client.
+ * - SseEmitter chạy ở chế độ async của servlet: kết nối rảnh không giữ thread Tomcat.
+ * - Mỗi kết nối có hàng đợi riêng (push-queue-per-subscriber), được xả trên pool nhỏ (push-threads):
+ *   1 client chậm chỉ giữ 1 thread, các client khác vẫn nhận bình thường.
+ * - Hàng đợi đầy hoặc 1 lần send kéo dài quá push-send-timeout-ms -> đóng kết nối đó (client tự kết nối lại).
+ * - Các hàm publish chỉ xếp hàng sau khi transaction hiện tại commit thành công, không chặn luồng commit.
+ */
+@Service
+@Slf4j
+public class NotificationPushService {
+
+    public static final String EVENT_NOTIFICATION = "notification";
+    public static final String EVENT_UNREAD_COUNT = "unread-count";
+
+    @Value("${app.notification.sse-timeout-ms:1800000}")
+    long sseTimeoutMs;
+
+    @Value("${app.notification.push-threads:4}")
+    int pushThreads;
+
+    @Value("${app.notification.push-queue-per-subscriber:100}")
+    int queuePerSubscriber;
+
+    @Value("${app.notification.push-send-timeout-ms:10000}")
+    long sendTimeoutMs;
+
+    private static final class Subscriber {
+        final String userId;
+        final SseEmitter emitter;
+        final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        // true khi đã có 1 task xả hàng đợi trên pool -> mỗi kết nối gửi tuần tự
+        final AtomicBoolean draining = new AtomicBoolean();
+        // System.nanoTime() lúc bắt đầu lần send hiện tại, 0 = không gửi
+        volatile long sendingSince;
+
+        Subscriber(String userId, SseEmitter emitter, int capacity) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    // userId -> các kết nối đang mở (1 user có thể mở nhiều tab)
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor sender;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger seq = new AtomicInteger();
+        // Hàng đợi của pool giữ tối đa 1 task cho mỗi kết nối (cờ draining), nên không cần giới hạn riêng
+        sender = new ThreadPoolExecutor(pushThreads, pushThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "notification-push-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    public SseEmitter subscribe(String userId) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        Subscriber sub = new Subscriber(userId, emitter, queuePerSubscriber);
+        subscribers.compute(userId, (k, subs) -> {
+            Set<Subscriber> set = subs != null ? subs : new CopyOnWriteArraySet<>();
+            set.add(sub);
+            return set;
+        });
+
+        Runnable remove = () -> unsubscribe(sub);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        return emitter;
+    }
+
+    public boolean isSubscribed(String userId) {
+        Set<Subscriber> subs = subscribers.get(userId);
+        return subs != null && !subs.isEmpty();
+    }
+
+    /**
+     * payload được tính sau commit, vd. để đọc createdAt đã được Hibernate điền.
+     */
+    public void publishToUser(String userId, String event, Supplier<?> payload) {
+        if (userId == null || !isSubscribed(userId)) {
+            return;
+        }
+        afterCommit(() -> {
+            if (isSubscribed(userId)) {
+                sendToUser(userId, event, payload.get());
+            }
+        });
+    }
+
+    /**
+     * Payload riêng cho từng user (vd. broadcast: mỗi người có id thông báo riêng), 1 lần đăng ký sau commit.
+     */
+    public void publishToUsers(String event, Map<String, ?> payloadByUser) {
+        if (payloadByUser.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> payloadByUser.forEach((userId, payload) -> sendToUser(userId, event, payload)));
+    }
+
+    // Giữ kết nối qua proxy/load balancer, phát hiện client đã đóng và cắt kết nối bị treo khi gửi
+    @Scheduled(fixedDelayString = "${app.notification.sse-heartbeat-ms:25000}")
+    public void heartbeat() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(subs -> subs.forEach(sub -> {
+            long since = sub.sendingSince;
+            if (since != 0 && now - since > TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs)) {
+                log.debug("Dropping SSE subscriber of user {}: send blocked for over {} ms", sub.userId,
+                        sendTimeoutMs);
+                drop(sub);
+            } else {
+                enqueue(sub, SseEmitter.event().comment("ping"));
+            }
+        }));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.values().forEach(subs -> subs.forEach(sub -> sub.emitter.complete()));
+        sender.shutdownNow();
+    }
+
+    private void sendToUser(String userId, String event, Object payload) {
+        Set<Subscriber> subs = subscribers.get(userId);
+        if (subs != null) {
+            subs.forEach(sub -> enqueue(sub, SseEmitter.event().name(event).data(payload)));
+        }
+    }
+
+    private void enqueue(Subscriber sub, SseEmitter.SseEventBuilder event) {
+        if (!sub.queue.offer(event)) {
+            log.debug("Dropping SSE subscriber of user {}: {} events pending", sub.userId, sub.queue.size());
+            drop(sub);
+            return;
+        }
+        schedule(sub);
+    }
+
+    private void schedule(Subscriber sub) {
+        if (sub.draining.compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(sub));
+            } catch (RejectedExecutionException ex) {
+                sub.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber sub) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while ((event = sub.queue.poll()) != null) {
+                sub.sendingSince = System.nanoTime();
+                try {
+                    sub.emitter.send(event);
+                } catch (IOException | IllegalStateException ex) {
+                    log.debug("Dropping SSE subscriber of user {}: {}", sub.userId, ex.getMessage());
+                    drop(sub);
+                    return;
+                } finally {
+                    sub.sendingSince = 0;
+                }
+            }
+        } finally {
+            sub.draining.set(false);
+        }
+        // Sự kiện xếp hàng đúng lúc vừa xả xong
+        if (!sub.queue.isEmpty()) {
+            schedule(sub);
+        }
+    }
+
+    private void drop(Subscriber sub) {
+        unsubscribe(sub);
+        sub.queue.clear();
+        try {
+            sub.emitter.complete();
+        } catch (RuntimeException ex) {
+            log.debug("Cannot complete SSE emitter of user {}", sub.userId, ex);
+        }
+    }
+
+    private void unsubscribe(Subscriber sub) {
+        subscribers.computeIfPresent(sub.userId, (k, subs) -> {
+            subs.remove(sub);
+            return subs.isEmpty() ? null : subs;
+        });
+    }
+
+    private void afterCommit(Runnable task) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+}
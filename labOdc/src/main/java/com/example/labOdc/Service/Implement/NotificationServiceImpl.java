@@ -1,20 +1,21 @@
 package com.example.labOdc.Service.Implement;
 
-import java.util.ArrayList;
-import java.util.Collection;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.example.labOdc.DTO.Response.NotificationResponse;
 import com.example.labOdc.Exception.ResourceNotFoundException;
 import com.example.labOdc.Model.Notification;
 import com.example.labOdc.Model.User;
 import com.example.labOdc.Model.UserRole;
 import com.example.labOdc.Repository.NotificationRepository;
-import com.example.labOdc.Repository.UserRepository;
 import com.example.labOdc.Service.NotificationService;
 
 import lombok.AllArgsConstructor;
@@ -24,18 +25,26 @@ import lombok.AllArgsConstructor;
 public class NotificationServiceImpl implements NotificationService {
 
     private final NotificationRepository notificationRepository;
-    private final UserRepository userRepository;
+    private final CurrentActorService currentActorService;
+    private final NotificationPushService notificationPushService;
+    private final UnreadCounterCache unreadCounterCache;
 
-    private User getCurrentUserOrThrow() {
-        var auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || auth.getName() == null || auth.getName().isBlank()) {
-            throw new IllegalStateException("Unauthenticated request");
-        }
+    private String getCurrentUserIdOrThrow() {
+        return currentActorService.current().getUserId();
+    }
 
-        String usernameOrEmail = auth.getName();
-        return userRepository.findByUsername(usernameOrEmail)
-                .or(() -> userRepository.findByEmail(usernameOrEmail))
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    // Đẩy số chưa đọc mới (sau commit) nếu user đang mở kết nối SSE
+    private void pushUnreadCount(String userId) {
+        notificationPushService.publishToUser(userId, NotificationPushService.EVENT_UNREAD_COUNT,
+                () -> unreadCounterCache.get(userId));
+    }
+
+    @Override
+    public SseEmitter subscribeMyStream() {
+        String myId = getCurrentUserIdOrThrow();
+        SseEmitter emitter = notificationPushService.subscribe(myId);
+        pushUnreadCount(myId);
+        return emitter;
     }
 
     @Override
@@ -56,103 +65,139 @@ public class NotificationServiceImpl implements NotificationService {
                 .isRead(false)
                 .build();
 
-        return notificationRepository.save(n);
+        Notification saved = notificationRepository.save(n);
+        unreadCounterCache.adjustAfterCommit(user.getId(), 1);
+        notificationPushService.publishToUser(user.getId(), NotificationPushService.EVENT_NOTIFICATION,
+                () -> NotificationResponse.fromEntity(saved));
+        return saved;
     }
 
+    // 1 câu INSERT ... SELECT trong DB; quá thời gian cho phép thì rollback toàn bộ
     @Override
-    @Transactional
+    @Transactional(timeoutString = "${app.notification.broadcast-timeout-seconds:30}")
     public int broadcastToUsers(String title, String message, String type, boolean sendToAll, List<UserRole> roles) {
         if (title == null || title.isBlank()) {
             throw new IllegalArgumentException("title is required");
         }
 
-        List<User> recipients;
+        List<NotificationRepository.Recipient> recipients;
         if (sendToAll) {
-            recipients = userRepository.findByIsActiveTrue();
+            recipients = notificationRepository.insertForAllActiveUsers(title, message, type);
         } else {
-            Collection<UserRole> safeRoles = roles == null ? List.of() : roles.stream().filter(Objects::nonNull).toList();
-            if (safeRoles.isEmpty()) {
+            List<String> roleNames = roles == null ? List.of()
+                    : roles.stream().filter(Objects::nonNull).map(Enum::name).distinct().toList();
+            if (roleNames.isEmpty()) {
                 throw new IllegalArgumentException("roles is required when sendToAll=false");
             }
-            recipients = userRepository.findDistinctByIsActiveTrueAndRoles_RoleIn(safeRoles);
+            recipients = notificationRepository.insertForActiveUsersWithRoles(title, message, type, roleNames);
         }
-
-        if (recipients == null || recipients.isEmpty()) {
-            return 0;
+        int inserted = recipients.size();
+
+        if (inserted > 0) {
+            if (sendToAll) {
+                unreadCounterCache.adjustAllAfterCommit(1);
+            } else {
+                unreadCounterCache.evictAfterCommit(
+                        recipients.stream().map(NotificationRepository.Recipient::getUserId).toList());
+            }
         }
 
-        List<Notification> notifications = new ArrayList<>(recipients.size());
-        for (User user : recipients) {
-            if (user == null || user.getId() == null || user.getId().isBlank()) {
-                continue;
+        // Chỉ user đang mở SSE mới cần payload; mỗi người nhận id thông báo của chính mình
+        LocalDateTime createdAt = LocalDateTime.now();
+        Map<String, NotificationResponse> payloads = new HashMap<>();
+        for (NotificationRepository.Recipient r : recipients) {
+            if (notificationPushService.isSubscribed(r.getUserId())) {
+                payloads.put(r.getUserId(), NotificationResponse.builder()
+                        .id(r.getId())
+                        .title(title)
+                        .message(message)
+                        .type(type)
+                        .isRead(false)
+                        .createdAt(createdAt)
+                        .build());
             }
-
-            notifications.add(Notification.builder()
-                    .user(user)
-                    .title(title)
-                    .message(message)
-                    .type(type)
-                    .isRead(false)
-                    .build());
         }
-
-        notificationRepository.saveAll(notifications);
-        return notifications.size();
+        notificationPushService.publishToUsers(NotificationPushService.EVENT_NOTIFICATION, payloads);
+        return inserted;
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Notification> listMyNotifications() {
-        User me = getCurrentUserOrThrow();
-        return notificationRepository.findByUserIdOrderByCreatedAtDesc(me.getId());
+        String myId = getCurrentUserIdOrThrow();
+        return notificationRepository.findByUserIdOrderByCreatedAtDesc(myId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public long countMyUnread() {
-        User me = getCurrentUserOrThrow();
-        return notificationRepository.countByUserIdAndIsReadFalse(me.getId());
+        String myId = getCurrentUserIdOrThrow();
+        return unreadCounterCache.get(myId);
     }
 
     @Override
     @Transactional
     public Notification markRead(String notificationId) {
-        User me = getCurrentUserOrThrow();
+        String myId = getCurrentUserIdOrThrow();
         Notification n = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Notification", "id", notificationId));
 
-        if (n.getUser() == null || n.getUser().getId() == null || !n.getUser().getId().equals(me.getId())) {
+        if (n.getUser() == null || n.getUser().getId() == null || !n.getUser().getId().equals(myId)) {
             throw new org.springframework.security.access.AccessDeniedException("Not allowed");
         }
 
+        boolean wasUnread = !Boolean.TRUE.equals(n.getIsRead());
         n.setIsRead(true);
-        return notificationRepository.save(n);
+        Notification saved = notificationRepository.save(n);
+        if (wasUnread) {
+            unreadCounterCache.adjustAfterCommit(myId, -1);
+            pushUnreadCount(myId);
+        }
+        return saved;
     }
 
     @Override
     @Transactional
-    public void markAllRead() {
-        User me = getCurrentUserOrThrow();
-        List<Notification> list = notificationRepository.findByUserIdOrderByCreatedAtDesc(me.getId());
-        for (Notification n : list) {
-            if (!Boolean.TRUE.equals(n.getIsRead())) {
-                n.setIsRead(true);
-            }
+    public int markAllRead() {
+        String myId = getCurrentUserIdOrThrow();
+        int updated = notificationRepository.markAllReadByUserId(myId);
+        unreadCounterCache.resetAfterCommit(myId);
+        if (updated > 0) {
+            pushUnreadCount(myId);
         }
-        notificationRepository.saveAll(list);
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public int markReadUpTo(LocalDateTime upTo) {
+        if (upTo == null) {
+            throw new IllegalArgumentException("upTo is required");
+        }
+        String myId = getCurrentUserIdOrThrow();
+        int updated = notificationRepository.markReadByUserIdUpTo(myId, upTo);
+        if (updated > 0) {
+            unreadCounterCache.adjustAfterCommit(myId, -updated);
+            pushUnreadCount(myId);
+        }
+        return updated;
     }
 
     @Override
     @Transactional
     public void deleteMyNotification(String notificationId) {
-        User me = getCurrentUserOrThrow();
+        String myId = getCurrentUserIdOrThrow();
         Notification n = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Notification", "id", notificationId));
 
-        if (n.getUser() == null || n.getUser().getId() == null || !n.getUser().getId().equals(me.getId())) {
+        if (n.getUser() == null || n.getUser().getId() == null || !n.getUser().getId().equals(myId)) {
             throw new org.springframework.security.access.AccessDeniedException("Not allowed");
         }
 
         notificationRepository.delete(n);
+        if (!Boolean.TRUE.equals(n.getIsRead())) {
+            unreadCounterCache.adjustAfterCommit(myId, -1);
+            pushUnreadCount(myId);
+        }
     }
 }
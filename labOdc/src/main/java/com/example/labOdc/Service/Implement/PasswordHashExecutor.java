@@ -0,0 +1,158 @@
+package com.example.labOdc.Service.Implement;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import com.example.labOdc.Exception.ServiceBusyException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pool riêng, có giới hạn, cho việc so khớp BCrypt khi đăng nhập.
+ * - Request đăng nhập phải lấy được 1 permit (poolSize + queueCapacity, mặc định queue = 4 x số core)
+ *   trước khi nộp hash; hết permit -> 503 ngay, không chờ.
+ * - Caller vẫn giữ thread Tomcat trong lúc chờ kết quả, nên số permit chính là số thread Tomcat tối đa
+ *   bị login chiếm; phải nhỏ hơn nhiều so với server.tomcat.threads.max (mặc định 200).
+ * - Chờ quá hashTimeoutMs -> 503. Cả hai đều kèm Retry-After.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PasswordHashExecutor {
+
+    private final PasswordEncoder passwordEncoder;
+
+    @Value("${app.auth.hash-pool-size:0}")
+    int poolSize;
+
+    // 0 = 4 x số thread hash
+    @Value("${app.auth.hash-queue-capacity:0}")
+    int queueCapacity;
+
+    @Value("${app.auth.hash-timeout-ms:5000}")
+    long hashTimeoutMs;
+
+    @Value("${app.auth.retry-after-seconds:2}")
+    long retryAfterSeconds;
+
+    private ThreadPoolExecutor executor;
+    private Semaphore admission;
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong totalHashNanos = new AtomicLong();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        int threads = poolSize > 0 ? poolSize : Math.max(1, Runtime.getRuntime().availableProcessors());
+        if (queueCapacity <= 0) {
+            queueCapacity = threads * 4;
+        }
+        admission = new Semaphore(threads + queueCapacity);
+        AtomicInteger seq = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "auth-hash-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("Password hash pool started: {} threads, queue {}", threads, queueCapacity);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        if (!admission.tryAcquire()) {
+            rejected.incrementAndGet();
+            throw new ServiceBusyException("Too many login attempts, please retry shortly",
+                    HttpStatus.SERVICE_UNAVAILABLE, retryAfterSeconds);
+        }
+        try {
+            return await(rawPassword, encodedPassword);
+        } finally {
+            admission.release();
+        }
+    }
+
+    private boolean await(String rawPassword, String encodedPassword) {
+        Future<Boolean> future;
+        try {
+            future = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return passwordEncoder.matches(rawPassword, encodedPassword);
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    completed.incrementAndGet();
+                    totalHashNanos.addAndGet(elapsed);
+                    maxHashNanos.accumulateAndGet(elapsed, Math::max);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            // Không xảy ra khi permit <= thread + queue, trừ lúc đang tắt
+            rejected.incrementAndGet();
+            throw new ServiceBusyException("Too many login attempts, please retry shortly",
+                    HttpStatus.SERVICE_UNAVAILABLE, retryAfterSeconds);
+        }
+
+        try {
+            return future.get(hashTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            timedOut.incrementAndGet();
+            throw new ServiceBusyException("Authentication service is busy, please retry shortly",
+                    HttpStatus.SERVICE_UNAVAILABLE, retryAfterSeconds);
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Authentication interrupted",
+                    HttpStatus.SERVICE_UNAVAILABLE, retryAfterSeconds);
+        } catch (ExecutionException ex) {
+            throw new RuntimeException("Password verification failed", ex.getCause());
+        }
+    }
+
+    /**
+     * Số liệu cho màn hình giám sát: độ sâu hàng đợi, số bị từ chối, độ trễ hash.
+     */
+    public Map<String, Object> metrics() {
+        long done = completed.get();
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("poolSize", executor.getMaximumPoolSize());
+        m.put("activeThreads", executor.getActiveCount());
+        m.put("queueDepth", executor.getQueue().size());
+        m.put("queueCapacity", queueCapacity);
+        m.put("availablePermits", admission.availablePermits());
+        m.put("completed", done);
+        m.put("rejected", rejected.get());
+        m.put("timedOut", timedOut.get());
+        m.put("avgHashMillis", done == 0 ? 0.0 : totalHashNanos.get() / 1_000_000.0 / done);
+        m.put("maxHashMillis", maxHashNanos.get() / 1_000_000.0);
+        return m;
+    }
+}
@@ -5,6 +5,7 @@ import com.example.labOdc.Model.*;
 import com.example.labOdc.Repository.CompanyRepository;
 import com.example.labOdc.Repository.PaymentRepository;
 import com.example.labOdc.Repository.ProjectRepository;
+import com.example.labOdc.Service.AuditLogService;
 import com.example.labOdc.Service.PaymentService;
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.WriterException;
@@ -35,6 +36,8 @@ public class PaymentServiceImpl implements PaymentService {
     private final PaymentRepository paymentRepository;
     private final ProjectRepository projectRepository;
     private final CompanyRepository companyRepository;
+    private final FinancialAggregateService financialAggregateService;
+    private final AuditLogService auditLogService;
 
     /* =====================================
      * CREATE
@@ -148,6 +151,7 @@ public class PaymentServiceImpl implements PaymentService {
     ) {
 
         Payment payment = getPaymentById(paymentId);
+        FinancialAggregateService.Snapshot before = financialAggregateService.snapshot(payment);
 
         if (status != null) {
             payment.setStatus(status);
@@ -157,7 +161,10 @@ public class PaymentServiceImpl implements PaymentService {
             payment.setTransactionId(transactionId);
         }
 
-        return paymentRepository.save(payment);
+        Payment saved = paymentRepository.save(payment);
+        financialAggregateService.applyChange(before, financialAggregateService.snapshot(saved));
+        auditLogService.record("PAYMENT_STATUS_CHANGED", "Payment", paymentId, "status=" + saved.getStatus());
+        return saved;
     }
 
     @Override
@@ -175,10 +182,14 @@ public class PaymentServiceImpl implements PaymentService {
             throw new IllegalStateException("Payment is not eligible for confirmation");
         }
 
+        FinancialAggregateService.Snapshot before = financialAggregateService.snapshot(payment);
         payment.setStatus(PaymentStatus.COMPLETED);
         payment.setPaymentDate(LocalDate.now());
 
-        return paymentRepository.save(payment);
+        Payment saved = paymentRepository.save(payment);
+        financialAggregateService.applyChange(before, financialAggregateService.snapshot(saved));
+        auditLogService.record("PAYMENT_CONFIRMED", "Payment", paymentId, "amount=" + saved.getAmount());
+        return saved;
     }
 
     @Override
@@ -190,10 +201,13 @@ public class PaymentServiceImpl implements PaymentService {
             throw new IllegalStateException("Completed payment cannot be cancelled");
         }
 
+        FinancialAggregateService.Snapshot before = financialAggregateService.snapshot(payment);
         payment.setStatus(PaymentStatus.CANCELLED);
         payment.setNotes(reason);
 
-        paymentRepository.save(payment);
+        Payment saved = paymentRepository.save(payment);
+        financialAggregateService.applyChange(before, financialAggregateService.snapshot(saved));
+        auditLogService.record("PAYMENT_CANCELLED", "Payment", paymentId, reason);
     }
 
     /* =====================================
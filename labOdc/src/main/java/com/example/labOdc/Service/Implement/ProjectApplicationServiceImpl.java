@@ -10,6 +10,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import com.example.labOdc.DTO.CurrentActor;
 import com.example.labOdc.DTO.ProjectApplicationDTO;
 import com.example.labOdc.DTO.Response.ProjectApplicationResponse;
 import com.example.labOdc.Exception.ResourceNotFoundException;
@@ -25,7 +26,6 @@ import com.example.labOdc.Repository.ProjectMentorRepository;
 import com.example.labOdc.Repository.ProjectTeamRepository;
 import com.example.labOdc.Repository.TalentRepository;
 import com.example.labOdc.Repository.UserRepository;
-import com.example.labOdc.Repository.MentorRepository;
 import com.example.labOdc.Service.ProjectApplicationService;
 
 import lombok.AllArgsConstructor;
@@ -41,32 +41,32 @@ public class ProjectApplicationServiceImpl implements ProjectApplicationService
     private final TalentRepository talentRepository;
     private final UserRepository userRepository;
     private final ProjectTeamRepository projectTeamRepository;
-    private final MentorRepository mentorRepository;
     private final ProjectMentorRepository projectMentorRepository;
+    private final CurrentActorService currentActorService;
 
-    private User resolveUserByLogin(String login) {
+    private CurrentActor resolveActorByLogin(String login) {
         if (login == null || login.isBlank()) {
             throw new AccessDeniedException("Unauthenticated user");
         }
-        return userRepository.findByUsername(login)
-                .or(() -> userRepository.findByEmail(login))
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        return currentActorService.resolve(login);
     }
 
-    private com.example.labOdc.Model.Mentor resolveMentorByLogin(String login) {
-        User user = resolveUserByLogin(login);
-        return mentorRepository.findByUserId(user.getId())
-                .orElseThrow(() -> new AccessDeniedException("Mentor profile not found"));
+    private String resolveMentorIdByLogin(String login) {
+        String mentorId = resolveActorByLogin(login).getMentorId();
+        if (mentorId == null) {
+            throw new AccessDeniedException("Mentor profile not found");
+        }
+        return mentorId;
     }
 
-    private boolean isMentorAssignedToProject(Project project, com.example.labOdc.Model.Mentor mentor) {
-        if (project == null || mentor == null || mentor.getId() == null) {
+    private boolean isMentorAssignedToProject(Project project, String mentorId) {
+        if (project == null || mentorId == null) {
             return false;
         }
 
         // Primary assignment via Project.mentor
         if (project.getMentor() != null && project.getMentor().getId() != null
-                && project.getMentor().getId().equals(mentor.getId())) {
+                && project.getMentor().getId().equals(mentorId)) {
             return true;
         }
 
@@ -74,7 +74,7 @@ public class ProjectApplicationServiceImpl implements ProjectApplicationService
         if (project.getId() == null || project.getId().isBlank()) {
             return false;
         }
-        return projectMentorRepository.existsByProjectIdAndMentorId(project.getId(), mentor.getId());
+        return projectMentorRepository.existsByProjectIdAndMentorId(project.getId(), mentorId);
     }
 
     /**
@@ -101,13 +101,17 @@ public class ProjectApplicationServiceImpl implements ProjectApplicationService
             throw new ResourceNotFoundException("Unauthenticated user");
         }
 
-        final String login = principalName;
-        User user = userRepository.findByUsername(login)
-            .or(() -> userRepository.findByEmail(login))
-            .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        final CurrentActor actor = currentActorService.resolve(principalName);
 
-        Talent talent = talentRepository.findByUserId(user.getId())
-                .orElseGet(() -> talentRepository.save(Talent.builder().user(user).build()));
+        Talent talent;
+        if (actor.getTalentId() != null) {
+            talent = talentRepository.getReferenceById(actor.getTalentId());
+        } else {
+            talent = talentRepository.save(Talent.builder()
+                    .user(userRepository.getReferenceById(actor.getUserId()))
+                    .build());
+            currentActorService.evictUser(actor.getUserId());
+        }
 
         ProjectApplication pa = ProjectApplication.builder()
                 .project(project)
@@ -194,16 +198,13 @@ public class ProjectApplicationServiceImpl implements ProjectApplicationService
             return List.of();
         }
 
-        final String login = requesterUsername;
-        User user = userRepository.findByUsername(login)
-            .or(() -> userRepository.findByEmail(login))
-            .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-
-        return talentRepository.findByUserId(user.getId())
-            .map(talent -> applicationRepository.findByTalentId(talent.getId()).stream()
-                .map(ProjectApplicationResponse::from)
-                .toList())
-            .orElseGet(List::of);
+        String talentId = currentActorService.resolve(requesterUsername).getTalentId();
+        if (talentId == null) {
+            return List.of();
+        }
+        return applicationRepository.findByTalentId(talentId).stream()
+            .map(ProjectApplicationResponse::from)
+            .toList();
         }
 
     /**
@@ -218,12 +219,12 @@ public class ProjectApplicationServiceImpl implements ProjectApplicationService
                 .orElseThrow(() -> new ResourceNotFoundException("Application not found"));
 
         // Enforce: only a mentor assigned to this project can approve.
-        final var mentor = resolveMentorByLogin(reviewerUsername);
-        if (!isMentorAssignedToProject(pa.getProject(), mentor)) {
+        final String mentorId = resolveMentorIdByLogin(reviewerUsername);
+        if (!isMentorAssignedToProject(pa.getProject(), mentorId)) {
             throw new AccessDeniedException("Not allowed to approve applications for this project");
         }
 
-        final User reviewer = resolveUserByLogin(reviewerUsername);
+        final User reviewer = userRepository.getReferenceById(resolveActorByLogin(reviewerUsername).getUserId());
 
         pa.setStatus(ProjectApplication.Status.APPROVED);
         pa.setReviewedBy(reviewer);
@@ -271,12 +272,12 @@ public class ProjectApplicationServiceImpl implements ProjectApplicationService
                 .orElseThrow(() -> new ResourceNotFoundException("Application not found"));
 
         // Enforce: only a mentor assigned to this project can reject.
-        final var mentor = resolveMentorByLogin(reviewerUsername);
-        if (!isMentorAssignedToProject(pa.getProject(), mentor)) {
+        final String mentorId = resolveMentorIdByLogin(reviewerUsername);
+        if (!isMentorAssignedToProject(pa.getProject(), mentorId)) {
             throw new AccessDeniedException("Not allowed to reject applications for this project");
         }
 
-        final User reviewer = resolveUserByLogin(reviewerUsername);
+        final User reviewer = userRepository.getReferenceById(resolveActorByLogin(reviewerUsername).getUserId());
 
         pa.setStatus(ProjectApplication.Status.REJECTED);
         pa.setReviewedBy(reviewer);
@@ -289,16 +290,16 @@ public class ProjectApplicationServiceImpl implements ProjectApplicationService
     @Override
     @org.springframework.transaction.annotation.Transactional(readOnly = true)
     public List<ProjectApplicationResponse> getPendingApplicationsForMentor(String mentorUsername) {
-        final var mentor = resolveMentorByLogin(mentorUsername);
+        final String mentorId = resolveMentorIdByLogin(mentorUsername);
 
-        final List<String> directProjectIds = projectRepository.findByMentorId(mentor.getId())
+        final List<String> directProjectIds = projectRepository.findByMentorId(mentorId)
             .stream()
             .map(Project::getId)
             .filter(id -> id != null && !id.isBlank())
             .toList();
 
         final List<String> joinedProjectIds = projectMentorRepository
-            .findByMentorIdOrderByAssignedAtDesc(mentor.getId())
+            .findByMentorIdOrderByAssignedAtDesc(mentorId)
             .stream()
             .map(pm -> pm.getProject() != null ? pm.getProject().getId() : null)
             .filter(id -> id != null && !id.isBlank())
@@ -339,12 +340,11 @@ public class ProjectApplicationServiceImpl implements ProjectApplicationService
 
     /**
      * Chức năng: Lấy danh sách đơn ứng tuyển đang chờ xử lý theo dự án.
-     * Repository: ProjectApplicationRepository.findAll() - Lọc theo projectId và status PENDING.
+     * Repository: ProjectApplicationRepository.findByProjectIdAndStatus() - dùng index (project_id, status).
      */
     @Override
     public List<ProjectApplicationResponse> getPendingApplications(String projectId) {
-        return applicationRepository.findAll().stream()
-                .filter(pa -> pa.getProject().getId().equals(projectId) && pa.getStatus() == ProjectApplication.Status.PENDING)
+        return applicationRepository.findByProjectIdAndStatus(projectId, ProjectApplication.Status.PENDING).stream()
                 .map(ProjectApplicationResponse::from)
                 .toList();
     }
@@ -371,13 +371,11 @@ public class ProjectApplicationServiceImpl implements ProjectApplicationService
 
     /**
      * Chức năng: Xóa talent khỏi dự án.
-     * Repository: ProjectTeamRepository.findAll(), delete() - Tìm và xóa ProjectTeam entity.
+     * Repository: ProjectTeamRepository.findByProjectIdAndTalentId() - tra theo unique (project_id, talent_id).
      */
     @Override
     public void removeTalentFromProject(String projectId, String talentId) {
-        ProjectTeam team = projectTeamRepository.findAll().stream()
-                .filter(pt -> pt.getProject().getId().equals(projectId) && pt.getTalent().getId().equals(talentId))
-                .findFirst()
+        ProjectTeam team = projectTeamRepository.findByProjectIdAndTalentId(projectId, talentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Talent not in project team"));
         team.setStatus(ProjectTeamStatus.REMOVED);
         team.setLeftDate(java.time.LocalDate.now());
@@ -408,16 +406,13 @@ public class ProjectApplicationServiceImpl implements ProjectApplicationService
             throw new AccessDeniedException("Unauthenticated user");
         }
 
-        final String login = requesterUsername;
-        User user = userRepository.findByUsername(login)
-                .or(() -> userRepository.findByEmail(login))
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-
-        Talent talent = talentRepository.findByUserId(user.getId())
-                .orElseThrow(() -> new AccessDeniedException("Talent profile not found"));
+        String talentId = currentActorService.resolve(requesterUsername).getTalentId();
+        if (talentId == null) {
+            throw new AccessDeniedException("Talent profile not found");
+        }
 
         if (application.getTalent() == null || application.getTalent().getId() == null
-                || !application.getTalent().getId().equals(talent.getId())) {
+                || !application.getTalent().getId().equals(talentId)) {
             throw new AccessDeniedException("Not allowed to withdraw this application");
         }
 
@@ -427,16 +422,14 @@ public class ProjectApplicationServiceImpl implements ProjectApplicationService
 
     @Override
     public List<ProjectApplicationResponse> getApplicationsByProject(String projectId) {
-        return applicationRepository.findAll().stream()
-                .filter(pa -> pa.getProject().getId().equals(projectId))
+        return applicationRepository.findByProjectId(projectId).stream()
                 .map(ProjectApplicationResponse::from)
                 .toList();
     }
 
     @Override
     public List<ProjectApplicationResponse> getApplicationsByTalent(String talentId) {
-        return applicationRepository.findAll().stream()
-                .filter(pa -> pa.getTalent().getId().equals(talentId))
+        return applicationRepository.findByTalentId(talentId).stream()
                 .map(ProjectApplicationResponse::from)
                 .toList();
     }
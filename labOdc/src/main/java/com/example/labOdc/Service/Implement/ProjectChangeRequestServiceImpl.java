@@ -3,7 +3,6 @@ package com.example.labOdc.Service.Implement;
 import java.time.LocalDate;
 import java.util.List;
 
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,7 +17,6 @@ import com.example.labOdc.Model.ProjectStatus;
 import com.example.labOdc.Model.User;
 import com.example.labOdc.Repository.ProjectChangeRequestRepository;
 import com.example.labOdc.Repository.ProjectRepository;
-import com.example.labOdc.Repository.UserRepository;
 import com.example.labOdc.Service.NotificationService;
 import com.example.labOdc.Service.ProjectChangeRequestService;
 
@@ -30,18 +28,12 @@ public class ProjectChangeRequestServiceImpl implements ProjectChangeRequestServ
 
     private final ProjectChangeRequestRepository projectChangeRequestRepository;
     private final ProjectRepository projectRepository;
-    private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final CurrentActorService currentActorService;
 
+    // proxy User (chỉ cần id để gán requestedBy/approvedBy và so sánh)
     private User getCurrentUserOrThrow() {
-        var auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || auth.getName() == null || auth.getName().isBlank()) {
-            throw new IllegalStateException("Unauthenticated request");
-        }
-
-        String username = auth.getName(); // = JWT subject = user.username
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+        return currentActorService.currentUserReference();
     }
 
     @Override
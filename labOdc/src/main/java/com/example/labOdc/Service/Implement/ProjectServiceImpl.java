@@ -4,11 +4,13 @@ import java.time.LocalDateTime;
 import java.time.LocalDate;
 import java.util.List;
 
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.labOdc.DTO.ProjectDTO;
+import com.example.labOdc.DTO.Response.ProjectPageResponse;
+import com.example.labOdc.DTO.Response.ProjectResponse;
 import com.example.labOdc.Exception.ResourceNotFoundException;
 import com.example.labOdc.Model.Company;
 import com.example.labOdc.Model.LabAdmin;
@@ -17,7 +19,6 @@ import com.example.labOdc.Model.Project;
 import com.example.labOdc.Model.ProjectStatus;
 import com.example.labOdc.Model.ProjectTeam;
 import com.example.labOdc.Model.ValidationStatus;
-import com.example.labOdc.Model.User;
 import com.example.labOdc.Repository.CompanyRepository;
 import com.example.labOdc.Repository.LabAdminRepository;
 import com.example.labOdc.Repository.MentorRepository;
@@ -25,7 +26,7 @@ import com.example.labOdc.Repository.ProjectRepository;
 import com.example.labOdc.Repository.ProjectTeamRepository;
 import com.example.labOdc.Repository.ProjectMentorRepository;
 import com.example.labOdc.Repository.TaskRepository;
-import com.example.labOdc.Repository.UserRepository;
+import com.example.labOdc.Service.AuditLogService;
 import com.example.labOdc.Service.NotificationService;
 import com.example.labOdc.Service.ProjectService;
 
@@ -35,38 +36,24 @@ import lombok.AllArgsConstructor;
 @AllArgsConstructor
 public class ProjectServiceImpl implements ProjectService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ProjectRepository projectRepository;
     private final CompanyRepository companyRepository;
     private final MentorRepository mentorRepository;
     private final LabAdminRepository labAdminRepository;
-    private final UserRepository userRepository;
     private final ProjectTeamRepository projectTeamRepository;
     private final ProjectMentorRepository projectMentorRepository;
     private final TaskRepository taskRepository;
     private final NotificationService notificationService;
-
-    private User getCurrentUserOrThrow() {
-        var auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || auth.getName() == null || auth.getName().isBlank()) {
-            throw new IllegalStateException("Unauthenticated request");
-        }
-
-        String usernameOrEmail = auth.getName();
-        return userRepository.findByUsername(usernameOrEmail)
-                .or(() -> userRepository.findByEmail(usernameOrEmail))
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-    }
-
-    private Company getCurrentCompanyOrThrow() {
-        User user = getCurrentUserOrThrow();
-        return companyRepository.findByUserId(user.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Company not found"));
-    }
+    private final CurrentActorService currentActorService;
+    private final AuditLogService auditLogService;
 
     private void assertOwnedByCurrentCompany(Project project) {
-        Company currentCompany = getCurrentCompanyOrThrow();
+        String currentCompanyId = currentActorService.requireCompanyId();
         if (project.getCompany() == null || project.getCompany().getId() == null
-                || !project.getCompany().getId().equals(currentCompany.getId())) {
+                || !project.getCompany().getId().equals(currentCompanyId)) {
             throw new org.springframework.security.access.AccessDeniedException("Project does not belong to your company");
         }
     }
@@ -113,8 +100,35 @@ public class ProjectServiceImpl implements ProjectService {
     }
 
     @Override
-    public List<Project> getAllProject() {
-        return projectRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<ProjectResponse> getAllProject() {
+        return projectRepository.findListRows(null, null, null, null, null, null, Limit.unlimited()).stream()
+                .map(ProjectResponse::fromRow)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProjectPageResponse listProjects(ProjectStatus status, ValidationStatus validationStatus, String companyId,
+            String skill, String cursor, Integer limit) {
+        int size = limit == null || limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        String skillPattern = skill == null || skill.isBlank() ? null : "%" + skill.trim().toLowerCase() + "%";
+
+        // Lấy dư 1 dòng để biết còn trang sau hay không
+        List<ProjectResponse> rows = projectRepository.findListRows(status, validationStatus,
+                companyId == null || companyId.isBlank() ? null : companyId, skillPattern,
+                after != null ? after.at() : null, after != null ? after.id() : null, Limit.of(size + 1))
+                .stream()
+                .map(ProjectResponse::fromRow)
+                .toList();
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            ProjectResponse last = rows.get(size - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new ProjectPageResponse(rows, nextCursor);
     }
 
     @Override
@@ -269,28 +283,20 @@ public class ProjectServiceImpl implements ProjectService {
         Project project = getProjectById(projectId);
 
         // verify current user is a mentor associated with the project
-        var auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || auth.getName() == null || auth.getName().isBlank()) {
-            throw new IllegalStateException("Unauthenticated request");
+        String currentMentorId = currentActorService.current().getMentorId();
+        if (currentMentorId == null) {
+            throw new org.springframework.security.access.AccessDeniedException("You are not a mentor");
         }
 
-        String usernameOrEmail = auth.getName();
-        User currentUser = userRepository.findByUsername(usernameOrEmail)
-                .or(() -> userRepository.findByEmail(usernameOrEmail))
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-
-        var currentMentor = mentorRepository.findByUserId(currentUser.getId())
-                .orElseThrow(() -> new org.springframework.security.access.AccessDeniedException("You are not a mentor"));
-
         boolean isAssigned = false;
         if (project.getMentor() != null && project.getMentor().getId() != null
-                && project.getMentor().getId().equals(currentMentor.getId())) {
+                && project.getMentor().getId().equals(currentMentorId)) {
             isAssigned = true;
         }
 
         if (!isAssigned) {
             // check project_mentors table
-            isAssigned = projectMentorRepository.existsByProjectIdAndMentorId(projectId, currentMentor.getId());
+            isAssigned = projectMentorRepository.existsByProjectIdAndMentorId(projectId, currentMentorId);
         }
 
         if (!isAssigned) {
@@ -374,7 +380,9 @@ public class ProjectServiceImpl implements ProjectService {
 
         project.setStatus(ProjectStatus.IN_PROGRESS);
 
-        return projectRepository.save(project);
+        Project saved = projectRepository.save(project);
+        auditLogService.record("PROJECT_VALIDATED", "Project", projectId, null);
+        return saved;
     }
 
     @Override
@@ -401,7 +409,9 @@ public class ProjectServiceImpl implements ProjectService {
 
         project.setStatus(ProjectStatus.DRAFT);
 
-        return projectRepository.save(project);
+        Project saved = projectRepository.save(project);
+        auditLogService.record("PROJECT_REJECTED", "Project", projectId, rejectionReason);
+        return saved;
     }
 
     @Override
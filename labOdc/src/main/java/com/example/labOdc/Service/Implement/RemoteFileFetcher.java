@@ -0,0 +1,361 @@
+package com.example.labOdc.Service.Implement;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import com.example.labOdc.Exception.ServiceBusyException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tải file từ URL ngoài (template Excel...) qua 1 HttpClient dùng chung, bất đồng bộ:
+ * - Không chiếm thread Tomcat trong lúc tải; bên gọi nhận CompletableFuture.
+ * - Body được ghi ra file tạm bằng subscriber không chặn (thread của HttpClient chỉ nhận byte, không đọc blocking);
+ *   giới hạn kích thước (Content-Length và cả khi đang stream), SHA-256 tính ngay khi nhận.
+ * - request-timeout-ms tính cho cả lúc nhận body; phần chuyển file vào cache chạy trên pool riêng (remote-fetch-store).
+ * - Giới hạn số lượt tải đồng thời mỗi host; vượt -> 429.
+ * - Cache nhỏ theo URL trỏ tới file lưu theo SHA-256 nội dung; hết hạn thì hỏi lại bằng ETag/Last-Modified.
+ */
+@Service
+@Slf4j
+public class RemoteFileFetcher {
+
+    @Value("${app.fetch.max-body-bytes:10485760}")
+    long maxBodyBytes;
+
+    @Value("${app.fetch.connect-timeout-ms:5000}")
+    long connectTimeoutMs;
+
+    @Value("${app.fetch.request-timeout-ms:30000}")
+    long requestTimeoutMs;
+
+    @Value("${app.fetch.pool-size:4}")
+    int poolSize;
+
+    @Value("${app.fetch.per-host-concurrency:2}")
+    int perHostConcurrency;
+
+    @Value("${app.fetch.cache-entries:32}")
+    int cacheEntries;
+
+    @Value("${app.fetch.cache-ttl-seconds:300}")
+    long cacheTtlSeconds;
+
+    @Value("${app.fetch.retry-after-seconds:5}")
+    long retryAfterSeconds;
+
+    private record CachedFile(Path file, String sha256, String etag, String lastModified, long fetchedAt) {
+    }
+
+    // Body 2xx đã ghi xong ra file tạm; null với 304 / mã lỗi (body bị bỏ)
+    private record Download(Path tmp, String sha256) {
+    }
+
+    private ExecutorService executor;
+    private ExecutorService storeExecutor;
+    private HttpClient client;
+    Path cacheDir;
+
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    // URL -> file đã tải; LRU, truy cập có synchronized
+    private final LinkedHashMap<String, CachedFile> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedFile> eldest) {
+            if (size() > cacheEntries) {
+                deleteIfUnreferenced(eldest.getValue(), eldest.getKey());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    @PostConstruct
+    void start() throws IOException {
+        AtomicInteger seq = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(poolSize, r -> {
+            Thread t = new Thread(r, "remote-fetch-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        AtomicInteger storeSeq = new AtomicInteger();
+        storeExecutor = Executors.newFixedThreadPool(poolSize, r -> {
+            Thread t = new Thread(r, "remote-fetch-store-" + storeSeq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        client = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        cacheDir = Files.createTempDirectory("labodc-fetch-");
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+        storeExecutor.shutdownNow();
+    }
+
+    /**
+     * Tải url về file cục bộ (đọc được cho tới khi bị đẩy khỏi cache; bên gọi nên copy đi nếu cần giữ).
+     * Future lỗi với IllegalArgumentException khi URL/kích thước không hợp lệ, RuntimeException khi tải lỗi.
+     */
+    public CompletableFuture<Path> fetch(String url) {
+        URI uri;
+        try {
+            uri = URI.create(url.trim());
+        } catch (IllegalArgumentException ex) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Invalid URL: " + url));
+        }
+        String scheme = uri.getScheme();
+        if (uri.getHost() == null || !("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme))) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Only http(s) URLs are supported"));
+        }
+        String key = uri.toString();
+
+        CachedFile cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null && System.currentTimeMillis() - cached.fetchedAt() < cacheTtlSeconds * 1000
+                && Files.exists(cached.file())) {
+            return CompletableFuture.completedFuture(cached.file());
+        }
+
+        Semaphore permits = hostPermits.computeIfAbsent(uri.getHost().toLowerCase(),
+                h -> new Semaphore(perHostConcurrency));
+        if (!permits.tryAcquire()) {
+            return CompletableFuture.failedFuture(new ServiceBusyException(
+                    "Too many downloads from " + uri.getHost() + ", please retry shortly",
+                    HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds));
+        }
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMillis(requestTimeoutMs))
+                .GET();
+        if (cached != null && Files.exists(cached.file())) {
+            if (cached.etag() != null) {
+                request.header("If-None-Match", cached.etag());
+            }
+            if (cached.lastModified() != null) {
+                request.header("If-Modified-Since", cached.lastModified());
+            }
+        }
+
+        CompletableFuture<HttpResponse<Download>> sent;
+        try {
+            sent = client.sendAsync(request.build(), this::bodyHandler);
+        } catch (RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+        // HttpClient chỉ áp timeout tới lúc nhận header; quá hạn cả lúc nhận body thì huỷ exchange
+        CompletableFuture.delayedExecutor(requestTimeoutMs, TimeUnit.MILLISECONDS).execute(() -> sent.cancel(true));
+        return sent
+                .thenApplyAsync(response -> store(key, cached, response), storeExecutor)
+                .handle((path, ex) -> {
+                    permits.release();
+                    if (ex == null) {
+                        return path;
+                    }
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    if (cause instanceof CancellationException) {
+                        throw new RuntimeException("Download timed out after " + requestTimeoutMs + " ms");
+                    }
+                    throw cause instanceof RuntimeException re ? re : new RuntimeException(cause.getMessage(), cause);
+                });
+    }
+
+    // Chỉ ghi body của response 2xx; 304 / mã lỗi thì bỏ body
+    private HttpResponse.BodySubscriber<Download> bodyHandler(HttpResponse.ResponseInfo info) {
+        if (info.statusCode() / 100 != 2) {
+            return HttpResponse.BodySubscribers.replacing(null);
+        }
+        long declared = info.headers().firstValueAsLong("Content-Length").orElse(-1);
+        try {
+            Path tmp = Files.createTempFile(cacheDir, "download-", ".part");
+            return new LimitedFileSubscriber(tmp, declared);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private Path store(String key, CachedFile previous, HttpResponse<Download> response) {
+        try {
+            if (response.statusCode() == 304 && previous != null) {
+                CachedFile refreshed = new CachedFile(previous.file(), previous.sha256(), previous.etag(),
+                        previous.lastModified(), System.currentTimeMillis());
+                synchronized (cache) {
+                    cache.put(key, refreshed);
+                }
+                return refreshed.file();
+            }
+            if (response.statusCode() / 100 != 2 || response.body() == null) {
+                throw new RuntimeException("Remote server returned HTTP " + response.statusCode());
+            }
+            Download download = response.body();
+            String sha256 = download.sha256();
+
+            // Cùng nội dung -> cùng file, dù khác URL
+            Path target = cacheDir.resolve(sha256 + ".bin");
+            if (Files.exists(target)) {
+                Files.deleteIfExists(download.tmp());
+            } else {
+                Files.move(download.tmp(), target, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            CachedFile entry = new CachedFile(target, sha256,
+                    response.headers().firstValue("ETag").orElse(null),
+                    response.headers().firstValue("Last-Modified").orElse(null),
+                    System.currentTimeMillis());
+            synchronized (cache) {
+                cache.put(key, entry);
+                if (previous != null && !previous.sha256().equals(sha256)) {
+                    deleteIfUnreferenced(previous, null);
+                }
+            }
+            return target;
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to download remote file: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Ghi body ra file qua BodySubscribers.ofFile, đếm byte + cập nhật SHA-256 ở onNext (không chặn).
+     * Vượt maxBodyBytes (khai báo hoặc thực tế) -> huỷ subscription, xoá file tạm, future lỗi IllegalArgumentException.
+     */
+    private final class LimitedFileSubscriber implements HttpResponse.BodySubscriber<Download> {
+        private final Path tmp;
+        private final long declared;
+        private final HttpResponse.BodySubscriber<Path> delegate;
+        private final MessageDigest digest;
+        private Flow.Subscription subscription;
+        private long total;
+        private boolean failed;
+
+        LimitedFileSubscriber(Path tmp, long declared) {
+            this.tmp = tmp;
+            this.declared = declared;
+            this.delegate = HttpResponse.BodySubscribers.ofFile(tmp);
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            delegate.onSubscribe(subscription);
+            if (declared > maxBodyBytes) {
+                fail(new IllegalArgumentException("Remote file is larger than " + maxBodyBytes + " bytes"));
+            }
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            if (failed) {
+                return;
+            }
+            for (ByteBuffer item : items) {
+                total += item.remaining();
+                digest.update(item.duplicate());
+            }
+            if (total > maxBodyBytes) {
+                fail(new IllegalArgumentException("Remote file is larger than " + maxBodyBytes + " bytes"));
+                return;
+            }
+            delegate.onNext(items);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (!failed) {
+                failed = true;
+                delegate.onError(throwable);
+                deleteTmp();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (failed) {
+                return;
+            }
+            if (total == 0) {
+                fail(new IllegalArgumentException("Remote file is empty"));
+                return;
+            }
+            delegate.onComplete();
+        }
+
+        @Override
+        public CompletionStage<Download> getBody() {
+            return delegate.getBody().thenApply(path -> new Download(path, HexFormat.of().formatHex(digest.digest())));
+        }
+
+        private void fail(RuntimeException ex) {
+            failed = true;
+            subscription.cancel();
+            delegate.onError(ex);
+            deleteTmp();
+        }
+
+        private void deleteTmp() {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ex) {
+                log.warn("Cannot delete partial download {}", tmp, ex);
+            }
+        }
+    }
+
+    // Gọi trong synchronized (cache); chỉ xoá file khi không còn URL nào khác trỏ tới cùng nội dung
+    private void deleteIfUnreferenced(CachedFile entry, String removedKey) {
+        for (Map.Entry<String, CachedFile> e : cache.entrySet()) {
+            if (!e.getKey().equals(removedKey) && e.getValue().sha256().equals(entry.sha256())) {
+                return;
+            }
+        }
+        try {
+            Files.deleteIfExists(entry.file());
+        } catch (IOException ex) {
+            log.warn("Cannot delete cached download {}", entry.file(), ex);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.example.labOdc.Service.Implement;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.labOdc.DTO.Response.ReportArtifact;
+import com.example.labOdc.DTO.Response.ReportResponse;
+import com.example.labOdc.Exception.ServiceBusyException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Kho file export của report trên đĩa: {artifact-dir}/{reportId}/{updatedAt}.{sha256}.{ext}.
+ * - Cùng report + updatedAt + định dạng -> dùng lại file, không render lại; ETag = SHA-256 nội dung.
+ * - Render chạy nền trên pool riêng; nhiều request cùng lúc cho 1 phiên bản chỉ render 1 lần.
+ * - Report đổi (update/submit/review/delete) -> invalidate xoá các phiên bản cũ.
+ */
+@Service
+@Slf4j
+public class ReportArtifactStore {
+
+    public enum Format {
+        XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"),
+        CSV("csv", "text/csv; charset=UTF-8");
+
+        final String extension;
+        final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public static Format parse(String value) {
+            String v = value == null ? "" : value.trim().toUpperCase(Locale.ROOT);
+            for (Format f : values()) {
+                if (f.name().equals(v)) {
+                    return f;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + value + " (supported: xlsx, csv)");
+        }
+    }
+
+    @Value("${app.report.artifact-dir:artifacts/reports}")
+    String artifactDir;
+
+    @Value("${app.report.render-threads:2}")
+    int renderThreads;
+
+    @Value("${app.report.render-queue-capacity:50}")
+    int renderQueueCapacity;
+
+    private Path root;
+    ThreadPoolExecutor executor;
+
+    // Render đang chạy theo key, để các request trùng dùng chung 1 future
+    private final Map<String, CompletableFuture<ReportArtifact>> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void start() throws IOException {
+        root = Paths.get(artifactDir).toAbsolutePath();
+        Files.createDirectories(root);
+        AtomicInteger seq = new AtomicInteger();
+        executor = new ThreadPoolExecutor(renderThreads, renderThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(renderQueueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "report-render-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * File export của report ở phiên bản hiện tại (theo updatedAt); render nền nếu chưa có.
+     */
+    public CompletableFuture<ReportArtifact> get(ReportResponse report, Format format) {
+        String version = version(report.getUpdatedAt());
+        String fileName = "report-" + report.getId() + "." + format.extension;
+
+        ReportArtifact existing = find(report.getId(), version, format, fileName);
+        if (existing != null) {
+            return CompletableFuture.completedFuture(existing);
+        }
+
+        String key = report.getId() + "/" + version + "." + format.extension;
+        CompletableFuture<ReportArtifact> future = new CompletableFuture<>();
+        CompletableFuture<ReportArtifact> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            return running;
+        }
+        // Submit ngoài map: chỉ gỡ đúng future của mình, không đụng future mới hơn cùng key
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(render(report, version, format, fileName));
+                } catch (Throwable ex) {
+                    future.completeExceptionally(ex);
+                } finally {
+                    inFlight.remove(key, future);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            inFlight.remove(key, future);
+            future.completeExceptionally(new ServiceBusyException(
+                    "Too many report exports in progress, please retry shortly",
+                    HttpStatus.SERVICE_UNAVAILABLE, 5));
+        }
+        return future;
+    }
+
+    /**
+     * Xoá mọi file export của report (gọi sau khi report bị sửa / duyệt / xoá).
+     * Trong transaction: chỉ xoá sau commit, để render chạy song song không cache lại dữ liệu chưa commit.
+     */
+    public void invalidate(String reportId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteArtifacts(reportId);
+                }
+            });
+        } else {
+            deleteArtifacts(reportId);
+        }
+    }
+
+    private void deleteArtifacts(String reportId) {
+        Path dir = root.resolve(reportId);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path f : files) {
+                Files.deleteIfExists(f);
+            }
+            Files.deleteIfExists(dir);
+        } catch (IOException ex) {
+            log.warn("Cannot invalidate report artifacts of {}", reportId, ex);
+        }
+    }
+
+    private ReportArtifact find(String reportId, String version, Format format, String fileName) {
+        Path dir = root.resolve(reportId);
+        if (!Files.isDirectory(dir)) {
+            return null;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, version + ".*." + format.extension)) {
+            for (Path f : files) {
+                String name = f.getFileName().toString();
+                String hash = name.substring(version.length() + 1, name.length() - format.extension.length() - 1);
+                return new ReportArtifact(f, hash, format.contentType, fileName);
+            }
+        } catch (IOException ex) {
+            log.warn("Cannot read report artifacts of {}", reportId, ex);
+        }
+        return null;
+    }
+
+    private ReportArtifact render(ReportResponse report, String version, Format format, String fileName)
+            throws IOException {
+        Path dir = Files.createDirectories(root.resolve(report.getId()));
+        Path tmp = Files.createTempFile(dir, version + "-", ".part");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                List<String[]> rows = rows(report);
+                if (format == Format.XLSX) {
+                    writeXlsx(rows, out);
+                } else {
+                    writeCsv(rows, out);
+                }
+            }
+            String hash = sha256(tmp);
+            Path target = dir.resolve(version + "." + hash + "." + format.extension);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return new ReportArtifact(target, hash, format.contentType, fileName);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private List<String[]> rows(ReportResponse r) {
+        List<String[]> rows = new ArrayList<>();
+        rows.add(new String[] { "Field", "Value" });
+        rows.add(new String[] { "Report ID", r.getId() });
+        rows.add(new String[] { "Project ID", r.getProjectId() });
+        rows.add(new String[] { "Mentor ID", r.getMentorId() });
+        rows.add(new String[] { "Type", str(r.getReportType()) });
+        rows.add(new String[] { "Title", r.getTitle() });
+        rows.add(new String[] { "Period Start", str(r.getReportPeriodStart()) });
+        rows.add(new String[] { "Period End", str(r.getReportPeriodEnd()) });
+        rows.add(new String[] { "Status", str(r.getStatus()) });
+        rows.add(new String[] { "Submitted Date", str(r.getSubmittedDate()) });
+        rows.add(new String[] { "Reviewed By", r.getReviewedById() });
+        rows.add(new String[] { "Reviewed At", str(r.getReviewedAt()) });
+        rows.add(new String[] { "Review Notes", r.getReviewNotes() });
+        rows.add(new String[] { "Attachment", r.getAttachmentUrl() });
+        rows.add(new String[] { "Created At", str(r.getCreatedAt()) });
+        rows.add(new String[] { "Updated At", str(r.getUpdatedAt()) });
+        rows.add(new String[] { "Content", r.getContent() });
+        return rows;
+    }
+
+    private void writeXlsx(List<String[]> rows, OutputStream out) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("REPORT");
+            for (int i = 0; i < rows.size(); i++) {
+                Row row = sheet.createRow(i);
+                String[] values = rows.get(i);
+                for (int c = 0; c < values.length; c++) {
+                    if (values[c] != null) {
+                        row.createCell(c).setCellValue(values[c]);
+                    }
+                }
+            }
+            sheet.setColumnWidth(0, 20 * 256);
+            sheet.setColumnWidth(1, 100 * 256);
+            workbook.write(out);
+        }
+    }
+
+    private void writeCsv(List<String[]> rows, OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        // BOM để Excel nhận đúng UTF-8 (tiếng Việt)
+        writer.write('\uFEFF');
+        for (String[] values : rows) {
+            for (int c = 0; c < values.length; c++) {
+                if (c > 0) {
+                    writer.write(',');
+                }
+                writer.write(csv(values[c]));
+            }
+            writer.write("\r\n");
+        }
+        writer.flush();
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private static String str(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static String version(LocalDateTime updatedAt) {
+        return updatedAt == null ? "0" : String.valueOf(updatedAt.toInstant(ZoneOffset.UTC).toEpochMilli());
+    }
+
+    private static String sha256(Path file) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (DigestInputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.labOdc.Service.Implement;
 
 import com.example.labOdc.DTO.ReportDTO;
+import com.example.labOdc.DTO.Response.ReportArtifact;
+import com.example.labOdc.DTO.Response.ReportResponse;
 import com.example.labOdc.Exception.ResourceNotFoundException;
 import com.example.labOdc.Model.LabAdmin;
 import com.example.labOdc.Model.Mentor;
@@ -12,13 +14,12 @@ import com.example.labOdc.Repository.ProjectRepository;
 import com.example.labOdc.Repository.ReportRepository;
 import com.example.labOdc.Service.ReportService;
 import lombok.AllArgsConstructor;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @AllArgsConstructor
@@ -28,19 +29,15 @@ public class ReportServiceImpl implements ReportService {
     private final ProjectRepository projectRepository;
     private final MentorRepository mentorRepository;
     private final LabAdminRepository labAdminRepository;
+    private final CurrentActorService currentActorService;
+    private final ReportArtifactStore reportArtifactStore;
 
-    private Mentor resolveCurrentMentor() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || !auth.isAuthenticated() || auth.getName() == null || auth.getName().isBlank()) {
-            throw new IllegalStateException("Unauthenticated user");
+    private String resolveCurrentMentorId() {
+        String mentorId = currentActorService.current().getMentorId();
+        if (mentorId == null) {
+            throw new ResourceNotFoundException("Không tìm thấy Mentor cho user đang đăng nhập");
         }
-
-        String username = auth.getName();
-
-        return mentorRepository.findAll().stream()
-                .filter(m -> m.getUser() != null && username.equals(m.getUser().getUsername()))
-                .findFirst()
-                .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy Mentor cho user đang đăng nhập"));
+        return mentorId;
     }
 
     @Override
@@ -130,12 +127,15 @@ public class ReportServiceImpl implements ReportService {
             report.setAttachmentUrl(dto.getAttachmentUrl());
         }
 
-        return reportRepository.save(report);
+        Report saved = reportRepository.save(report);
+        reportArtifactStore.invalidate(id);
+        return saved;
     }
 
     @Override
     public void deleteReport(String id) {
         reportRepository.deleteById(id);
+        reportArtifactStore.invalidate(id);
     }
 
     @Override
@@ -148,7 +148,9 @@ public class ReportServiceImpl implements ReportService {
         report.setStatus(Report.Status.SUBMITTED);
         report.setSubmittedDate(LocalDate.now());
 
-        return reportRepository.save(report);
+        Report saved = reportRepository.save(report);
+        reportArtifactStore.invalidate(id);
+        return saved;
     }
 
     @Override
@@ -164,7 +166,9 @@ public class ReportServiceImpl implements ReportService {
         report.setStatus(status);
         report.setReviewNotes(reviewNotes);
 
-        return reportRepository.save(report);
+        Report saved = reportRepository.save(report);
+        reportArtifactStore.invalidate(id);
+        return saved;
     }
     @Override
     public List<Report> getMyReports(String mentorId) {
@@ -178,20 +182,17 @@ public class ReportServiceImpl implements ReportService {
 
     @Override
     public List<Report> getMyReports() {
-        Mentor mentor = resolveCurrentMentor();
-        return reportRepository.findByMentorId(mentor.getId());
+        return reportRepository.findByMentorId(resolveCurrentMentorId());
     }
 
     @Override
     public List<Report> getMyReportsByStatus(Report.Status status) {
-        Mentor mentor = resolveCurrentMentor();
-        return reportRepository.findByMentorIdAndStatus(mentor.getId(), status);
+        return reportRepository.findByMentorIdAndStatus(resolveCurrentMentorId(), status);
     }
 
     @Override
     public Report createMyReport(ReportDTO dto) {
-        Mentor mentor = resolveCurrentMentor();
-        return createReport(dto, mentor.getId());
+        return createReport(dto, resolveCurrentMentorId());
     }
 
     @Override
@@ -266,13 +267,13 @@ public class ReportServiceImpl implements ReportService {
     }
 
     @Override
-    public String exportReport(String reportId, String format) {
+    public CompletableFuture<ReportArtifact> exportReport(String reportId, String format) {
 
+        ReportArtifactStore.Format fmt = ReportArtifactStore.Format.parse(format);
         Report report = getReportById(reportId);
 
-        // Stub cho đồ án – thực tế sẽ sinh file
-        return "EXPORT_" + format.toUpperCase()
-                + "_REPORT_" + report.getId();
+        // Snapshot trên thread request; file được khoá theo id + updatedAt
+        return reportArtifactStore.get(ReportResponse.fromEntity(report), fmt);
     }
     @Override
     public List<Report> getReportsByProjectAndStatus(String projectId, Report.Status status) {
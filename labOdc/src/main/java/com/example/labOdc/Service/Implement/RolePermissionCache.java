@@ -0,0 +1,96 @@
+package com.example.labOdc.Service.Implement;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+
+import com.example.labOdc.Model.PermissionEntity;
+import com.example.labOdc.Model.RoleEntity;
+import com.example.labOdc.Model.UserRole;
+import com.example.labOdc.Repository.RoleRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Dữ liệu tham chiếu role/permission giữ trong bộ nhớ:
+ * - RoleEntity (kèm permissions) theo UserRole, dùng khi gán role cho user thay cho roleRepository.findByRole().
+ * - role -> danh sách permission code, dùng khi sinh token.
+ * Nạp bằng 1 truy vấn khi dùng lần đầu; RolePermissionSeeder (hoặc chỗ nào sửa roles/role_permissions)
+ * phải gọi refresh() sau khi lưu. Không tìm thấy role thì nạp lại 1 lần (role vừa được seed ở chỗ khác).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RolePermissionCache {
+
+    private final RoleRepository roleRepository;
+
+    // Snapshot bất biến, thay nguyên khối khi refresh
+    private record Snapshot(Map<UserRole, RoleEntity> roles, Map<UserRole, List<String>> permissionsByRole) {
+    }
+
+    private volatile Snapshot snapshot;
+
+    public synchronized void refresh() {
+        Map<UserRole, RoleEntity> roles = new EnumMap<>(UserRole.class);
+        Map<UserRole, List<String>> permissionsByRole = new EnumMap<>(UserRole.class);
+        for (RoleEntity role : roleRepository.findAllWithPermissions()) {
+            Set<String> codes = new LinkedHashSet<>();
+            for (PermissionEntity permission : role.getPermissions()) {
+                codes.add(permission.getCode());
+            }
+            roles.put(role.getRole(), role);
+            permissionsByRole.put(role.getRole(), List.copyOf(codes));
+        }
+        snapshot = new Snapshot(roles, permissionsByRole);
+        log.info("Role permission cache loaded: {} roles", roles.size());
+    }
+
+    /**
+     * RoleEntity (detached, đã nạp permissions) để gán vào User.roles; chỉ đọc, không sửa rồi save.
+     */
+    public Optional<RoleEntity> findRole(UserRole role) {
+        RoleEntity cached = snapshot().roles().get(role);
+        if (cached == null) {
+            refresh();
+            cached = snapshot.roles().get(role);
+        }
+        return Optional.ofNullable(cached);
+    }
+
+    public List<String> permissionsOf(UserRole role) {
+        return snapshot().permissionsByRole().getOrDefault(role, List.of());
+    }
+
+    /**
+     * Hợp các permission của nhiều role (không trùng lặp).
+     */
+    public List<String> permissionsOf(Collection<UserRole> roles) {
+        Map<UserRole, List<String>> current = snapshot().permissionsByRole();
+        Set<String> codes = new LinkedHashSet<>();
+        for (UserRole role : roles) {
+            codes.addAll(current.getOrDefault(role, List.of()));
+        }
+        return List.copyOf(codes);
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+}
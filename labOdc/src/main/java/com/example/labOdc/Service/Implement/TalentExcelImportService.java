@@ -1,136 +1,123 @@
 package com.example.labOdc.Service.Implement;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
 import com.example.labOdc.DTO.ImportResult;
-import com.example.labOdc.Model.RoleEntity;
 import com.example.labOdc.Model.Talent;
 import com.example.labOdc.Model.User;
 import com.example.labOdc.Model.UserRole;
-import com.example.labOdc.Repository.RoleRepository;
 import com.example.labOdc.Repository.TalentRepository;
-import com.example.labOdc.Repository.UserRepository;
 
 import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor
 public class TalentExcelImportService {
-    private final UserRepository userRepository;
     private final TalentRepository talentRepository;
-    private final RoleRepository roleRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final ExcelStreamReader excelStreamReader;
+    private final BulkUserImporter bulkUserImporter;
 
-    private String generateUsername(String email) {
-        String baseUsername = email.split("@")[0];
-        String username = baseUsername;
-        int count = 1;
-
-        while (userRepository.findByUsername(username).isPresent()) {
-            username = baseUsername + count;
-            count++;
-        }
-
-        return username;
+    private record TalentRow(int rowNum, String email, String fullName, String phone, String studentCode,
+            String major, Integer year, String skills) {
     }
 
-    public ImportResult importTalent(MultipartFile file) throws Exception {
+    // Đọc streaming từng dòng, kiểm tra + ghi theo chunk (app.import.batch-size dòng)
+    public ImportResult importTalent(File file, BulkUserImporter.ImportProgress progress) throws Exception {
 
         ImportResult result = new ImportResult();
-        Workbook workbook = new XSSFWorkbook(file.getInputStream());
-        Sheet sheet = workbook.getSheet("TALENTS");
-
-        int total = 0, success = 0, failed = 0;
-
-        for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-            Row row = sheet.getRow(i);
-            total++;
+        BulkUserImporter.ImportContext ctx = bulkUserImporter.begin(UserRole.TALENT);
+        Set<String> seenStudentCodes = new HashSet<>();
+        List<TalentRow> chunk = new ArrayList<>();
 
+        excelStreamReader.readSheet(file, "TALENTS", 7, (rowNum, row) -> {
+            if (rowNum == 0) {
+                return;
+            }
+            result.setTotal(result.getTotal() + 1);
             try {
-                String email = getCellString(row, 0);
-                String fullName = getCellString(row, 1);
-                String phone = getCellString(row, 2);
-                String studentCode = getCellString(row, 3);
-                String major = getCellString(row, 4);
-                Integer year = getCellInt(row, 5);
-                String skills = getCellString(row, 6);
-
-                // ===== VALIDATE =====
-                if (email == null || email.isBlank())
-                    throw new RuntimeException("Email is empty");
-
-                if (studentCode == null || studentCode.isBlank())
-                    throw new RuntimeException("Student code is empty");
-
-                if (userRepository.existsByEmail(email))
-                    throw new RuntimeException("Email already exists");
-
-                if (talentRepository.existsByStudentCode(studentCode))
-                    throw new RuntimeException("Student code already exists");
-
-                RoleEntity talentRole = roleRepository.findByRole(UserRole.TALENT)
-                        .orElseThrow(() -> new RuntimeException("Role TALENT not found"));
-                String username = generateUsername(email);
-                // ===== CREATE USER =====
-                User user = User.builder()
-                        .email(email)
-                        .fullName(fullName)
-                        .username(username)
-                        .phone(phone)
-                        .password(passwordEncoder.encode("123456"))
-                        .roles(Set.of(talentRole))
-                        .isActive(true)
-                        .build();
-
-                userRepository.save(user);
-
-                // ===== CREATE TALENT =====
-                Talent talent = Talent.builder()
-                        .user(user)
-                        .studentCode(studentCode)
-                        .major(major)
-                        .year(year)
-                        .skills(skills)
-                        .status(Talent.Status.AVAILABLE)
-                        .build();
-
-                talentRepository.save(talent);
-
-                success++;
-
+                chunk.add(new TalentRow(rowNum, row.get(0), row.get(1), row.get(2), row.get(3), row.get(4),
+                        ExcelStreamReader.toInt(row.get(5)), row.get(6)));
             } catch (Exception e) {
-                failed++;
-                result.getErrors().add("Row " + (i + 1) + ": " + e.getMessage());
+                fail(result, rowNum, e.getMessage());
             }
-        }
-
-        result.setTotal(total);
-        result.setSuccess(success);
-        result.setFailed(failed);
-        workbook.close();
+            if (chunk.size() >= bulkUserImporter.getBatchSize()) {
+                importChunk(chunk, ctx, seenStudentCodes, result);
+                chunk.clear();
+                result.setSuccess(result.getTotal() - result.getFailed());
+                progress.onChunk(result, rowNum + 1);
+            }
+        });
+        int lastRow = chunk.isEmpty() ? 0 : chunk.get(chunk.size() - 1).rowNum() + 1;
+        importChunk(chunk, ctx, seenStudentCodes, result);
 
+        result.setSuccess(result.getTotal() - result.getFailed());
+        if (lastRow > 0) {
+            progress.onChunk(result, lastRow);
+        }
         return result;
     }
 
-    private String getCellString(Row row, int index) {
-        Cell cell = row.getCell(index);
-        return cell == null ? null : cell.toString().trim();
+    private void importChunk(List<TalentRow> rows, BulkUserImporter.ImportContext ctx, Set<String> seenStudentCodes,
+            ImportResult result) {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        // ===== PREFETCH: 1 truy vấn cho mỗi loại trong cả chunk =====
+        List<String> emails = rows.stream().map(TalentRow::email).filter(e -> e != null && !e.isBlank()).toList();
+        List<String> codes = rows.stream().map(TalentRow::studentCode).filter(c -> c != null && !c.isBlank())
+                .toList();
+        Set<String> existingEmails = ctx.existingEmails(emails);
+        Set<String> existingCodes = codes.isEmpty() ? Set.of()
+                : new HashSet<>(talentRepository.findExistingStudentCodes(codes));
+        Set<String> takenUsernames = ctx.takenUsernames(emails);
+
+        List<BulkUserImporter.PendingRow<Talent>> pending = new ArrayList<>(rows.size());
+        for (TalentRow row : rows) {
+            // ===== VALIDATE =====
+            if (row.email() == null || row.email().isBlank()) {
+                fail(result, row.rowNum(), "Email is empty");
+                continue;
+            }
+            if (row.studentCode() == null || row.studentCode().isBlank()) {
+                fail(result, row.rowNum(), "Student code is empty");
+                continue;
+            }
+            if (existingEmails.contains(row.email()) || !ctx.claimEmail(row.email())) {
+                fail(result, row.rowNum(), "Email already exists");
+                continue;
+            }
+            if (existingCodes.contains(row.studentCode()) || !seenStudentCodes.add(row.studentCode())) {
+                fail(result, row.rowNum(), "Student code already exists");
+                continue;
+            }
+
+            // ===== CREATE USER + TALENT =====
+            User user = ctx.newUser(row.email(), row.fullName(), ctx.allocateUsername(row.email(), takenUsernames),
+                    row.phone());
+            Talent talent = Talent.builder()
+                    .user(user)
+                    .studentCode(row.studentCode())
+                    .major(row.major())
+                    .year(row.year())
+                    .skills(row.skills())
+                    .status(Talent.Status.AVAILABLE)
+                    .build();
+            pending.add(new BulkUserImporter.PendingRow<>(row.rowNum(), user, talent));
+        }
+
+        bulkUserImporter.persistChunk(pending, talentRepository, result);
     }
 
-    private Integer getCellInt(Row row, int index) {
-        Cell cell = row.getCell(index);
-        if (cell == null)
-            return null;
-        return (int) cell.getNumericCellValue();
+    private void fail(ImportResult result, int rowNum, String message) {
+        result.setFailed(result.getFailed() + 1);
+        result.getErrors().add("Row " + (rowNum + 1) + ": " + message);
     }
 
 }
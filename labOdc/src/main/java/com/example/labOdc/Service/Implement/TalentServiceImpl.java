@@ -4,6 +4,7 @@ import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -29,7 +30,6 @@ import com.example.labOdc.Repository.FundDistributionRepository;
 import com.example.labOdc.Repository.ProjectApplicationRepository;
 import com.example.labOdc.Repository.ProjectRepository;
 import com.example.labOdc.Repository.ProjectTeamRepository;
-import com.example.labOdc.Repository.RoleRepository;
 import com.example.labOdc.Repository.TalentRepository;
 import com.example.labOdc.Repository.TaskRepository;
 import com.example.labOdc.Repository.UserRepository;
@@ -45,13 +45,16 @@ public class TalentServiceImpl implements TalentService {
     private static final Logger logger = LoggerFactory.getLogger(TalentServiceImpl.class);
     private final TalentRepository talentRepository;
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RolePermissionCache rolePermissionCache;
     private final ProjectRepository projectRepository;
     private final ProjectApplicationRepository projectApplicationRepository;
     private final ProjectTeamRepository projectTeamRepository;
     private final TaskRepository taskRepository;
     private final FundAllocationRepository fundAllocationRepository;
     private final FundDistributionRepository fundDistributionRepository;
+    private final CurrentActorService currentActorService;
+    private final TaskBoardSummaryCache taskBoardSummaryCache;
+    private final TaskEventService taskEventService;
 
     @Override
     @Transactional
@@ -81,12 +84,13 @@ public class TalentServiceImpl implements TalentService {
         Talent savedTalent = talentRepository.save(talent);
 
         // Update user role to TALENT
-        RoleEntity talentRole = roleRepository.findByRole(UserRole.TALENT)
+        RoleEntity talentRole = rolePermissionCache.findRole(UserRole.TALENT)
                 .orElseThrow(() -> new ResourceNotFoundException("TALENT role not found"));
 
         user.getRoles().clear();
         user.getRoles().add(talentRole);
         userRepository.save(user);
+        currentActorService.evictUser(user.getId());
         logger.info("User role updated to TALENT: {}", username);
 
         logger.info("Talent profile created/updated successfully for user: {}", username);
@@ -134,6 +138,7 @@ public class TalentServiceImpl implements TalentService {
         Talent talent = talentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Talent not found"));
         talentRepository.delete(talent);
+        currentActorService.evictProfile(id);
         logger.info("Talent deleted successfully");
     }
 
@@ -178,17 +183,9 @@ public class TalentServiceImpl implements TalentService {
      * Helper method to get current logged-in talent
      */
     private Talent getCurrentTalent() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || !auth.isAuthenticated()) {
-            throw new RuntimeException("Unauthenticated user");
-        }
-
-        String username = auth.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-
-        return talentRepository.findByUserId(user.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Talent profile not found for user: " + username));
+        String talentId = currentActorService.requireTalentId();
+        return talentRepository.findById(talentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Talent not found"));
     }
 
     @Override
@@ -243,8 +240,8 @@ public class TalentServiceImpl implements TalentService {
         logger.debug("Fetching available projects for talent application");
         // Per UI requirement: talent can browse all projects.
         // Applying to a project can still enforce additional business rules elsewhere.
-        return projectRepository.findAll().stream()
-                .map(ProjectResponse::fromProject)
+        return projectRepository.findListRows(null, null, null, null, null, null, Limit.unlimited()).stream()
+                .map(ProjectResponse::fromRow)
                 .toList();
     }
 
@@ -298,6 +295,7 @@ public class TalentServiceImpl implements TalentService {
         
         try {
             Task.Status taskStatus = Task.Status.valueOf(status.toUpperCase());
+            Task.Status from = task.getStatus();
             task.setStatus(taskStatus);
             
             if (taskStatus == Task.Status.DONE) {
@@ -306,6 +304,8 @@ public class TalentServiceImpl implements TalentService {
             }
             
             taskRepository.save(task);
+            taskEventService.record(task, from, taskStatus);
+            taskBoardSummaryCache.evictAfterCommit(task.getProjectId());
             logger.info("Task progress updated successfully");
         } catch (IllegalArgumentException e) {
             logger.error("Invalid task status: {}", status);
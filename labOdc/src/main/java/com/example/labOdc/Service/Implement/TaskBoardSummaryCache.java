@@ -0,0 +1,166 @@
+package com.example.labOdc.Service.Implement;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.labOdc.DTO.Response.TaskBoardSummaryResponse;
+import com.example.labOdc.Model.Task;
+import com.example.labOdc.Repository.TaskRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Cache ngắn hạn (app.task.board-cache-ttl-ms) cho tổng hợp bảng Kanban theo dự án.
+ * - Miss: 1 truy vấn GROUP BY; nhiều người xem cùng lúc chỉ chạy 1 truy vấn (các request khác chờ kết quả đó).
+ * - TaskServiceImpl (và các chỗ ghi task khác) gọi evictAfterCommit(projectId) khi đổi trạng thái/giao việc.
+ * - Kết quả tính xong sau khi đã có evict thì không được lưu, tránh ghi đè số liệu cũ lên cache.
+ */
+@Service
+@RequiredArgsConstructor
+public class TaskBoardSummaryCache {
+
+    private final TaskRepository taskRepository;
+
+    @Value("${app.task.board-cache-ttl-ms:5000}")
+    long ttlMs;
+
+    @Value("${app.task.board-cache-max-size:1000}")
+    int maxSize;
+
+    private record Entry(TaskBoardSummaryResponse value, long expiresAt) {
+    }
+
+    // LRU theo lượt truy cập: đầy thì chỉ bỏ dự án lâu không ai xem
+    private final Map<String, Entry> entries = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > maxSize;
+                }
+            });
+    private final Map<String, CompletableFuture<TaskBoardSummaryResponse>> inFlight = new ConcurrentHashMap<>();
+
+    // Tăng mỗi lần evict; kết quả chỉ được lưu nếu không có evict nào xảy ra trong lúc tính
+    private final AtomicLong evictions = new AtomicLong();
+
+    public TaskBoardSummaryResponse get(String projectId) {
+        Entry entry = entries.get(projectId);
+        if (entry != null && entry.expiresAt() > System.currentTimeMillis()) {
+            return entry.value();
+        }
+
+        CompletableFuture<TaskBoardSummaryResponse> mine = new CompletableFuture<>();
+        CompletableFuture<TaskBoardSummaryResponse> running = inFlight.putIfAbsent(projectId, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException ex) {
+                throw ex.getCause() instanceof RuntimeException re ? re : ex;
+            }
+        }
+
+        try {
+            long generation = evictions.get();
+            TaskBoardSummaryResponse value = load(projectId);
+            if (evictions.get() == generation) {
+                entries.put(projectId, new Entry(value, System.currentTimeMillis() + ttlMs));
+            }
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(projectId, mine);
+        }
+    }
+
+    public void evictAfterCommit(String projectId) {
+        if (projectId == null) {
+            return;
+        }
+        Runnable evict = () -> {
+            evictions.incrementAndGet();
+            entries.remove(projectId);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        } else {
+            evict.run();
+        }
+    }
+
+    private TaskBoardSummaryResponse load(String projectId) {
+        Map<Task.Status, Long> byStatus = new EnumMap<>(Task.Status.class);
+        Map<Task.Priority, Long> byPriority = new EnumMap<>(Task.Priority.class);
+        for (Task.Status s : Task.Status.values()) {
+            byStatus.put(s, 0L);
+        }
+        for (Task.Priority p : Task.Priority.values()) {
+            byPriority.put(p, 0L);
+        }
+        Map<String, long[]> counts = new LinkedHashMap<>();
+        Map<String, BigDecimal> openHours = new LinkedHashMap<>();
+        long total = 0;
+        long overdue = 0;
+
+        for (TaskRepository.BoardCell cell : taskRepository.summarizeBoard(projectId, LocalDate.now())) {
+            total += cell.getTotal();
+            overdue += cell.getOverdue();
+            if (cell.getStatus() != null) {
+                byStatus.merge(cell.getStatus(), cell.getTotal(), Long::sum);
+            }
+            if (cell.getPriority() != null) {
+                byPriority.merge(cell.getPriority(), cell.getTotal(), Long::sum);
+            }
+
+            // [total, open, overdue]
+            long[] c = counts.computeIfAbsent(cell.getAssignedTo(), k -> new long[3]);
+            c[0] += cell.getTotal();
+            c[2] += cell.getOverdue();
+            if (cell.getStatus() != Task.Status.DONE && cell.getStatus() != Task.Status.CANCELLED) {
+                c[1] += cell.getTotal();
+                openHours.merge(cell.getAssignedTo(),
+                        cell.getEstimatedHours() == null ? BigDecimal.ZERO : cell.getEstimatedHours(), BigDecimal::add);
+            }
+        }
+
+        List<TaskBoardSummaryResponse.AssigneeWorkload> assignees = new ArrayList<>(counts.size());
+        counts.forEach((assignee, c) -> assignees.add(new TaskBoardSummaryResponse.AssigneeWorkload(assignee, c[0],
+                c[1], c[2], openHours.getOrDefault(assignee, BigDecimal.ZERO))));
+        // Nhiều việc đang mở nhất lên trước
+        assignees.sort(Comparator.comparingLong(TaskBoardSummaryResponse.AssigneeWorkload::getOpen).reversed());
+
+        return TaskBoardSummaryResponse.builder()
+                .projectId(projectId)
+                .total(total)
+                .overdue(overdue)
+                .byStatus(byStatus)
+                .byPriority(byPriority)
+                .assignees(assignees)
+                .generatedAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.labOdc.Service.Implement;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.labOdc.Exception.ServiceBusyException;
+import com.example.labOdc.Model.Task;
+import com.example.labOdc.Repository.TalentRepository;
+import com.example.labOdc.Repository.TaskRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Import file phân rã task (sheet TASKS, hoặc sheet đầu tiên) theo kiểu streaming:
+ * - File upload/tải về được ghi thẳng từ stream xuống uploads/excel/{projectId}, không giữ byte[].
+ * - Đọc từng dòng (ExcelStreamReader), gom chunk app.import.batch-size dòng.
+ * - Mỗi chunk: 1 truy vấn IN kiểm tra assignee, ghi task bằng JDBC batch rồi clear persistence context.
+ * Cả file vẫn nằm trong 1 transaction: lỗi giữa chừng thì không task nào được tạo (như trước).
+ * File tải từ URL được import trên pool riêng (executor(), cấu hình app.task-breakdown.*), không dùng chung
+ * pool với ImportJobService và không chạy trên thread của HttpClient.
+ */
+@Service
+@Slf4j
+public class TaskBreakdownImporter {
+
+    private static final int COLUMN_COUNT = 7;
+
+    private final TaskRepository taskRepository;
+    private final TalentRepository talentRepository;
+    private final ExcelStreamReader excelStreamReader;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskBoardSummaryCache taskBoardSummaryCache;
+    private final TaskEventService taskEventService;
+
+    @Value("${app.import.batch-size:500}")
+    int batchSize;
+
+    @Value("${app.task-breakdown.worker-threads:2}")
+    int workerThreads;
+
+    @Value("${app.task-breakdown.queue-capacity:10}")
+    int queueCapacity;
+
+    @Value("${app.task-breakdown.retry-after-seconds:30}")
+    long retryAfterSeconds;
+
+    private ThreadPoolExecutor pool;
+
+    public TaskBreakdownImporter(TaskRepository taskRepository, TalentRepository talentRepository,
+            ExcelStreamReader excelStreamReader, EntityManager entityManager,
+            PlatformTransactionManager transactionManager, TaskBoardSummaryCache taskBoardSummaryCache,
+            TaskEventService taskEventService) {
+        this.taskRepository = taskRepository;
+        this.talentRepository = talentRepository;
+        this.excelStreamReader = excelStreamReader;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskBoardSummaryCache = taskBoardSummaryCache;
+        this.taskEventService = taskEventService;
+    }
+
+    @PostConstruct
+    void start() {
+        AtomicInteger seq = new AtomicInteger();
+        pool = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "task-breakdown-import-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stop() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Executor cho phần import sau khi tải file (thenAcceptAsync); hàng đợi đầy -> future lỗi ServiceBusyException (429).
+     */
+    public Executor executor() {
+        return command -> {
+            try {
+                pool.execute(command);
+            } catch (RejectedExecutionException ex) {
+                throw new ServiceBusyException("Too many task breakdown imports in progress, please retry later",
+                        HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds);
+            }
+        };
+    }
+
+    private record TaskRow(int rowNum, String taskName, String description, String priority, String startDate,
+            String dueDate, String estimatedHours, String assignedTo) {
+    }
+
+    /**
+     * Ghi stream xuống uploads/excel/{projectId}/{prefix}-{timestamp}.xlsx. Bên gọi đóng stream.
+     */
+    public File store(String projectId, InputStream in, String filePrefix) {
+        try {
+            Path uploadDir = Paths.get("uploads", "excel", projectId);
+            Files.createDirectories(uploadDir);
+            String safePrefix = (filePrefix == null ? "task-breakdown" : filePrefix).replaceAll("[^a-zA-Z0-9._-]", "-");
+            Path outPath = uploadDir.resolve(safePrefix + "-" + System.currentTimeMillis() + ".xlsx");
+            long written = Files.copy(in, outPath);
+            if (written == 0) {
+                Files.deleteIfExists(outPath);
+                throw new RuntimeException("Excel data is empty");
+            }
+            return outPath.toAbsolutePath().toFile();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to persist uploaded excel file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Tạo task TODO cho từng dòng có tên task. Trả về số task đã tạo.
+     */
+    public int importTasks(String projectId, File file, String currentUserId) {
+        String fileUrl = file.getAbsolutePath();
+        Integer created = transactionTemplate.execute(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            List<TaskRow> chunk = new ArrayList<>();
+            int[] count = { 0 };
+            try {
+                excelStreamReader.readSheet(file, "TASKS", true, COLUMN_COUNT, (rowNum, row) -> {
+                    // Dòng 0 là header
+                    if (rowNum == 0 || row.get(0) == null) {
+                        return;
+                    }
+                    chunk.add(new TaskRow(rowNum, row.get(0), row.get(1), row.get(2), row.get(3), row.get(4),
+                            row.get(5), row.get(6)));
+                    if (chunk.size() >= batchSize) {
+                        count[0] += saveChunk(chunk, projectId, fileUrl, currentUserId);
+                        chunk.clear();
+                    }
+                });
+                count[0] += saveChunk(chunk, projectId, fileUrl, currentUserId);
+                taskBoardSummaryCache.evictAfterCommit(projectId);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e.getMessage(), e);
+            }
+            return count[0];
+        });
+        return created == null ? 0 : created;
+    }
+
+    private int saveChunk(List<TaskRow> rows, String projectId, String fileUrl, String currentUserId) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        // 1 truy vấn cho tất cả assignee của chunk
+        Set<String> assigneeIds = new HashSet<>();
+        for (TaskRow row : rows) {
+            if (row.assignedTo() != null) {
+                assigneeIds.add(row.assignedTo());
+            }
+        }
+        Set<String> existingTalents = assigneeIds.isEmpty() ? Set.of()
+                : new HashSet<>(talentRepository.findExistingIds(assigneeIds));
+
+        List<Task> tasks = new ArrayList<>(rows.size());
+        for (TaskRow row : rows) {
+            Task task = Task.builder()
+                    .projectId(projectId)
+                    .taskName(row.taskName())
+                    .description(row.description())
+                    .status(Task.Status.TODO)
+                    .priority(parsePriority(row.priority()))
+                    .startDate(parseDate(row.startDate()))
+                    .dueDate(parseDate(row.dueDate()))
+                    .estimatedHours(parseDecimal(row.estimatedHours()))
+                    .excelTemplateUrl(fileUrl)
+                    .createdBy(currentUserId)
+                    .build();
+
+            if (row.assignedTo() != null) {
+                if (existingTalents.contains(row.assignedTo())) {
+                    task.setAssignedTo(row.assignedTo());
+                } else {
+                    log.warn("Talent ID '{}' not found in row {}. Task created without assignment.",
+                            row.assignedTo(), row.rowNum() + 1);
+                }
+            }
+            tasks.add(task);
+        }
+
+        taskRepository.saveAll(tasks);
+        taskEventService.recordCreated(tasks);
+        entityManager.flush();
+        entityManager.clear();
+        return tasks.size();
+    }
+
+    private Task.Priority parsePriority(String p) {
+        if (p == null) return null;
+        try {
+            return Task.Priority.valueOf(p.toUpperCase());
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    // Ngày sai định dạng thì bỏ qua (như trước)
+    private LocalDate parseDate(String value) {
+        if (value == null) return null;
+        try {
+            return LocalDate.parse(value);
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    private BigDecimal parseDecimal(String value) {
+        if (value == null) return null;
+        try {
+            return new BigDecimal(value.replace(",", ""));
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+}
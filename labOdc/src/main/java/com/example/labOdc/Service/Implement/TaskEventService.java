@@ -0,0 +1,359 @@
+package com.example.labOdc.Service.Implement;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.labOdc.DTO.Response.TaskBurndownResponse;
+import com.example.labOdc.DTO.Response.TaskCycleTimeResponse;
+import com.example.labOdc.Model.Task;
+import com.example.labOdc.Model.TaskDailyRollup;
+import com.example.labOdc.Model.TaskDailyRollup.Metric;
+import com.example.labOdc.Model.TaskEvent;
+import com.example.labOdc.Repository.TaskDailyRollupRepository;
+import com.example.labOdc.Repository.TaskEventRepository;
+import com.example.labOdc.Repository.TaskRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ghi task_events và cộng dồn task_daily_rollups trong cùng transaction với thay đổi trạng thái task.
+ * Burndown / cycle-time đọc các dòng rollup theo ngày (tối đa 1 dòng/ngày) thay vì quét bảng tasks.
+ * Lần đầu chạy trên DB đã có task: backfill dựng lịch sử gần đúng từ created_at / completed_date.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TaskEventService {
+
+    // Giới hạn khoảng ngày của 1 lần đọc
+    private static final int MAX_RANGE_DAYS = 366;
+    private static final int DEFAULT_RANGE_DAYS = 30;
+
+    private final TaskEventRepository taskEventRepository;
+    private final TaskDailyRollupRepository taskDailyRollupRepository;
+    private final TaskRepository taskRepository;
+    private final CurrentActorService currentActorService;
+    private final EntityManager entityManager;
+
+    /**
+     * Ghi 1 lần chuyển trạng thái (from == to thì bỏ qua). from = null: task mới; to = null: task bị xoá.
+     * Phải gọi trong transaction của thay đổi gốc.
+     */
+    @Transactional
+    public void record(Task task, Task.Status from, Task.Status to) {
+        if (from == to) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Map<Metric, Long> delta = delta(from, to);
+        addReviewExit(task, from, to, now, delta);
+        taskEventRepository.save(event(task, from, to, currentActorService.currentUserIdOrNull(), now));
+        upsert(task.getProjectId(), now.toLocalDate(), delta);
+    }
+
+    /**
+     * Ghi các lần chuyển trạng thái của 1 thao tác hàng loạt: 1 lần saveAll + 1 upsert cho mỗi dự án.
+     */
+    @Transactional
+    public void recordAll(List<TaskStateWriter.Result> results) {
+        LocalDateTime now = LocalDateTime.now();
+        String actorId = currentActorService.currentUserIdOrNull();
+        Map<String, LocalDateTime> reviewEnteredAt = reviewEnteredAt(results);
+        List<TaskEvent> events = new ArrayList<>();
+        Map<String, Map<Metric, Long>> byProject = new HashMap<>();
+        for (TaskStateWriter.Result result : results) {
+            Task task = result.task();
+            Task.Status from = result.previousStatus();
+            Task.Status to = task.getStatus();
+            if (from == to) {
+                continue;
+            }
+            Map<Metric, Long> delta = delta(from, to);
+            if (isReviewExit(from, to)) {
+                addReviewExit(reviewEnteredAt.get(task.getId()), now, delta);
+            }
+            events.add(event(task, from, to, actorId, now));
+            Map<Metric, Long> project = byProject.computeIfAbsent(task.getProjectId(),
+                    k -> new EnumMap<>(Metric.class));
+            delta.forEach((m, v) -> project.merge(m, v, Long::sum));
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+        taskEventRepository.saveAll(events);
+        byProject.forEach((projectId, delta) -> upsert(projectId, now.toLocalDate(), delta));
+    }
+
+    /**
+     * Ghi sự kiện tạo cho 1 lô task vừa lưu (import): 1 lần saveAll + 1 upsert cho mỗi dự án.
+     */
+    @Transactional
+    public void recordCreated(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        String actorId = currentActorService.currentUserIdOrNull();
+        List<TaskEvent> events = new ArrayList<>(tasks.size());
+        Map<String, Map<Metric, Long>> byProject = new HashMap<>();
+        for (Task task : tasks) {
+            events.add(event(task, null, task.getStatus(), actorId, now));
+            delta(null, task.getStatus()).forEach((m, v) -> byProject
+                    .computeIfAbsent(task.getProjectId(), k -> new EnumMap<>(Metric.class)).merge(m, v, Long::sum));
+        }
+        taskEventRepository.saveAll(events);
+        byProject.forEach((projectId, delta) -> upsert(projectId, now.toLocalDate(), delta));
+    }
+
+    @Transactional(readOnly = true)
+    public TaskBurndownResponse burndown(String projectId, LocalDate from, LocalDate to) {
+        LocalDate[] range = range(from, to);
+        TaskDailyRollupRepository.Baseline baseline = taskDailyRollupRepository.baselineBefore(projectId, range[0]);
+        long open = baseline.getOpen();
+        long done = baseline.getDone();
+
+        Map<LocalDate, TaskDailyRollup> byDate = byDate(projectId, range);
+        List<TaskBurndownResponse.Point> points = new ArrayList<>();
+        for (LocalDate d = range[0]; !d.isAfter(range[1]); d = d.plusDays(1)) {
+            TaskDailyRollup r = byDate.get(d);
+            if (r != null) {
+                open += r.getOpened() - r.getClosed();
+                done += r.getCompleted() - r.getUncompleted();
+            }
+            points.add(new TaskBurndownResponse.Point(d, open, done));
+        }
+
+        return TaskBurndownResponse.builder()
+                .projectId(projectId)
+                .from(range[0])
+                .to(range[1])
+                .points(points)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public TaskCycleTimeResponse cycleTime(String projectId, LocalDate from, LocalDate to) {
+        LocalDate[] range = range(from, to);
+        Map<LocalDate, TaskDailyRollup> byDate = byDate(projectId, range);
+
+        long completed = 0;
+        long reviewExits = 0;
+        long reviewSeconds = 0;
+        List<TaskCycleTimeResponse.Point> points = new ArrayList<>();
+        for (LocalDate d = range[0]; !d.isAfter(range[1]); d = d.plusDays(1)) {
+            TaskDailyRollup r = byDate.get(d);
+            if (r == null) {
+                points.add(new TaskCycleTimeResponse.Point(d, 0, 0, null));
+                continue;
+            }
+            completed += r.getCompleted();
+            reviewExits += r.getReviewExits();
+            reviewSeconds += r.getReviewSeconds();
+            points.add(new TaskCycleTimeResponse.Point(d, r.getCompleted(), r.getReviewExits(),
+                    meanHours(r.getReviewSeconds(), r.getReviewExits())));
+        }
+
+        return TaskCycleTimeResponse.builder()
+                .projectId(projectId)
+                .from(range[0])
+                .to(range[1])
+                .completed(completed)
+                .reviewExits(reviewExits)
+                .meanReviewHours(meanHours(reviewSeconds, reviewExits))
+                .points(points)
+                .build();
+    }
+
+    // Bảng sự kiện còn trống nhưng đã có task: coi mỗi task được tạo ở TODO lúc created_at,
+    // DONE vào completed_date, CANCELLED vào updated_at, còn lại đang ở trạng thái hiện tại
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (taskEventRepository.count() > 0 || taskDailyRollupRepository.count() > 0) {
+            return;
+        }
+        List<Task> tasks = taskRepository.findAll();
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        List<TaskEvent> events = new ArrayList<>();
+        Map<String, Map<LocalDate, Map<Metric, Long>>> rollups = new HashMap<>();
+        for (Task task : tasks) {
+            LocalDateTime createdAt = task.getCreatedAt() != null ? task.getCreatedAt() : LocalDateTime.now();
+            Task.Status status = task.getStatus();
+            if (status == Task.Status.DONE || status == Task.Status.CANCELLED) {
+                LocalDateTime closedAt = status == Task.Status.DONE && task.getCompletedDate() != null
+                        ? task.getCompletedDate().atStartOfDay()
+                        : task.getUpdatedAt();
+                if (closedAt == null || closedAt.isBefore(createdAt)) {
+                    closedAt = createdAt;
+                }
+                addBackfill(events, rollups, task, null, Task.Status.TODO, createdAt);
+                addBackfill(events, rollups, task, Task.Status.TODO, status, closedAt);
+            } else {
+                addBackfill(events, rollups, task, null, status, createdAt);
+            }
+        }
+
+        taskEventRepository.saveAll(events);
+        rollups.forEach((projectId, byDay) -> byDay.forEach((day, delta) -> upsert(projectId, day, delta)));
+        log.info("Task events backfilled: {} events for {} tasks", events.size(), tasks.size());
+    }
+
+    // ===== PRIVATE =====
+
+    private static boolean isOpen(Task.Status status) {
+        return status == Task.Status.TODO || status == Task.Status.IN_PROGRESS || status == Task.Status.REVIEW;
+    }
+
+    // Các cột đếm thay đổi khi chuyển from -> to (REVIEW_* tính riêng vì cần thời điểm vào REVIEW)
+    private static Map<Metric, Long> delta(Task.Status from, Task.Status to) {
+        Map<Metric, Long> delta = new EnumMap<>(Metric.class);
+        if (!isOpen(from) && isOpen(to)) {
+            delta.put(Metric.OPENED, 1L);
+        }
+        if (isOpen(from) && !isOpen(to)) {
+            delta.put(Metric.CLOSED, 1L);
+        }
+        if (to == Task.Status.DONE && from != Task.Status.DONE) {
+            delta.put(Metric.COMPLETED, 1L);
+        }
+        if (from == Task.Status.DONE && to != Task.Status.DONE) {
+            delta.put(Metric.UNCOMPLETED, 1L);
+        }
+        return delta;
+    }
+
+    private static TaskEvent event(Task task, Task.Status from, Task.Status to, String actorId, LocalDateTime at) {
+        return TaskEvent.builder()
+                .taskId(task.getId())
+                .projectId(task.getProjectId())
+                .fromStatus(from)
+                .toStatus(to)
+                .assignedTo(task.getAssignedTo())
+                .actorId(actorId)
+                .occurredAt(at)
+                .build();
+    }
+
+    // Rời REVIEW: cộng 1 lần thoát + số giây kể từ lần vào REVIEW gần nhất (bỏ qua nếu không có sự kiện vào)
+    private void addReviewExit(Task task, Task.Status from, Task.Status to, LocalDateTime now,
+            Map<Metric, Long> delta) {
+        if (!isReviewExit(from, to)) {
+            return;
+        }
+        taskEventRepository.findFirstByTaskIdAndToStatusOrderByOccurredAtDesc(task.getId(), Task.Status.REVIEW)
+                .ifPresent(entered -> addReviewExit(entered.getOccurredAt(), now, delta));
+    }
+
+    private static void addReviewExit(LocalDateTime enteredAt, LocalDateTime now, Map<Metric, Long> delta) {
+        if (enteredAt == null) {
+            return;
+        }
+        delta.merge(Metric.REVIEW_EXITS, 1L, Long::sum);
+        delta.merge(Metric.REVIEW_SECONDS, Math.max(0, Duration.between(enteredAt, now).getSeconds()), Long::sum);
+    }
+
+    private static boolean isReviewExit(Task.Status from, Task.Status to) {
+        return from == Task.Status.REVIEW && to != Task.Status.REVIEW;
+    }
+
+    // Lần vào REVIEW gần nhất của các task đang rời REVIEW trong lô, 1 truy vấn cho cả lô
+    private Map<String, LocalDateTime> reviewEnteredAt(List<TaskStateWriter.Result> results) {
+        List<String> taskIds = results.stream()
+                .filter(r -> isReviewExit(r.previousStatus(), r.task().getStatus()))
+                .map(r -> r.task().getId())
+                .toList();
+        if (taskIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, LocalDateTime> enteredAt = new HashMap<>();
+        for (TaskEvent e : taskEventRepository.findLatestByTaskIdInAndToStatus(taskIds, Task.Status.REVIEW.name())) {
+            enteredAt.put(e.getTaskId(), e.getOccurredAt());
+        }
+        return enteredAt;
+    }
+
+    private static void addBackfill(List<TaskEvent> events, Map<String, Map<LocalDate, Map<Metric, Long>>> rollups,
+            Task task, Task.Status from, Task.Status to, LocalDateTime at) {
+        events.add(event(task, from, to, null, at));
+        Map<Metric, Long> day = rollups.computeIfAbsent(task.getProjectId(), k -> new HashMap<>())
+                .computeIfAbsent(at.toLocalDate(), k -> new EnumMap<>(Metric.class));
+        delta(from, to).forEach((m, v) -> day.merge(m, v, Long::sum));
+    }
+
+    private void upsert(String projectId, LocalDate statDate, Map<Metric, Long> delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        StringBuilder columns = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        StringBuilder updates = new StringBuilder();
+        for (Metric m : Metric.values()) {
+            columns.append(m.column).append(", ");
+            if (delta.containsKey(m)) {
+                values.append(':').append(m.name()).append(", ");
+                updates.append(m.column).append(" = task_daily_rollups.").append(m.column)
+                        .append(" + EXCLUDED.").append(m.column).append(", ");
+            } else {
+                values.append("0, ");
+            }
+        }
+        String sql = "INSERT INTO task_daily_rollups (id, project_id, stat_date, " + columns + "updated_at)"
+                + " VALUES (CAST(gen_random_uuid() AS varchar), :projectId, :statDate, " + values + "now())"
+                + " ON CONFLICT (project_id, stat_date) DO UPDATE SET " + updates + "updated_at = now()";
+
+        Query query = entityManager.createNativeQuery(sql)
+                .setParameter("projectId", projectId)
+                .setParameter("statDate", statDate);
+        delta.forEach((m, v) -> query.setParameter(m.name(), v));
+        query.executeUpdate();
+    }
+
+    private Map<LocalDate, TaskDailyRollup> byDate(String projectId, LocalDate[] range) {
+        Map<LocalDate, TaskDailyRollup> byDate = new HashMap<>();
+        for (TaskDailyRollup r : taskDailyRollupRepository
+                .findByProjectIdAndStatDateBetweenOrderByStatDateAsc(projectId, range[0], range[1])) {
+            byDate.put(r.getStatDate(), r);
+        }
+        return byDate;
+    }
+
+    // Mặc định 30 ngày gần nhất; from > to hoặc quá MAX_RANGE_DAYS -> 400
+    private static LocalDate[] range(LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_RANGE_DAYS - 1);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range must not exceed " + MAX_RANGE_DAYS + " days");
+        }
+        return new LocalDate[] { start, end };
+    }
+
+    private static BigDecimal meanHours(long seconds, long count) {
+        if (count == 0) {
+            return null;
+        }
+        return BigDecimal.valueOf(seconds).divide(BigDecimal.valueOf(count * 3600L), 2, RoundingMode.HALF_UP);
+    }
+}
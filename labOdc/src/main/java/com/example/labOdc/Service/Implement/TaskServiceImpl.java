@@ -1,25 +1,42 @@
 package com.example.labOdc.Service.Implement;
 
+import com.example.labOdc.DTO.BulkTaskDTO;
+import com.example.labOdc.DTO.Response.BulkTaskResultResponse;
+import com.example.labOdc.DTO.Response.TaskBoardSummaryResponse;
+import com.example.labOdc.DTO.Response.TaskBurndownResponse;
+import com.example.labOdc.DTO.Response.TaskCycleTimeResponse;
 import com.example.labOdc.DTO.Response.TaskResponse;
 import com.example.labOdc.DTO.TaskDTO;
 import com.example.labOdc.Exception.ResourceNotFoundException;
 import com.example.labOdc.Model.Task;
 import com.example.labOdc.Repository.TaskRepository;
 import com.example.labOdc.Service.TaskService;
+import com.example.labOdc.Service.Implement.TaskStateWriter.Change;
+import com.example.labOdc.Service.Implement.TaskStateWriter.Field;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
+@Transactional
 public class TaskServiceImpl implements TaskService {
 
     private final TaskRepository taskRepository;
+    private final TaskBoardSummaryCache taskBoardSummaryCache;
+    private final TaskEventService taskEventService;
+    private final TaskStateWriter taskStateWriter;
 
     @Override
     public Task createTask(TaskDTO dto, String createdBy) {
@@ -38,7 +55,7 @@ public class TaskServiceImpl implements TaskService {
                 .attachments(dto.getAttachments())
                 .build();
 
-        return taskRepository.save(task);
+        return saveAndEvict(task, null);
     }
 
     @Override
@@ -54,62 +71,51 @@ public class TaskServiceImpl implements TaskService {
         task.setExcelTemplateUrl(dto.getExcelTemplateUrl());
         task.setAttachments(dto.getAttachments());
 
-        return taskRepository.save(task);
+        return saveAndEvict(task);
     }
 
     @Override
-    public Task updateStatus(String taskId, Task.Status status) {
-        Task task = getTaskById(taskId);
-
-        task.setStatus(status);
-
-        if (status == Task.Status.DONE) {
-            task.setCompletedDate(LocalDate.now());
-        } else {
-            task.setCompletedDate(null);
-        }
-
-        return taskRepository.save(task);
+    public Task updateStatus(String taskId, Task.Status status, Long expectedVersion) {
+        return transition(statusChange(Change.of(taskId), status).expectVersion(expectedVersion));
     }
 
     @Override
-    public Task assignTask(String taskId, String talentId) {
-        Task task = getTaskById(taskId);
-        task.setAssignedTo(talentId);
-        task.setStatus(Task.Status.IN_PROGRESS);
-
-        return taskRepository.save(task);
+    public Task assignTask(String taskId, String talentId, Long expectedVersion) {
+        return transition(assignChange(Change.of(taskId), talentId).expectVersion(expectedVersion));
     }
 
     @Override
-    public Task unassignTask(String taskId) {
-        Task task = getTaskById(taskId);
-        task.setAssignedTo(null);
-        task.setStatus(Task.Status.TODO);
-        return taskRepository.save(task);
+    public Task unassignTask(String taskId, Long expectedVersion) {
+        return transition(Change.of(taskId)
+                .from(Task.Status.TODO, Task.Status.IN_PROGRESS, Task.Status.REVIEW)
+                .expectVersion(expectedVersion)
+                .set(Field.ASSIGNED_TO, null)
+                .set(Field.STATUS, Task.Status.TODO));
     }
 
     @Override
-    public Task completeTask(String taskId) {
-        Task task = getTaskById(taskId);
-        task.setStatus(Task.Status.DONE);
-        task.setCompletedDate(LocalDate.now());
-
-        return taskRepository.save(task);
+    public Task completeTask(String taskId, Long expectedVersion) {
+        return transition(Change.of(taskId)
+                .from(Task.Status.TODO, Task.Status.IN_PROGRESS, Task.Status.REVIEW)
+                .expectVersion(expectedVersion)
+                .set(Field.STATUS, Task.Status.DONE)
+                .set(Field.COMPLETED_DATE, LocalDate.now()));
     }
     @Override
-    public Task reopenTask(String taskId) {
-        Task task = getTaskById(taskId);
-        task.setStatus(Task.Status.IN_PROGRESS);
-        task.setCompletedDate(null);
-        return taskRepository.save(task);
+    public Task reopenTask(String taskId, Long expectedVersion) {
+        return transition(Change.of(taskId)
+                .from(Task.Status.DONE, Task.Status.CANCELLED)
+                .expectVersion(expectedVersion)
+                .set(Field.STATUS, Task.Status.IN_PROGRESS)
+                .set(Field.COMPLETED_DATE, null));
     }
 
     @Override
-    public Task cancelTask(String taskId) {
-        Task task = getTaskById(taskId);
-        task.setStatus(Task.Status.CANCELLED);
-        return taskRepository.save(task);
+    public Task cancelTask(String taskId, Long expectedVersion) {
+        return transition(Change.of(taskId)
+                .from(Task.Status.TODO, Task.Status.IN_PROGRESS, Task.Status.REVIEW)
+                .expectVersion(expectedVersion)
+                .set(Field.STATUS, Task.Status.CANCELLED));
     }
     @Override
     public Task getTaskById(String taskId) {
@@ -148,6 +154,8 @@ public class TaskServiceImpl implements TaskService {
     public void deleteTask(String taskId) {
         Task task = getTaskById(taskId);
         taskRepository.delete(task);
+        taskEventService.record(task, task.getStatus(), null);
+        taskBoardSummaryCache.evictAfterCommit(task.getProjectId());
     }
     @Override
     public boolean canEditTask(String taskId, String userId) {
@@ -164,11 +172,110 @@ public class TaskServiceImpl implements TaskService {
     }
 
     @Override
-    public Task updatePriority(String taskId, Task.Priority priority) {
-        Task task = getTaskById(taskId);
-        task.setPriority(priority);
-        return taskRepository.save(task);
+    public Task updatePriority(String taskId, Task.Priority priority, Long expectedVersion) {
+        return transition(Change.of(taskId)
+                .expectVersion(expectedVersion)
+                .set(Field.PRIORITY, priority));
+    }
+    @Override
+    public BulkTaskResultResponse bulkUpdate(BulkTaskDTO dto) {
+        Change change = switch (dto.getOperation()) {
+            case ASSIGN -> {
+                if (dto.getTalentId() == null || dto.getTalentId().isBlank()) {
+                    throw new IllegalArgumentException("talentId is required for ASSIGN");
+                }
+                yield assignChange(Change.forAll(), dto.getTalentId().trim());
+            }
+            case STATUS -> {
+                if (dto.getStatus() == null) {
+                    throw new IllegalArgumentException("status is required for STATUS");
+                }
+                yield statusChange(Change.forAll(), dto.getStatus());
+            }
+            case PRIORITY -> {
+                if (dto.getPriority() == null) {
+                    throw new IllegalArgumentException("priority is required for PRIORITY");
+                }
+                yield Change.forAll().set(Field.PRIORITY, dto.getPriority());
+            }
+            case DUE_DATE -> {
+                if (dto.getDueDate() == null) {
+                    throw new IllegalArgumentException("dueDate is required for DUE_DATE");
+                }
+                yield Change.forAll().set(Field.DUE_DATE, dto.getDueDate());
+            }
+        };
+        List<String> taskIds = new ArrayList<>(new LinkedHashSet<>(dto.getTaskIds()));
+
+        // Kiểm tra tất cả task bằng 1 truy vấn; task không tồn tại / sai trạng thái không đưa vào UPDATE
+        Map<String, TaskRepository.TaskState> states = new HashMap<>();
+        for (TaskRepository.TaskState state : taskRepository.findStatesByIdIn(taskIds)) {
+            states.put(state.getId(), state);
+        }
+        Set<Task.Status> allowedFrom = change.allowedFrom();
+        List<String> eligible = new ArrayList<>();
+        for (String taskId : taskIds) {
+            TaskRepository.TaskState state = states.get(taskId);
+            if (state != null && (allowedFrom == null || allowedFrom.contains(state.getStatus()))) {
+                eligible.add(taskId);
+            }
+        }
+
+        // 1 câu UPDATE cho cả lô, rồi ghi task_events + evict cache mỗi dự án 1 lần
+        Map<String, TaskStateWriter.Result> updated = new HashMap<>();
+        for (TaskStateWriter.Result result : taskStateWriter.applyAll(eligible, change)) {
+            updated.put(result.task().getId(), result);
+        }
+        taskEventService.recordAll(new ArrayList<>(updated.values()));
+        updated.values().stream()
+                .map(result -> result.task().getProjectId())
+                .distinct()
+                .forEach(taskBoardSummaryCache::evictAfterCommit);
+
+        List<BulkTaskResultResponse.Item> items = new ArrayList<>(taskIds.size());
+        for (String taskId : taskIds) {
+            TaskStateWriter.Result result = updated.get(taskId);
+            TaskRepository.TaskState state = states.get(taskId);
+            if (result != null) {
+                items.add(new BulkTaskResultResponse.Item(taskId, BulkTaskResultResponse.Outcome.UPDATED,
+                        result.task().getStatus(), result.task().getVersion(), null));
+            } else if (state == null) {
+                items.add(new BulkTaskResultResponse.Item(taskId, BulkTaskResultResponse.Outcome.NOT_FOUND,
+                        null, null, "Không tìm thấy Task"));
+            } else if (!eligible.contains(taskId)) {
+                items.add(new BulkTaskResultResponse.Item(taskId, BulkTaskResultResponse.Outcome.INVALID_STATE,
+                        state.getStatus(), state.getVersion(),
+                        "Không thể thực hiện khi task đang ở trạng thái " + state.getStatus()));
+            } else {
+                items.add(new BulkTaskResultResponse.Item(taskId, BulkTaskResultResponse.Outcome.CONFLICT,
+                        null, null, "Task vừa bị thay đổi bởi thao tác khác"));
+            }
+        }
+
+        return BulkTaskResultResponse.builder()
+                .operation(dto.getOperation())
+                .requested(taskIds.size())
+                .updated(updated.size())
+                .failed(taskIds.size() - updated.size())
+                .items(items)
+                .build();
     }
+
+    @Override
+    public TaskBoardSummaryResponse getBoardSummary(String projectId) {
+        return taskBoardSummaryCache.get(projectId);
+    }
+
+    @Override
+    public TaskBurndownResponse getBurndown(String projectId, LocalDate from, LocalDate to) {
+        return taskEventService.burndown(projectId, from, to);
+    }
+
+    @Override
+    public TaskCycleTimeResponse getCycleTime(String projectId, LocalDate from, LocalDate to) {
+        return taskEventService.cycleTime(projectId, from, to);
+    }
+
     @Override
     public long countTasksByProject(String projectId) {
         return taskRepository.countByProjectId(projectId);
@@ -183,77 +290,76 @@ public class TaskServiceImpl implements TaskService {
     }
 
     @Override
-    public Task submitTask(String taskId, String submitterId, List<String> attachments) {
-        Task task = getTaskById(taskId);
-
-        if (!submitterId.equals(task.getAssignedTo())) {
-            throw new RuntimeException("Không có quyền nộp task này");
-        }
-
+    public Task submitTask(String taskId, String submitterId, List<String> attachments, Long expectedVersion) {
+        Task task = transition(Change.of(taskId)
+                .from(Task.Status.TODO, Task.Status.IN_PROGRESS)
+                .assignedTo(submitterId)
+                .expectVersion(expectedVersion)
+                .set(Field.STATUS, Task.Status.REVIEW));
+
+        // attachments nằm ở bảng phụ (@ElementCollection) -> ghi qua entity vừa trả về, Hibernate tăng version thêm 1
         task.setAttachments(attachments);
-        task.setStatus(Task.Status.REVIEW);
-
-        return taskRepository.save(task);
+        return task;
     }
 
     @Override
     public Task reviewTask(
             String taskId,
             Task.Status status,
-            String reviewerId
+            String reviewerId,
+            Long expectedVersion
     ) {
-        Task task = getTaskById(taskId);
-
+        Change change = Change.of(taskId)
+                .from(Task.Status.REVIEW)
+                .expectVersion(expectedVersion)
+                .set(Field.STATUS, status);
         if (status == Task.Status.DONE) {
-            task.setCompletedDate(LocalDate.now());
+            change.set(Field.COMPLETED_DATE, LocalDate.now());
         }
-
-        task.setStatus(status);
-        return taskRepository.save(task);
+        return transition(change);
     }
     @Override
     public Task updateDeadline(
             String taskId,
             LocalDate newDueDate,
-            String reason
+            String reason,
+            Long expectedVersion
     ) {
-        Task task = getTaskById(taskId);
-        task.setDueDate(newDueDate);
-        return taskRepository.save(task);
+        return transition(Change.of(taskId)
+                .expectVersion(expectedVersion)
+                .set(Field.DUE_DATE, newDueDate));
     }
 
     @Override
     public Task updateProgress(
             String taskId,
             int progressPercent,
-            BigDecimal actualHours
+            BigDecimal actualHours,
+            Long expectedVersion
     ) {
-        Task task = getTaskById(taskId);
-        task.setActualHours(actualHours);
-
+        Change change = Change.of(taskId)
+                .expectVersion(expectedVersion)
+                .set(Field.ACTUAL_HOURS, actualHours);
         if (progressPercent == 100) {
-            task.setStatus(Task.Status.DONE);
-            task.setCompletedDate(LocalDate.now());
+            change.from(Task.Status.TODO, Task.Status.IN_PROGRESS, Task.Status.REVIEW)
+                    .set(Field.STATUS, Task.Status.DONE)
+                    .set(Field.COMPLETED_DATE, LocalDate.now());
         }
-
-        return taskRepository.save(task);
+        return transition(change);
     }
     @Override
-    public Task updateProgressPercent(String taskId, int percent) {
-        Task task = getTaskById(taskId);
-
+    public Task updateProgressPercent(String taskId, int percent, Long expectedVersion) {
         if (percent < 0 || percent > 100) {
             throw new RuntimeException("Progress không hợp lệ");
         }
 
-        task.setActualHours(task.getActualHours());
-        task.setStatus(percent == 100 ? Task.Status.DONE : Task.Status.IN_PROGRESS);
-
+        Change change = Change.of(taskId)
+                .expectVersion(expectedVersion)
+                .set(Field.STATUS, percent == 100 ? Task.Status.DONE : Task.Status.IN_PROGRESS);
         if (percent == 100) {
-            task.setCompletedDate(LocalDate.now());
+            change.set(Field.COMPLETED_DATE, LocalDate.now());
         }
-
-        return taskRepository.save(task);
+        return transition(change);
     }
     @Override
     public List<Task> getTasksByProjectSortedByDeadline(String projectId) {
@@ -273,4 +379,41 @@ public class TaskServiceImpl implements TaskService {
     public long countByAssigneeAndStatus(String userId, Task.Status status) {
         return taskRepository.countByAssignedToAndStatus(userId, status);
     }
-}
\ No newline at end of file
+
+    // Mọi thay đổi task (trạng thái, giao việc, hạn, ưu tiên) làm cũ tổng hợp bảng của dự án
+    private Task saveAndEvict(Task task) {
+        Task saved = taskRepository.save(task);
+        taskBoardSummaryCache.evictAfterCommit(saved.getProjectId());
+        return saved;
+    }
+
+    // Task mới: ghi thêm task_events + rollup theo ngày trong cùng transaction
+    private Task saveAndEvict(Task task, Task.Status from) {
+        Task saved = saveAndEvict(task);
+        taskEventService.record(saved, from, saved.getStatus());
+        return saved;
+    }
+
+    // Quy tắc dùng chung cho thao tác đơn lẻ và hàng loạt
+    private static Change assignChange(Change change, String talentId) {
+        return change
+                .from(Task.Status.TODO, Task.Status.IN_PROGRESS, Task.Status.REVIEW)
+                .set(Field.ASSIGNED_TO, talentId)
+                .set(Field.STATUS, Task.Status.IN_PROGRESS);
+    }
+
+    private static Change statusChange(Change change, Task.Status status) {
+        return change
+                .set(Field.STATUS, status)
+                .set(Field.COMPLETED_DATE, status == Task.Status.DONE ? LocalDate.now() : null);
+    }
+
+    // 1 câu UPDATE có điều kiện (TaskStateWriter), rồi ghi task_events nếu trạng thái đổi
+    private Task transition(Change change) {
+        TaskStateWriter.Result result = taskStateWriter.apply(change);
+        Task task = result.task();
+        taskEventService.record(task, result.previousStatus(), task.getStatus());
+        taskBoardSummaryCache.evictAfterCommit(task.getProjectId());
+        return task;
+    }
+}
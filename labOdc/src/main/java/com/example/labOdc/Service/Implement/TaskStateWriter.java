@@ -0,0 +1,208 @@
+package com.example.labOdc.Service.Implement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.labOdc.Exception.ResourceNotFoundException;
+import com.example.labOdc.Exception.VersionConflictException;
+import com.example.labOdc.Model.Task;
+import com.example.labOdc.Repository.TaskRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Đổi trạng thái/giao việc/ưu tiên/hạn của task (1 hoặc nhiều task) bằng 1 câu UPDATE có điều kiện
+ * thay cho findById + save():
+ * - Điều kiện: trạng thái hiện tại thuộc tập cho phép, (tuỳ chọn) đúng người được giao, đúng version (If-Match).
+ * - Chỉ SET các cột thay đổi + version = version + 1; RETURNING trả về dòng mới và trạng thái trước khi đổi.
+ * - Không khớp dòng nào: đọc trạng thái hiện tại để trả lỗi đúng (404 / 409 version / 400 sai trạng thái).
+ * Không nạp Task đó vào persistence context trước khi gọi apply() trong cùng transaction
+ * (Hibernate sẽ trả về bản đang quản lý, không phải dòng vừa cập nhật).
+ */
+@Service
+@RequiredArgsConstructor
+public class TaskStateWriter {
+
+    /**
+     * Các cột được phép đổi; column là tên cột thật.
+     */
+    public enum Field {
+        STATUS("status"),
+        ASSIGNED_TO("assigned_to"),
+        PRIORITY("priority"),
+        DUE_DATE("due_date"),
+        COMPLETED_DATE("completed_date"),
+        ACTUAL_HOURS("actual_hours");
+
+        public final String column;
+
+        Field(String column) {
+            this.column = column;
+        }
+    }
+
+    /**
+     * Mô tả 1 thay đổi: Change.of(id).from(IN_PROGRESS).set(Field.STATUS, REVIEW).expectVersion(v)
+     */
+    public static final class Change {
+        private final String taskId;
+        private final Map<Field, Object> values = new EnumMap<>(Field.class);
+        private Set<Task.Status> allowedFrom;
+        private String assignedTo;
+        private Long expectedVersion;
+
+        private Change(String taskId) {
+            this.taskId = taskId;
+        }
+
+        public static Change of(String taskId) {
+            return new Change(taskId);
+        }
+
+        // Dùng với applyAll(): danh sách task truyền riêng
+        public static Change forAll() {
+            return new Change(null);
+        }
+
+        // Trạng thái trước được phép; null = không giới hạn
+        public Set<Task.Status> allowedFrom() {
+            return allowedFrom;
+        }
+
+        public Change from(Task.Status... statuses) {
+            this.allowedFrom = EnumSet.copyOf(Arrays.asList(statuses));
+            return this;
+        }
+
+        // Chỉ áp dụng khi task đang giao cho người này
+        public Change assignedTo(String assignee) {
+            this.assignedTo = assignee;
+            return this;
+        }
+
+        // null = không kiểm tra version
+        public Change expectVersion(Long version) {
+            this.expectedVersion = version;
+            return this;
+        }
+
+        // value null -> SET cột = NULL
+        public Change set(Field field, Object value) {
+            values.put(field, value);
+            return this;
+        }
+    }
+
+    public record Result(Task task, Task.Status previousStatus) {
+    }
+
+    private final EntityManager entityManager;
+    private final TaskRepository taskRepository;
+
+    @Transactional
+    public Result apply(Change change) {
+        List<Result> results = update(List.of(change.taskId), change);
+        if (results.isEmpty()) {
+            throw rejection(change);
+        }
+        return results.get(0);
+    }
+
+    /**
+     * Áp cùng 1 thay đổi cho nhiều task bằng 1 câu UPDATE (taskId của change bị bỏ qua).
+     * Trả về các dòng đã cập nhật; task không thoả điều kiện thì không có trong kết quả.
+     */
+    @Transactional
+    public List<Result> applyAll(Collection<String> taskIds, Change change) {
+        if (taskIds.isEmpty()) {
+            return List.of();
+        }
+        return update(taskIds, change);
+    }
+
+    // ===== PRIVATE =====
+
+    private List<Result> update(Collection<String> taskIds, Change change) {
+        if (change.values.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to update");
+        }
+
+        StringBuilder sets = new StringBuilder();
+        change.values.forEach((field, value) -> {
+            sets.append(field.column).append(" = ");
+            sets.append(value == null ? "NULL" : ":" + field.name());
+            sets.append(", ");
+        });
+
+        // CTE khoá các dòng trước để lấy đúng trạng thái cũ khi có ghi đồng thời
+        StringBuilder sql = new StringBuilder()
+                .append("WITH prev AS (SELECT id, status FROM tasks WHERE id IN (:ids) ORDER BY id FOR UPDATE) ")
+                .append("UPDATE tasks t SET ").append(sets)
+                .append("version = t.version + 1, updated_at = LOCALTIMESTAMP ")
+                .append("FROM prev WHERE t.id = prev.id");
+        if (change.allowedFrom != null) {
+            sql.append(" AND prev.status IN (:allowedFrom)");
+        }
+        if (change.assignedTo != null) {
+            sql.append(" AND t.assigned_to = :assignedTo");
+        }
+        if (change.expectedVersion != null) {
+            sql.append(" AND t.version = :expectedVersion");
+        }
+        sql.append(" RETURNING t.*, prev.status AS previous_status");
+
+        Query query = entityManager.createNativeQuery(sql.toString(), Task.TRANSITION_MAPPING)
+                .setParameter("ids", taskIds);
+        change.values.forEach((field, value) -> {
+            if (value != null) {
+                query.setParameter(field.name(), value instanceof Enum<?> e ? e.name() : value);
+            }
+        });
+        if (change.allowedFrom != null) {
+            List<String> names = new ArrayList<>();
+            change.allowedFrom.forEach(s -> names.add(s.name()));
+            query.setParameter("allowedFrom", names);
+        }
+        if (change.assignedTo != null) {
+            query.setParameter("assignedTo", change.assignedTo);
+        }
+        if (change.expectedVersion != null) {
+            query.setParameter("expectedVersion", change.expectedVersion);
+        }
+
+        List<Result> results = new ArrayList<>();
+        for (Object row : query.getResultList()) {
+            Object[] cols = (Object[]) row;
+            String previous = (String) cols[1];
+            results.add(new Result((Task) cols[0], previous != null ? Task.Status.valueOf(previous) : null));
+        }
+        return results;
+    }
+
+    private RuntimeException rejection(Change change) {
+        TaskRepository.TaskState state = taskRepository.findStateById(change.taskId)
+                .orElse(null);
+        if (state == null) {
+            return new ResourceNotFoundException("Task not found");
+        }
+        if (change.expectedVersion != null && state.getVersion() != change.expectedVersion) {
+            return new VersionConflictException("Task đã bị thay đổi (version hiện tại " + state.getVersion() + ")",
+                    state.getVersion());
+        }
+        if (change.assignedTo != null && !change.assignedTo.equals(state.getAssignedTo())) {
+            return new SecurityException("Task không được giao cho người này");
+        }
+        return new IllegalStateException("Không thể thực hiện khi task đang ở trạng thái " + state.getStatus());
+    }
+}
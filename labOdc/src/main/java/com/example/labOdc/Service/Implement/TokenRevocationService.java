@@ -0,0 +1,152 @@
+package com.example.labOdc.Service.Implement;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Danh sách token bị thu hồi, giữ trong bộ nhớ (không truy vấn DB mỗi request).
+ * - Theo jti (logout): bloom filter lọc nhanh, chỉ khi "có thể có" mới tra set jti.
+ * - Theo user id (khoá tài khoản): mọi token của user phát hành trước hoặc trong cùng giây khoá đều bị từ chối.
+ *   Khoá theo id vì username đổi được; mở khoá lại thì xoá mục này.
+ * Các mục tự hết hạn theo exp của token; bloom filter được dựng lại khi dọn dẹp.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    @Value("${app.token-revocation.bloom-bits:1048576}")
+    int bloomBits;
+
+    // jti -> exp (epoch millis)
+    private final Map<String, Long> revokedJtis = new ConcurrentHashMap<>();
+    // userId -> thời điểm thu hồi, làm tròn xuống giây (iat của JWT chỉ có độ chính xác giây)
+    private final Map<String, Instant> revokedUsers = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter bloom;
+
+    public void revokeToken(String jti, Instant expiresAt) {
+        if (jti == null) {
+            return;
+        }
+        long exp = expiresAt != null ? expiresAt.toEpochMilli()
+                : System.currentTimeMillis() + AuthenticationSvc.TOKEN_TTL.toMillis();
+        revokedJtis.put(jti, exp);
+        bloom().add(jti);
+    }
+
+    /**
+     * Thu hồi toàn bộ token đã phát hành cho user tính tới thời điểm hiện tại.
+     */
+    public void revokeUser(String userId) {
+        revokeUser(userId, Instant.now());
+    }
+
+    void revokeUser(String userId, Instant at) {
+        if (userId == null) {
+            return;
+        }
+        revokedUsers.put(userId, at.truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    /**
+     * Mở khoá tài khoản: token phát hành sau đó (kể cả trong cùng giây với lần khoá) dùng được bình thường.
+     */
+    public void clearUser(String userId) {
+        if (userId != null) {
+            revokedUsers.remove(userId);
+        }
+    }
+
+    public boolean isRevoked(String jti, String userId, Instant issuedAt) {
+        if (jti != null && bloom().mightContain(jti) && revokedJtis.containsKey(jti)) {
+            return true;
+        }
+        if (userId != null) {
+            Instant revokedAt = revokedUsers.get(userId);
+            // Token cũ không có iat -> coi như phát hành trước khi bị khoá
+            return revokedAt != null
+                    && (issuedAt == null || !issuedAt.truncatedTo(ChronoUnit.SECONDS).isAfter(revokedAt));
+        }
+        return false;
+    }
+
+    @Scheduled(fixedDelayString = "${app.token-revocation.prune-interval-ms:300000}")
+    public void prune() {
+        long now = System.currentTimeMillis();
+        revokedJtis.values().removeIf(exp -> exp < now);
+        revokedUsers.values().removeIf(at -> at.toEpochMilli() + AuthenticationSvc.TOKEN_TTL.toMillis() < now);
+
+        BloomFilter rebuilt = new BloomFilter(bloomBits);
+        revokedJtis.keySet().forEach(rebuilt::add);
+        bloom = rebuilt;
+        // jti thu hồi trong lúc rebuild có thể đã được add vào filter cũ -> quét lại sau khi đổi filter
+        revokedJtis.keySet().forEach(rebuilt::add);
+    }
+
+    private BloomFilter bloom() {
+        BloomFilter current = bloom;
+        if (current == null) {
+            synchronized (this) {
+                if (bloom == null) {
+                    bloom = new BloomFilter(bloomBits);
+                }
+                current = bloom;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Bloom filter đơn giản (double hashing, 3 hàm băm), an toàn đa luồng.
+     */
+    private static final class BloomFilter {
+        private static final int HASHES = 3;
+        private final AtomicLongArray words;
+        private final int bits;
+
+        BloomFilter(int bits) {
+            this.bits = Math.max(64, bits);
+            this.words = new AtomicLongArray((this.bits + 63) / 64);
+        }
+
+        void add(String key) {
+            int h1 = key.hashCode();
+            int h2 = mix(h1);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bits);
+                long mask = 1L << (bit & 63);
+                words.getAndAccumulate(bit >>> 6, mask, (w, m) -> w | m);
+            }
+        }
+
+        boolean mightContain(String key) {
+            int h1 = key.hashCode();
+            int h2 = mix(h1);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bits);
+                if ((words.get(bit >>> 6) & (1L << (bit & 63))) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int mix(int h) {
+            h ^= h >>> 16;
+            h *= 0x85ebca6b;
+            h ^= h >>> 13;
+            h *= 0xc2b2ae35;
+            h ^= h >>> 16;
+            return h | 1;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.labOdc.Service.Implement;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.labOdc.Repository.NotificationRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bộ đếm số thông báo chưa đọc theo user, giữ trong bộ nhớ (LRU có giới hạn).
+ * - Miss -> đếm từ DB 1 lần rồi giữ lại.
+ * - NotificationServiceImpl cập nhật (tăng/giảm/reset) sau khi transaction commit.
+ * - Định kỳ đối soát với DB theo lô để sửa sai lệch (vd. đếm lại đúng lúc có thông báo mới).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UnreadCounterCache {
+
+    private final NotificationRepository notificationRepository;
+
+    @Value("${app.notification.unread-cache-max-size:50000}")
+    int maxSize;
+
+    @Value("${app.notification.unread-reconcile-batch-size:500}")
+    int reconcileBatchSize;
+
+    private final Map<String, AtomicLong> counters = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, AtomicLong> eldest) {
+                    return size() > maxSize;
+                }
+            });
+
+    public long get(String userId) {
+        AtomicLong counter = counters.get(userId);
+        if (counter != null) {
+            return counter.get();
+        }
+        long count = notificationRepository.countByUserIdAndIsReadFalse(userId);
+        counters.putIfAbsent(userId, new AtomicLong(count));
+        return count;
+    }
+
+    /**
+     * Cộng/trừ sau commit; chỉ áp dụng cho user đang có trong cache (user khác sẽ đếm lại khi cần).
+     */
+    public void adjustAfterCommit(String userId, long delta) {
+        afterCommit(() -> {
+            AtomicLong counter = counters.get(userId);
+            if (counter != null) {
+                counter.accumulateAndGet(delta, (v, d) -> Math.max(0, v + d));
+            }
+        });
+    }
+
+    public void resetAfterCommit(String userId) {
+        afterCommit(() -> {
+            AtomicLong counter = counters.get(userId);
+            if (counter != null) {
+                counter.set(0);
+            }
+        });
+    }
+
+    /**
+     * Broadcast cho mọi user: cộng cho toàn bộ user đang được cache.
+     */
+    public void adjustAllAfterCommit(long delta) {
+        afterCommit(() -> {
+            synchronized (counters) {
+                counters.values().forEach(c -> c.addAndGet(delta));
+            }
+        });
+    }
+
+    /**
+     * Broadcast theo role: chỉ xoá cache của đúng những người nhận, họ sẽ đếm lại khi cần.
+     */
+    public void evictAfterCommit(Collection<String> userIds) {
+        afterCommit(() -> userIds.forEach(counters::remove));
+    }
+
+    public void evictAfterCommit(String userId) {
+        afterCommit(() -> counters.remove(userId));
+    }
+
+    @Scheduled(fixedDelayString = "${app.notification.unread-reconcile-interval-ms:600000}")
+    public void reconcile() {
+        List<String> userIds;
+        synchronized (counters) {
+            userIds = new ArrayList<>(counters.keySet());
+        }
+
+        int corrected = 0;
+        for (int from = 0; from < userIds.size(); from += reconcileBatchSize) {
+            List<String> chunk = userIds.subList(from, Math.min(from + reconcileBatchSize, userIds.size()));
+            Map<String, Long> actual = new HashMap<>();
+            for (NotificationRepository.UnreadCount row : notificationRepository.countUnreadByUserIds(chunk)) {
+                actual.put(row.getUserId(), row.getUnread());
+            }
+            for (String userId : chunk) {
+                AtomicLong counter = counters.get(userId);
+                long real = actual.getOrDefault(userId, 0L);
+                if (counter != null && counter.getAndSet(real) != real) {
+                    corrected++;
+                }
+            }
+        }
+        if (corrected > 0) {
+            log.info("Unread counter reconcile corrected {} of {} users", corrected, userIds.size());
+        }
+    }
+
+    private void afterCommit(Runnable task) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+}
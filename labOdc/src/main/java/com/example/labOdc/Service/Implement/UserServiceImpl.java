@@ -13,8 +13,8 @@ import com.example.labOdc.Exception.ResourceNotFoundException;
 import com.example.labOdc.Model.RoleEntity;
 import com.example.labOdc.Model.User;
 import com.example.labOdc.Model.UserRole;
-import com.example.labOdc.Repository.RoleRepository;
 import com.example.labOdc.Repository.UserRepository;
+import com.example.labOdc.Service.AuditLogService;
 import com.example.labOdc.Service.UserService;
 
 import jakarta.transaction.Transactional;
@@ -26,7 +26,10 @@ import lombok.AllArgsConstructor;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RolePermissionCache rolePermissionCache;
+    private final CurrentActorService currentActorService;
+    private final TokenRevocationService tokenRevocationService;
+    private final AuditLogService auditLogService;
     @Autowired
     private PasswordEncoder passwordEncoder;
 
@@ -36,14 +39,14 @@ public class UserServiceImpl implements UserService {
 
         if (userDTO.getRoles() == null || userDTO.getRoles().isEmpty()) {
             // gán default role = USER
-            RoleEntity defaultRole = roleRepository.findByRole(UserRole.USER)
+            RoleEntity defaultRole = rolePermissionCache.findRole(UserRole.USER)
                     .orElseThrow(() -> new ResourceNotFoundException("Default role USER not found"));
             roles = Set.of(defaultRole);
         } else {
             roles = userDTO.getRoles().stream()
                     .map(code -> {
                         UserRole userRole = UserRole.valueOf(code);
-                        return roleRepository.findByRole(userRole)
+                        return rolePermissionCache.findRole(userRole)
                                 .orElseThrow(() -> new ResourceNotFoundException("Role not found: " + code));
                     })
                     .collect(Collectors.toSet());
@@ -79,6 +82,9 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("Không tìm thấy user"));
         user.setIsActive(false);
         userRepository.save(user);
+        tokenRevocationService.revokeUser(id);
+        currentActorService.evictUser(id);
+        auditLogService.record("USER_DEACTIVATED", "User", id, null);
     }
 
     @Override
@@ -123,19 +129,37 @@ public class UserServiceImpl implements UserService {
             Set<RoleEntity> newRoles = userDTO.getRoles().stream()
                     .map(code -> {
                         UserRole userRole = UserRole.valueOf(code);
-                        return roleRepository.findByRole(userRole)
+                        return rolePermissionCache.findRole(userRole)
                                 .orElseThrow(() -> new ResourceNotFoundException("Role not found: " + code));
                     })
                     .collect(Collectors.toSet());
+            String oldRoles = roleNames(user.getRoles());
             user.setRoles(newRoles);
+            String changedRoles = roleNames(newRoles);
+            if (!oldRoles.equals(changedRoles)) {
+                auditLogService.record("USER_ROLES_CHANGED", "User", id, oldRoles + " -> " + changedRoles);
+            }
         }
 
         // update isActive
         if (userDTO.getIsActive() != null) {
             user.setIsActive(userDTO.getIsActive());
+            if (!userDTO.getIsActive()) {
+                tokenRevocationService.revokeUser(id);
+                auditLogService.record("USER_DEACTIVATED", "User", id, null);
+            } else {
+                tokenRevocationService.clearUser(id);
+            }
         }
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        currentActorService.evictUser(id);
+        return saved;
+    }
+
+    private static String roleNames(Set<RoleEntity> roles) {
+        return roles == null ? "[]"
+                : roles.stream().map(r -> r.getRole().name()).sorted().toList().toString();
     }
 
 }
@@ -4,6 +4,7 @@ import java.util.List;
 
 import com.example.labOdc.DTO.LabAdminDTO;
 import com.example.labOdc.DTO.Response.CompanyResponse;
+import com.example.labOdc.DTO.Response.FinancialSummaryResponse;
 import com.example.labOdc.DTO.Response.LabAdminResponse;
 import com.example.labOdc.DTO.Response.ProjectResponse;
 
@@ -112,17 +113,22 @@ public interface LabAdminService {
     void publishMonthlyReport(int month, int year);
 
     /**
-     * Lấy tóm tắt tài chính hệ thống.
-     * @return String tóm tắt
+     * Lấy tóm tắt tài chính toàn hệ thống (đọc từ bảng tổng hợp, không quét giao dịch).
+     * @return tổng các khoản đã nhận / phân bổ / chi trả / tạm ứng
      */
-    String getSystemFinancialSummary();
+    FinancialSummaryResponse getSystemFinancialSummary();
 
     /**
-     * Lấy nhật ký kiểm tra.
-     * @param filter Bộ lọc
-     * @return List nhật ký
+     * Tóm tắt tài chính của một công ty.
+     * @param companyId ID công ty
+     */
+    FinancialSummaryResponse getCompanyFinancialSummary(String companyId);
+
+    /**
+     * Tóm tắt tài chính của một dự án.
+     * @param projectId ID dự án
      */
-    List<String> getAuditLogs(String filter);
+    FinancialSummaryResponse getProjectFinancialSummary(String projectId);
 
     // Các method khác cần repository bổ sung, chưa triển khai
 }
@@ -72,11 +72,12 @@ public interface MentorService {
     List<ProjectResponse> getMyAssignedProjects();
 
     /**
-     * Phân tích nhiệm vụ từ template Excel.
+     * Phân tích nhiệm vụ từ template Excel (tải bất đồng bộ từ URL).
      * @param projectId ID dự án
-     * @param excelTemplate Template Excel
+     * @param excelTemplate URL template Excel
+     * @return hoàn thành khi task đã được tạo
      */
-    void breakdownTasks(String projectId, String excelTemplate);
+    java.util.concurrent.CompletableFuture<Void> breakdownTasks(String projectId, String excelTemplate);
 
     /**
      * Phân tích nhiệm vụ từ file Excel upload.
@@ -1,7 +1,10 @@
 package com.example.labOdc.Service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
 import com.example.labOdc.Model.Notification;
 import com.example.labOdc.Model.User;
 import com.example.labOdc.Model.UserRole;
@@ -23,7 +26,22 @@ public interface NotificationService {
 
     Notification markRead(String notificationId);
 
-    void markAllRead();
+    /**
+     * @return số thông báo được đánh dấu đã đọc
+     */
+    int markAllRead();
+
+    /**
+     * Đánh dấu đã đọc các thông báo tạo trước hoặc đúng thời điểm upTo.
+     *
+     * @return số thông báo được đánh dấu đã đọc
+     */
+    int markReadUpTo(LocalDateTime upTo);
 
     void deleteMyNotification(String notificationId);
+
+    /**
+     * Mở kết nối SSE cho user hiện tại (sự kiện "notification" và "unread-count").
+     */
+    SseEmitter subscribeMyStream();
 }
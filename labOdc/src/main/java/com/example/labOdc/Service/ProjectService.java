@@ -3,13 +3,22 @@ package com.example.labOdc.Service;
 import java.util.List;
 
 import com.example.labOdc.DTO.ProjectDTO;
+import com.example.labOdc.DTO.Response.ProjectPageResponse;
+import com.example.labOdc.DTO.Response.ProjectResponse;
 import com.example.labOdc.Model.Project;
 import com.example.labOdc.Model.ProjectStatus;
+import com.example.labOdc.Model.ValidationStatus;
 
 public interface ProjectService {
     Project createProject(ProjectDTO dto);
 
-    List<Project> getAllProject();
+    List<ProjectResponse> getAllProject();
+
+    /**
+     * Danh sách dự án theo trang keyset (mới nhất trước). Bộ lọc null = bỏ qua; skill khớp 1 phần, không phân biệt hoa thường.
+     */
+    ProjectPageResponse listProjects(ProjectStatus status, ValidationStatus validationStatus, String companyId,
+            String skill, String cursor, Integer limit);
 
     Project getProjectById(String id);
 
@@ -1,12 +1,14 @@
 package com.example.labOdc.Service;
 
 import com.example.labOdc.DTO.ReportDTO;
+import com.example.labOdc.DTO.Response.ReportArtifact;
 import com.example.labOdc.Model.Report;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface ReportService {
 
@@ -63,8 +65,8 @@ public interface ReportService {
     // Tổng hợp tiến độ (mock logic – dùng cho đồ án)
     Object summarizeProjectProgress(String projectId);
 
-    // Export report (stub)
-    String exportReport(String reportId, String format);
+    // Export report (xlsx/csv) – render nền, dùng lại file đã render cho cùng phiên bản
+    CompletableFuture<ReportArtifact> exportReport(String reportId, String format);
 
     List<Report> getReportsByProjectAndStatus(String projectId, Report.Status status);
 
@@ -1,5 +1,10 @@
 package com.example.labOdc.Service;
 
+import com.example.labOdc.DTO.BulkTaskDTO;
+import com.example.labOdc.DTO.Response.BulkTaskResultResponse;
+import com.example.labOdc.DTO.Response.TaskBoardSummaryResponse;
+import com.example.labOdc.DTO.Response.TaskBurndownResponse;
+import com.example.labOdc.DTO.Response.TaskCycleTimeResponse;
 import com.example.labOdc.DTO.TaskDTO;
 import com.example.labOdc.Model.Task;
 
@@ -13,17 +18,19 @@ public interface TaskService {
 
     Task updateTask(TaskDTO dto, String taskId);
 
-    Task updateStatus(String taskId, Task.Status status);
+    // Các thao tác đổi trạng thái/giao việc/ưu tiên/hạn chạy bằng 1 câu UPDATE có điều kiện.
+    // expectedVersion (header If-Match) khác null mà không khớp -> VersionConflictException (409).
+    Task updateStatus(String taskId, Task.Status status, Long expectedVersion);
 
-    Task assignTask(String taskId, String talentId);
+    Task assignTask(String taskId, String talentId, Long expectedVersion);
 
-    Task unassignTask(String taskId);
+    Task unassignTask(String taskId, Long expectedVersion);
 
-    Task completeTask(String taskId);
+    Task completeTask(String taskId, Long expectedVersion);
 
-    Task reopenTask(String taskId);
+    Task reopenTask(String taskId, Long expectedVersion);
 
-    Task cancelTask(String taskId);
+    Task cancelTask(String taskId, Long expectedVersion);
 
     Task getTaskById(String taskId);
 
@@ -43,31 +50,49 @@ public interface TaskService {
 
     boolean canViewTask(String taskId, String userId);
 
-    Task updatePriority(String taskId, Task.Priority priority);
+    Task updatePriority(String taskId, Task.Priority priority, Long expectedVersion);
+
+    /**
+     * Giao việc / đổi trạng thái / ưu tiên / hạn cho nhiều task trong 1 transaction: 1 truy vấn kiểm tra,
+     * 1 câu UPDATE cho cả lô; task lỗi không làm hỏng cả lô mà được báo riêng trong kết quả.
+     */
+    BulkTaskResultResponse bulkUpdate(BulkTaskDTO dto);
+
+    /**
+     * Tổng hợp bảng Kanban (theo trạng thái, ưu tiên, quá hạn, người làm) từ 1 truy vấn GROUP BY, có cache ngắn hạn.
+     */
+    TaskBoardSummaryResponse getBoardSummary(String projectId);
+
+    TaskBurndownResponse getBurndown(String projectId, LocalDate from, LocalDate to);
+
+    TaskCycleTimeResponse getCycleTime(String projectId, LocalDate from, LocalDate to);
 
     long countTasksByProject(String projectId);
 
     long countTasksByProjectAndStatus(String projectId, Task.Status status);
 
-    Task submitTask(String taskId, String submitterId, List<String> attachments);
+    Task submitTask(String taskId, String submitterId, List<String> attachments, Long expectedVersion);
 
     Task reviewTask(
             String taskId,
             Task.Status status,
-            String reviewerId
+            String reviewerId,
+            Long expectedVersion
     );
     Task updateDeadline(
             String taskId,
             LocalDate newDueDate,
-            String reason
+            String reason,
+            Long expectedVersion
     );
 
     Task updateProgress(
             String taskId,
             int progressPercent,
-            BigDecimal actualHours
+            BigDecimal actualHours,
+            Long expectedVersion
     );
-    Task updateProgressPercent(String taskId, int percent);
+    Task updateProgressPercent(String taskId, int percent, Long expectedVersion);
     List<Task> getTasksByProjectSortedByDeadline(String projectId);
     List<Task> getTasksByProjectSortedByPriority(String projectId);
     long countByAssignee(String userId);
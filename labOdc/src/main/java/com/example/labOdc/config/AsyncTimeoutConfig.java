@@ -0,0 +1,41 @@
+package com.example.labOdc.config;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Export .xlsx (StreamingResponseBody) chạy lâu hơn nhiều so với spring.mvc.async.request-timeout,
+ * nên riêng /api/v1/exports/** dùng mốc app.export.async-timeout-ms.
+ */
+@Configuration
+public class AsyncTimeoutConfig implements WebMvcConfigurer {
+
+    private static final String EXPORT_PATH = "/api/v1/exports/";
+
+    @Value("${app.export.async-timeout-ms:1800000}")
+    long exportTimeoutMs;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            // Chạy trước khi request chuyển sang async, nên timeout mới được áp cho AsyncContext
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                HttpServletRequest http = request.getNativeRequest(HttpServletRequest.class);
+                if (request instanceof AsyncWebRequest async && http != null
+                        && http.getRequestURI().startsWith(http.getContextPath() + EXPORT_PATH)) {
+                    async.setTimeout(exportTimeoutMs);
+                }
+            }
+        });
+    }
+}
@@ -15,6 +15,7 @@ import com.example.labOdc.Model.RoleEntity;
 import com.example.labOdc.Model.UserRole;
 import com.example.labOdc.Repository.PermissionRepository;
 import com.example.labOdc.Repository.RoleRepository;
+import com.example.labOdc.Service.Implement.RolePermissionCache;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -25,6 +26,7 @@ import lombok.extern.slf4j.Slf4j;
 public class RolePermissionSeeder {
     private final PermissionRepository permissionRepo;
     private final RoleRepository roleRepo;
+    private final RolePermissionCache rolePermissionCache;
 
     @Bean
     ApplicationRunner seedRolesPermissions() {
@@ -89,6 +91,8 @@ public class RolePermissionSeeder {
                 log.info("✅ Seeded role {} with {} permissions",
                         role, permissionEntities.size());
             }
+
+            rolePermissionCache.refresh();
         };
     }
 
@@ -2,6 +2,7 @@ package com.example.labOdc.config;
 
 import javax.crypto.spec.SecretKeySpec;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,13 +13,25 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
 import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
 
+import com.example.labOdc.Service.Implement.CurrentActorService;
+import com.example.labOdc.Service.Implement.TokenRevocationService;
+
+import jakarta.servlet.DispatcherType;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
@@ -26,6 +39,9 @@ public class SecurityConfig {
     @Value("${jwt.signer-key}")
     private String signerKey;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder(10);
@@ -60,7 +76,11 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.POST, "/api/excel-templates").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/excel-templates/**").permitAll()
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        // SSE: request gốc đã qua xác thực, các lần dispatch async sau đó không cần kiểm tra lại
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
 
+                        // Xem / huỷ job import: cần đăng nhập, service kiểm tra người tạo hoặc admin
+                        .requestMatchers("/api/import/jobs/**").authenticated()
                         .requestMatchers("/api/import/**").permitAll()
                         .anyRequest().authenticated())
                 .oauth2ResourceServer(oauth2 -> oauth2
@@ -90,8 +110,17 @@ public class SecurityConfig {
     public JwtDecoder jwtDecoder() {
         SecretKeySpec secretKey = new SecretKeySpec(signerKey.getBytes(), "HS512");
 
-        return NimbusJwtDecoder.withSecretKey(secretKey)
+        NimbusJwtDecoder decoder = NimbusJwtDecoder.withSecretKey(secretKey)
                 .macAlgorithm(MacAlgorithm.HS512)
                 .build();
+
+        // Token đã logout / user đã bị khoá -> từ chối (tra trong bộ nhớ, không truy vấn DB)
+        OAuth2TokenValidator<Jwt> notRevoked = jwt -> tokenRevocationService.isRevoked(
+                jwt.getId(), jwt.getClaimAsString(CurrentActorService.CLAIM_USER_ID), jwt.getIssuedAt())
+                        ? OAuth2TokenValidatorResult.failure(
+                                new OAuth2Error(OAuth2ErrorCodes.INVALID_TOKEN, "Token has been revoked", null))
+                        : OAuth2TokenValidatorResult.success();
+        decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(JwtValidators.createDefault(), notRevoked));
+        return decoder;
     }
 }
@@ -0,0 +1,83 @@
+package com.example.labOdc.Controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import com.example.labOdc.DTO.BulkTaskDTO;
+import com.example.labOdc.Model.Task;
+import com.example.labOdc.Service.TaskService;
+import com.example.labOdc.Service.Implement.CurrentActorService;
+
+/**
+ * POST /api/tasks/bulk phải đòi cùng quyền với endpoint đơn lẻ: STATUS cần MENTOR_REVIEW_TASK như
+ * PATCH /{id}/status, các operation còn lại cần MENTOR_ASSIGN_TASK như PATCH /{id}/assign.
+ */
+class TaskControllerBulkAuthorizationTest {
+
+    private final TaskController controller = new TaskController(mock(TaskService.class),
+            mock(CurrentActorService.class));
+    private final PreAuthorizeAuthorizationManager manager = new PreAuthorizeAuthorizationManager();
+
+    @Test
+    void bulkStatusNeedsReviewAuthorityLikeSingleStatusEndpoint() throws Exception {
+        Authentication assignOnly = user("MENTOR_ASSIGN_TASK");
+        Authentication reviewOnly = user("MENTOR_REVIEW_TASK");
+
+        assertThat(bulk(assignOnly, BulkTaskDTO.Operation.STATUS)).isFalse();
+        assertThat(updateStatus(assignOnly)).isFalse();
+        assertThat(bulk(reviewOnly, BulkTaskDTO.Operation.STATUS)).isTrue();
+        assertThat(updateStatus(reviewOnly)).isTrue();
+    }
+
+    @Test
+    void otherBulkOperationsNeedAssignAuthority() throws Exception {
+        Authentication assignOnly = user("MENTOR_ASSIGN_TASK");
+        Authentication reviewOnly = user("MENTOR_REVIEW_TASK");
+
+        for (BulkTaskDTO.Operation operation : List.of(BulkTaskDTO.Operation.ASSIGN, BulkTaskDTO.Operation.PRIORITY,
+                BulkTaskDTO.Operation.DUE_DATE)) {
+            assertThat(bulk(assignOnly, operation)).as(operation.name()).isTrue();
+            assertThat(bulk(reviewOnly, operation)).as(operation.name()).isFalse();
+        }
+    }
+
+    @Test
+    void adminsMayRunEveryBulkOperation() throws Exception {
+        for (String role : List.of("ROLE_SYSTEM_ADMIN", "ROLE_LAB_ADMIN")) {
+            for (BulkTaskDTO.Operation operation : BulkTaskDTO.Operation.values()) {
+                assertThat(bulk(user(role), operation)).as(role + " " + operation).isTrue();
+            }
+        }
+    }
+
+    private boolean bulk(Authentication authentication, BulkTaskDTO.Operation operation) throws Exception {
+        Method method = TaskController.class.getMethod("bulkUpdate", BulkTaskDTO.class);
+        BulkTaskDTO dto = BulkTaskDTO.builder().operation(operation).taskIds(List.of("t1")).build();
+        return granted(authentication, method, dto);
+    }
+
+    private boolean updateStatus(Authentication authentication) throws Exception {
+        Method method = TaskController.class.getMethod("updateStatus", String.class, Task.Status.class,
+                String.class);
+        return granted(authentication, method, "t1", Task.Status.DONE, null);
+    }
+
+    private boolean granted(Authentication authentication, Method method, Object... args) {
+        return manager.authorize(() -> authentication, new SimpleMethodInvocation(controller, method, args))
+                .isGranted();
+    }
+
+    private static Authentication user(String... authorities) {
+        return new UsernamePasswordAuthenticationToken("u1", null, AuthorityUtils.createAuthorityList(authorities));
+    }
+}
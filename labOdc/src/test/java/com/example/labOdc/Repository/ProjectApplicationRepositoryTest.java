@@ -0,0 +1,112 @@
+package com.example.labOdc.Repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.labOdc.Model.ProjectApplication;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Benchmark hồi quy cho danh sách đơn ứng tuyển theo dự án: với index (project_id, status),
+ * thời gian lấy đơn PENDING của 1 dự án gần như không đổi khi bảng tăng từ 10k lên 100k dòng.
+ * Cần Docker (PostgreSQL thật để planner dùng index); không có Docker thì bỏ qua.
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class ProjectApplicationRepositoryTest {
+
+    private static final int RUNS = 30;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    ProjectApplicationRepository repository;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Test
+    void pendingByProjectStaysFlatFrom10kTo100kApplications() {
+        seedReferenceData();
+
+        // Dự án p1 luôn có 100 đơn (50 PENDING); chỉ số đơn của các dự án khác tăng
+        insertApplications(1, 1, 100);
+        insertApplications(2, 11, 990);
+        assertThat(count()).isEqualTo(10_000);
+        long at10k = medianNanos();
+
+        insertApplications(12, 101, 1000);
+        assertThat(count()).isEqualTo(100_000);
+        long at100k = medianNanos();
+
+        assertThat(repository.findByProjectIdAndStatus("p1", ProjectApplication.Status.PENDING)).hasSize(50);
+        String plan = String.join("\n", jdbc.queryForList(
+                "EXPLAIN SELECT * FROM project_applications WHERE project_id = 'p1' AND status = 'PENDING'",
+                String.class));
+        // Planner có thể chọn (project_id, status) hoặc unique (project_id, talent_id); miễn không quét cả bảng
+        assertThat(plan).contains("Index").doesNotContain("Seq Scan");
+        // Quét cả bảng sẽ chậm ~10 lần; cho phép nhiễu đo nhưng không cho tăng theo kích thước bảng
+        assertThat(at100k).as("median %d us at 10k, %d us at 100k", at10k / 1000, at100k / 1000)
+                .isLessThan(Math.max(3 * at10k, 5_000_000L));
+    }
+
+    private void seedReferenceData() {
+        jdbc.update("INSERT INTO users (id, email, password) SELECT 'u' || g, 'u' || g || '@lab.test', 'x'"
+                + " FROM generate_series(0, 1000) g");
+        jdbc.update("INSERT INTO companies (id, user_id, company_name, tax_code) VALUES ('c1', 'u0', 'Lab', 'TAX-1')");
+        jdbc.update("INSERT INTO projects (id, company_id, project_name) SELECT 'p' || g, 'c1', 'Project ' || g"
+                + " FROM generate_series(1, 101) g");
+        jdbc.update("INSERT INTO talents (id, user_id) SELECT 't' || g, 'u' || g FROM generate_series(1, 1000) g");
+    }
+
+    // Mọi cặp (dự án fromProject..toProject) x (talent 1..talents); talent chẵn PENDING, lẻ APPROVED
+    private void insertApplications(int fromProject, int toProject, int talents) {
+        jdbc.update("INSERT INTO project_applications (id, project_id, talent_id, status, applied_at)"
+                + " SELECT gen_random_uuid()::text, 'p' || p, 't' || t,"
+                + " CASE WHEN t % 2 = 0 THEN 'PENDING' ELSE 'APPROVED' END, now()"
+                + " FROM generate_series(?, ?) p CROSS JOIN generate_series(1, ?) t",
+                fromProject, toProject, talents);
+        jdbc.execute("ANALYZE project_applications");
+    }
+
+    private long count() {
+        return jdbc.queryForObject("SELECT count(*) FROM project_applications", Long.class);
+    }
+
+    private long medianNanos() {
+        long[] samples = new long[RUNS];
+        for (int i = -5; i < RUNS; i++) {
+            entityManager.clear();
+            long start = System.nanoTime();
+            List<ProjectApplication> pending = repository.findByProjectIdAndStatus("p1",
+                    ProjectApplication.Status.PENDING);
+            long elapsed = System.nanoTime() - start;
+            assertThat(pending).hasSize(50);
+            // 5 lượt đầu để làm nóng
+            if (i >= 0) {
+                samples[i] = elapsed;
+            }
+        }
+        Arrays.sort(samples);
+        return samples[RUNS / 2];
+    }
+}
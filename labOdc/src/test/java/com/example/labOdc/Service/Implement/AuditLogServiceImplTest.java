@@ -0,0 +1,118 @@
+package com.example.labOdc.Service.Implement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.labOdc.DTO.AuditEvent;
+import com.example.labOdc.Repository.AuditLogRepository;
+
+/**
+ * record() trong transaction chỉ đẩy vào buffer sau commit; buffer đầy thì bỏ sự kiện, không chặn request.
+ */
+class AuditLogServiceImplTest {
+
+    private AuditLogRepository repository;
+    private AuditLogServiceImpl service;
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(AuditLogRepository.class);
+        CurrentActorService actors = mock(CurrentActorService.class);
+        when(actors.currentUserIdOrNull()).thenReturn("u1");
+        service = new AuditLogServiceImpl(repository, actors);
+        service.batchSize = 10;
+        service.flushIntervalMs = 20;
+        // insertBatch nhận list sẽ bị clear sau khi ghi -> chép lại action
+        doAnswer(inv -> {
+            List<AuditEvent> events = inv.getArgument(0);
+            batches.add(events.stream().map(AuditEvent::action).toList());
+            return null;
+        }).when(repository).insertBatch(anyList());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        service.stop();
+    }
+
+    @Test
+    void eventInTransactionIsEnqueuedOnlyAfterCommit() {
+        start(100);
+        TransactionSynchronizationManager.initSynchronization();
+
+        service.record("TASK_UPDATED", "Task", "t1", null);
+
+        verify(repository, after(200).never()).insertBatch(anyList());
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertThat(synchronizations).hasSize(1);
+
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        verify(repository, timeout(2000)).insertBatch(anyList());
+        assertThat(batches).containsExactly(List.of("TASK_UPDATED"));
+    }
+
+    @Test
+    void rolledBackTransactionLeavesNoAudit() {
+        start(100);
+        TransactionSynchronizationManager.initSynchronization();
+
+        service.record("TASK_UPDATED", "Task", "t1", null);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(repository, after(200).never()).insertBatch(anyList());
+    }
+
+    @Test
+    void fullBufferDropsEventsWithoutBlocking() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            List<AuditEvent> events = inv.getArgument(0);
+            batches.add(events.stream().map(AuditEvent::action).toList());
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(repository).insertBatch(anyList());
+        start(2);
+
+        // Writer lấy e1 rồi treo trong insertBatch; buffer (2 chỗ) nhận e2, e3; e4 bị bỏ
+        service.record("e1", "Task", "t1", null);
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        long start = System.nanoTime();
+        service.record("e2", "Task", "t1", null);
+        service.record("e3", "Task", "t1", null);
+        service.record("e4", "Task", "t1", null);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+
+        release.countDown();
+        verify(repository, timeout(2000).times(2)).insertBatch(anyList());
+        assertThat(batches).containsExactly(List.of("e1"), List.of("e2", "e3"));
+    }
+
+    private void start(int capacity) {
+        service.bufferCapacity = capacity;
+        service.start();
+    }
+}
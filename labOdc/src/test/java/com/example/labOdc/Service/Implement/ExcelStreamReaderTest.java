@@ -0,0 +1,248 @@
+package com.example.labOdc.Service.Implement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.labOdc.DTO.ImportResult;
+import com.example.labOdc.Model.RoleEntity;
+import com.example.labOdc.Model.UserRole;
+import com.example.labOdc.Repository.TalentRepository;
+import com.example.labOdc.Repository.UserRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Đọc streaming file TALENTS 100k dòng: đúng số dòng, đúng ImportResult, heap không tăng theo số dòng;
+ * và cho ra cùng giá trị cột 0-6 / cùng lỗi "Row N" như cách đọc XSSFWorkbook cũ.
+ */
+class ExcelStreamReaderTest {
+
+    private static final int ROWS = 100_000;
+    private static final long MB = 1024 * 1024;
+
+    @TempDir
+    static Path dir;
+
+    private static File fixture;
+
+    private final ExcelStreamReader reader = new ExcelStreamReader();
+
+    @BeforeAll
+    static void writeFixture() throws Exception {
+        fixture = dir.resolve("talents-100k.xlsx").toFile();
+        // SXSSF chỉ giữ 100 dòng trong bộ nhớ khi ghi
+        SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+        try (OutputStream out = new FileOutputStream(fixture)) {
+            Sheet sheet = workbook.createSheet("TALENTS");
+            header(sheet.createRow(0));
+            for (int i = 1; i <= ROWS; i++) {
+                Row row = sheet.createRow(i);
+                // Cứ 25.000 dòng bỏ trống email; dòng 60.000 trùng mã SV với dòng 1
+                if (i % 25_000 != 0) {
+                    row.createCell(0).setCellValue("talent" + i + "@lab.test");
+                }
+                row.createCell(1).setCellValue("Talent " + i);
+                row.createCell(2).setCellValue("09" + String.format("%08d", i));
+                row.createCell(3).setCellValue(i == 60_000 ? studentCode(1) : studentCode(i));
+                row.createCell(4).setCellValue("Software Engineering");
+                row.createCell(5).setCellValue(2020 + i % 5);
+                row.createCell(6).setCellValue("Java, Spring");
+            }
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    @Test
+    void streaming100kRowsKeepsHeapFlat() throws Exception {
+        AtomicInteger rows = new AtomicInteger();
+        AtomicLong at20k = new AtomicLong();
+        AtomicLong peak = new AtomicLong();
+        long before = usedHeapAfterGc();
+
+        reader.readSheet(fixture, "TALENTS", 7, (rowNum, cells) -> {
+            rows.incrementAndGet();
+            if (rowNum == 42) {
+                assertThat(cells).containsExactly("talent42@lab.test", "Talent 42", "0900000042",
+                        studentCode(42), "Software Engineering", "2022", "Java, Spring");
+            }
+            if (rowNum > 0 && rowNum % 20_000 == 0) {
+                long used = usedHeapAfterGc();
+                peak.accumulateAndGet(used, Math::max);
+                if (rowNum == 20_000) {
+                    at20k.set(used);
+                }
+            }
+        });
+
+        assertThat(rows).hasValue(ROWS + 1);
+        long growth = peak.get() - before;
+        long lateGrowth = peak.get() - at20k.get();
+        // XSSFWorkbook cho cùng file cần cỡ vài trăm MB; streaming chỉ giữ 1 dòng
+        assertThat(growth).as("heap growth while streaming %d rows: %d MB", ROWS, growth / MB)
+                .isLessThan(32 * MB);
+        assertThat(lateGrowth).as("heap growth from row 20k to 100k: %d MB", lateGrowth / MB)
+                .isLessThan(8 * MB);
+    }
+
+    @Test
+    void talentImportOver100kRowsReportsTotalsAndRowErrors() throws Exception {
+        TalentExcelImportService service = talentImportService(500);
+        List<Integer> progressRows = new ArrayList<>();
+
+        ImportResult result = service.importTalent(fixture, (soFar, currentRow) -> progressRows.add(currentRow));
+
+        assertThat(result.getTotal()).isEqualTo(ROWS);
+        assertThat(result.getFailed()).isEqualTo(5);
+        assertThat(result.getSuccess()).isEqualTo(ROWS - 5);
+        assertThat(result.getErrors()).containsExactly(
+                "Row 25001: Email is empty",
+                "Row 50001: Email is empty",
+                "Row 60001: Student code already exists",
+                "Row 75001: Email is empty",
+                "Row 100001: Email is empty");
+        assertThat(progressRows).hasSize(ROWS / 500).endsWith(ROWS + 1);
+    }
+
+    @Test
+    void columnsAndRowErrorsMatchDomReader() throws Exception {
+        File small = dir.resolve("talents-small.xlsx").toFile();
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = new FileOutputStream(small)) {
+            Sheet sheet = workbook.createSheet("TALENTS");
+            header(sheet.createRow(0));
+            fill(sheet.createRow(1), "  a@lab.test ", "Nguyễn Văn A", "0901234567", "SV01", "CNTT", 2021, "Java");
+            fill(sheet.createRow(2), null, "No Email", null, "SV02", null, 2022, null);
+            fill(sheet.createRow(3), "c@lab.test", "No Code", "0907654321", "   ", "KTPM", 2023, "Go");
+            fill(sheet.createRow(4), "d@lab.test", "Full", "0900000004", "SV04", "HTTT", 2024.9, "SQL");
+            workbook.write(out);
+        }
+
+        List<List<String>> streamed = new ArrayList<>();
+        reader.readSheet(small, "TALENTS", 7, (rowNum, cells) -> {
+            if (rowNum > 0) {
+                streamed.add(cells);
+            }
+        });
+
+        List<String> domErrors = new ArrayList<>();
+        try (InputStream in = new FileInputStream(small); Workbook workbook = new XSSFWorkbook(in)) {
+            Sheet sheet = workbook.getSheet("TALENTS");
+            assertThat(streamed).hasSize(sheet.getLastRowNum());
+            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
+                Row row = sheet.getRow(i);
+                List<String> cells = streamed.get(i - 1);
+                for (int col : new int[] { 0, 1, 2, 3, 4, 6 }) {
+                    // DOM trả "" cho ô chỉ có khoảng trắng, streaming trả null; import coi hai cái như nhau
+                    assertThat(cells.get(col)).as("row %d col %d", i, col).isEqualTo(emptyToNull(domString(row, col)));
+                }
+                assertThat(ExcelStreamReader.toInt(cells.get(5))).as("row %d year", i).isEqualTo(domInt(row, 5));
+
+                // Hai kiểm tra đầu tiên của bản cũ, không cần DB
+                String email = domString(row, 0);
+                String studentCode = domString(row, 3);
+                if (email == null || email.isBlank()) {
+                    domErrors.add("Row " + (i + 1) + ": Email is empty");
+                } else if (studentCode == null || studentCode.isBlank()) {
+                    domErrors.add("Row " + (i + 1) + ": Student code is empty");
+                }
+            }
+        }
+
+        ImportResult result = talentImportService(500).importTalent(small, (soFar, currentRow) -> {
+        });
+        assertThat(result.getErrors()).isEqualTo(domErrors).hasSize(2);
+        assertThat(result.getTotal()).isEqualTo(4);
+        assertThat(result.getSuccess()).isEqualTo(2);
+    }
+
+    // Persistence giả: stubOnly để Mockito không giữ lại 100k entity qua các lần gọi
+    private TalentExcelImportService talentImportService(int batchSize) {
+        UserRepository userRepository = mock(UserRepository.class, withSettings().stubOnly());
+        TalentRepository talentRepository = mock(TalentRepository.class, withSettings().stubOnly());
+        RolePermissionCache roles = mock(RolePermissionCache.class, withSettings().stubOnly());
+        EntityManager entityManager = mock(EntityManager.class, withSettings().stubOnly());
+        when(roles.findRole(UserRole.TALENT)).thenReturn(Optional.of(new RoleEntity()));
+        when(entityManager.unwrap(Session.class)).thenReturn(mock(Session.class, withSettings().stubOnly()));
+        PasswordEncoder encoder = mock(PasswordEncoder.class, withSettings().stubOnly());
+        when(encoder.encode(any())).thenReturn("hash");
+
+        BulkUserImporter importer = new BulkUserImporter(userRepository, roles, encoder, entityManager,
+                mock(PlatformTransactionManager.class, withSettings().stubOnly()));
+        importer.batchSize = batchSize;
+        return new TalentExcelImportService(talentRepository, reader, importer);
+    }
+
+    private static void header(Row row) {
+        String[] names = { "email", "fullName", "phone", "studentCode", "major", "year", "skills" };
+        for (int i = 0; i < names.length; i++) {
+            row.createCell(i).setCellValue(names[i]);
+        }
+    }
+
+    private static void fill(Row row, Object... values) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] instanceof String s) {
+                row.createCell(i).setCellValue(s);
+            } else if (values[i] instanceof Number n) {
+                row.createCell(i).setCellValue(n.doubleValue());
+            }
+        }
+    }
+
+    private static String studentCode(int i) {
+        return "SV" + String.format("%06d", i);
+    }
+
+    // Giống getCellString / getCellInt của TalentExcelImportService trước khi chuyển sang streaming
+    private static String domString(Row row, int index) {
+        Cell cell = row.getCell(index);
+        return cell == null ? null : cell.toString().trim();
+    }
+
+    private static Integer domInt(Row row, int index) {
+        Cell cell = row.getCell(index);
+        return cell == null ? null : (int) cell.getNumericCellValue();
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
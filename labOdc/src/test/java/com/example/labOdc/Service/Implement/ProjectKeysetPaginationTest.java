@@ -0,0 +1,151 @@
+package com.example.labOdc.Service.Implement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+
+import com.example.labOdc.DTO.Response.ProjectPageResponse;
+import com.example.labOdc.DTO.Response.ProjectResponse;
+import com.example.labOdc.Repository.CompanyRepository;
+import com.example.labOdc.Repository.LabAdminRepository;
+import com.example.labOdc.Repository.MentorRepository;
+import com.example.labOdc.Repository.ProjectMentorRepository;
+import com.example.labOdc.Repository.ProjectRepository;
+import com.example.labOdc.Repository.ProjectTeamRepository;
+import com.example.labOdc.Repository.TaskRepository;
+import com.example.labOdc.Service.AuditLogService;
+import com.example.labOdc.Service.NotificationService;
+
+/**
+ * Cursor (createdAt, id) đi qua hết danh sách dự án không trùng, không sót, kể cả khi nhiều dự án cùng createdAt.
+ */
+class ProjectKeysetPaginationTest {
+
+    private static final LocalDateTime T1 = LocalDateTime.of(2025, 3, 1, 9, 0, 0, 123_456_789);
+    private static final LocalDateTime T2 = LocalDateTime.of(2025, 3, 2, 9, 0);
+
+    private static final Comparator<ProjectRepository.ProjectListRow> NEWEST_FIRST = Comparator
+            .comparing(ProjectRepository.ProjectListRow::getCreatedAt)
+            .thenComparing(ProjectRepository.ProjectListRow::getId)
+            .reversed();
+
+    private ProjectRepository projectRepository;
+    private ProjectServiceImpl service;
+    private final List<ProjectRepository.ProjectListRow> table = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        projectRepository = mock(ProjectRepository.class);
+        service = new ProjectServiceImpl(projectRepository, mock(CompanyRepository.class), mock(MentorRepository.class),
+                mock(LabAdminRepository.class), mock(ProjectTeamRepository.class),
+                mock(ProjectMentorRepository.class), mock(TaskRepository.class), mock(NotificationService.class),
+                mock(CurrentActorService.class), mock(AuditLogService.class));
+
+        // Giả lập findListRows: ORDER BY createdAt DESC, id DESC + điều kiện keyset của câu JPQL
+        when(projectRepository.findListRows(isNull(), isNull(), isNull(), isNull(), any(), any(), any()))
+                .thenAnswer(inv -> {
+                    LocalDateTime afterAt = inv.getArgument(4);
+                    String afterId = inv.getArgument(5);
+                    Limit limit = inv.getArgument(6);
+                    return table.stream()
+                            .filter(r -> afterAt == null
+                                    || r.getCreatedAt().isBefore(afterAt)
+                                    || (r.getCreatedAt().equals(afterAt) && r.getId().compareTo(afterId) < 0))
+                            .sorted(NEWEST_FIRST)
+                            .limit(limit.max())
+                            .toList();
+                });
+    }
+
+    @Test
+    void cursorRoundTripsTimestampAndId() {
+        KeysetCursor cursor = new KeysetCursor(T1, "a|b-42");
+
+        String encoded = cursor.encode();
+
+        assertThat(encoded).doesNotContain("+", "/", "=");
+        assertThat(KeysetCursor.decode(encoded)).isEqualTo(cursor);
+        assertThat(KeysetCursor.decode(new KeysetCursor(T2, "p1").encode()).at()).isEqualTo(T2);
+    }
+
+    @Test
+    void blankCursorIsFirstPageAndBrokenCursorIsRejected() {
+        assertThat(KeysetCursor.decode(null)).isNull();
+        assertThat(KeysetCursor.decode(" ")).isNull();
+        assertThatThrownBy(() -> KeysetCursor.decode("not-a-cursor"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @Test
+    void pagesCoverEveryProjectOnceWhenCreatedAtTies() {
+        // 5 dự án cùng T2 (tie), 3 dự án cùng T1; trang 2 dòng nên ranh giới trang rơi vào giữa nhóm tie
+        for (String id : List.of("p3", "p7", "p1", "p9", "p5")) {
+            table.add(row(id, T2));
+        }
+        for (String id : List.of("p2", "p8", "p4")) {
+            table.add(row(id, T1));
+        }
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ProjectPageResponse page = service.listProjects(null, null, null, null, cursor, 2);
+            page.getItems().stream().map(ProjectResponse::getId).forEach(seen::add);
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null && pages < 10);
+
+        assertThat(seen).containsExactly("p9", "p7", "p5", "p3", "p1", "p8", "p4", "p2");
+        assertThat(new HashSet<>(seen)).hasSize(table.size());
+        assertThat(pages).isEqualTo(4);
+    }
+
+    @Test
+    void lastFullPageHasNoNextCursor() {
+        table.add(row("p1", T1));
+        table.add(row("p2", T1));
+
+        ProjectPageResponse page = service.listProjects(null, null, null, null, null, 2);
+
+        assertThat(page.getItems()).extracting(ProjectResponse::getId).containsExactly("p2", "p1");
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void jpqlUsesSameOrderingAndTieBreakAsCursor() {
+        Method method = Arrays.stream(ProjectRepository.class.getMethods())
+                .filter(m -> m.getName().equals("findListRows"))
+                .findFirst()
+                .orElseThrow();
+        String jpql = method.getAnnotation(Query.class).value().replaceAll("\\s+", " ");
+
+        assertThat(jpql).contains("ORDER BY p.createdAt DESC, p.id DESC")
+                .contains("p.createdAt < :afterCreatedAt")
+                .contains("(p.createdAt = :afterCreatedAt AND p.id < :afterId)");
+    }
+
+    private static ProjectRepository.ProjectListRow row(String id, LocalDateTime createdAt) {
+        ProjectRepository.ProjectListRow row = mock(ProjectRepository.ProjectListRow.class);
+        when(row.getId()).thenReturn(id);
+        when(row.getCreatedAt()).thenReturn(createdAt);
+        return row;
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.labOdc.Service.Implement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import com.example.labOdc.Exception.ServiceBusyException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * RemoteFileFetcher chạy với HttpServer nhúng của JDK làm máy chủ ngoài.
+ */
+class RemoteFileFetcherTest {
+
+    private static final int MAX_BODY = 1024;
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private RemoteFileFetcher fetcher;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        serverThreads = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(serverThreads);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (fetcher != null) {
+            fetcher.stop();
+        }
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void bodyIsStoredUnderItsSha256() throws Exception {
+        byte[] body = "id,title\n1,Task".getBytes(StandardCharsets.UTF_8);
+        server.createContext("/ok", ex -> send(ex, 200, body));
+        fetcher = fetcher(1, 32, 300);
+
+        Path file = fetcher.fetch(url("/ok")).get(5, TimeUnit.SECONDS);
+
+        assertThat(file.getFileName().toString()).isEqualTo(sha256(body) + ".bin");
+        assertThat(Files.readAllBytes(file)).isEqualTo(body);
+        assertThat(partFiles()).isEmpty();
+    }
+
+    @Test
+    void declaredContentLengthOverLimitIsRejectedBeforeBody() throws Exception {
+        // Khai báo 1 MB nhưng chỉ gửi vài byte rồi treo: phải bị từ chối ngay từ header
+        server.createContext("/big", ex -> {
+            ex.sendResponseHeaders(200, 1024 * 1024);
+            OutputStream out = ex.getResponseBody();
+            out.write(new byte[16]);
+            out.flush();
+            awaitRelease();
+            ex.close();
+        });
+        fetcher = fetcher(1, 32, 300);
+
+        assertFailsWith(fetcher.fetch(url("/big")), IllegalArgumentException.class, "larger than");
+        assertThat(partFiles()).isEmpty();
+    }
+
+    @Test
+    void chunkedBodyOverLimitIsCutWhileStreaming() throws Exception {
+        // Không có Content-Length (chunked) nên chỉ đếm byte thực nhận mới chặn được
+        server.createContext("/chunked", ex -> {
+            ex.sendResponseHeaders(200, 0);
+            try (OutputStream out = ex.getResponseBody()) {
+                for (int i = 0; i < 64; i++) {
+                    out.write(new byte[256]);
+                    out.flush();
+                }
+            } catch (IOException ignored) {
+                // client đã huỷ
+            }
+        });
+        fetcher = fetcher(1, 32, 300);
+
+        assertFailsWith(fetcher.fetch(url("/chunked")), IllegalArgumentException.class, "larger than");
+        assertThat(partFiles()).isEmpty();
+    }
+
+    @Test
+    void saturatedHostIsRejectedWith429() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        server.createContext("/slow", ex -> {
+            started.countDown();
+            awaitRelease();
+            send(ex, 200, new byte[] { 1 });
+        });
+        server.createContext("/fast", ex -> send(ex, 200, new byte[] { 2 }));
+        fetcher = fetcher(1, 32, 300);
+
+        CompletableFuture<Path> first = fetcher.fetch(url("/slow"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Path> second = fetcher.fetch(url("/slow"));
+        assertThat(second).isCompletedExceptionally();
+        assertThatThrownBy(second::join)
+                .hasCauseInstanceOf(ServiceBusyException.class)
+                .cause()
+                .extracting(ex -> ((ServiceBusyException) ex).getStatus())
+                .isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+
+        // Tải xong thì trả permit, lượt sau đi được
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        assertThat(fetcher.fetch(url("/fast")).get(5, TimeUnit.SECONDS)).exists();
+    }
+
+    @Test
+    void stalledBodyIsCancelledAfterRequestTimeout() throws Exception {
+        // Header về ngay, body treo: timeout của HttpClient không áp nữa, phải nhờ delayedExecutor huỷ
+        server.createContext("/stall", ex -> {
+            ex.sendResponseHeaders(200, 100);
+            OutputStream out = ex.getResponseBody();
+            out.write(new byte[10]);
+            out.flush();
+            awaitRelease();
+            ex.close();
+        });
+        fetcher = fetcher(1, 32, 300);
+        fetcher.requestTimeoutMs = 300;
+
+        long start = System.nanoTime();
+        assertFailsWith(fetcher.fetch(url("/stall")), RuntimeException.class, "timed out");
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(4000);
+
+        // Permit của host đã được trả
+        server.createContext("/after", ex -> send(ex, 200, new byte[] { 2 }));
+        assertThat(fetcher.fetch(url("/after")).get(5, TimeUnit.SECONDS)).exists();
+    }
+
+    @Test
+    void expiredEntryIsRevalidatedWithEtagAnd304KeepsFile() throws Exception {
+        byte[] body = "template".getBytes(StandardCharsets.UTF_8);
+        List<String> ifNoneMatch = new CopyOnWriteArrayList<>();
+        List<String> ifModifiedSince = new CopyOnWriteArrayList<>();
+        server.createContext("/etag", ex -> {
+            String etag = ex.getRequestHeaders().getFirst("If-None-Match");
+            ifNoneMatch.add(String.valueOf(etag));
+            ifModifiedSince.add(String.valueOf(ex.getRequestHeaders().getFirst("If-Modified-Since")));
+            if ("\"v1\"".equals(etag)) {
+                ex.sendResponseHeaders(304, -1);
+                ex.close();
+                return;
+            }
+            ex.getResponseHeaders().add("ETag", "\"v1\"");
+            ex.getResponseHeaders().add("Last-Modified", "Wed, 01 Jan 2025 10:00:00 GMT");
+            send(ex, 200, body);
+        });
+        // TTL = 0: lần nào cũng phải hỏi lại server
+        fetcher = fetcher(1, 32, 0);
+
+        Path first = fetcher.fetch(url("/etag")).get(5, TimeUnit.SECONDS);
+        Path second = fetcher.fetch(url("/etag")).get(5, TimeUnit.SECONDS);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(Files.readAllBytes(second)).isEqualTo(body);
+        assertThat(ifNoneMatch).containsExactly("null", "\"v1\"");
+        assertThat(ifModifiedSince).containsExactly("null", "Wed, 01 Jan 2025 10:00:00 GMT");
+    }
+
+    @Test
+    void freshEntryIsServedWithoutRequest() throws Exception {
+        AtomicInteger hits = new AtomicInteger();
+        server.createContext("/cached", ex -> {
+            hits.incrementAndGet();
+            send(ex, 200, new byte[] { 3 });
+        });
+        fetcher = fetcher(1, 32, 300);
+
+        Path first = fetcher.fetch(url("/cached")).get(5, TimeUnit.SECONDS);
+        Path second = fetcher.fetch(url("/cached")).get(5, TimeUnit.SECONDS);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(hits).hasValue(1);
+    }
+
+    @Test
+    void evictedEntryDeletesFileOnlyWhenNoOtherUrlSharesContent() throws Exception {
+        byte[] a = "content-a".getBytes(StandardCharsets.UTF_8);
+        byte[] b = "content-b".getBytes(StandardCharsets.UTF_8);
+        server.createContext("/a", ex -> send(ex, 200, a));
+        server.createContext("/b", ex -> send(ex, 200, b));
+        server.createContext("/b-copy", ex -> send(ex, 200, b));
+        fetcher = fetcher(1, 1, 300);
+
+        Path fileA = fetcher.fetch(url("/a")).get(5, TimeUnit.SECONDS);
+        Path fileB = fetcher.fetch(url("/b")).get(5, TimeUnit.SECONDS);
+        // /a bị đẩy khỏi LRU, không URL nào khác trỏ tới -> xoá file
+        assertThat(fileA).doesNotExist();
+        assertThat(fileB).exists();
+
+        // /b bị đẩy nhưng /b-copy cùng SHA-256 -> giữ file
+        Path copy = fetcher.fetch(url("/b-copy")).get(5, TimeUnit.SECONDS);
+        assertThat(copy).isEqualTo(fileB).exists();
+        try (Stream<Path> files = Files.list(fetcher.cacheDir)) {
+            assertThat(files).containsExactly(fileB);
+        }
+    }
+
+    private RemoteFileFetcher fetcher(int perHost, int cacheEntries, long ttlSeconds) throws IOException {
+        RemoteFileFetcher f = new RemoteFileFetcher();
+        f.maxBodyBytes = MAX_BODY;
+        f.connectTimeoutMs = 2000;
+        f.requestTimeoutMs = 5000;
+        f.poolSize = 2;
+        f.perHostConcurrency = perHost;
+        f.cacheEntries = cacheEntries;
+        f.cacheTtlSeconds = ttlSeconds;
+        f.retryAfterSeconds = 1;
+        f.start();
+        return f;
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private List<Path> partFiles() throws IOException {
+        try (Stream<Path> files = Files.list(fetcher.cacheDir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".part")).toList();
+        }
+    }
+
+    private static void assertFailsWith(CompletableFuture<Path> future, Class<? extends Throwable> type,
+            String message) {
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause()
+                .isInstanceOf(type)
+                .hasMessageContaining(message);
+    }
+
+    private static void send(HttpExchange ex, int status, byte[] body) throws IOException {
+        ex.sendResponseHeaders(status, body.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String sha256(byte[] body) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
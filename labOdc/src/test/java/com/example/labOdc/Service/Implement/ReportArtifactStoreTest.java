@@ -0,0 +1,131 @@
+package com.example.labOdc.Service.Implement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+
+import com.example.labOdc.DTO.Response.ReportArtifact;
+import com.example.labOdc.DTO.Response.ReportResponse;
+import com.example.labOdc.Exception.ServiceBusyException;
+
+class ReportArtifactStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private ReportArtifactStore store;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (store != null) {
+            store.stop();
+        }
+    }
+
+    @Test
+    void concurrentRequestsShareOneRender() throws Exception {
+        store = store(1, 10);
+        // Giữ worker bận để 2 request đầu đều thấy render đang chờ
+        store.executor.execute(this::awaitRelease);
+
+        ReportResponse report = report("r1");
+        CompletableFuture<ReportArtifact> first = store.get(report, ReportArtifactStore.Format.CSV);
+        CompletableFuture<ReportArtifact> second = store.get(report, ReportArtifactStore.Format.CSV);
+        assertThat(second).isSameAs(first);
+        assertThat(store.executor.getQueue()).hasSize(1);
+
+        release.countDown();
+        ReportArtifact artifact = first.get(5, TimeUnit.SECONDS);
+        assertThat(Files.exists(artifact.getFile())).isTrue();
+        try (Stream<Path> files = Files.list(dir.resolve("r1"))) {
+            assertThat(files.count()).isEqualTo(1);
+        }
+
+        // Đã render xong -> request sau dùng lại file trên đĩa
+        ReportArtifact cached = store.get(report, ReportArtifactStore.Format.CSV).get(5, TimeUnit.SECONDS);
+        assertThat(cached.getEtag()).isEqualTo(artifact.getEtag());
+    }
+
+    @Test
+    void rejectedRenderFailsWith503AndDoesNotStickInFlight() throws Exception {
+        store = store(1, 1);
+        store.executor.execute(this::awaitRelease);
+        store.executor.execute(this::awaitRelease);
+
+        ReportResponse report = report("r2");
+        CompletableFuture<ReportArtifact> rejected = store.get(report, ReportArtifactStore.Format.XLSX);
+        assertThatThrownBy(rejected::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(ServiceBusyException.class)
+                .cause()
+                .extracting(ex -> ((ServiceBusyException) ex).getStatus())
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+
+        release.countDown();
+        awaitIdle();
+        CompletableFuture<ReportArtifact> retry = store.get(report, ReportArtifactStore.Format.XLSX);
+        assertThat(retry).isNotSameAs(rejected);
+        assertThat(retry.get(5, TimeUnit.SECONDS).getFile()).exists();
+    }
+
+    @Test
+    void invalidateOutsideTransactionDeletesImmediately() throws Exception {
+        store = store(1, 10);
+        ReportResponse report = report("r3");
+        store.get(report, ReportArtifactStore.Format.CSV).get(5, TimeUnit.SECONDS);
+        assertThat(dir.resolve("r3")).isDirectory();
+
+        store.invalidate("r3");
+        assertThat(dir.resolve("r3")).doesNotExist();
+    }
+
+    private ReportArtifactStore store(int threads, int queue) throws Exception {
+        ReportArtifactStore s = new ReportArtifactStore();
+        s.artifactDir = dir.toString();
+        s.renderThreads = threads;
+        s.renderQueueCapacity = queue;
+        s.start();
+        return s;
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((store.executor.getActiveCount() > 0 || !store.executor.getQueue().isEmpty())
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ReportResponse report(String id) {
+        return ReportResponse.builder()
+                .id(id)
+                .projectId("p1")
+                .title("Weekly")
+                .content("Nội dung, có dấu phẩy")
+                .updatedAt(LocalDateTime.of(2025, 1, 1, 10, 0))
+                .build();
+    }
+}
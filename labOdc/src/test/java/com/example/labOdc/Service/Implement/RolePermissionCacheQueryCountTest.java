@@ -0,0 +1,182 @@
+package com.example.labOdc.Service.Implement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.labOdc.DTO.AuthenticationRequest;
+import com.example.labOdc.DTO.ImportResult;
+import com.example.labOdc.DTO.MentorDTO;
+import com.example.labOdc.Model.User;
+import com.example.labOdc.Model.UserRole;
+import com.example.labOdc.Repository.RoleRepository;
+import com.example.labOdc.Repository.UserRepository;
+import com.example.labOdc.Service.MentorService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Đo số câu SQL của 1 loạt request điển hình (login + tạo mentor + import talent) khi role lấy từ
+ * RolePermissionCache so với khi mỗi lần tra lại roleRepository.findByRole (cách cũ).
+ * Cần Docker; không có Docker thì bỏ qua.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // Các tác vụ flush nền không được chen câu SQL vào lúc đo
+        "app.last-login.flush-interval-ms=3600000",
+        "app.audit.flush-interval-ms=3600000"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class RolePermissionCacheQueryCountTest {
+
+    private static final int ROUNDS = 5;
+    private static final String PASSWORD = "secret-123";
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @TempDir
+    Path dir;
+
+    @MockitoSpyBean
+    RolePermissionCache rolePermissionCache;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    PasswordEncoder passwordEncoder;
+
+    @Autowired
+    AuthenticationSvc authenticationSvc;
+
+    @Autowired
+    MentorService mentorService;
+
+    @Autowired
+    TalentExcelImportService talentExcelImportService;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private int seq;
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void registryRemovesRoleQueriesFromRequestMix() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Registry đã nạp: tra role / permission không chạm DB
+        rolePermissionCache.findRole(UserRole.MENTOR);
+        statistics.clear();
+        rolePermissionCache.findRole(UserRole.MENTOR);
+        rolePermissionCache.findRole(UserRole.TALENT);
+        rolePermissionCache.permissionsOf(Set.of(UserRole.USER, UserRole.MENTOR));
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        long withRegistry = measureMix(statistics);
+
+        // Như trước khi có registry: mỗi lần cần role là 1 lần findByRole (kèm permissions EAGER)
+        doAnswer(inv -> roleRepository.findByRole(inv.getArgument(0))).when(rolePermissionCache).findRole(any());
+        long withRepository = measureMix(statistics);
+
+        // Mỗi vòng có 2 lần tra role (MENTOR khi tạo mentor, TALENT khi import), mỗi lần ít nhất 1 câu SQL
+        assertThat(withRepository - withRegistry)
+                .as("statements for %d rounds: %d with registry, %d with findByRole", ROUNDS, withRegistry,
+                        withRepository)
+                .isGreaterThanOrEqualTo(2L * ROUNDS);
+    }
+
+    private long measureMix(Statistics statistics) throws Exception {
+        List<String> usernames = new ArrayList<>();
+        for (int i = 0; i < ROUNDS; i++) {
+            usernames.add(newUser());
+        }
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < ROUNDS; i++) {
+            files.add(talentFile());
+        }
+
+        statistics.clear();
+        for (int i = 0; i < ROUNDS; i++) {
+            String username = usernames.get(i);
+            authenticationSvc.authenticate(AuthenticationRequest.builder()
+                    .username(username)
+                    .password(PASSWORD)
+                    .build());
+
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(username, null, List.of()));
+            mentorService.createMentor(MentorDTO.builder().expertise("Java").yearsExperience(3).build());
+
+            ImportResult result = talentExcelImportService.importTalent(files.get(i), (soFar, row) -> {
+            });
+            assertThat(result.getSuccess()).isEqualTo(1);
+        }
+        return statistics.getPrepareStatementCount();
+    }
+
+    private String newUser() {
+        String username = "bench" + (++seq) + "-" + System.nanoTime();
+        userRepository.save(User.builder()
+                .email(username + "@lab.test")
+                .username(username)
+                .password(passwordEncoder.encode(PASSWORD))
+                .roles(new HashSet<>(Set.of(rolePermissionCache.findRole(UserRole.USER).orElseThrow())))
+                .build());
+        return username;
+    }
+
+    private File talentFile() throws Exception {
+        String suffix = (++seq) + "-" + System.nanoTime();
+        File file = dir.resolve("talents-" + suffix + ".xlsx").toFile();
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = new FileOutputStream(file)) {
+            Sheet sheet = workbook.createSheet("TALENTS");
+            sheet.createRow(0).createCell(0).setCellValue("email");
+            Row row = sheet.createRow(1);
+            row.createCell(0).setCellValue("talent" + suffix + "@lab.test");
+            row.createCell(1).setCellValue("Talent " + suffix);
+            row.createCell(3).setCellValue("SV" + suffix);
+            row.createCell(5).setCellValue(2024);
+            workbook.write(out);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.labOdc.Service.Implement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.labOdc.DTO.Response.TaskBoardSummaryResponse;
+import com.example.labOdc.Model.Task;
+import com.example.labOdc.Repository.TaskRepository;
+
+/**
+ * Cache tổng hợp Kanban: evict xảy ra trong lúc đang tính thì không lưu kết quả cũ; đầy thì bỏ dự án ít xem nhất.
+ */
+class TaskBoardSummaryCacheTest {
+
+    private TaskRepository taskRepository;
+    private TaskBoardSummaryCache cache;
+
+    @BeforeEach
+    void setUp() {
+        taskRepository = mock(TaskRepository.class);
+        cache = new TaskBoardSummaryCache(taskRepository);
+        cache.ttlMs = 60_000;
+        cache.maxSize = 100;
+        when(taskRepository.summarizeBoard(any(), any())).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void resultComputedAcrossAnEvictionIsNotCached() {
+        // Task đổi trạng thái (evict) trong lúc truy vấn GROUP BY đang chạy
+        when(taskRepository.summarizeBoard(eq("p1"), any())).thenAnswer(inv -> {
+            cache.evictAfterCommit("p1");
+            return List.of(cell(Task.Status.TODO, Task.Priority.HIGH, "t1", 1, 0, null));
+        });
+
+        assertThat(cache.get("p1").getTotal()).isEqualTo(1);
+
+        when(taskRepository.summarizeBoard(eq("p1"), any()))
+                .thenReturn(List.of(cell(Task.Status.DONE, Task.Priority.HIGH, "t1", 1, 0, null)));
+        TaskBoardSummaryResponse fresh = cache.get("p1");
+        assertThat(fresh.getByStatus()).containsEntry(Task.Status.DONE, 1L);
+        verify(taskRepository, times(2)).summarizeBoard(eq("p1"), any());
+
+        // Không có evict xen giữa -> lần này được lưu
+        cache.get("p1");
+        verify(taskRepository, times(2)).summarizeBoard(eq("p1"), any());
+    }
+
+    @Test
+    void evictionInsideTransactionWaitsForCommit() {
+        cache.get("p1");
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.evictAfterCommit("p1");
+        cache.get("p1");
+        verify(taskRepository, times(1)).summarizeBoard(eq("p1"), any());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        cache.get("p1");
+        verify(taskRepository, times(2)).summarizeBoard(eq("p1"), any());
+    }
+
+    @Test
+    void concurrentMissesShareOneQuery() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(taskRepository.summarizeBoard(eq("p1"), any())).thenAnswer(inv -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(cell(Task.Status.TODO, Task.Priority.LOW, "t1", 2, 0, null));
+        });
+
+        CompletableFuture<TaskBoardSummaryResponse> first = CompletableFuture.supplyAsync(() -> cache.get("p1"));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<TaskBoardSummaryResponse> second = CompletableFuture.supplyAsync(() -> cache.get("p1"));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(first.get(5, TimeUnit.SECONDS));
+        verify(taskRepository, times(1)).summarizeBoard(eq("p1"), any());
+    }
+
+    @Test
+    void fullCacheDropsOnlyLeastRecentlyViewedProject() {
+        cache.maxSize = 2;
+        cache.get("p1");
+        cache.get("p2");
+        cache.get("p1");
+        cache.get("p3");
+
+        // p2 ít được xem nhất -> bị bỏ; p1, p3 vẫn còn
+        cache.get("p1");
+        cache.get("p3");
+        verify(taskRepository, times(1)).summarizeBoard(eq("p1"), any());
+        verify(taskRepository, times(1)).summarizeBoard(eq("p3"), any());
+        cache.get("p2");
+        verify(taskRepository, times(2)).summarizeBoard(eq("p2"), any());
+    }
+
+    @Test
+    void cellsAreFoldedIntoTotalsAndAssigneeWorkload() {
+        when(taskRepository.summarizeBoard(eq("p1"), any())).thenReturn(List.of(
+                cell(Task.Status.TODO, Task.Priority.HIGH, "t1", 3, 1, new BigDecimal("6")),
+                cell(Task.Status.DONE, Task.Priority.HIGH, "t1", 2, 0, new BigDecimal("4")),
+                cell(Task.Status.IN_PROGRESS, Task.Priority.LOW, "t2", 4, 2, null)));
+
+        TaskBoardSummaryResponse summary = cache.get("p1");
+
+        assertThat(summary.getTotal()).isEqualTo(9);
+        assertThat(summary.getOverdue()).isEqualTo(3);
+        assertThat(summary.getByStatus()).containsEntry(Task.Status.TODO, 3L).containsEntry(Task.Status.DONE, 2L)
+                .containsEntry(Task.Status.REVIEW, 0L);
+        assertThat(summary.getByPriority()).containsEntry(Task.Priority.HIGH, 5L).containsEntry(Task.Priority.LOW, 4L);
+        // Nhiều việc mở nhất lên trước; giờ ước tính chỉ tính việc chưa DONE/CANCELLED
+        assertThat(summary.getAssignees()).extracting(TaskBoardSummaryResponse.AssigneeWorkload::getAssignedTo)
+                .containsExactly("t2", "t1");
+        TaskBoardSummaryResponse.AssigneeWorkload t1 = summary.getAssignees().get(1);
+        assertThat(t1.getTotal()).isEqualTo(5);
+        assertThat(t1.getOpen()).isEqualTo(3);
+        assertThat(t1.getOpenEstimatedHours()).isEqualByComparingTo("6");
+    }
+
+    private static TaskRepository.BoardCell cell(Task.Status status, Task.Priority priority, String assignedTo,
+            long total, long overdue, BigDecimal hours) {
+        TaskRepository.BoardCell cell = mock(TaskRepository.BoardCell.class);
+        when(cell.getStatus()).thenReturn(status);
+        when(cell.getPriority()).thenReturn(priority);
+        when(cell.getAssignedTo()).thenReturn(assignedTo);
+        when(cell.getTotal()).thenReturn(total);
+        when(cell.getOverdue()).thenReturn(overdue);
+        when(cell.getEstimatedHours()).thenReturn(hours);
+        return cell;
+    }
+}
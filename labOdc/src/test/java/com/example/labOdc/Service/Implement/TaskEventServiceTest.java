@@ -0,0 +1,273 @@
+package com.example.labOdc.Service.Implement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.labOdc.DTO.Response.TaskBurndownResponse;
+import com.example.labOdc.DTO.Response.TaskCycleTimeResponse;
+import com.example.labOdc.Model.Task;
+import com.example.labOdc.Model.TaskDailyRollup;
+import com.example.labOdc.Model.TaskEvent;
+import com.example.labOdc.Repository.TaskDailyRollupRepository;
+import com.example.labOdc.Repository.TaskEventRepository;
+import com.example.labOdc.Repository.TaskRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+
+/**
+ * Cột đếm của mỗi lần chuyển trạng thái, cộng dồn burndown và trung bình giờ REVIEW của cycle-time.
+ */
+class TaskEventServiceTest {
+
+    private static final LocalDate D1 = LocalDate.of(2025, 5, 1);
+
+    private TaskEventRepository taskEventRepository;
+    private TaskDailyRollupRepository taskDailyRollupRepository;
+    private EntityManager entityManager;
+    private TaskEventService service;
+
+    // Mỗi câu upsert: tham số đặt theo tên (projectId, statDate, tên Metric)
+    private final List<Map<String, Object>> upserts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        taskEventRepository = mock(TaskEventRepository.class);
+        taskDailyRollupRepository = mock(TaskDailyRollupRepository.class);
+        entityManager = mock(EntityManager.class);
+        service = new TaskEventService(taskEventRepository, taskDailyRollupRepository, mock(TaskRepository.class),
+                mock(CurrentActorService.class), entityManager);
+
+        when(entityManager.createNativeQuery(anyString())).thenAnswer(inv -> {
+            Map<String, Object> params = new HashMap<>();
+            upserts.add(params);
+            return mock(Query.class, call -> {
+                if (call.getMethod().getName().equals("setParameter")) {
+                    params.put(call.getArgument(0), call.getArgument(1));
+                    return call.getMock();
+                }
+                return 0;
+            });
+        });
+    }
+
+    @Test
+    void recordCountsOpenCloseAndCompletion() {
+        service.record(task("t1", "p1", Task.Status.DONE), Task.Status.IN_PROGRESS, Task.Status.DONE);
+        service.record(task("t1", "p1", Task.Status.TODO), Task.Status.DONE, Task.Status.TODO);
+        service.record(task("t2", "p1", Task.Status.TODO), null, Task.Status.TODO);
+        service.record(task("t2", "p1", Task.Status.IN_PROGRESS), Task.Status.TODO, Task.Status.IN_PROGRESS);
+
+        assertThat(metrics(upserts.get(0))).containsOnly(Map.entry("CLOSED", 1L), Map.entry("COMPLETED", 1L));
+        assertThat(metrics(upserts.get(1))).containsOnly(Map.entry("OPENED", 1L), Map.entry("UNCOMPLETED", 1L));
+        assertThat(metrics(upserts.get(2))).containsOnly(Map.entry("OPENED", 1L));
+        // Mở -> mở: có sự kiện nhưng không đổi cột đếm nào -> không upsert
+        assertThat(upserts).hasSize(3);
+        verify(taskEventRepository, times(4)).save(any());
+    }
+
+    @Test
+    void sameStatusIsNotRecorded() {
+        service.record(task("t1", "p1", Task.Status.REVIEW), Task.Status.REVIEW, Task.Status.REVIEW);
+
+        verify(taskEventRepository, never()).save(any());
+        assertThat(upserts).isEmpty();
+    }
+
+    @Test
+    void leavingReviewAddsExitAndSecondsSinceLastEntry() {
+        LocalDateTime enteredAt = LocalDateTime.now().minusHours(2);
+        when(taskEventRepository.findFirstByTaskIdAndToStatusOrderByOccurredAtDesc("t1", Task.Status.REVIEW))
+                .thenReturn(Optional.of(TaskEvent.builder().taskId("t1").occurredAt(enteredAt).build()));
+
+        service.record(task("t1", "p1", Task.Status.DONE), Task.Status.REVIEW, Task.Status.DONE);
+
+        Map<String, Long> metrics = metrics(upserts.get(0));
+        assertThat(metrics).containsEntry("CLOSED", 1L).containsEntry("COMPLETED", 1L)
+                .containsEntry("REVIEW_EXITS", 1L);
+        assertThat(metrics.get("REVIEW_SECONDS")).isBetween(7200L, 7260L);
+    }
+
+    @Test
+    void leavingReviewWithoutEntryEventCountsNoExit() {
+        when(taskEventRepository.findFirstByTaskIdAndToStatusOrderByOccurredAtDesc(any(), any()))
+                .thenReturn(Optional.empty());
+
+        service.record(task("t1", "p1", Task.Status.IN_PROGRESS), Task.Status.REVIEW, Task.Status.IN_PROGRESS);
+
+        // REVIEW -> IN_PROGRESS vẫn mở; không có lần vào REVIEW nên không có gì để cộng
+        assertThat(upserts).isEmpty();
+    }
+
+    @Test
+    void recordAllMergesDeltasIntoOneUpsertPerProject() {
+        LocalDateTime enteredAt = LocalDateTime.now().minusMinutes(30);
+        when(taskEventRepository.findLatestByTaskIdInAndToStatus(List.of("t4"), "REVIEW"))
+                .thenReturn(List.of(TaskEvent.builder().taskId("t4").occurredAt(enteredAt).build()));
+
+        service.recordAll(List.of(
+                result(task("t1", "p1", Task.Status.DONE), Task.Status.TODO),
+                result(task("t2", "p1", Task.Status.IN_PROGRESS), Task.Status.DONE),
+                result(task("t3", "p1", Task.Status.CANCELLED), Task.Status.IN_PROGRESS),
+                result(task("t4", "p2", Task.Status.DONE), Task.Status.REVIEW),
+                result(task("t5", "p2", Task.Status.TODO), Task.Status.TODO)));
+
+        verify(taskEventRepository).saveAll(argThat((List<TaskEvent> events) -> events.size() == 4));
+        assertThat(upserts).hasSize(2);
+        Map<String, Long> p1 = metrics(byProject("p1"));
+        assertThat(p1).containsOnly(Map.entry("OPENED", 1L), Map.entry("CLOSED", 2L), Map.entry("COMPLETED", 1L),
+                Map.entry("UNCOMPLETED", 1L));
+        Map<String, Long> p2 = metrics(byProject("p2"));
+        assertThat(p2).containsEntry("CLOSED", 1L).containsEntry("COMPLETED", 1L).containsEntry("REVIEW_EXITS", 1L);
+        assertThat(p2.get("REVIEW_SECONDS")).isBetween(1800L, 1860L);
+    }
+
+    @Test
+    void recordAllWithoutTransitionsWritesNothing() {
+        service.recordAll(List.of(result(task("t1", "p1", Task.Status.TODO), Task.Status.TODO)));
+
+        verify(taskEventRepository, never()).saveAll(anyList());
+        verify(taskEventRepository, never()).findLatestByTaskIdInAndToStatus(any(), any());
+        assertThat(upserts).isEmpty();
+    }
+
+    @Test
+    void recordCreatedCountsOpenedPerProject() {
+        service.recordCreated(List.of(
+                task("t1", "p1", Task.Status.TODO),
+                task("t2", "p1", Task.Status.IN_PROGRESS),
+                task("t3", "p2", Task.Status.DONE)));
+
+        assertThat(metrics(byProject("p1"))).containsOnly(Map.entry("OPENED", 2L));
+        assertThat(metrics(byProject("p2"))).containsOnly(Map.entry("COMPLETED", 1L));
+    }
+
+    @Test
+    void burndownStartsFromBaselineAndCarriesEmptyDays() {
+        baseline(5, 2);
+        rollups(
+                rollup(D1, 3, 1, 1, 0, 0, 0),
+                rollup(D1.plusDays(2), 0, 2, 2, 1, 0, 0));
+
+        TaskBurndownResponse burndown = service.burndown("p1", D1, D1.plusDays(3));
+
+        assertThat(burndown.getPoints()).containsExactly(
+                new TaskBurndownResponse.Point(D1, 7, 3),
+                new TaskBurndownResponse.Point(D1.plusDays(1), 7, 3),
+                new TaskBurndownResponse.Point(D1.plusDays(2), 5, 4),
+                new TaskBurndownResponse.Point(D1.plusDays(3), 5, 4));
+        verify(taskDailyRollupRepository).baselineBefore("p1", D1);
+    }
+
+    @Test
+    void cycleTimeAveragesReviewHoursPerDayAndOverRange() {
+        rollups(
+                rollup(D1, 0, 0, 2, 0, 2, 9000),
+                rollup(D1.plusDays(2), 0, 0, 1, 0, 1, 3600),
+                rollup(D1.plusDays(3), 0, 0, 4, 0, 0, 0));
+
+        TaskCycleTimeResponse cycle = service.cycleTime("p1", D1, D1.plusDays(3));
+
+        assertThat(cycle.getCompleted()).isEqualTo(7);
+        assertThat(cycle.getReviewExits()).isEqualTo(3);
+        // 12600 giây / 3 lần = 1.1666.. giờ -> làm tròn 2 chữ số
+        assertThat(cycle.getMeanReviewHours()).isEqualByComparingTo("1.17");
+        List<TaskCycleTimeResponse.Point> points = cycle.getPoints();
+        assertThat(points).hasSize(4);
+        assertThat(points.get(0).getMeanReviewHours()).isEqualByComparingTo("1.25");
+        assertThat(points.get(1)).isEqualTo(new TaskCycleTimeResponse.Point(D1.plusDays(1), 0, 0, null));
+        assertThat(points.get(2).getMeanReviewHours()).isEqualByComparingTo("1.00");
+        assertThat(points.get(3).getCompleted()).isEqualTo(4);
+        assertThat(points.get(3).getMeanReviewHours()).isNull();
+    }
+
+    @Test
+    void cycleTimeWithoutReviewExitsHasNoMean() {
+        rollups(rollup(D1, 1, 0, 0, 0, 0, 0));
+
+        assertThat(service.cycleTime("p1", D1, D1).getMeanReviewHours()).isNull();
+    }
+
+    @Test
+    void rangeIsValidatedAndDefaultsToLast30Days() {
+        assertThatThrownBy(() -> service.burndown("p1", D1.plusDays(1), D1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("from must not be after to");
+        assertThatThrownBy(() -> service.cycleTime("p1", D1, D1.plusDays(366)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Date range must not exceed 366 days");
+
+        TaskCycleTimeResponse cycle = service.cycleTime("p1", null, D1);
+        assertThat(cycle.getFrom()).isEqualTo(D1.minusDays(29));
+        assertThat(cycle.getPoints()).hasSize(30);
+    }
+
+    private static Task task(String id, String projectId, Task.Status status) {
+        return Task.builder().id(id).projectId(projectId).status(status).build();
+    }
+
+    private static TaskStateWriter.Result result(Task task, Task.Status previousStatus) {
+        return new TaskStateWriter.Result(task, previousStatus);
+    }
+
+    private static TaskDailyRollup rollup(LocalDate date, long opened, long closed, long completed, long uncompleted,
+            long reviewExits, long reviewSeconds) {
+        return TaskDailyRollup.builder()
+                .projectId("p1")
+                .statDate(date)
+                .opened(opened)
+                .closed(closed)
+                .completed(completed)
+                .uncompleted(uncompleted)
+                .reviewExits(reviewExits)
+                .reviewSeconds(reviewSeconds)
+                .build();
+    }
+
+    private void rollups(TaskDailyRollup... rows) {
+        when(taskDailyRollupRepository.findByProjectIdAndStatDateBetweenOrderByStatDateAsc(eq("p1"), any(), any()))
+                .thenReturn(List.of(rows));
+    }
+
+    private void baseline(long open, long done) {
+        TaskDailyRollupRepository.Baseline baseline = mock(TaskDailyRollupRepository.Baseline.class);
+        when(baseline.getOpen()).thenReturn(open);
+        when(baseline.getDone()).thenReturn(done);
+        when(taskDailyRollupRepository.baselineBefore(eq("p1"), any())).thenReturn(baseline);
+    }
+
+    private Map<String, Object> byProject(String projectId) {
+        return upserts.stream().filter(u -> projectId.equals(u.get("projectId"))).findFirst().orElseThrow();
+    }
+
+    private static Map<String, Long> metrics(Map<String, Object> params) {
+        Map<String, Long> metrics = new HashMap<>();
+        for (TaskDailyRollup.Metric m : TaskDailyRollup.Metric.values()) {
+            if (params.containsKey(m.name())) {
+                metrics.put(m.name(), (Long) params.get(m.name()));
+            }
+        }
+        return metrics;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.labOdc.Service.Implement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.example.labOdc.DTO.BulkTaskDTO;
+import com.example.labOdc.DTO.Response.BulkTaskResultResponse;
+import com.example.labOdc.DTO.Response.BulkTaskResultResponse.Outcome;
+import com.example.labOdc.Model.Task;
+import com.example.labOdc.Repository.TaskRepository;
+
+/**
+ * Thao tác hàng loạt: mỗi task nhận đúng 1 kết quả theo thứ tự gửi lên
+ * (UPDATED / NOT_FOUND / INVALID_STATE / CONFLICT), chỉ task hợp lệ mới vào câu UPDATE.
+ */
+class TaskServiceImplBulkUpdateTest {
+
+    private TaskRepository taskRepository;
+    private TaskBoardSummaryCache taskBoardSummaryCache;
+    private TaskEventService taskEventService;
+    private TaskStateWriter taskStateWriter;
+    private TaskServiceImpl service;
+
+    private final List<TaskRepository.TaskState> states = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        taskRepository = mock(TaskRepository.class);
+        taskBoardSummaryCache = mock(TaskBoardSummaryCache.class);
+        taskEventService = mock(TaskEventService.class);
+        taskStateWriter = mock(TaskStateWriter.class);
+        service = new TaskServiceImpl(taskRepository, taskBoardSummaryCache, taskEventService, taskStateWriter);
+        when(taskRepository.findStatesByIdIn(any())).thenReturn(states);
+    }
+
+    @Test
+    void eachTaskIsClassifiedInRequestOrder() {
+        state("t1", "p1", Task.Status.TODO, 3);
+        state("t3", "p1", Task.Status.DONE, 9);
+        state("t4", "p2", Task.Status.REVIEW, 5);
+        // t4 hợp lệ lúc kiểm tra nhưng bị đổi trước khi UPDATE -> writer không trả về
+        when(taskStateWriter.applyAll(any(), any())).thenReturn(List.of(
+                updated("t1", "p1", Task.Status.IN_PROGRESS, 4, Task.Status.TODO)));
+
+        BulkTaskResultResponse result = service.bulkUpdate(BulkTaskDTO.builder()
+                .operation(BulkTaskDTO.Operation.ASSIGN)
+                .talentId(" talent-1 ")
+                .taskIds(List.of("t1", "t2", "t3", "t1", "t4"))
+                .build());
+
+        assertThat(result.getRequested()).isEqualTo(4);
+        assertThat(result.getUpdated()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.getItems()).extracting(BulkTaskResultResponse.Item::getTaskId,
+                BulkTaskResultResponse.Item::getOutcome).containsExactly(
+                        tuple("t1", Outcome.UPDATED),
+                        tuple("t2", Outcome.NOT_FOUND),
+                        tuple("t3", Outcome.INVALID_STATE),
+                        tuple("t4", Outcome.CONFLICT));
+
+        // UPDATED: giá trị sau cập nhật; INVALID_STATE: giá trị hiện tại để client làm mới
+        BulkTaskResultResponse.Item t1 = result.getItems().get(0);
+        assertThat(t1.getStatus()).isEqualTo(Task.Status.IN_PROGRESS);
+        assertThat(t1.getVersion()).isEqualTo(4L);
+        BulkTaskResultResponse.Item t3 = result.getItems().get(2);
+        assertThat(t3.getStatus()).isEqualTo(Task.Status.DONE);
+        assertThat(t3.getVersion()).isEqualTo(9L);
+        assertThat(result.getItems().get(1).getVersion()).isNull();
+        assertThat(result.getItems().get(3).getStatus()).isNull();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<String>> eligible = ArgumentCaptor.forClass(Collection.class);
+        verify(taskStateWriter).applyAll(eligible.capture(), any());
+        assertThat(eligible.getValue()).containsExactly("t1", "t4");
+        verify(taskEventService).recordAll(argThat(r -> r.size() == 1));
+        verify(taskBoardSummaryCache).evictAfterCommit("p1");
+        verify(taskBoardSummaryCache, never()).evictAfterCommit("p2");
+    }
+
+    @Test
+    void statusHasNoSourceStateRestriction() {
+        state("t1", "p1", Task.Status.DONE, 1);
+        state("t2", "p1", Task.Status.CANCELLED, 1);
+        when(taskStateWriter.applyAll(any(), any())).thenReturn(List.of(
+                updated("t1", "p1", Task.Status.TODO, 2, Task.Status.DONE),
+                updated("t2", "p1", Task.Status.TODO, 2, Task.Status.CANCELLED)));
+
+        BulkTaskResultResponse result = service.bulkUpdate(BulkTaskDTO.builder()
+                .operation(BulkTaskDTO.Operation.STATUS)
+                .status(Task.Status.TODO)
+                .taskIds(List.of("t1", "t2"))
+                .build());
+
+        assertThat(result.getItems()).extracting(BulkTaskResultResponse.Item::getOutcome)
+                .containsOnly(Outcome.UPDATED);
+        verify(taskBoardSummaryCache).evictAfterCommit("p1");
+    }
+
+    @Test
+    void nothingEligibleStillReportsEveryTask() {
+        state("t1", "p1", Task.Status.CANCELLED, 2);
+        when(taskStateWriter.applyAll(any(), any())).thenReturn(List.of());
+
+        BulkTaskResultResponse result = service.bulkUpdate(BulkTaskDTO.builder()
+                .operation(BulkTaskDTO.Operation.ASSIGN)
+                .talentId("talent-1")
+                .taskIds(List.of("t1", "missing"))
+                .build());
+
+        assertThat(result.getItems()).extracting(BulkTaskResultResponse.Item::getOutcome)
+                .containsExactly(Outcome.INVALID_STATE, Outcome.NOT_FOUND);
+        verify(taskStateWriter).applyAll(eq(List.of()), any());
+        verify(taskBoardSummaryCache, never()).evictAfterCommit(any());
+    }
+
+    @Test
+    void missingOperationValueIsRejectedBeforeAnyQuery() {
+        assertThatThrownBy(() -> service.bulkUpdate(BulkTaskDTO.builder()
+                .operation(BulkTaskDTO.Operation.ASSIGN)
+                .talentId(" ")
+                .taskIds(List.of("t1"))
+                .build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("talentId is required for ASSIGN");
+        assertThatThrownBy(() -> service.bulkUpdate(BulkTaskDTO.builder()
+                .operation(BulkTaskDTO.Operation.STATUS)
+                .taskIds(List.of("t1"))
+                .build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("status is required for STATUS");
+
+        verifyNoInteractions(taskRepository, taskStateWriter);
+    }
+
+    private void state(String id, String projectId, Task.Status status, long version) {
+        TaskRepository.TaskState state = mock(TaskRepository.TaskState.class);
+        when(state.getId()).thenReturn(id);
+        when(state.getProjectId()).thenReturn(projectId);
+        when(state.getStatus()).thenReturn(status);
+        when(state.getVersion()).thenReturn(version);
+        states.add(state);
+    }
+
+    private static TaskStateWriter.Result updated(String id, String projectId, Task.Status status, long version,
+            Task.Status previousStatus) {
+        Task task = Task.builder().id(id).projectId(projectId).status(status).version(version).build();
+        return new TaskStateWriter.Result(task, previousStatus);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.labOdc.Service.Implement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.example.labOdc.Exception.ResourceNotFoundException;
+import com.example.labOdc.Exception.VersionConflictException;
+import com.example.labOdc.Model.Task;
+import com.example.labOdc.Repository.TaskRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+
+/**
+ * UPDATE có điều kiện: không khớp dòng nào thì lỗi phải phản ánh đúng lý do (version / trạng thái / người giao).
+ */
+class TaskStateWriterTest {
+
+    private EntityManager entityManager;
+    private TaskRepository taskRepository;
+    private Query query;
+    private TaskStateWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        entityManager = mock(EntityManager.class);
+        taskRepository = mock(TaskRepository.class);
+        query = mock(Query.class);
+        when(entityManager.createNativeQuery(anyString(), eq(Task.TRANSITION_MAPPING))).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        writer = new TaskStateWriter(entityManager, taskRepository);
+    }
+
+    @Test
+    void staleVersionIsReportedAsConflictWithCurrentVersion() {
+        when(query.getResultList()).thenReturn(List.of());
+        state("t1", Task.Status.IN_PROGRESS, "talent-1", 7);
+
+        assertThatThrownBy(() -> writer.apply(TaskStateWriter.Change.of("t1")
+                .from(Task.Status.IN_PROGRESS)
+                .set(TaskStateWriter.Field.STATUS, Task.Status.REVIEW)
+                .expectVersion(5L)))
+                .isInstanceOf(VersionConflictException.class)
+                .extracting(ex -> ((VersionConflictException) ex).getCurrentVersion())
+                .isEqualTo(7L);
+
+        String sql = sql();
+        assertThat(sql).contains("t.version = :expectedVersion").contains("version = t.version + 1");
+        verify(query).setParameter("expectedVersion", 5L);
+    }
+
+    @Test
+    void disallowedFromStatusIsRejectedAsIllegalState() {
+        when(query.getResultList()).thenReturn(List.of());
+        state("t1", Task.Status.DONE, "talent-1", 3);
+
+        assertThatThrownBy(() -> writer.apply(TaskStateWriter.Change.of("t1")
+                .from(Task.Status.IN_PROGRESS)
+                .set(TaskStateWriter.Field.STATUS, Task.Status.REVIEW)
+                .expectVersion(3L)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("DONE");
+
+        assertThat(sql()).contains("prev.status IN (:allowedFrom)");
+        verify(query).setParameter("allowedFrom", List.of("IN_PROGRESS"));
+    }
+
+    @Test
+    void otherAssigneeIsRejected() {
+        when(query.getResultList()).thenReturn(List.of());
+        state("t1", Task.Status.IN_PROGRESS, "talent-2", 3);
+
+        assertThatThrownBy(() -> writer.apply(TaskStateWriter.Change.of("t1")
+                .assignedTo("talent-1")
+                .set(TaskStateWriter.Field.STATUS, Task.Status.REVIEW)))
+                .isInstanceOf(SecurityException.class);
+    }
+
+    @Test
+    void missingTaskIsNotFound() {
+        when(query.getResultList()).thenReturn(List.of());
+        when(taskRepository.findStateById("t1")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> writer.apply(TaskStateWriter.Change.of("t1")
+                .set(TaskStateWriter.Field.STATUS, Task.Status.REVIEW)))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void matchedRowReturnsUpdatedTaskAndPreviousStatus() {
+        Task updated = Task.builder().id("t1").status(Task.Status.REVIEW).build();
+        when(query.getResultList()).thenReturn(List.<Object>of(new Object[] { updated, "IN_PROGRESS" }));
+
+        TaskStateWriter.Result result = writer.apply(TaskStateWriter.Change.of("t1")
+                .from(Task.Status.IN_PROGRESS)
+                .set(TaskStateWriter.Field.STATUS, Task.Status.REVIEW)
+                .expectVersion(2L));
+
+        assertThat(result.task()).isSameAs(updated);
+        assertThat(result.previousStatus()).isEqualTo(Task.Status.IN_PROGRESS);
+        verify(query).setParameter("STATUS", "REVIEW");
+    }
+
+    @Test
+    void applyAllReturnsOnlyRowsThatMatchedTheCondition() {
+        Task moved = Task.builder().id("t1").status(Task.Status.DONE).build();
+        when(query.getResultList()).thenReturn(List.<Object>of(new Object[] { moved, "REVIEW" }));
+
+        List<TaskStateWriter.Result> results = writer.applyAll(List.of("t1", "t2"), TaskStateWriter.Change.forAll()
+                .from(Task.Status.REVIEW)
+                .set(TaskStateWriter.Field.STATUS, Task.Status.DONE));
+
+        assertThat(results).extracting(r -> r.task().getId()).containsExactly("t1");
+        verify(query).setParameter("ids", List.of("t1", "t2"));
+    }
+
+    private void state(String id, Task.Status status, String assignedTo, long version) {
+        TaskRepository.TaskState state = mock(TaskRepository.TaskState.class);
+        when(state.getId()).thenReturn(id);
+        when(state.getStatus()).thenReturn(status);
+        when(state.getAssignedTo()).thenReturn(assignedTo);
+        when(state.getVersion()).thenReturn(version);
+        when(taskRepository.findStateById(id)).thenReturn(Optional.of(state));
+    }
+
+    private String sql() {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(entityManager).createNativeQuery(sql.capture(), eq(Task.TRANSITION_MAPPING));
+        return sql.getValue();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.labOdc.Service.Implement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Mốc thu hồi theo user so với iat (giây) của JWT.
+ */
+class TokenRevocationServiceTest {
+
+    private static final Instant REVOKED_AT = Instant.parse("2025-03-01T10:00:00.750Z");
+
+    private TokenRevocationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TokenRevocationService();
+        service.bloomBits = 1024;
+    }
+
+    @Test
+    void tokenIssuedInSameSecondAsRevocationIsRejected() {
+        service.revokeUser("u1", REVOKED_AT);
+
+        // iat của JWT bị cắt còn giây: 10:00:00 dù token phát hành lúc 10:00:00.200
+        assertThat(service.isRevoked(null, "u1", Instant.parse("2025-03-01T10:00:00Z"))).isTrue();
+        assertThat(service.isRevoked(null, "u1", Instant.parse("2025-03-01T09:59:59Z"))).isTrue();
+        assertThat(service.isRevoked(null, "u1", null)).isTrue();
+    }
+
+    @Test
+    void tokenIssuedAfterRevocationSecondIsAccepted() {
+        service.revokeUser("u1", REVOKED_AT);
+
+        assertThat(service.isRevoked(null, "u1", Instant.parse("2025-03-01T10:00:01Z"))).isFalse();
+    }
+
+    @Test
+    void revocationIsKeyedByUserId() {
+        service.revokeUser("u1", REVOKED_AT);
+
+        assertThat(service.isRevoked(null, "u2", Instant.parse("2025-03-01T09:00:00Z"))).isFalse();
+        assertThat(service.isRevoked(null, null, Instant.parse("2025-03-01T09:00:00Z"))).isFalse();
+    }
+
+    @Test
+    void reactivationClearsRevocation() {
+        service.revokeUser("u1", REVOKED_AT);
+        service.clearUser("u1");
+
+        assertThat(service.isRevoked(null, "u1", Instant.parse("2025-03-01T10:00:00Z"))).isFalse();
+    }
+
+    @Test
+    void revokedJtiIsRejectedUntilPruned() {
+        service.revokeToken("jti-1", Instant.now().plusSeconds(60));
+        service.revokeToken("jti-old", Instant.now().minusSeconds(60));
+
+        assertThat(service.isRevoked("jti-1", "u1", Instant.now())).isTrue();
+        service.prune();
+        assertThat(service.isRevoked("jti-1", "u1", Instant.now())).isTrue();
+        assertThat(service.isRevoked("jti-old", "u1", Instant.now())).isFalse();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.labOdc.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import com.example.labOdc.Model.PermissionEntity;
+import com.example.labOdc.Model.RoleEntity;
+import com.example.labOdc.Model.UserRole;
+import com.example.labOdc.Repository.PermissionRepository;
+import com.example.labOdc.Repository.RoleRepository;
+import com.example.labOdc.Service.Implement.RolePermissionCache;
+
+/**
+ * Seeder ghi xong role_permissions thì registry phải được thay bằng snapshot mới.
+ */
+class RolePermissionSeederTest {
+
+    @Test
+    void seederRefreshReplacesRolesAndPermissionsInRegistry() throws Exception {
+        PermissionRepository permissionRepository = mock(PermissionRepository.class);
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        when(permissionRepository.findByCode(anyString()))
+                .thenAnswer(inv -> Optional.of(PermissionEntity.builder().code(inv.getArgument(0)).build()));
+        when(roleRepository.findByRole(any()))
+                .thenAnswer(inv -> Optional.of(RoleEntity.builder().role(inv.getArgument(0)).build()));
+        when(roleRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        RoleEntity oldMentor = role(UserRole.MENTOR, "MENTOR_OLD");
+        RoleEntity newMentor = role(UserRole.MENTOR, "MENTOR_ASSIGN_TASK", "MENTOR_REVIEW_TASK");
+        RoleEntity newTalent = role(UserRole.TALENT, "TALENT_VIEW");
+        when(roleRepository.findAllWithPermissions())
+                .thenReturn(List.of(oldMentor))
+                .thenReturn(List.of(newMentor, newTalent));
+
+        RolePermissionCache cache = new RolePermissionCache(roleRepository);
+        assertThat(cache.findRole(UserRole.MENTOR)).containsSame(oldMentor);
+        assertThat(cache.permissionsOf(UserRole.MENTOR)).containsExactly("MENTOR_OLD");
+
+        new RolePermissionSeeder(permissionRepository, roleRepository, cache).seedRolesPermissions().run(null);
+
+        assertThat(cache.findRole(UserRole.MENTOR)).containsSame(newMentor);
+        assertThat(cache.findRole(UserRole.TALENT)).containsSame(newTalent);
+        assertThat(cache.permissionsOf(UserRole.MENTOR))
+                .containsExactlyInAnyOrder("MENTOR_ASSIGN_TASK", "MENTOR_REVIEW_TASK");
+        assertThat(cache.permissionsOf(Set.of(UserRole.MENTOR, UserRole.TALENT)))
+                .containsExactlyInAnyOrder("MENTOR_ASSIGN_TASK", "MENTOR_REVIEW_TASK", "TALENT_VIEW");
+
+        // Nạp lại đúng 1 lần, sau lần save role cuối cùng; các lần tra sau không chạm DB
+        InOrder order = inOrder(roleRepository);
+        order.verify(roleRepository, times(UserRole.values().length)).save(any());
+        order.verify(roleRepository).findAllWithPermissions();
+        verify(roleRepository, times(2)).findAllWithPermissions();
+    }
+
+    private static RoleEntity role(UserRole role, String... codes) {
+        RoleEntity entity = RoleEntity.builder().role(role).build();
+        for (String code : codes) {
+            entity.getPermissions().add(PermissionEntity.builder().code(code).build());
+        }
+        return entity;
+    }
+}